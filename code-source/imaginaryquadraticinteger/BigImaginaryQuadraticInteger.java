@@ -0,0 +1,672 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * Defines objects representing imaginary quadratic integers of arbitrary size. 
+ * As long as both parts fit in 64 bits, the number is held as a {@link 
+ * LongImaginaryQuadraticInteger} and the arithmetic is done on longs, with 
+ * overflow checking. Only when an operation overflows is it done again with 
+ * {@link BigInteger}, and results that fit in 64 bits again go back to being 
+ * held in longs. So exploring numbers of large norm doesn't pay for BigInteger 
+ * arithmetic on the many numbers that are still small.
+ * @author Alonso del Arte
+ */
+public class BigImaginaryQuadraticInteger implements AlgebraicInteger {
+    
+    private static final BigInteger TWO = BigInteger.valueOf(2);
+    
+    /**
+     * The number itself, if both parts fit in a long; null otherwise.
+     */
+    private final LongImaginaryQuadraticInteger small;
+    
+    /**
+     * The real part of the imaginary quadratic integer, multiplied by 2 when 
+     * the denominator is 2. Null if {@link #small} is not.
+     */
+    private final BigInteger realPartMult;
+    
+    /**
+     * The imaginary part of the imaginary quadratic integer, divided by 
+     * &radic;<i>d</i> and multiplied by 2 when the denominator is 2. Null if 
+     * {@link #small} is not.
+     */
+    private final BigInteger imagPartMult;
+    
+    private final ImaginaryQuadraticRing imagQuadRing;
+    
+    private final int denominator;
+    
+    /**
+     * Gives the algebraic degree of the algebraic integer. Should not be higher 
+     * than 2.
+     * @return 0 if the algebraic integer is 0, 1 if it's a purely real integer, 
+     * 2 otherwise.
+     */
+    @Override
+    public int algebraicDegree() {
+        if (this.small != null) {
+            return this.small.algebraicDegree();
+        }
+        if (this.imagPartMult.signum() == 0) {
+            return 1;
+        } else {
+            return 2;
+        }
+    }
+    
+    /**
+     * Calculates the trace of the imaginary quadratic integer (twice the real 
+     * part).
+     * @return Twice the real part. For example, given 5/2 + sqrt(-7)/2, the 
+     * trace is 5.
+     * @throws ArithmeticException If the trace doesn't fit in a long. Use 
+     * {@link #bigTrace()} instead if that might happen.
+     */
+    @Override
+    public long trace() {
+        return longValueOf(this.bigTrace(), "trace");
+    }
+    
+    /**
+     * Calculates the trace of the imaginary quadratic integer (twice the real 
+     * part) without regard for the range of long.
+     * @return Twice the real part. For example, given 5/2 + sqrt(-7)/2, the 
+     * trace is 5.
+     */
+    public BigInteger bigTrace() {
+        if (this.denominator == 2) {
+            return this.getRealPartMult();
+        } else {
+            return this.getRealPartMult().shiftLeft(1);
+        }
+    }
+    
+    /**
+     * Calculates the norm of the imaginary quadratic integer.
+     * @return The norm. For example, given 5/2 + sqrt(-7)/2, the norm would be 
+     * 8.
+     * @throws ArithmeticException If the norm doesn't fit in a long. Use 
+     * {@link #bigNorm()} instead if that might happen.
+     */
+    @Override
+    public long norm() {
+        if (this.small != null) {
+            try {
+                return this.small.norm();
+            } catch (ArithmeticException ae) {
+                // The norm can still fit even if four times the norm doesn't
+            }
+        }
+        return longValueOf(this.bigNorm(), "norm");
+    }
+    
+    /**
+     * Calculates the norm of the imaginary quadratic integer without regard for 
+     * the range of long.
+     * @return The norm. For example, given 5/2 + sqrt(-7)/2, the norm would be 
+     * 8. Never negative.
+     */
+    public BigInteger bigNorm() {
+        BigInteger re = this.getRealPartMult();
+        BigInteger im = this.getImagPartMult();
+        BigInteger N = re.multiply(re).add(BigInteger.valueOf(this.imagQuadRing.absNegRad).multiply(im).multiply(im));
+        if (this.denominator == 2) {
+            N = N.shiftRight(2);
+        }
+        return N;
+    }
+    
+    private long longValueOf(BigInteger num, String quantity) {
+        if (num.bitLength() > 63) {
+            throw new ArithmeticException("The " + quantity + " of " + this.toASCIIString() + ", " + num + ", doesn't fit in a long.");
+        }
+        return num.longValue();
+    }
+    
+    /**
+     * Gives the coefficients for the minimal polynomial of the algebraic 
+     * integer.
+     * @return An array of three integers, as for {@link 
+     * ImaginaryQuadraticInteger#minPolynomial()}.
+     * @throws ArithmeticException If the norm or the trace doesn't fit in a 
+     * long.
+     */
+    @Override
+    public long[] minPolynomial() {
+        if (this.small != null) {
+            return this.small.minPolynomial();
+        }
+        long[] coeffs = {0, 1, 0};
+        if (this.imagPartMult.signum() == 0) {
+            coeffs[0] = longValueOf(this.realPartMult.negate(), "constant coefficient");
+        } else {
+            coeffs[0] = this.norm();
+            coeffs[1] = longValueOf(this.bigTrace().negate(), "linear coefficient");
+            coeffs[2] = 1;
+        }
+        return coeffs;
+    }
+    
+    /**
+     * Gives the minimal polynomial in a format suitable for plain text or TeX.
+     * @return A String. If the algebraic degree is 2, the String should start 
+     * off with "x^2". For example, for 5/2 + sqrt(-7)/2, the result would be 
+     * "x^2 - 5x + 8".
+     */
+    @Override
+    public String minPolynomialString() {
+        switch (this.algebraicDegree()) {
+            case 0:
+                return "x";
+            case 1:
+                BigInteger constant = this.getRealPartMult().negate();
+                if (constant.signum() < 0) {
+                    return "x - " + constant.negate();
+                } else {
+                    return "x + " + constant;
+                }
+            default:
+                String polString = "x^2 ";
+                BigInteger linear = this.bigTrace().negate();
+                if (linear.signum() < 0) {
+                    polString += "- ";
+                } else if (linear.signum() > 0) {
+                    polString += "+ ";
+                }
+                if (linear.abs().equals(BigInteger.ONE)) {
+                    polString += "x ";
+                } else if (linear.signum() != 0) {
+                    polString += linear.abs() + "x ";
+                }
+                return polString + "+ " + this.bigNorm();
+        }
+    }
+    
+    /**
+     * Computes the conjugate of the given algebraic integer.
+     * @return The conjugate. For example, given 5/2 + sqrt(-7)/2, the conjugate 
+     * would be 5/2 - sqrt(-7)/2.
+     */
+    public BigImaginaryQuadraticInteger conjugate() {
+        if (this.small != null && this.small.imagPartMult != Long.MIN_VALUE) {
+            return new BigImaginaryQuadraticInteger(this.small.conjugate());
+        }
+        return new BigImaginaryQuadraticInteger(this.getRealPartMult(), this.getImagPartMult().negate(), this.imagQuadRing, this.denominator);
+    }
+    
+    /**
+     * Gets the real part of the imaginary quadratic integer, multiplied by 2 
+     * when necessary.
+     * @return The real part, multiplied by 2 if the denominator is 2. For 
+     * example, for 3/2 + sqrt(-7)/2, this would be 3.
+     */
+    public BigInteger getRealPartMult() {
+        if (this.small != null) {
+            return BigInteger.valueOf(this.small.realPartMult);
+        }
+        return this.realPartMult;
+    }
+    
+    /**
+     * Gets the imaginary part of the imaginary quadratic integer, divided by 
+     * sqrt(d), and multiplied by 2 when necessary.
+     * @return The imaginary part, multiplied by 2 if the denominator is 2. For 
+     * example, for 3/2 + sqrt(-7)/2, this would be 1.
+     */
+    public BigInteger getImagPartMult() {
+        if (this.small != null) {
+            return BigInteger.valueOf(this.small.imagPartMult);
+        }
+        return this.imagPartMult;
+    }
+    
+    /**
+     * Gets the imaginary quadratic ring which this imaginary quadratic integer 
+     * belongs to.
+     * @return An ImaginaryQuadraticRing object.
+     */
+    public ImaginaryQuadraticRing getRing() {
+        return this.imagQuadRing;
+    }
+    
+    /**
+     * Gets the denominator of the imaginary quadratic integer when represented 
+     * as a fraction in lowest terms.
+     * @return 2 only in the case of so-called "half-integers," always 1 
+     * otherwise.
+     */
+    public int getDenominator() {
+        return this.denominator;
+    }
+    
+    /**
+     * Tells whether this number is currently held in longs.
+     * @return True if both parts fit in a long, false otherwise.
+     */
+    public boolean fitsInLong() {
+        return this.small != null;
+    }
+    
+    /**
+     * Gives the same number as a {@link LongImaginaryQuadraticInteger}.
+     * @return A LongImaginaryQuadraticInteger with the same value.
+     * @throws ArithmeticException If either part doesn't fit in a long.
+     */
+    public LongImaginaryQuadraticInteger toLongImaginaryQuadraticInteger() {
+        if (this.small == null) {
+            throw new ArithmeticException(this.toASCIIString() + " doesn't fit in 64 bits.");
+        }
+        return this.small;
+    }
+    
+    /**
+     * Gives a number of this class with the same value as an {@link 
+     * ImaginaryQuadraticInteger}.
+     * @param num The number. For example, 5/2 + sqrt(-7)/2.
+     * @return A BigImaginaryQuadraticInteger with the same value, held in 
+     * longs.
+     */
+    public static BigImaginaryQuadraticInteger valueOf(ImaginaryQuadraticInteger num) {
+        return new BigImaginaryQuadraticInteger(LongImaginaryQuadraticInteger.valueOf(num));
+    }
+    
+    /**
+     * Gives a number of this class with the same value as a {@link 
+     * LongImaginaryQuadraticInteger}.
+     * @param num The number. For example, 5/2 + sqrt(-7)/2.
+     * @return A BigImaginaryQuadraticInteger with the same value, held in 
+     * longs.
+     */
+    public static BigImaginaryQuadraticInteger valueOf(LongImaginaryQuadraticInteger num) {
+        return new BigImaginaryQuadraticInteger(num);
+    }
+    
+    /**
+     * A text representation of the imaginary quadratic integer, in the same 
+     * format as {@link ImaginaryQuadraticInteger#toString()}.
+     * @return A String. For example, "5/2 + &radic;(-7)/2".
+     */
+    @Override
+    public String toString() {
+        BigInteger re = this.getRealPartMult();
+        BigInteger im = this.getImagPartMult();
+        String radical = "\u221A(" + this.imagQuadRing.negRad + ")";
+        String imagCoeff = "";
+        if (!im.abs().equals(BigInteger.ONE)) {
+            imagCoeff = im.abs().toString();
+        }
+        String IQIString;
+        if (this.denominator == 2) {
+            IQIString = re + "/2 " + (im.signum() < 0 ? "- " : "+ ") + imagCoeff + radical + "/2";
+        } else if (re.signum() == 0) {
+            if (im.signum() == 0) {
+                IQIString = "0";
+            } else {
+                IQIString = (im.signum() < 0 ? "-" : "") + imagCoeff + radical;
+            }
+        } else {
+            IQIString = re.toString();
+            if (im.signum() != 0) {
+                IQIString += (im.signum() < 0 ? " - " : " + ") + imagCoeff + radical;
+            }
+        }
+        if (this.imagQuadRing.negRad == -1) {
+            IQIString = IQIString.replace("\u221A(-1)", "i");
+        }
+        return IQIString;
+    }
+    
+    /**
+     * A text representation of the imaginary quadratic integer using only ASCII 
+     * characters.
+     * @return A String. For example, "5/2 + sqrt(-7)/2".
+     */
+    @Override
+    public String toASCIIString() {
+        return this.toString().replace("\u221A", "sqrt");
+    }
+    
+    /**
+     * A text representation of the imaginary quadratic integer suitable for use 
+     * in a TeX document.
+     * @return A String. For example, for 1/2 + sqrt(-7)/2, the result should be 
+     * "\frac{1}{2} + \frac{\sqrt{-7}}{2}".
+     */
+    @Override
+    public String toTeXString() {
+        if (this.imagQuadRing.negRad == -1) {
+            return this.toString();
+        }
+        BigInteger re = this.getRealPartMult();
+        BigInteger im = this.getImagPartMult();
+        String radical = "\\sqrt{" + this.imagQuadRing.negRad + "}";
+        String imagCoeff = "";
+        if (!im.abs().equals(BigInteger.ONE)) {
+            imagCoeff = im.abs() + " ";
+        }
+        if (this.denominator == 2) {
+            return (re.signum() < 0 ? "-" : "") + "\\frac{" + re.abs() + "}{2} " + (im.signum() < 0 ? "- " : "+ ") + "\\frac{" + imagCoeff + radical + "}{2}";
+        }
+        if (im.signum() == 0) {
+            return re.toString();
+        }
+        if (re.signum() == 0) {
+            return (im.signum() < 0 ? "-" : "") + imagCoeff + radical;
+        }
+        return re + (im.signum() < 0 ? " - " : " + ") + imagCoeff + radical;
+    }
+    
+    /**
+     * A text representation of the imaginary quadratic integer suitable for use 
+     * in an HTML document.
+     * @return A String. For example, for 1/2 + sqrt(-7)/2, the result should be 
+     * "1/2 + &amp;radic;(&amp;minus;7)/2".
+     */
+    @Override
+    public String toHTMLString() {
+        String IQIString = this.toString();
+        IQIString = IQIString.replace("i", "<i>i</i>");
+        IQIString = IQIString.replace("\u221A", "&radic;");
+        IQIString = IQIString.replace("-", "&minus;");
+        return IQIString;
+    }
+    
+    /**
+     * Returns a hash code value for the imaginary quadratic integer. A number 
+     * held in longs hashes the same as the equal {@link 
+     * LongImaginaryQuadraticInteger}.
+     * @return An integer.
+     */
+    @Override
+    public int hashCode() {
+        if (this.small != null) {
+            return this.small.hashCode();
+        }
+        if (this.imagPartMult.signum() == 0) {
+            return Objects.hash(this.realPartMult, this.imagPartMult, -1, this.denominator);
+        } else {
+            return Objects.hash(this.realPartMult, this.imagPartMult, this.imagQuadRing.negRad, this.denominator);
+        }
+    }
+    
+    /**
+     * Compares whether an object is arithmetically equal to this imaginary 
+     * quadratic integer.
+     * @param obj The object to compare this to.
+     * @return True if the object is a BigImaginaryQuadraticInteger 
+     * arithmetically equal to this one, false otherwise. Purely real integers 
+     * are equal regardless of the ring.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final BigImaginaryQuadraticInteger other = (BigImaginaryQuadraticInteger) obj;
+        if (this.small != null) {
+            return this.small.equals(other.small);
+        }
+        if (other.small != null) {
+            return false;
+        }
+        if (!this.realPartMult.equals(other.realPartMult)) {
+            return false;
+        }
+        if (!this.imagPartMult.equals(other.imagPartMult)) {
+            return false;
+        }
+        if (this.denominator != other.denominator) {
+            return false;
+        }
+        if (this.imagPartMult.signum() == 0) {
+            return true;
+        }
+        return (this.imagQuadRing.negRad == other.imagQuadRing.negRad);
+    }
+    
+    /**
+     * Figures out which ring the result of an operation on two numbers goes 
+     * in, by the same rules as for {@link 
+     * LongImaginaryQuadraticInteger}.
+     * @param other The other operand.
+     * @return The ring of whichever operand has a nonzero imaginary part, or 
+     * of this number if neither does.
+     * @throws AlgebraicDegreeOverflowException If both operands have nonzero 
+     * imaginary parts and come from different rings.
+     */
+    private ImaginaryQuadraticRing ringFor(BigImaginaryQuadraticInteger other) {
+        boolean thisReal = this.getImagPartMult().signum() == 0;
+        boolean otherReal = other.getImagPartMult().signum() == 0;
+        if (thisReal && !otherReal) {
+            return other.imagQuadRing;
+        }
+        if (!otherReal && this.imagQuadRing.negRad != other.imagQuadRing.negRad) {
+            throw new AlgebraicDegreeOverflowException("This operation would result in an algebraic integer of degree 4.", 2, this, other);
+        }
+        return this.imagQuadRing;
+    }
+    
+    /**
+     * Gives the real part and the imaginary part (divided by 
+     * &radic;<i>d</i>), both multiplied by 2.
+     * @return An array of two BigInteger objects.
+     */
+    private BigInteger[] twiceParts() {
+        BigInteger re = this.getRealPartMult();
+        BigInteger im = this.getImagPartMult();
+        if (this.denominator == 1) {
+            re = re.shiftLeft(1);
+            im = im.shiftLeft(1);
+        }
+        return new BigInteger[]{re, im};
+    }
+    
+    /**
+     * Addition operation. Done with longs if both summands are held in longs 
+     * and the sum fits, otherwise with BigInteger.
+     * @param summand The imaginary quadratic integer to be added to this one.
+     * @return A new BigImaginaryQuadraticInteger object with the result of the 
+     * operation.
+     * @throws AlgebraicDegreeOverflowException If the algebraic integers come 
+     * from different quadratic rings and both have nonzero imaginary parts.
+     */
+    public BigImaginaryQuadraticInteger plus(BigImaginaryQuadraticInteger summand) {
+        if (this.small != null && summand.small != null) {
+            try {
+                return new BigImaginaryQuadraticInteger(this.small.plus(summand.small));
+            } catch (ArithmeticException ae) {
+                // Overflowed 64 bits, so go on to BigInteger arithmetic
+            }
+        }
+        ImaginaryQuadraticRing ring = this.ringFor(summand);
+        BigInteger[] a = this.twiceParts();
+        BigInteger[] b = summand.twiceParts();
+        return new BigImaginaryQuadraticInteger(a[0].add(b[0]), a[1].add(b[1]), ring, 2);
+    }
+    
+    /**
+     * Subtraction operation. Done with longs if both operands are held in 
+     * longs and the result fits, otherwise with BigInteger.
+     * @param subtrahend The imaginary quadratic integer to be subtracted from 
+     * this one.
+     * @return A new BigImaginaryQuadraticInteger object with the result of the 
+     * operation.
+     * @throws AlgebraicDegreeOverflowException If the algebraic integers come 
+     * from different quadratic rings and both have nonzero imaginary parts.
+     */
+    public BigImaginaryQuadraticInteger minus(BigImaginaryQuadraticInteger subtrahend) {
+        if (this.small != null && subtrahend.small != null) {
+            try {
+                return new BigImaginaryQuadraticInteger(this.small.minus(subtrahend.small));
+            } catch (ArithmeticException ae) {
+                // Overflowed 64 bits, so go on to BigInteger arithmetic
+            }
+        }
+        ImaginaryQuadraticRing ring = this.ringFor(subtrahend);
+        BigInteger[] a = this.twiceParts();
+        BigInteger[] b = subtrahend.twiceParts();
+        return new BigImaginaryQuadraticInteger(a[0].subtract(b[0]), a[1].subtract(b[1]), ring, 2);
+    }
+    
+    /**
+     * Multiplication operation. Done with longs if both factors are held in 
+     * longs and the product fits, otherwise with BigInteger.
+     * @param multiplicand The imaginary quadratic integer to be multiplied by 
+     * this one.
+     * @return A new BigImaginaryQuadraticInteger object with the result of the 
+     * operation.
+     * @throws AlgebraicDegreeOverflowException If the algebraic integers come 
+     * from different quadratic rings and both have nonzero imaginary parts.
+     */
+    public BigImaginaryQuadraticInteger times(BigImaginaryQuadraticInteger multiplicand) {
+        if (this.small != null && multiplicand.small != null) {
+            try {
+                return new BigImaginaryQuadraticInteger(this.small.times(multiplicand.small));
+            } catch (ArithmeticException ae) {
+                // Overflowed 64 bits, so go on to BigInteger arithmetic
+            }
+        }
+        ImaginaryQuadraticRing ring = this.ringFor(multiplicand);
+        BigInteger[] a = this.twiceParts();
+        BigInteger[] b = multiplicand.twiceParts();
+        BigInteger re = a[0].multiply(b[0]).subtract(BigInteger.valueOf(ring.absNegRad).multiply(a[1]).multiply(b[1])).divide(TWO);
+        BigInteger im = a[0].multiply(b[1]).add(a[1].multiply(b[0])).divide(TWO);
+        return new BigImaginaryQuadraticInteger(re, im, ring, 2);
+    }
+    
+    /**
+     * Raises this number to a power by repeated squaring. The work is done on 
+     * longs, as by {@link LongImaginaryQuadraticInteger#pow(int)}, and only 
+     * if that overflows is it done again with BigInteger.
+     * @param exponent The exponent. For example, 3.
+     * @return This number to the power of exponent. For example, for 1 + 
+     * <i>i</i>, the result would be -2 + 2<i>i</i>. Any number to the power 0, 
+     * even 0, is 1.
+     * @throws IllegalArgumentException If exponent is negative.
+     */
+    public BigImaginaryQuadraticInteger pow(int exponent) {
+        if (this.small != null) {
+            try {
+                return new BigImaginaryQuadraticInteger(this.small.pow(exponent));
+            } catch (ArithmeticException ae) {
+                // Overflowed 64 bits, so go on to BigInteger arithmetic
+            }
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Exponent " + exponent + " should not be negative.");
+        }
+        BigInteger absNegRad = BigInteger.valueOf(this.imagQuadRing.absNegRad);
+        BigInteger denom = BigInteger.valueOf(this.denominator);
+        BigInteger powRe = denom;
+        BigInteger powIm = BigInteger.ZERO;
+        BigInteger baseRe = this.getRealPartMult();
+        BigInteger baseIm = this.getImagPartMult();
+        BigInteger temp;
+        while (exponent > 0) {
+            if ((exponent & 1) == 1) {
+                temp = powRe.multiply(baseRe).subtract(absNegRad.multiply(powIm).multiply(baseIm)).divide(denom);
+                powIm = powRe.multiply(baseIm).add(powIm.multiply(baseRe)).divide(denom);
+                powRe = temp;
+            }
+            exponent >>= 1;
+            if (exponent > 0) {
+                temp = baseRe.multiply(baseRe).subtract(absNegRad.multiply(baseIm).multiply(baseIm)).divide(denom);
+                baseIm = baseRe.multiply(baseIm).shiftLeft(1).divide(denom);
+                baseRe = temp;
+            }
+        }
+        return new BigImaginaryQuadraticInteger(powRe, powIm, this.imagQuadRing, this.denominator);
+    }
+    
+    private BigImaginaryQuadraticInteger(LongImaginaryQuadraticInteger num) {
+        this.small = num;
+        this.realPartMult = null;
+        this.imagPartMult = null;
+        this.imagQuadRing = num.imagQuadRing;
+        this.denominator = num.denominator;
+    }
+    
+    /**
+     * Alternative object constructor, may be used when the denominator is known 
+     * to be 1.
+     * @param a The real part of the imaginary quadratic integer. For example, 
+     * for 5 + &radic;-3, this parameter would be 5.
+     * @param b The part to be multiplied by &radic;<i>d</i>. For example, for 5 
+     * + &radic;-3, this parameter would be 1.
+     * @param R The ring to which this algebraic integer belongs to.
+     */
+    public BigImaginaryQuadraticInteger(BigInteger a, BigInteger b, ImaginaryQuadraticRing R) {
+        this(a, b, R, 1);
+    }
+    
+    /**
+     * Primary object constructor. If both parts turn out to fit in a long, 
+     * the number is held in longs.
+     * @param a The real part of the imaginary quadratic integer, multiplied by 
+     * 2 when applicable. For example, for 5/2 + (&radic;-3)/2, this parameter 
+     * would be 5.
+     * @param b The part to be multiplied by &radic;<i>d</i>, multiplied by 2 
+     * when applicable. For example, for 5/2 + (&radic;-3)/2, this parameter 
+     * would be 1.
+     * @param R The ring to which this algebraic integer belongs to.
+     * @param denom 1 or 2. If 2 and both a and b are even, they are quietly 
+     * halved and the denominator changed to 1.
+     * @throws IllegalArgumentException If denom is anything other than 1 or 2, 
+     * or if denom is 2 but a and b don't match parity, or if a and b are both 
+     * odd but R doesn't have "half-integers."
+     */
+    public BigImaginaryQuadraticInteger(BigInteger a, BigInteger b, ImaginaryQuadraticRing R, int denom) {
+        if (denom < 1 || denom > 2) {
+            throw new IllegalArgumentException("Parameter denom must be 1 or 2.");
+        }
+        if (denom == 2) {
+            if (a.testBit(0) != b.testBit(0)) {
+                throw new IllegalArgumentException("Parity of parameter a must match parity of parameter b.");
+            }
+            if (!a.testBit(0)) {
+                a = a.shiftRight(1);
+                b = b.shiftRight(1);
+                denom = 1;
+            } else if (!R.d1mod4) {
+                throw new IllegalArgumentException("Either parameter a and parameter b need to both be even, or parameter denom needs to be 1.");
+            }
+        }
+        if (a.bitLength() < 64 && b.bitLength() < 64) {
+            this.small = new LongImaginaryQuadraticInteger(a.longValue(), b.longValue(), R, denom);
+            this.realPartMult = null;
+            this.imagPartMult = null;
+        } else {
+            this.small = null;
+            this.realPartMult = a;
+            this.imagPartMult = b;
+        }
+        this.imagQuadRing = R;
+        this.denominator = denom;
+    }
+    
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of results about imaginary quadratic integers, such as 
+ * whether they're prime or what their prime factors are. Entries are keyed not 
+ * by the ImaginaryQuadraticInteger objects themselves but by their 
+ * coordinates packed into two longs: <i>d</i> together with the denominator, 
+ * and the two parts multiplied by the denominator. So two objects for the same 
+ * number in the same ring share an entry, even if they hold different 
+ * ImaginaryQuadraticRing objects. 
+ * <p>The cache is split into sixteen stripes, each with its own lock, so that 
+ * threads looking up different numbers seldom wait on each other. Within a 
+ * stripe, each key can only go in one of a set of eight slots. When all eight 
+ * are taken, one is evicted by the clock algorithm: each slot has a bit that 
+ * is set whenever the slot is read, and a hand goes around the set clearing 
+ * those bits until it comes to a slot whose bit was already clear. This 
+ * approximates evicting the least recently used entry, without the 
+ * bookkeeping.</p> 
+ * <p>Hits and misses are counted, see {@link #getHits()} and {@link 
+ * #getMisses()}. Only {@link NumberTheoreticFunctionsCalculator} puts anything 
+ * in these caches.</p>
+ * @param <V> The type of the cached results. For example, Boolean.
+ * @author Alonso del Arte
+ */
+public final class ElementCache<V> {
+    
+    private static final int STRIPE_BITS = 4;
+    
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    
+    private static final int WAYS = 8;
+    
+    /**
+     * One stripe of the cache. Slot <i>k</i> is empty if ringKeys[<i>k</i>] 
+     * is 0, which it can't be otherwise since <i>d</i> is never 0.
+     */
+    private static final class Stripe {
+        
+        private final long[] ringKeys, partKeys;
+        
+        private final Object[] values;
+        
+        private final boolean[] referenced;
+        
+        private final byte[] hands;
+        
+        private final int setMask;
+        
+        Stripe(int sets) {
+            this.ringKeys = new long[sets * WAYS];
+            this.partKeys = new long[sets * WAYS];
+            this.values = new Object[sets * WAYS];
+            this.referenced = new boolean[sets * WAYS];
+            this.hands = new byte[sets];
+            this.setMask = sets - 1;
+        }
+        
+    }
+    
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    
+    private final int capacity;
+    
+    private final LongAdder hits = new LongAdder();
+    
+    private final LongAdder misses = new LongAdder();
+    
+    /**
+     * Gives how many entries the cache can hold.
+     * @return The capacity, as rounded by the constructor. For example, 65536.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+    
+    /**
+     * Gives how many lookups have found what they were looking for since the 
+     * cache was set up or last cleared.
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+    
+    /**
+     * Gives how many lookups have come up empty since the cache was set up or 
+     * last cleared.
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+    
+    /**
+     * Empties the cache and resets the hit and miss counts to 0.
+     */
+    public void clear() {
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                for (int i = 0; i < stripe.ringKeys.length; i++) {
+                    stripe.ringKeys[i] = 0;
+                    stripe.values[i] = null;
+                    stripe.referenced[i] = false;
+                }
+            }
+        }
+        this.hits.reset();
+        this.misses.reset();
+    }
+    
+    private static long ringKey(ImaginaryQuadraticInteger num) {
+        return ((long) num.imagQuadRing.negRad << 1) | (num.denominator - 1);
+    }
+    
+    private static long partKey(ImaginaryQuadraticInteger num) {
+        return ((long) num.realPartMult << 32) | (num.imagPartMult & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Mixes the two halves of a key into a hash, with the finalizer of 
+     * SplitMix64.
+     */
+    private static long hash(long ringKey, long partKey) {
+        long h = ringKey * 0x9E3779B97F4A7C15L + partKey;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+    
+    /**
+     * Looks up the result for a number.
+     * @param num The number. For example, 3 + 2<i>i</i>.
+     * @return The result previously put in for the number, or null if there is 
+     * none, either because there never was one or because it was evicted.
+     */
+    @SuppressWarnings("unchecked")
+    V get(ImaginaryQuadraticInteger num) {
+        long ringKey = ringKey(num);
+        long partKey = partKey(num);
+        long h = hash(ringKey, partKey);
+        Stripe stripe = this.stripes[(int) (h >>> (64 - STRIPE_BITS))];
+        int base = ((int) h & stripe.setMask) * WAYS;
+        synchronized (stripe) {
+            for (int i = base; i < base + WAYS; i++) {
+                if (stripe.ringKeys[i] == ringKey && stripe.partKeys[i] == partKey) {
+                    stripe.referenced[i] = true;
+                    this.hits.increment();
+                    return (V) stripe.values[i];
+                }
+            }
+        }
+        this.misses.increment();
+        return null;
+    }
+    
+    /**
+     * Puts in the result for a number, evicting another entry if need be.
+     * @param num The number. For example, 3 + 2<i>i</i>.
+     * @param value The result. Should not be null.
+     */
+    void put(ImaginaryQuadraticInteger num, V value) {
+        long ringKey = ringKey(num);
+        long partKey = partKey(num);
+        long h = hash(ringKey, partKey);
+        Stripe stripe = this.stripes[(int) (h >>> (64 - STRIPE_BITS))];
+        int set = (int) h & stripe.setMask;
+        int base = set * WAYS;
+        synchronized (stripe) {
+            int slot = -1;
+            for (int i = base; i < base + WAYS; i++) {
+                if (stripe.ringKeys[i] == ringKey && stripe.partKeys[i] == partKey) {
+                    stripe.values[i] = value;
+                    return;
+                }
+                if (slot < 0 && stripe.ringKeys[i] == 0) {
+                    slot = i;
+                }
+            }
+            if (slot < 0) {
+                int hand = stripe.hands[set];
+                while (stripe.referenced[base + hand]) {
+                    stripe.referenced[base + hand] = false;
+                    hand = (hand + 1) % WAYS;
+                }
+                slot = base + hand;
+                stripe.hands[set] = (byte) ((hand + 1) % WAYS);
+            }
+            stripe.ringKeys[slot] = ringKey;
+            stripe.partKeys[slot] = partKey;
+            stripe.values[slot] = value;
+            stripe.referenced[slot] = false;
+        }
+    }
+    
+    /**
+     * Sets up an empty cache.
+     * @param capacity About how many entries the cache should hold. It is 
+     * rounded up to a power of 2, and to at least 128.
+     * @throws IllegalArgumentException If capacity is not positive or is more 
+     * than 2<sup>30</sup>.
+     */
+    ElementCache(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity " + capacity + " is out of range.");
+        }
+        int sets = Math.max(1, Integer.highestOneBit(capacity - 1) * 2 / (STRIPES * WAYS));
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Stripe(sets);
+        }
+        this.capacity = STRIPES * WAYS * sets;
+    }
+    
+}
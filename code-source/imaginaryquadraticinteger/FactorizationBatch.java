@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The prime factorizations of many numbers from the same imaginary quadratic 
+ * ring, held in a few primitive arrays rather than in lists of objects. This 
+ * is what {@link 
+ * NumberTheoreticFunctionsCalculator#primeFactors(ImaginaryQuadraticRing, long[], long[])} 
+ * and {@link 
+ * NumberTheoreticFunctionsCalculator#primeFactorsInBox(ImaginaryQuadraticRing, 
+ * int)} give. 
+ * <p>Numbers and their prime factors are given by their real and imaginary 
+ * parts multiplied by 2, so as to be integers even for "half-integers." The 
+ * distinct prime factors of the number at position <i>k</i> are at positions 
+ * {@link #getFactorOffsets()}[<i>k</i>] up to but not including 
+ * getFactorOffsets()[<i>k</i> + 1] of {@link #getFactorTwiceRealParts()}, 
+ * {@link #getFactorTwiceImagParts()} and {@link #getExponents()}, in 
+ * ascending order by norm. So the number is the unit given by {@link 
+ * #getUnitIndices()}[<i>k</i>] times the product of those primes raised to 
+ * those exponents.</p> 
+ * <p>The arrays are handed out as they are, not copied, so that batches of 
+ * millions of numbers don't have to be copied again. Callers should not change 
+ * them.</p>
+ * @author Alonso del Arte
+ */
+public final class FactorizationBatch {
+    
+    private final ImaginaryQuadraticRing ring;
+    
+    private final long[] twiceRealParts, twiceImagParts;
+    
+    private final int[] factorOffsets;
+    
+    private final long[] factorTwiceRealParts, factorTwiceImagParts;
+    
+    private final int[] exponents;
+    
+    private final byte[] unitIndices;
+    
+    /**
+     * Gives the ring the numbers come from.
+     * @return The ring. For example, <b>Z</b>[<i>i</i>].
+     */
+    public ImaginaryQuadraticRing getRing() {
+        return this.ring;
+    }
+    
+    /**
+     * Tells how many numbers were factored.
+     * @return The number of numbers. For example, 25 for the box of numbers 
+     * with real and imaginary parts from -2 to 2 in <b>Z</b>[<i>i</i>].
+     */
+    public int size() {
+        return this.twiceRealParts.length;
+    }
+    
+    /**
+     * Gives the real parts of the numbers that were factored.
+     * @return The real parts, multiplied by 2.
+     */
+    public long[] getTwiceRealParts() {
+        return this.twiceRealParts;
+    }
+    
+    /**
+     * Gives the imaginary parts of the numbers that were factored.
+     * @return The imaginary parts, multiplied by 2 and divided by 
+     * &radic;<i>d</i>.
+     */
+    public long[] getTwiceImagParts() {
+        return this.twiceImagParts;
+    }
+    
+    /**
+     * Gives where the prime factors of each number start.
+     * @return An array one longer than the number of numbers. The last 
+     * element is the total number of distinct prime factors over all the 
+     * numbers.
+     */
+    public int[] getFactorOffsets() {
+        return this.factorOffsets;
+    }
+    
+    /**
+     * Gives the real parts of the prime factors.
+     * @return The real parts, multiplied by 2. Each prime has nonnegative real 
+     * part.
+     */
+    public long[] getFactorTwiceRealParts() {
+        return this.factorTwiceRealParts;
+    }
+    
+    /**
+     * Gives the imaginary parts of the prime factors.
+     * @return The imaginary parts, multiplied by 2 and divided by 
+     * &radic;<i>d</i>.
+     */
+    public long[] getFactorTwiceImagParts() {
+        return this.factorTwiceImagParts;
+    }
+    
+    /**
+     * Gives the exponents of the prime factors.
+     * @return The exponents, each at least 1.
+     */
+    public int[] getExponents() {
+        return this.exponents;
+    }
+    
+    /**
+     * Gives the unit factor of each number, as a power of a generator of the 
+     * units of the ring: <i>i</i> in <b>Z</b>[<i>i</i>], 1/2 + 
+     * &radic;-3/2 in <b>Z</b>[&omega;], and -1 in all the other rings.
+     * @return The exponents of the generator, from 0 to one less than the 
+     * number of units, or -1 for 0, which has no factorization. For example, 3 
+     * for -<i>i</i>(1 + <i>i</i>)<sup>2</sup>(2 + <i>i</i>) in 
+     * <b>Z</b>[<i>i</i>].
+     */
+    public byte[] getUnitIndices() {
+        return this.unitIndices;
+    }
+    
+    /**
+     * Gives the prime factorization of one of the numbers as a list of 
+     * imaginary quadratic integers, in the same format as {@link 
+     * NumberTheoreticFunctionsCalculator#primeFactors(ImaginaryQuadraticInteger)}, 
+     * that is, with the unit first if it isn't 1, and with each prime 
+     * repeated as many times as it divides the number.
+     * @param index The position of the number. For example, 0.
+     * @return A list of imaginary quadratic integers. For 0, the list just 
+     * has 0.
+     * @throws IndexOutOfBoundsException If index is negative or not less than 
+     * {@link #size()}.
+     */
+    public List<ImaginaryQuadraticInteger> factorsOf(int index) {
+        List<ImaginaryQuadraticInteger> factors = new ArrayList<>();
+        byte unitIndex = this.unitIndices[index];
+        if (unitIndex < 0) {
+            factors.add(new ImaginaryQuadraticInteger(0, 0, this.ring));
+            return factors;
+        }
+        if (unitIndex > 0 || this.factorOffsets[index] == this.factorOffsets[index + 1]) {
+            factors.add(NumberTheoreticFunctionsCalculator.unitFromIndex(unitIndex, this.ring));
+        }
+        for (int j = this.factorOffsets[index]; j < this.factorOffsets[index + 1]; j++) {
+            ImaginaryQuadraticInteger prime = NumberTheoreticFunctionsCalculator.fromDoubledParts(this.factorTwiceRealParts[j], this.factorTwiceImagParts[j], this.ring);
+            for (int e = 0; e < this.exponents[j]; e++) {
+                factors.add(prime);
+            }
+        }
+        return factors;
+    }
+    
+    FactorizationBatch(ImaginaryQuadraticRing ring, long[] twiceRealParts, long[] twiceImagParts, int[] factorOffsets, long[] factorTwiceRealParts, long[] factorTwiceImagParts, int[] exponents, byte[] unitIndices) {
+        this.ring = ring;
+        this.twiceRealParts = twiceRealParts;
+        this.twiceImagParts = twiceImagParts;
+        this.factorOffsets = factorOffsets;
+        this.factorTwiceRealParts = factorTwiceRealParts;
+        this.factorTwiceImagParts = factorTwiceImagParts;
+        this.exponents = exponents;
+        this.unitIndices = unitIndices;
+    }
+    
+}
@@ -33,7 +33,7 @@ class ImagQuadInt(a: Int, b: Int, R: ImaginaryQuadraticRing, denom: Int = 1)
     * @return An ImagQuadRing object, which can then be queried for its negRad, absNegRad and absNegRadSqrt
     *         values, and a couple other properties.
     */
-  override def getRing: ImagQuadRing = new ImagQuadRing(this.R.negRad)
+  override def getRing: ImagQuadRing = ImagQuadRing.of(this.R.negRad)
 
   /** Adds an ImagQuadInt to this one (overloaded operator for ImaginaryQuadraticInteger.plus().
     *
@@ -1,5 +1,7 @@
 package imaginaryquadraticinteger
 
+import java.util.concurrent.ConcurrentHashMap
+
 /** Represents the imaginary quadratic ring of Q(sqrt(d)), where d is a negative, squarefree integer.
   *
   * @param d A squarefree negative integer, the square root of which is adjoined to Q to form a ring of algebraic
@@ -10,3 +12,32 @@ class ImagQuadRing(d: Int) extends ImaginaryQuadraticRing(d: Int) {
   override def toString: String = super.toASCIIString
 
 }
+
+/** Keeps one ImagQuadRing for each d, like [[imaginaryquadraticinteger.ImaginaryQuadraticRing#of ImaginaryQuadraticRing.of]]
+  * does for ImaginaryQuadraticRing.
+  */
+object ImagQuadRing {
+
+  private val interned = new ConcurrentHashMap[Int, ImagQuadRing]
+
+  /** Gives the ring for d, the same object every time for the same d (up to
+    * [[imaginaryquadraticinteger.ImaginaryQuadraticRing#INTERNED_RINGS_LIMIT ImaginaryQuadraticRing.INTERNED_RINGS_LIMIT]]
+    * different rings).
+    *
+    * @param d A squarefree negative integer.
+    * @return The ring.
+    */
+  def of(d: Int): ImagQuadRing = {
+    val ring = interned.get(d)
+    if (ring != null) {
+      ring
+    } else if (interned.size >= ImaginaryQuadraticRing.INTERNED_RINGS_LIMIT) {
+      new ImagQuadRing(d)
+    } else {
+      val fresh = new ImagQuadRing(d)
+      val previous = interned.putIfAbsent(d, fresh)
+      if (previous == null) fresh else previous
+    }
+  }
+
+}
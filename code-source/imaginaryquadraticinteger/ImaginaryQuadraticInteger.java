@@ -85,7 +85,7 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
         if (this.denominator == 2) {
             return this.realPartMult;
         } else {
-            return 2 * this.realPartMult;
+            return 2L * this.realPartMult;
         }
     }
     
@@ -95,8 +95,10 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
      * enables, among other things, the Euclidean GCD algorithm in Euclidean 
      * domains. In the case of imaginary quadratic integers, it should never be 
      * negative. A negative norm could indicate an overflow in the computation. 
-     * WARNING: There is no overflow checking. That might slow things down 
-     * unacceptably in 
+     * The squares are computed with 64-bit arithmetic, so this can only happen 
+     * if the norm doesn't fit in a long, which with 32-bit parts takes a 
+     * <i>d</i> far from 0. WARNING: There is no overflow checking. That might 
+     * slow things down unacceptably in 
      * {@link RingWindowDisplay#paintComponent(java.awt.Graphics)}. Originally 
      * this function returned an int, but later I changed it to long in order to 
      * alleviate overflow problems.
@@ -111,9 +113,9 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
     public long norm() {
         long N;
         if (this.denominator == 2) {
-            N = (realPartMult * realPartMult + imagQuadRing.absNegRad * imagPartMult * imagPartMult)/4;
+            N = ((long) realPartMult * realPartMult + (long) imagQuadRing.absNegRad * imagPartMult * imagPartMult)/4;
         } else {
-            N = realPartMult * realPartMult + imagQuadRing.absNegRad * imagPartMult * imagPartMult;
+            N = (long) realPartMult * realPartMult + (long) imagQuadRing.absNegRad * imagPartMult * imagPartMult;
         }
         return N;
     }
@@ -207,6 +209,41 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
         }
     }
     
+    /**
+     * Gives the canonical associate of this imaginary quadratic integer, as 
+     * defined for {@link 
+     * NumberTheoreticFunctionsCalculator#canonicalAssociate(long, long, int, 
+     * long[])}. Useful for comparing and collecting numbers up to units.
+     * @return The canonical associate. For example, given -2 + <i>i</i>, the 
+     * result would be 1 + 2<i>i</i>. If this number is its own canonical 
+     * associate, the result is this very object rather than a new one.
+     * @throws ArithmeticException If a part of the canonical associate 
+     * exceeds the range of the int data type, which can only happen in 
+     * <b>Z</b>[&omega;].
+     */
+    public ImaginaryQuadraticInteger canonicalAssociate() {
+        long twiceRe = this.getTwiceRealPartMult();
+        long twiceIm = this.getTwiceImagPartMult();
+        if (NumberTheoreticFunctionsCalculator.canonicalAssociate(twiceRe, twiceIm, this.imagQuadRing.negRad, null) == 0) {
+            return this;
+        }
+        long[] canonical = new long[2];
+        NumberTheoreticFunctionsCalculator.canonicalAssociate(twiceRe, twiceIm, this.imagQuadRing.negRad, canonical);
+        return NumberTheoreticFunctionsCalculator.fromDoubledParts(canonical[0], canonical[1], this.imagQuadRing);
+    }
+    
+    /**
+     * Tells which unit this imaginary quadratic integer is of its canonical 
+     * associate, without creating any objects.
+     * @return The exponent of <i>i</i> in <b>Z</b>[<i>i</i>], of 1/2 + 
+     * &radic;-3/2 in <b>Z</b>[&omega;], or of -1 in other rings, such that 
+     * the unit times {@link #canonicalAssociate()} gives this number. For 
+     * example, given -2 + <i>i</i>, the result would be 1.
+     */
+    public int canonicalAssociateUnitIndex() {
+        return NumberTheoreticFunctionsCalculator.canonicalAssociate(this.getTwiceRealPartMult(), this.getTwiceImagPartMult(), this.imagQuadRing.negRad, null);
+    }
+    
     /**
      * Gives the imaginary quadratic integer's distance from 0.
      * @return This distance from 0 of the imaginary quadratic integer expressed 
@@ -848,7 +885,7 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
                 String exceptionMessage = currToken + " is not a valid ImaginaryQuadraticInteger starting character.";
                 throw new NumberFormatException(exceptionMessage);
         }
-        return new ImaginaryQuadraticInteger(0, 0, new ImaginaryQuadraticRing(-1));
+        return new ImaginaryQuadraticInteger(0, 0, ImaginaryQuadraticRing.of(-1));
     }
     
     /**
@@ -870,12 +907,10 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
      * not be the only parsing obstacle.
      */
     public static ImaginaryQuadraticInteger parseQuaterImaginary(String str) {
-        ImaginaryQuadraticRing ringGaussian = new ImaginaryQuadraticRing(-1);
+        ImaginaryQuadraticRing ringGaussian = ImaginaryQuadraticRing.of(-1);
         ImaginaryQuadraticInteger base = new ImaginaryQuadraticInteger(0, 2, ringGaussian);
-        ImaginaryQuadraticInteger currPower = new ImaginaryQuadraticInteger(1, 0, ringGaussian);
-        ImaginaryQuadraticInteger currPowerMult;
-        ImaginaryQuadraticInteger parsedSoFar = new ImaginaryQuadraticInteger(0, 0, ringGaussian);
-        ImaginaryQuadraticInteger gaussianZero = new ImaginaryQuadraticInteger(0, 0, ringGaussian);
+        MutableImaginaryQuadraticInteger currPower = new MutableImaginaryQuadraticInteger(1, 0, ringGaussian);
+        MutableImaginaryQuadraticInteger parsedSoFar = new MutableImaginaryQuadraticInteger(0, 0, ringGaussian);
         str = str.replace(" ", ""); // Strip out spaces
         DecimalFormatSymbols dfs = new DecimalFormatSymbols();
         int dotPlace = str.indexOf(dfs.getDecimalSeparator());
@@ -900,33 +935,25 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
         }
         String dotTwoEnding = dfs.getDecimalSeparator() + "2";
         if (str.endsWith(dotTwoEnding)) {
-            parsedSoFar = new ImaginaryQuadraticInteger(0, -1, ringGaussian);
+            parsedSoFar = new MutableImaginaryQuadraticInteger(0, -1, ringGaussian);
             str = str.substring(0, str.length() - 2);
         }
         char currDigit;
         for (int i = str.length() - 1; i > -1; i--) {
             currDigit = str.charAt(i);
-            switch (currDigit) {
-                case '0':
-                    currPowerMult = gaussianZero;
-                    break;
-                case '1':
-                    currPowerMult = currPower;
-                    break;
-                case '2':
-                    currPowerMult = currPower.times(2);
-                    break;
-                case '3':
-                    currPowerMult = currPower.times(3);
-                    break;
-                default:
-                    String exceptionMessage = "'" + currDigit + "' is not a valid quater-imaginary digit (should be one of 0, 1, 2, 3).";
-                    throw new NumberFormatException(exceptionMessage);
+            if (currDigit < '0' || currDigit > '3') {
+                String exceptionMessage = "'" + currDigit + "' is not a valid quater-imaginary digit (should be one of 0, 1, 2, 3).";
+                throw new NumberFormatException(exceptionMessage);
+            }
+            // Adding the power once per unit of the digit avoids a temporary
+            for (char j = '0'; j < currDigit; j++) {
+                parsedSoFar.addInPlace(currPower);
+            }
+            if (i > 0) {
+                currPower.multiplyInPlace(base);
             }
-            parsedSoFar = parsedSoFar.plus(currPowerMult);
-            currPower = currPower.times(base);
         }
-        return parsedSoFar;
+        return parsedSoFar.freeze();
     }
   
     /**
@@ -963,23 +990,23 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
         int sumDenom = 1;
         if (this.imagQuadRing.d1mod4) {
             if (this.denominator == 1 && summand.denominator == 2) {
-                sumRealPart = 2 * this.realPartMult + summand.realPartMult;
-                sumImagPart = 2 * this.imagPartMult + summand.imagPartMult;
+                sumRealPart = 2L * this.realPartMult + summand.realPartMult;
+                sumImagPart = 2L * this.imagPartMult + summand.imagPartMult;
                 sumDenom = 2;
             }
             if (this.denominator == 2 && summand.denominator == 1) {
-                sumRealPart = this.realPartMult + 2 * summand.realPartMult;
-                sumImagPart = this.imagPartMult + 2 * summand.imagPartMult;
+                sumRealPart = this.realPartMult + 2L * summand.realPartMult;
+                sumImagPart = this.imagPartMult + 2L * summand.imagPartMult;
                 sumDenom = 2;
             }
             if (this.denominator == summand.denominator) {
-                sumRealPart = this.realPartMult + summand.realPartMult;
-                sumImagPart = this.imagPartMult + summand.imagPartMult;
+                sumRealPart = (long) this.realPartMult + summand.realPartMult;
+                sumImagPart = (long) this.imagPartMult + summand.imagPartMult;
                 sumDenom = this.denominator;
             }
         } else {
-            sumRealPart = this.realPartMult + summand.realPartMult;
-            sumImagPart = this.imagPartMult + summand.imagPartMult;
+            sumRealPart = (long) this.realPartMult + summand.realPartMult;
+            sumImagPart = (long) this.imagPartMult + summand.imagPartMult;
             sumDenom = 1;
         }
         if (sumRealPart < Integer.MIN_VALUE || sumRealPart > Integer.MAX_VALUE) {
@@ -1009,7 +1036,7 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
     public ImaginaryQuadraticInteger plus(int summand) {
         long sumRealPart = this.realPartMult;
         if (this.denominator == 2) {
-            sumRealPart += (2 * summand);
+            sumRealPart += (2L * summand);
         } else {
             sumRealPart += summand;
         }
@@ -1053,23 +1080,23 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
         int subtractionDenom = 1;
         if (this.imagQuadRing.d1mod4) {
             if (this.denominator == 1 && subtrahend.denominator == 2) {
-                subtractionRealPart = 2 * this.realPartMult - subtrahend.realPartMult;
-                subtractionImagPart = 2 * this.imagPartMult - subtrahend.imagPartMult;
+                subtractionRealPart = 2L * this.realPartMult - subtrahend.realPartMult;
+                subtractionImagPart = 2L * this.imagPartMult - subtrahend.imagPartMult;
                 subtractionDenom = 2;
             }
             if (this.denominator == 2 && subtrahend.denominator == 1) {
-                subtractionRealPart = this.realPartMult - 2 * subtrahend.realPartMult;
-                subtractionImagPart = this.imagPartMult - 2 * subtrahend.imagPartMult;
+                subtractionRealPart = this.realPartMult - 2L * subtrahend.realPartMult;
+                subtractionImagPart = this.imagPartMult - 2L * subtrahend.imagPartMult;
                 subtractionDenom = 2;
             }
             if (this.denominator == subtrahend.denominator) {
-                subtractionRealPart = this.realPartMult - subtrahend.realPartMult;
-                subtractionImagPart = this.imagPartMult - subtrahend.imagPartMult;
+                subtractionRealPart = (long) this.realPartMult - subtrahend.realPartMult;
+                subtractionImagPart = (long) this.imagPartMult - subtrahend.imagPartMult;
                 subtractionDenom = this.denominator;
             }
         } else {
-            subtractionRealPart = this.realPartMult - subtrahend.realPartMult;
-            subtractionImagPart = this.imagPartMult - subtrahend.imagPartMult;
+            subtractionRealPart = (long) this.realPartMult - subtrahend.realPartMult;
+            subtractionImagPart = (long) this.imagPartMult - subtrahend.imagPartMult;
             subtractionDenom = 1;
         }
         if (subtractionRealPart < Integer.MIN_VALUE || subtractionRealPart > Integer.MAX_VALUE) {
@@ -1099,7 +1126,7 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
     public ImaginaryQuadraticInteger minus(int subtrahend) {
         long subtractionRealPart = this.realPartMult;
         if (this.denominator == 2) {
-            subtractionRealPart -= (2 * subtrahend);
+            subtractionRealPart -= (2L * subtrahend);
         } else {
             subtractionRealPart -= subtrahend;
         }
@@ -1207,6 +1234,39 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
      * data type.
      */
     public ImaginaryQuadraticInteger divides(ImaginaryQuadraticInteger divisor) throws NotDivisibleException {
+        ImaginaryQuadraticInteger quotient = this.quotientIfDivisible(divisor);
+        if (quotient == null) {
+            throw this.notDivisibleBy(divisor);
+        }
+        return quotient;
+    }
+    
+    /**
+     * Division operation that doesn't throw {@link NotDivisibleException}, for 
+     * trial division and other places where not being divisible is the usual 
+     * outcome rather than an exceptional one.
+     * @param divisor The imaginary quadratic integer by which to divide this 
+     * quadratic integer. For example, 2 + <i>i</i>.
+     * @return A new ImaginaryQuadraticInteger object with the result of the 
+     * operation, or null if this number is not divisible by the divisor. For 
+     * example, for 5, 2 - <i>i</i>; for 7, null.
+     * @throws AlgebraicDegreeOverflowException If the algebraic integers come 
+     * from different quadratic rings and both have nonzero imaginary parts.
+     * @throws IllegalArgumentException If divisor is 0.
+     * @throws ArithmeticException If either the real part or the imaginary part 
+     * of the quotient exceeds the range of the int data type.
+     */
+    public ImaginaryQuadraticInteger tryDivides(ImaginaryQuadraticInteger divisor) {
+        return this.quotientIfDivisible(divisor);
+    }
+    
+    /**
+     * Does the work for {@link #divides(ImaginaryQuadraticInteger)} and {@link 
+     * #tryDivides(ImaginaryQuadraticInteger)}.
+     * @return The quotient, or null if this number is not divisible by the 
+     * divisor.
+     */
+    private ImaginaryQuadraticInteger quotientIfDivisible(ImaginaryQuadraticInteger divisor) {
         if (((this.imagPartMult != 0) && (divisor.imagPartMult != 0)) && (this.imagQuadRing.negRad != divisor.imagQuadRing.negRad)) {
             if ((this.realPartMult == 0) && (divisor.realPartMult == 0)) {
                 throw new UnsupportedNumberDomainException("This operation could result in an algebraic integer in a real quadratic integer ring, which is not currently supported by this package.", this, divisor);
@@ -1215,8 +1275,46 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
             }
         }
         if (divisor.imagPartMult == 0) {
-            return this.divides(divisor.realPartMult);
+            return this.quotientIfDivisible(divisor.realPartMult);
+        }
+        if (this.imagPartMult == 0 && this.imagQuadRing.negRad != divisor.imagQuadRing.negRad) {
+            return this.inRingOf(divisor).quotientIfDivisible(divisor);
+        }
+        return this.integralQuotient(this.exactQuotient(divisor));
+    }
+    
+    /**
+     * Builds the exception for {@link #divides(ImaginaryQuadraticInteger)} to 
+     * throw, once it's known this number is not divisible by the divisor.
+     */
+    private NotDivisibleException notDivisibleBy(ImaginaryQuadraticInteger divisor) {
+        if (divisor.imagPartMult == 0) {
+            return this.notDivisibleBy(divisor.realPartMult);
+        }
+        if (this.imagPartMult == 0 && this.imagQuadRing.negRad != divisor.imagQuadRing.negRad) {
+            return this.inRingOf(divisor).notDivisibleBy(divisor);
         }
+        long[] fraction = this.exactQuotient(divisor);
+        return new NotDivisibleException(this, divisor, fraction[0], fraction[1], fraction[2], this.imagQuadRing.negRad);
+    }
+    
+    /**
+     * Gives this purely real number as a number of the divisor's ring, so that 
+     * dividing a purely real number by a number from another ring gives a 
+     * quotient in the divisor's ring, just as {@link 
+     * #times(ImaginaryQuadraticInteger)} does for products.
+     */
+    private ImaginaryQuadraticInteger inRingOf(ImaginaryQuadraticInteger divisor) {
+        return new ImaginaryQuadraticInteger(this.realPartMult, 0, divisor.imagQuadRing, this.denominator);
+    }
+    
+    /**
+     * Computes the quotient of this number by a divisor with nonzero imaginary 
+     * part from the same ring, as a fraction in lowest terms.
+     * @return The numerator of the real part, the numerator of the imaginary 
+     * part divided by &radic;<i>d</i>, and the denominator, which is positive.
+     */
+    private long[] exactQuotient(ImaginaryQuadraticInteger divisor) {
         long intermediateRealPart = (long) this.realPartMult * (long) divisor.realPartMult + (long) this.imagPartMult * (long) divisor.imagPartMult * (long) this.imagQuadRing.absNegRad;
         long intermediateImagPart = (long) this.imagPartMult * (long) divisor.realPartMult - (long) this.realPartMult * (long) divisor.imagPartMult;
         long intermediateDenom = (long) (divisor.norm() * (long) this.denominator * (long) divisor.denominator);
@@ -1231,6 +1329,23 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
             intermediateImagPart /= imagCutDown;
             intermediateDenom /= imagCutDown;
         }
+        long[] fraction = {intermediateRealPart, intermediateImagPart, intermediateDenom};
+        return fraction;
+    }
+    
+    /**
+     * Turns an exact quotient into an ImaginaryQuadraticInteger if it is an 
+     * algebraic integer of this ring.
+     * @param fraction The quotient as given by {@link 
+     * #exactQuotient(ImaginaryQuadraticInteger)} or {@link #exactQuotient(int)}.
+     * @return The quotient, or null if it's not an algebraic integer.
+     * @throws ArithmeticException If either the real part or the imaginary part 
+     * of the quotient exceeds the range of the int data type.
+     */
+    private ImaginaryQuadraticInteger integralQuotient(long[] fraction) {
+        long intermediateRealPart = fraction[0];
+        long intermediateImagPart = fraction[1];
+        long intermediateDenom = fraction[2];
         boolean divisibleFlag;
         if (this.imagQuadRing.d1mod4) {
             divisibleFlag = (intermediateDenom == 1 || intermediateDenom == 2);
@@ -1241,8 +1356,7 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
             divisibleFlag = (intermediateDenom == 1);
         }
         if (!divisibleFlag) {
-            String exceptionMessage = this.toASCIIString() + " is not divisible by " + divisor.toASCIIString() + ".";
-            throw new NotDivisibleException(exceptionMessage, intermediateRealPart, intermediateImagPart, intermediateDenom, this.imagQuadRing.negRad);
+            return null;
         }
         if (intermediateRealPart < Integer.MIN_VALUE || intermediateRealPart > Integer.MAX_VALUE) {
             throw new ArithmeticException("Real part of division exceeds int data type:" + intermediateRealPart + " + " + intermediateImagPart + "sqrt(" + this.imagQuadRing.negRad + ")");
@@ -1272,9 +1386,58 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
      * data type.
      */
     public ImaginaryQuadraticInteger divides(int divisor) throws NotDivisibleException {
+        ImaginaryQuadraticInteger quotient = this.quotientIfDivisible(divisor);
+        if (quotient == null) {
+            throw this.notDivisibleBy(divisor);
+        }
+        return quotient;
+    }
+    
+    /**
+     * Division by a purely real integer that doesn't throw {@link 
+     * NotDivisibleException}.
+     * @param divisor The purely real integer by which to divide this quadratic 
+     * integer. For example, 3.
+     * @return A new ImaginaryQuadraticInteger object with the result of the 
+     * operation, or null if this number is not divisible by the divisor. For 
+     * example, for 6 + 3<i>i</i>, 2 + <i>i</i>; for 6 + 2<i>i</i>, null.
+     * @throws IllegalArgumentException If divisor is 0.
+     * @throws ArithmeticException If either the real part or the imaginary part 
+     * of the quotient exceeds the range of the int data type.
+     */
+    public ImaginaryQuadraticInteger tryDivides(int divisor) {
+        return this.quotientIfDivisible(divisor);
+    }
+    
+    /**
+     * Does the work for {@link #divides(int)} and {@link #tryDivides(int)}.
+     * @return The quotient, or null if this number is not divisible by the 
+     * divisor.
+     */
+    private ImaginaryQuadraticInteger quotientIfDivisible(int divisor) {
         if (divisor == 0) {
             throw new IllegalArgumentException("Division by 0 is not allowed.");
         }
+        return this.integralQuotient(this.exactQuotient(divisor));
+    }
+    
+    /**
+     * Builds the exception for {@link #divides(int)} to throw, once it's known 
+     * this number is not divisible by the divisor.
+     */
+    private NotDivisibleException notDivisibleBy(int divisor) {
+        long[] fraction = this.exactQuotient(divisor);
+        ImaginaryQuadraticInteger divisorIQI = new ImaginaryQuadraticInteger(divisor, 0, this.imagQuadRing);
+        return new NotDivisibleException(this, divisorIQI, fraction[0], fraction[1], fraction[2], this.imagQuadRing.negRad);
+    }
+    
+    /**
+     * Computes the quotient of this number by a nonzero purely real integer, 
+     * as a fraction in lowest terms.
+     * @return The numerator of the real part, the numerator of the imaginary 
+     * part divided by &radic;<i>d</i>, and the denominator, which is positive.
+     */
+    private long[] exactQuotient(int divisor) {
         long intermediateRealPart = this.realPartMult;
         long intermediateImagPart = this.imagPartMult;
         long intermediateDenom = this.denominator * divisor;
@@ -1294,26 +1457,284 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
             intermediateImagPart *= -1;
             intermediateDenom *= -1;
         }
-        boolean divisibleFlag;
-        if (this.imagQuadRing.d1mod4) {
-            divisibleFlag = (intermediateDenom == 1 || intermediateDenom == 2);
-            if (intermediateDenom == 2) {
-                divisibleFlag = (Math.abs(intermediateRealPart % 2) == Math.abs(intermediateImagPart % 2));
+        long[] fraction = {intermediateRealPart, intermediateImagPart, intermediateDenom};
+        return fraction;
+    }
+    
+    /**
+     * Division with remainder, for the five norm-Euclidean imaginary quadratic 
+     * rings. The quotient is the algebraic integer nearest the exact quotient, 
+     * found with one rounding computation in integer arithmetic, so the norm 
+     * of the remainder is less than the norm of the divisor.
+     * @param divisor The imaginary quadratic integer by which to divide this 
+     * quadratic integer. For example, 2 + <i>i</i>.
+     * @return An array of two ImaginaryQuadraticInteger objects: the quotient 
+     * and then the remainder, such that this number is the quotient times the 
+     * divisor plus the remainder. For example, for 7, {3 - <i>i</i>, 
+     * -<i>i</i>}.
+     * @throws NonEuclideanDomainException If the ring is not one of 
+     * <b>Z</b>[<i>i</i>], <b>Z</b>[&radic;-2], <b>Z</b>[&omega;], 
+     * <i>O</i><sub><b>Q</b>(&radic;-7)</sub> or 
+     * <i>O</i><sub><b>Q</b>(&radic;-11)</sub>.
+     * @throws AlgebraicDegreeOverflowException If the algebraic integers come 
+     * from different quadratic rings and both have nonzero imaginary parts.
+     * @throws IllegalArgumentException If divisor is 0.
+     * @throws ArithmeticException If either the real part or the imaginary part 
+     * of the quotient exceeds the range of the int data type.
+     */
+    public ImaginaryQuadraticInteger[] divideAndRemainder(ImaginaryQuadraticInteger divisor) throws NonEuclideanDomainException {
+        long[] parts = new long[4];
+        ImaginaryQuadraticRing ring = this.divideAndRemainderDoubled(divisor, parts);
+        ImaginaryQuadraticInteger quotient = NumberTheoreticFunctionsCalculator.fromDoubledParts(parts[0], parts[1], ring);
+        ImaginaryQuadraticInteger remainder = NumberTheoreticFunctionsCalculator.fromDoubledParts(parts[2], parts[3], ring);
+        ImaginaryQuadraticInteger[] quotientAndRemainder = {quotient, remainder};
+        return quotientAndRemainder;
+    }
+    
+    /**
+     * Division with remainder that writes its results into a caller-supplied 
+     * array instead of creating new objects, so that the same array can be 
+     * reused when dividing many numbers. Otherwise the same as {@link 
+     * #divideAndRemainder(ImaginaryQuadraticInteger)}.
+     * @param divisor The imaginary quadratic integer by which to divide this 
+     * quadratic integer. For example, 2 + <i>i</i>.
+     * @param out An array of at least 4 to receive twice the real part and 
+     * twice the imaginary part multiple of the quotient, followed by the same 
+     * two numbers for the remainder. For example, for 7, {6, -2, 0, -2}.
+     * @throws NonEuclideanDomainException If the ring is not one of the five 
+     * norm-Euclidean imaginary quadratic rings.
+     * @throws AlgebraicDegreeOverflowException If the algebraic integers come 
+     * from different quadratic rings and both have nonzero imaginary parts.
+     * @throws IllegalArgumentException If divisor is 0 or if out has fewer 
+     * than 4 elements.
+     */
+    public void divideAndRemainder(ImaginaryQuadraticInteger divisor, long[] out) throws NonEuclideanDomainException {
+        if (out.length < 4) {
+            throw new IllegalArgumentException("Output array needs room for 4 numbers, not " + out.length + ".");
+        }
+        this.divideAndRemainderDoubled(divisor, out);
+    }
+    
+    /**
+     * Does the work for both divideAndRemainder functions.
+     * @return The ring the division was done in.
+     */
+    private ImaginaryQuadraticRing divideAndRemainderDoubled(ImaginaryQuadraticInteger divisor, long[] out) throws NonEuclideanDomainException {
+        if (divisor.realPartMult == 0 && divisor.imagPartMult == 0) {
+            throw new IllegalArgumentException("Division by 0 is not allowed.");
+        }
+        ImaginaryQuadraticRing ring = NumberTheoreticFunctionsCalculator.euclideanGCDRing(this, divisor);
+        NumberTheoreticFunctionsCalculator.divideAndRemainderDoubled(this.getTwiceRealPartMult(), this.getTwiceImagPartMult(), divisor.getTwiceRealPartMult(), divisor.getTwiceImagPartMult(), ring.negRad, out);
+        return ring;
+    }
+    
+    /**
+     * Raises this imaginary quadratic integer to a power by repeated squaring. 
+     * The work is done with 64-bit variables by {@link 
+     * LongImaginaryQuadraticInteger#pow(int)}, so no objects are created for 
+     * the intermediate squares and products.
+     * @param exponent The power to raise this number to. For example, 3.
+     * @return A new ImaginaryQuadraticInteger object with the result of the 
+     * operation. For example, for 1 + <i>i</i>, the result would be -2 + 
+     * 2<i>i</i>. Any number to the power 0, even 0, is 1.
+     * @throws IllegalArgumentException If exponent is negative.
+     * @throws ArithmeticException A runtime exception thrown if either the real 
+     * part or the imaginary part of the power exceeds the range of the int 
+     * data type. In that case {@link BigImaginaryQuadraticInteger#pow(int)} 
+     * can give the result.
+     */
+    public ImaginaryQuadraticInteger pow(int exponent) {
+        LongImaginaryQuadraticInteger power;
+        try {
+            power = LongImaginaryQuadraticInteger.valueOf(this).pow(exponent);
+        } catch (ArithmeticException ae) {
+            throw new ArithmeticException("Power " + exponent + " of " + this.toASCIIString() + " exceeds long data type.");
+        }
+        if (!power.fitsInInt()) {
+            throw new ArithmeticException("Power " + exponent + " of " + this.toASCIIString() + " exceeds int data type: " + power.toASCIIString());
+        }
+        return power.toImaginaryQuadraticInteger();
+    }
+    
+    /**
+     * Raises this imaginary quadratic integer to a power modulo a purely real 
+     * integer. See {@link #modPow(long, ImaginaryQuadraticInteger)}.
+     * @param exponent The power to raise this number to. For example, 8.
+     * @param modulus The modulus. For example, 3.
+     * @return The residue of the power. For example, for 1 + <i>i</i>, the 
+     * result would be 1, since (1 + <i>i</i>)<sup>8</sup> = 16.
+     * @throws IllegalArgumentException If exponent is negative or modulus is 
+     * 0.
+     */
+    public ImaginaryQuadraticInteger modPow(long exponent, int modulus) {
+        return this.modPow(exponent, modulus, 0, this.imagQuadRing);
+    }
+    
+    /**
+     * Raises this imaginary quadratic integer to a power modulo another 
+     * imaginary quadratic integer, that is, in the residue ring of the ideal 
+     * generated by the modulus. The intermediate squares and products are kept 
+     * reduced modulo the smallest positive integer in that ideal, on local 
+     * 64-bit variables, so no objects are created until the result.
+     * <p>The result is the canonical representative of the residue class: 
+     * writing numbers as <i>x</i> + <i>y</i>&theta;, with &theta; = 
+     * &radic;<i>d</i> or (1 + &radic;<i>d</i>)/2 as applicable, the modulus 
+     * generates a lattice with a basis of the form <i>a</i> and <i>b</i> + 
+     * <i>g</i>&theta;, and the result has 0 &le; <i>x</i> &lt; <i>a</i> and 0 
+     * &le; <i>y</i> &lt; <i>g</i>. So two numbers are congruent modulo the 
+     * modulus if and only if they have the same residue.</p>
+     * @param exponent The power to raise this number to. For example, 4.
+     * @param modulus The modulus. For example, 2 + <i>i</i>.
+     * @return The residue of the power. For example, for 1 + <i>i</i>, the 
+     * result would be 1, since (1 + <i>i</i>)<sup>4</sup> = -4 = 1 - (2 + 
+     * <i>i</i>)(2 - <i>i</i>).
+     * @throws IllegalArgumentException If exponent is negative or modulus is 
+     * 0.
+     * @throws AlgebraicDegreeOverflowException If the numbers come from 
+     * different quadratic rings and both have nonzero imaginary parts.
+     * @throws ArithmeticException If the smallest positive integer in the 
+     * ideal generated by the modulus exceeds the range of the int data type, 
+     * or if the residue does. The latter can't happen if the norm of the 
+     * modulus is less than 2<sup>30</sup>.
+     */
+    public ImaginaryQuadraticInteger modPow(long exponent, ImaginaryQuadraticInteger modulus) {
+        ImaginaryQuadraticRing ring = this.imagQuadRing;
+        if (modulus.imagPartMult != 0) {
+            if (this.imagPartMult != 0 && this.imagQuadRing.negRad != modulus.imagQuadRing.negRad) {
+                throw new AlgebraicDegreeOverflowException("This operation would require an algebraic integer of degree 4.", 2, this, modulus);
             }
-        } else {
-            divisibleFlag = (intermediateDenom == 1);
+            ring = modulus.imagQuadRing;
         }
-        if (!divisibleFlag) {
-            String exceptionMessage = this.toASCIIString() + " is not divisible by " + divisor + ".";
-            throw new NotDivisibleException(exceptionMessage, intermediateRealPart, intermediateImagPart, intermediateDenom, this.imagQuadRing.negRad);
+        long modRe = modulus.realPartMult;
+        long modIm = modulus.imagPartMult;
+        if (modulus.denominator == 1 && ring.d1mod4) {
+            modRe *= 2;
+            modIm *= 2;
         }
-        if (intermediateRealPart < Integer.MIN_VALUE || intermediateRealPart > Integer.MAX_VALUE) {
-            throw new ArithmeticException("Real part of division exceeds int data type:" + intermediateRealPart + " + " + intermediateImagPart + "sqrt(" + this.imagQuadRing.negRad + ")");
+        if (ring.d1mod4) {
+            return this.modPow(exponent, (modRe - modIm) / 2, modIm, ring);
+        } else {
+            return this.modPow(exponent, modRe, modIm, ring);
         }
-        if (intermediateImagPart < Integer.MIN_VALUE || intermediateImagPart > Integer.MAX_VALUE) {
-            throw new ArithmeticException("Imaginary part of division exceeds int data type:" + intermediateRealPart + " + " + intermediateImagPart + "sqrt(" + this.imagQuadRing.negRad + ")");
+    }
+    
+    /**
+     * Does the work of the modPow functions. Numbers are handled as <i>x</i> + 
+     * <i>y</i>&theta;, where &theta;<sup>2</sup> = <i>t</i>&theta; + 
+     * <i>c</i>: &theta; = &radic;<i>d</i>, <i>t</i> = 0 and <i>c</i> = 
+     * <i>d</i> if <i>d</i> is not 1 mod 4; &theta; = (1 + &radic;<i>d</i>)/2, 
+     * <i>t</i> = 1 and <i>c</i> = (<i>d</i> - 1)/4 otherwise.
+     * @param exponent The exponent.
+     * @param modX The <i>x</i> of the modulus.
+     * @param modY The <i>y</i> of the modulus.
+     * @param ring The ring for the result.
+     * @return The canonical residue of the power.
+     */
+    private ImaginaryQuadraticInteger modPow(long exponent, long modX, long modY, ImaginaryQuadraticRing ring) {
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Exponent " + exponent + " should not be negative.");
+        }
+        if (modX == 0 && modY == 0) {
+            throw new IllegalArgumentException("Modulus 0 is not allowed.");
+        }
+        long t = ring.d1mod4 ? 1 : 0;
+        long c = ring.d1mod4 ? (ring.negRad - 1) / 4 : ring.negRad;
+        // The multiples of the modulus by 1 and theta are (modX, modY) and (c * modY, modX + t * modY)
+        long modThetaY = modX + t * modY;
+        long[] bezout = extendedGCD(modY, modThetaY);
+        long g = bezout[0];
+        long norm = Math.addExact(Math.multiplyExact(modX, modThetaY), Math.multiplyExact(-c, Math.multiplyExact(modY, modY)));
+        long a = norm / g;
+        if (a > Integer.MAX_VALUE) {
+            throw new ArithmeticException("Modulus " + modX + " + " + modY + "theta in " + ring.toASCIIString() + " is too large, the residue ring has characteristic " + a + ".");
+        }
+        long b = Math.floorMod(mulMod(bezout[1], modX, a) + mulMod(bezout[2], mulMod(c, modY, a), a), a);
+        long cMod = Math.floorMod(c, a);
+        long baseX, baseY;
+        if (this.imagPartMult == 0 || !ring.d1mod4) {
+            baseX = this.realPartMult;
+            baseY = this.imagPartMult;
+        } else if (this.denominator == 2) {
+            baseX = ((long) this.realPartMult - this.imagPartMult) / 2;
+            baseY = this.imagPartMult;
+        } else {
+            baseX = (long) this.realPartMult - this.imagPartMult;
+            baseY = 2L * this.imagPartMult;
+        }
+        baseX = Math.floorMod(baseX, a);
+        baseY = Math.floorMod(baseY, a);
+        long powX = 1 % a;
+        long powY = 0;
+        long temp;
+        while (exponent > 0) {
+            if ((exponent & 1) == 1) {
+                temp = (mulMod(powX, baseX, a) + mulMod(cMod, mulMod(powY, baseY, a), a)) % a;
+                powY = (mulMod(powX, baseY, a) + mulMod(powY, baseX, a) + t * mulMod(powY, baseY, a)) % a;
+                powX = temp;
+            }
+            exponent >>= 1;
+            if (exponent > 0) {
+                temp = (mulMod(baseX, baseX, a) + mulMod(cMod, mulMod(baseY, baseY, a), a)) % a;
+                baseY = (2 * mulMod(baseX, baseY, a) + t * mulMod(baseY, baseY, a)) % a;
+                baseX = temp;
+            }
         }
-        return new ImaginaryQuadraticInteger((int) intermediateRealPart, (int) intermediateImagPart, this.imagQuadRing, (int) intermediateDenom);
+        // Reduce by b + g theta, then by a
+        long k = powY / g;
+        powY -= k * g;
+        powX = Math.floorMod(powX - mulMod(k, b, a), a);
+        if (ring.d1mod4) {
+            long twiceRe = 2 * powX + powY;
+            if (twiceRe > Integer.MAX_VALUE) {
+                throw new ArithmeticException("Residue " + twiceRe + "/2 + " + powY + "sqrt(" + ring.negRad + ")/2 exceeds int data type.");
+            }
+            return new ImaginaryQuadraticInteger((int) twiceRe, (int) powY, ring, 2);
+        }
+        return new ImaginaryQuadraticInteger((int) powX, (int) powY, ring);
+    }
+    
+    /**
+     * Multiplies two numbers modulo a third without overflowing, provided the 
+     * modulus is less than 2<sup>31</sup>.
+     * @param x A number, which may be negative.
+     * @param y A number, which may be negative.
+     * @param m The modulus, positive.
+     * @return xy mod m, from 0 to m - 1.
+     */
+    private static long mulMod(long x, long y, long m) {
+        return Math.floorMod(x, m) * Math.floorMod(y, m) % m;
+    }
+    
+    /**
+     * Computes the greatest common divisor of two numbers together with 
+     * B&eacute;zout coefficients for it.
+     * @param x A number. For example, 0.
+     * @param y A number. For example, -5.
+     * @return An array with the GCD, always positive, and coefficients 
+     * <i>u</i> and <i>v</i> such that <i>ux</i> + <i>vy</i> is the GCD. For 
+     * example, {5, 0, -1}.
+     */
+    private static long[] extendedGCD(long x, long y) {
+        long oldR = x, r = y;
+        long oldU = 1, u = 0;
+        long oldV = 0, v = 1;
+        long quotient, temp;
+        while (r != 0) {
+            quotient = oldR / r;
+            temp = oldR - quotient * r;
+            oldR = r;
+            r = temp;
+            temp = oldU - quotient * u;
+            oldU = u;
+            u = temp;
+            temp = oldV - quotient * v;
+            oldV = v;
+            v = temp;
+        }
+        if (oldR < 0) {
+            return new long[]{-oldR, -oldU, -oldV};
+        }
+        return new long[]{oldR, oldU, oldV};
     }
     
     /**
@@ -1423,10 +1844,10 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
                                 ringChoice *= -1;
                                 System.out.println(" Substituting " + ringChoice + ".");
                             }
-                            while (!NumberTheoreticFunctionsCalculator.isSquareFree(ringChoice)) {
+                            if (!NumberTheoreticFunctionsCalculator.isSquareFree(ringChoice)) {
                                 System.out.print(ringChoice + " is not squarefree.");
-                                ringChoice--;
-                                System.out.println(" Substituting " + ringChoice + "...");
+                                ringChoice = SquarefreeEnumerator.previousNegativeSquarefree(ringChoice);
+                                System.out.println(" Substituting " + ringChoice + ".");
                             }
                             if (ringChoice < RingWindowDisplay.MINIMUM_RING_D) {
                                 System.out.print(ringChoice + " is less than " + RingWindowDisplay.MINIMUM_RING_D + ", which is the minimum for the Ring Viewer program.");
@@ -1447,21 +1868,21 @@ public class ImaginaryQuadraticInteger implements AlgebraicInteger {
                 ImaginaryQuadraticInteger number;
                 try {
                     ringDiscr = Integer.parseInt(args[0]);
-                    while (!NumberTheoreticFunctionsCalculator.isSquareFree(ringDiscr)) {
-                        System.out.print(ringDiscr + " is not squarefree.");
-                        ringDiscr--;
-                        System.out.println(" Substituting " + ringDiscr + "...");
-                    }
                     if (ringDiscr > 0) {
                         System.out.println(ringDiscr + " is not negative.");
                         ringDiscr *= -1;
                         System.out.println(" Substituting " + ringDiscr + ".");
                     }
+                    if (!NumberTheoreticFunctionsCalculator.isSquareFree(ringDiscr)) {
+                        System.out.print(ringDiscr + " is not squarefree.");
+                        ringDiscr = SquarefreeEnumerator.previousNegativeSquarefree(ringDiscr);
+                        System.out.println(" Substituting " + ringDiscr + ".");
+                    }
                 } catch (NumberFormatException nfe) {
                     System.out.println(nfe.getMessage());
                     System.out.println("Substituting " + ringDiscr);
                 }
-                ring = new ImaginaryQuadraticRing(ringDiscr);
+                ring = ImaginaryQuadraticRing.of(ringDiscr);
                 number = ImaginaryQuadraticInteger.parseImaginaryQuadraticInteger(ring, args[1]);
                 System.out.print(number.toASCIIString());
                 if (ring.hasHalfIntegers()) {
@@ -16,6 +16,11 @@
  */
 package imaginaryquadraticinteger;
 
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * An object to represent an imaginary quadratic integer ring. A ring of 
  * quadratic integers contains infinitely many numbers. But, for the sake of 
@@ -56,6 +61,106 @@ public class ImaginaryQuadraticRing {
      */
     private static boolean preferenceForBlackboardBold = true;
     
+    /**
+     * Value given by {@link #splittingType(int)} for a rational prime that 
+     * stays prime in the ring, like 3 in <b>Z</b>[<i>i</i>].
+     */
+    public static final byte PRIME_INERT = -1;
+    
+    /**
+     * Value given by {@link #splittingType(int)} for a rational prime that is 
+     * the square of a prime ideal in the ring, like 7 in 
+     * <i>O</i><sub><b>Q</b>(&radic;-7)</sub>.
+     */
+    public static final byte PRIME_RAMIFIED = 0;
+    
+    /**
+     * Value given by {@link #splittingType(int)} for a rational prime that is 
+     * the product of two distinct prime ideals in the ring, like 5 in 
+     * <b>Z</b>[<i>i</i>].
+     */
+    public static final byte PRIME_SPLIT = 1;
+    
+    /**
+     * How far the splitting table reaches the first time it's needed. It 
+     * doubles from there as larger primes are asked about.
+     */
+    private static final int INITIAL_SPLITTING_TABLE_REACH = 1 << 10;
+    
+    /**
+     * The splitting table never grows past this. For primes beyond it, {@link 
+     * #splittingType(int)} computes the Kronecker symbol on the spot. At this 
+     * bound the table takes up 128 kilobytes.
+     */
+    public static final int SPLITTING_TABLE_BOUND = 1 << 20;
+    
+    /**
+     * The splitting types of odd primes below the table's reach, 2 bits for 
+     * each odd number, 32 odd numbers to a long. The 2 bits for an odd prime p 
+     * hold its splitting type plus 2, so that 0 means p is not prime (or not 
+     * yet classified). Built lazily, since most rings constructed by this 
+     * program never get asked about splitting. The reach is worked out from 
+     * the length of the array, see {@link #splittingTableReach(long[])}, 
+     * rather than kept in a separate field, so that a thread reading the table 
+     * without the lock can't pair one table with another table's reach.
+     */
+    private volatile long[] splittingTable = null;
+    
+    private final Object splittingTableLock = new Object();
+    
+    /**
+     * The most negative <i>d</i> that {@link #classNumberSurvey(int)} will 
+     * go down to. At this bound the survey array takes up 256 megabytes.
+     */
+    public static final int CLASS_NUMBER_SURVEY_BOUND = -67108863;
+    
+    /**
+     * How many values of <i>d</i> each task of the class number survey takes 
+     * care of. The tally for a block should fit comfortably in cache.
+     */
+    private static final int CLASS_NUMBER_SURVEY_BLOCK = 1 << 18;
+    
+    /**
+     * The class number of this ring, or 0 if it hasn't been computed yet. Like 
+     * the hash code of a String, it's cached without synchronization, since 
+     * two threads racing to compute it would both get the same answer.
+     */
+    private int classNumber = 0;
+    
+    /**
+     * The most norms this ring will remember the elements of. Past this, 
+     * {@link #isNorm(long)} still works, it just doesn't remember any more.
+     */
+    private static final int NORM_CACHE_LIMIT = 1 << 16;
+    
+    /**
+     * An empty array, shared by all norms with no elements.
+     */
+    private static final long[] NO_ELEMENTS = {};
+    
+    /**
+     * The elements of each norm looked up so far, as given by {@link 
+     * #elementsOfNorm(long)}.
+     */
+    private final ConcurrentHashMap<Long, long[]> normCache = new ConcurrentHashMap<>();
+    
+    /**
+     * The units of this ring, in order as described for {@link 
+     * NumberTheoreticFunctionsCalculator#unitIndex(long, long, int)}. Built 
+     * lazily and cached without synchronization, like the class number.
+     */
+    private volatile ImaginaryQuadraticInteger[] units = null;
+    
+    /**
+     * The most rings {@link #of(int)} will keep. Past this, it still works, it 
+     * just gives a new ring each time for <i>d</i> not seen before, so that a 
+     * long run through many values of <i>d</i> can't fill up memory with rings 
+     * and their caches.
+     */
+    public static final int INTERNED_RINGS_LIMIT = 1 << 12;
+    
+    private static final ConcurrentHashMap<Integer, ImaginaryQuadraticRing> INTERNED_RINGS = new ConcurrentHashMap<>();
+    
     /**
      * Gets the value of <i>d</i> from &radic;<i>d</i>, which this ring adjoins. 
      * This is the discriminant, divided by 4 when the ring does not have what 
@@ -107,6 +212,325 @@ public class ImaginaryQuadraticRing {
         return this.d1mod4;
     }
     
+    /**
+     * Tells how a rational prime decomposes in this ring. This is the 
+     * Kronecker symbol (<i>D</i>/<i>p</i>), where <i>D</i> is the discriminant 
+     * of the ring, that is, <i>d</i> if <i>d</i> is congruent to 1 modulo 4, 
+     * 4<i>d</i> otherwise. So 2 is ramified unless the ring has 
+     * "half-integers." Odd primes below {@link #SPLITTING_TABLE_BOUND} are 
+     * looked up in a table that this ring builds the first time it's needed 
+     * and keeps for as long as the ring object is around.
+     * @param p The rational prime. May be negative, in which case its absolute 
+     * value is used. For example, 5.
+     * @return {@link #PRIME_INERT}, {@link #PRIME_RAMIFIED} or {@link 
+     * #PRIME_SPLIT}. For example, 5 splits in <b>Z</b>[<i>i</i>], since 5 = (2 
+     * + <i>i</i>)(2 &minus; <i>i</i>), but it's inert in <b>Z</b>[&radic;-2].
+     * @throws IllegalArgumentException If p is not prime. Note that this is a 
+     * runtime exception.
+     */
+    public byte splittingType(int p) {
+        if (!NumberTheoreticFunctionsCalculator.isPrime(p)) {
+            throw new IllegalArgumentException(p + " is not a prime number.");
+        }
+        if (p == 2 || p == -2) {
+            if (this.d1mod4) {
+                return NumberTheoreticFunctionsCalculator.symbolKronecker(this.negRad, 2);
+            } else {
+                return PRIME_RAMIFIED;
+            }
+        }
+        long oddPrime = Math.abs((long) p);
+        if (oddPrime >= SPLITTING_TABLE_BOUND) {
+            return NumberTheoreticFunctionsCalculator.symbolLegendre(this.negRad, p);
+        }
+        long[] table = this.splittingTableCovering((int) oddPrime);
+        int index = (int) (oddPrime >> 1);
+        int code = (int) (table[index >> 5] >>> ((index & 31) << 1)) & 3;
+        return (byte) (code - 2);
+    }
+    
+    /**
+     * Gives a splitting table that reaches past the specified odd number, 
+     * building or enlarging this ring's table as needed. Enlarging keeps what 
+     * was already computed and only classifies the new primes.
+     * @param oddNum An odd number less than SPLITTING_TABLE_BOUND.
+     * @return The splitting table.
+     */
+    private long[] splittingTableCovering(int oddNum) {
+        long[] table = this.splittingTable;
+        if (table != null && oddNum < splittingTableReach(table)) {
+            return table;
+        }
+        synchronized (this.splittingTableLock) {
+            table = this.splittingTable;
+            if (table != null && oddNum < splittingTableReach(table)) {
+                return table;
+            }
+            int from = 3;
+            int newReach = INITIAL_SPLITTING_TABLE_REACH;
+            if (table != null) {
+                int reach = splittingTableReach(table);
+                from = reach + 1;
+                newReach = reach;
+            }
+            while (newReach <= oddNum) {
+                newReach <<= 1;
+            }
+            long[] newTable = new long[(newReach >> 6) + 1];
+            if (table != null) {
+                System.arraycopy(table, 0, newTable, 0, table.length);
+            }
+            int index;
+            long code;
+            for (int n = from; n < newReach; n += 2) {
+                if (NumberTheoreticFunctionsCalculator.isPrime(n)) {
+                    code = NumberTheoreticFunctionsCalculator.symbolLegendre(this.negRad, n) + 2;
+                    index = n >> 1;
+                    newTable[index >> 5] |= code << ((index & 31) << 1);
+                }
+            }
+            this.splittingTable = newTable;
+            return newTable;
+        }
+    }
+    
+    /**
+     * Tells how far a splitting table reaches. A table reaching up to 
+     * <i>r</i>, a power of 2, has <i>r</i>/64 + 1 elements.
+     * @param table The splitting table.
+     * @return The reach. Every odd number below this has a slot in the table.
+     */
+    private static int splittingTableReach(long[] table) {
+        return (table.length - 1) << 6;
+    }
+    
+    /**
+     * Tells whether a positive integer is the norm of some number in this 
+     * ring, that is, whether it's represented by the principal form 
+     * <i>x</i><sup>2</sup> &minus; <i>dy</i><sup>2</sup>, or by 
+     * <i>x</i><sup>2</sup> + <i>xy</i> + (1 &minus; <i>d</i>)/4 
+     * <i>y</i><sup>2</sup> if the ring has "half-integers." The answer is 
+     * remembered, along with the numbers of that norm.
+     * @param n The number to check. For example, 6.
+     * @return True if some number in this ring has norm n, false otherwise. 
+     * For example, true for 6 in <b>Z</b>[&radic;-5], as 1 + &radic;-5 has norm 
+     * 6, but false for 2 and 3 in that ring.
+     * @throws ArithmeticException If 4n overflows a long.
+     */
+    public boolean isNorm(long n) {
+        if (n < 0) {
+            return false;
+        }
+        return this.elementsOfNorm(n).length > 0;
+    }
+    
+    /**
+     * Finds the numbers in this ring with a given norm, up to multiplication 
+     * by -1, as pairs of real and imaginary parts multiplied by 2.
+     * @param n The norm, which should not be negative. For example, 9.
+     * @return An array of even length in which positions 2<i>k</i> and 
+     * 2<i>k</i> + 1 have twice the real part and twice the imaginary part 
+     * (divided by &radic;<i>d</i>) of the <i>k</i>th number found. The real 
+     * parts are not negative. For example, for 9 in <b>Z</b>[&radic;-5], {6, 
+     * 0, 4, 2, 4, -2}, meaning 3, 2 + &radic;-5 and 2 &minus; &radic;-5. An 
+     * empty array if there are no numbers of norm n. Callers must not modify 
+     * the array, since it's shared.
+     * @throws ArithmeticException If 4n overflows a long.
+     */
+    long[] elementsOfNorm(long n) {
+        long[] elements = this.normCache.get(n);
+        if (elements == null) {
+            elements = findElementsOfNorm(n);
+            if (this.normCache.size() < NORM_CACHE_LIMIT) {
+                this.normCache.putIfAbsent(n, elements);
+            }
+        }
+        return elements;
+    }
+    
+    private long[] findElementsOfNorm(long n) {
+        long fourNorm = Math.multiplyExact(n, 4);
+        int step = this.d1mod4 ? 1 : 2;
+        long[] elements = NO_ELEMENTS;
+        int count = 0;
+        long x, rem;
+        for (long y = 0; this.absNegRad * y * y <= fourNorm; y += step) {
+            rem = fourNorm - this.absNegRad * y * y;
+            x = NumberTheoreticFunctionsCalculator.floorSqrt(rem);
+            if (x * x == rem) {
+                if (count + 4 > elements.length) {
+                    elements = Arrays.copyOf(elements, elements.length + 8);
+                }
+                elements[count++] = x;
+                elements[count++] = y;
+                if (x != 0 && y != 0) {
+                    elements[count++] = x;
+                    elements[count++] = -y;
+                }
+            }
+        }
+        if (count == 0) {
+            return NO_ELEMENTS;
+        }
+        return Arrays.copyOf(elements, count);
+    }
+    
+    /**
+     * Gives the class number of this ring, which is 1 if and only if the ring 
+     * is a unique factorization domain. It's computed the first time it's 
+     * asked for by counting the reduced binary quadratic forms 
+     * <i>ax</i><sup>2</sup> + <i>bxy</i> + <i>cy</i><sup>2</sup> of 
+     * discriminant <i>b</i><sup>2</sup> &minus; 4<i>ac</i> = <i>D</i>, which 
+     * takes time proportional to |<i>D</i>|, and then it's kept for as long 
+     * as the ring object is around.
+     * @return The class number <i>h</i>(<i>d</i>). For example, 1 for 
+     * <b>Z</b>[<i>i</i>], 2 for <b>Z</b>[&radic;-5], 3 for 
+     * <i>O</i><sub><b>Q</b>(&radic;-23)</sub>.
+     */
+    public int classNumber() {
+        int h = this.classNumber;
+        if (h == 0) {
+            h = countReducedForms(this.d1mod4 ? this.negRad : 4L * this.negRad);
+            this.classNumber = h;
+        }
+        return h;
+    }
+    
+    /**
+     * Counts the reduced binary quadratic forms of a given negative 
+     * discriminant. A form (<i>a</i>, <i>b</i>, <i>c</i>) is reduced if 
+     * |<i>b</i>| &le; <i>a</i> &le; <i>c</i>, with <i>b</i> &ge; 0 if either 
+     * |<i>b</i>| = <i>a</i> or <i>a</i> = <i>c</i>.
+     * @param discr The discriminant, a negative number congruent to 0 or 1 
+     * modulo 4.
+     * @return The number of reduced forms. For a fundamental discriminant, this 
+     * is the class number.
+     */
+    private static int countReducedForms(long discr) {
+        int count = 0;
+        long b, c, num;
+        for (long a = 1; 3 * a * a <= -discr; a++) {
+            for (b = discr & 1; b <= a; b += 2) {
+                num = b * b - discr;
+                if (num % (4 * a) == 0) {
+                    c = num / (4 * a);
+                    if (c >= a) {
+                        count += (b == 0 || b == a || c == a) ? 1 : 2;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Computes the class numbers of all the imaginary quadratic rings from 
+     * <b>Z</b>[<i>i</i>] down to a given bound. Instead of counting reduced 
+     * forms discriminant by discriminant, this runs through the reduced forms 
+     * of all the relevant discriminants at once, splitting the range of 
+     * <i>d</i> into blocks that are tallied in parallel on the common fork/join 
+     * pool. The total work is proportional to the sum of the class numbers, 
+     * which grows like |bound|<sup>3/2</sup>.
+     * @param bound The most negative <i>d</i> to compute the class number for. 
+     * For example, -10.
+     * @return An array with <i>h</i>(<i>d</i>) at position -<i>d</i> for each 
+     * squarefree <i>d</i> from -1 down to bound, and 0 at all other positions, 
+     * including position 0. For example, for -10, {0, 1, 1, 1, 0, 2, 2, 1, 0, 
+     * 0, 2}.
+     * @throws IllegalArgumentException If bound is not negative or is less than 
+     * {@link #CLASS_NUMBER_SURVEY_BOUND}.
+     */
+    public static int[] classNumberSurvey(int bound) {
+        if (bound > -1 || bound < CLASS_NUMBER_SURVEY_BOUND) {
+            throw new IllegalArgumentException("Bound " + bound + " is outside the range from " + CLASS_NUMBER_SURVEY_BOUND + " to -1.");
+        }
+        int[] classNumbers = new int[1 - bound];
+        ForkJoinPool.commonPool().invoke(new ClassNumberSurveyTask(classNumbers, 1, classNumbers.length));
+        return classNumbers;
+    }
+    
+    /**
+     * Tallies the reduced forms for -<i>d</i> in a range, splitting the range 
+     * in half until it's no longer than {@link #CLASS_NUMBER_SURVEY_BLOCK}. 
+     * Each task only writes to its own part of the array.
+     */
+    private static class ClassNumberSurveyTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1058274363;
+        
+        private final int[] classNumbers;
+        private final int from, to;
+        
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= CLASS_NUMBER_SURVEY_BLOCK) {
+                tallyReducedForms(this.classNumbers, this.from, this.to);
+            } else {
+                int middle = this.from + (this.to - this.from) / 2;
+                invokeAll(new ClassNumberSurveyTask(this.classNumbers, this.from, middle), new ClassNumberSurveyTask(this.classNumbers, middle, this.to));
+            }
+        }
+        
+        ClassNumberSurveyTask(int[] classNumbers, int from, int to) {
+            this.classNumbers = classNumbers;
+            this.from = from;
+            this.to = to;
+        }
+        
+    }
+    
+    /**
+     * Counts reduced forms for each squarefree <i>d</i> with -<i>d</i> in a 
+     * range. If <i>d</i> is congruent to 1 modulo 4, the forms have odd 
+     * <i>b</i> and 4<i>ac</i> &minus; <i>b</i><sup>2</sup> = -<i>d</i>. 
+     * Otherwise <i>b</i> = 2<i>e</i> and <i>ac</i> &minus; 
+     * <i>e</i><sup>2</sup> = -<i>d</i>, which is then congruent to 1 or 2 
+     * modulo 4. Positions for <i>d</i> that are not squarefree are then 
+     * cleared, since their discriminants are not fundamental.
+     * @param classNumbers The array to tally in, indexed by -<i>d</i>.
+     * @param from The least value of -<i>d</i> to tally, at least 1.
+     * @param to The value of -<i>d</i> just past the last one to tally.
+     */
+    private static void tallyReducedForms(int[] classNumbers, int from, int to) {
+        long a, b, c, cFrom, cTo, num;
+        int weight;
+        // Odd b: -d = 4ac - b^2 is 3 modulo 4
+        for (a = 1; 3 * a * a < to; a++) {
+            for (b = 1; b <= a; b += 2) {
+                cFrom = Math.max(a, (from + b * b + 4 * a - 1) / (4 * a));
+                cTo = (to - 1 + b * b) / (4 * a);
+                weight = (b == a) ? 1 : 2;
+                for (c = cFrom; c <= cTo; c++) {
+                    classNumbers[(int) (4 * a * c - b * b)] += (c == a) ? 1 : weight;
+                }
+            }
+        }
+        // Even b = 2e: -d = ac - e^2 has to be 1 or 2 modulo 4
+        for (a = 1; 3 * a * a < 4 * to; a++) {
+            for (b = 0; 2 * b <= a; b++) {
+                cFrom = Math.max(a, (from + b * b + a - 1) / a);
+                cTo = (to - 1 + b * b) / a;
+                weight = (b == 0 || 2 * b == a) ? 1 : 2;
+                // The residue of -d modulo 4 repeats every 4 steps of c
+                for (long start = cFrom; start < cFrom + 4; start++) {
+                    num = a * start - b * b;
+                    if (((num - 1) & 2) == 0) {
+                        for (c = start; c <= cTo; c += 4) {
+                            classNumbers[(int) num] += (c == a) ? 1 : weight;
+                            num += 4 * a;
+                        }
+                    }
+                }
+            }
+        }
+        byte[] mus = NumberTheoreticFunctionsCalculator.moebiusRange(from, to);
+        for (int i = 0; i < mus.length; i++) {
+            if (mus[i] == 0) {
+                classNumbers[from + i] = 0;
+            }
+        }
+    }
+    
     /**
      * Query the setting of the preference for blackboard bold.
      * @return True if blackboard bold is preferred, false if plain bold is 
@@ -339,9 +763,55 @@ public class ImaginaryQuadraticRing {
         return (this.negRad == other.negRad);
     }
     
+    /**
+     * Gives the units of this ring, building the list the first time it's 
+     * asked for. Callers must not change the array.
+     * @return An array of 4 units for <b>Z</b>[<i>i</i>], 6 for 
+     * <b>Z</b>[&omega;], 2 for any other ring.
+     */
+    ImaginaryQuadraticInteger[] units() {
+        ImaginaryQuadraticInteger[] result = this.units;
+        if (result == null) {
+            long[][] doubledUnits = NumberTheoreticFunctionsCalculator.unitsOfRing(this.negRad);
+            result = new ImaginaryQuadraticInteger[doubledUnits.length];
+            for (int i = 0; i < doubledUnits.length; i++) {
+                result[i] = NumberTheoreticFunctionsCalculator.fromDoubledParts(doubledUnits[i][0], doubledUnits[i][1], this);
+            }
+            this.units = result;
+        }
+        return result;
+    }
+    
+    /**
+     * Gives the ring for <i>d</i>, the same object every time for the same 
+     * <i>d</i> (up to {@link #INTERNED_RINGS_LIMIT} different rings). Prefer 
+     * this to the constructor: the validation is only done once, and the 
+     * caches each ring builds up, like the splitting table and the elements of 
+     * each norm, get reused instead of being rebuilt for every new ring 
+     * object. Rings from the constructor are still equal to rings from here.
+     * @param d A negative, squarefree integer, like -10 or -7.
+     * @return The ring. For example, for -7, 
+     * <i>O</i><sub><b>Q</b>(&radic;-7)</sub>.
+     * @throws IllegalArgumentException If d is 0 or any positive integer, or if 
+     * d is negative but not squarefree.
+     */
+    public static ImaginaryQuadraticRing of(int d) {
+        ImaginaryQuadraticRing ring = INTERNED_RINGS.get(d);
+        if (ring != null) {
+            return ring;
+        }
+        ring = new ImaginaryQuadraticRing(d);
+        if (INTERNED_RINGS.size() >= INTERNED_RINGS_LIMIT) {
+            return ring;
+        }
+        ImaginaryQuadraticRing previous = INTERNED_RINGS.putIfAbsent(d, ring);
+        return (previous == null) ? ring : previous;
+    }
+    
     /**
      * Class constructor. Its task is, after validating the parameter, simply to 
-     * set the appropriate protected final properties.
+     * set the appropriate protected final properties. Consider using {@link 
+     * #of(int)} instead.
      * @param d A negative, squarefree integer, like -10 or -7.
      * @throws IllegalArgumentException If d is 0 or any positive integer, or if 
      * d is negative but not squarefree. For example, d being any of -28, 0 or 3 
@@ -0,0 +1,516 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import java.util.Objects;
+
+/**
+ * Defines objects representing imaginary quadratic integers with the real part 
+ * and the imaginary part held in 64-bit fields, for when the 32-bit fields of 
+ * {@link ImaginaryQuadraticInteger} are not enough. Unlike that class, all the 
+ * arithmetic here is checked with the exact methods of {@link Math}, so any 
+ * overflow causes an ArithmeticException rather than a wrong result. For 
+ * numbers that might outgrow even 64 bits, use {@link 
+ * BigImaginaryQuadraticInteger}, which holds one of these until an operation 
+ * overflows.
+ * @author Alonso del Arte
+ */
+public class LongImaginaryQuadraticInteger implements AlgebraicInteger {
+    
+    /**
+     * The real part of the imaginary quadratic integer. If the denominator is 
+     * 2, the real part should be odd.
+     */
+    protected final long realPartMult;
+    
+    /**
+     * The imaginary part of the imaginary quadratic integer, divided by 
+     * &radic;<i>d</i>. If the denominator is 2, this should be odd.
+     */
+    protected final long imagPartMult;
+    
+    /**
+     * The ring that this imaginary quadratic integer belongs to.
+     */
+    protected final ImaginaryQuadraticRing imagQuadRing;
+    
+    /**
+     * May be 2 if imagQuadRing.d1mod4 is true, otherwise this should be 1.
+     */
+    protected final int denominator;
+    
+    /**
+     * Gives the algebraic degree of the algebraic integer. Should not be higher 
+     * than 2.
+     * @return 0 if the algebraic integer is 0, 1 if it's a purely real integer, 
+     * 2 otherwise. For example, given 5/2 + sqrt(-7)/2, the algebraic degree is 
+     * 2; for 32 it's 1; and for 0 it's 0.
+     */
+    @Override
+    public int algebraicDegree() {
+        if (this.imagPartMult == 0) {
+            if (this.realPartMult == 0) {
+                return 0;
+            } else {
+                return 1;
+            }
+        } else {
+            return 2;
+        }
+    }
+    
+    /**
+     * Calculates the trace of the imaginary quadratic integer (twice the real 
+     * part).
+     * @return Twice the real part. For example, given 5/2 + sqrt(-7)/2, the 
+     * trace is 5. Given 5 + sqrt(-7), the trace is 10.
+     * @throws ArithmeticException If twice the real part doesn't fit in a 
+     * long. {@link BigImaginaryQuadraticInteger#bigTrace()} can give it.
+     */
+    @Override
+    public long trace() {
+        if (this.denominator == 2) {
+            return this.realPartMult;
+        } else {
+            return Math.multiplyExact(2, this.realPartMult);
+        }
+    }
+    
+    /**
+     * Calculates the norm of the imaginary quadratic integer.
+     * @return The square of the real part plus |<i>d</i>| times the square of 
+     * the imaginary part divided by &radic;<i>d</i>. For example, given 5/2 + 
+     * sqrt(-7)/2, the norm would be 8. Never negative.
+     * @throws ArithmeticException If the norm, or for "half-integers" four 
+     * times the norm, doesn't fit in a long. {@link 
+     * BigImaginaryQuadraticInteger#bigNorm()} can give it.
+     */
+    @Override
+    public long norm() {
+        long N = Math.addExact(Math.multiplyExact(this.realPartMult, this.realPartMult), Math.multiplyExact(this.imagQuadRing.absNegRad, Math.multiplyExact(this.imagPartMult, this.imagPartMult)));
+        if (this.denominator == 2) {
+            N /= 4;
+        }
+        return N;
+    }
+    
+    /**
+     * Gives the coefficients for the minimal polynomial of the algebraic 
+     * integer.
+     * @return An array of three integers. If the algebraic integer is of degree 
+     * 2, the array will be {norm, negative trace, 1}; if of degree 1, then 
+     * {number, 1, 0}, and for 0, {0, 1, 0}. For example, for 5/2 + sqrt(-7)/2, 
+     * the result would be {8, -5, 1}.
+     * @throws ArithmeticException If the norm or the trace doesn't fit in a 
+     * long.
+     */
+    @Override
+    public long[] minPolynomial() {
+        long[] coeffs = {0, 0, 0};
+        switch (this.algebraicDegree()) {
+            case 0:
+                coeffs[1] = 1;
+                break;
+            case 1:
+                coeffs[0] = Math.negateExact(this.realPartMult);
+                coeffs[1] = 1;
+                break;
+            default:
+                coeffs[0] = this.norm();
+                coeffs[1] = Math.negateExact(this.trace());
+                coeffs[2] = 1;
+        }
+        return coeffs;
+    }
+    
+    /**
+     * Gives the minimal polynomial in a format suitable for plain text or TeX.
+     * @return A String. If the algebraic degree is 2, the String should start 
+     * off with "x^2". For example, for 5/2 + sqrt(-7)/2, the result would be 
+     * "x^2 - 5x + 8". Unlike {@link #minPolynomial()}, this works even if the 
+     * norm doesn't fit in a long.
+     */
+    @Override
+    public String minPolynomialString() {
+        return BigImaginaryQuadraticInteger.valueOf(this).minPolynomialString();
+    }
+    
+    /**
+     * Computes the conjugate of the given algebraic integer.
+     * @return The conjugate. For example, given 5/2 + sqrt(-7)/2, the conjugate 
+     * would be 5/2 - sqrt(-7)/2.
+     * @throws ArithmeticException If the imaginary part is -2<sup>63</sup>, 
+     * which can't be negated in a long.
+     */
+    public LongImaginaryQuadraticInteger conjugate() {
+        if (this.imagPartMult == 0) {
+            return this;
+        }
+        return new LongImaginaryQuadraticInteger(this.realPartMult, Math.negateExact(this.imagPartMult), this.imagQuadRing, this.denominator);
+    }
+    
+    /**
+     * Gets the real part of the imaginary quadratic integer, multiplied by 2 
+     * when necessary.
+     * @return The real part, multiplied by 2 if the denominator is 2. For 
+     * example, for 3/2 + sqrt(-7)/2, this would be 3; for 3 + sqrt(-7) this 
+     * would also be 3.
+     */
+    public long getRealPartMult() {
+        return this.realPartMult;
+    }
+    
+    /**
+     * Gets the imaginary part of the imaginary quadratic integer, divided by 
+     * sqrt(d), and multiplied by 2 when necessary.
+     * @return The imaginary part, multiplied by 2 if the denominator is 2. For 
+     * example, for 3/2 + sqrt(-7)/2, this would be 1; for 3 + sqrt(-7) this 
+     * would also be 1.
+     */
+    public long getImagPartMult() {
+        return this.imagPartMult;
+    }
+    
+    /**
+     * Gets the imaginary quadratic ring which this imaginary quadratic integer 
+     * belongs to.
+     * @return An ImaginaryQuadraticRing object.
+     */
+    public ImaginaryQuadraticRing getRing() {
+        return this.imagQuadRing;
+    }
+    
+    /**
+     * Gets the denominator of the imaginary quadratic integer when represented 
+     * as a fraction in lowest terms.
+     * @return 2 only in the case of so-called "half-integers," always 1 
+     * otherwise.
+     */
+    public int getDenominator() {
+        return this.denominator;
+    }
+    
+    /**
+     * Tells whether the parts of this number are small enough for an {@link 
+     * ImaginaryQuadraticInteger}.
+     * @return True if both parts fit in an int, false otherwise. For example, 
+     * true for 3 + 2i, false for 3 + 2<sup>40</sup><i>i</i>.
+     */
+    public boolean fitsInInt() {
+        return this.realPartMult == (int) this.realPartMult && this.imagPartMult == (int) this.imagPartMult;
+    }
+    
+    /**
+     * Gives the same number as an {@link ImaginaryQuadraticInteger}.
+     * @return An ImaginaryQuadraticInteger with the same parts, ring and 
+     * denominator.
+     * @throws ArithmeticException If either part doesn't fit in an int.
+     */
+    public ImaginaryQuadraticInteger toImaginaryQuadraticInteger() {
+        return new ImaginaryQuadraticInteger(Math.toIntExact(this.realPartMult), Math.toIntExact(this.imagPartMult), this.imagQuadRing, this.denominator);
+    }
+    
+    /**
+     * Gives a number of this class with the same value as an {@link 
+     * ImaginaryQuadraticInteger}.
+     * @param num The number. For example, 5/2 + sqrt(-7)/2.
+     * @return A LongImaginaryQuadraticInteger with the same parts, ring and 
+     * denominator.
+     */
+    public static LongImaginaryQuadraticInteger valueOf(ImaginaryQuadraticInteger num) {
+        return new LongImaginaryQuadraticInteger(num.realPartMult, num.imagPartMult, num.imagQuadRing, num.denominator);
+    }
+    
+    /**
+     * A text representation of the imaginary quadratic integer, in the same 
+     * format as {@link ImaginaryQuadraticInteger#toString()}.
+     * @return A String. For example, "5/2 + &radic;(-7)/2".
+     */
+    @Override
+    public String toString() {
+        return BigImaginaryQuadraticInteger.valueOf(this).toString();
+    }
+    
+    /**
+     * A text representation of the imaginary quadratic integer using only ASCII 
+     * characters.
+     * @return A String. For example, "5/2 + sqrt(-7)/2".
+     */
+    @Override
+    public String toASCIIString() {
+        return this.toString().replace("\u221A", "sqrt");
+    }
+    
+    /**
+     * A text representation of the imaginary quadratic integer suitable for use 
+     * in a TeX document.
+     * @return A String. For example, for 1/2 + sqrt(-7)/2, the result should be 
+     * "\frac{1}{2} + \frac{\sqrt{-7}}{2}".
+     */
+    @Override
+    public String toTeXString() {
+        return BigImaginaryQuadraticInteger.valueOf(this).toTeXString();
+    }
+    
+    /**
+     * A text representation of the imaginary quadratic integer suitable for use 
+     * in an HTML document.
+     * @return A String. For example, for 1/2 + sqrt(-7)/2, the result should be 
+     * "1/2 + &amp;radic;(&amp;minus;7)/2".
+     */
+    @Override
+    public String toHTMLString() {
+        return BigImaginaryQuadraticInteger.valueOf(this).toHTMLString();
+    }
+    
+    /**
+     * Returns a hash code value for the imaginary quadratic integer. As with 
+     * {@link ImaginaryQuadraticInteger#hashCode()}, a purely real integer 
+     * hashes the same regardless of the ring.
+     * @return An integer.
+     */
+    @Override
+    public int hashCode() {
+        if (this.imagPartMult == 0) {
+            return Objects.hash(this.realPartMult, this.imagPartMult, -1, this.denominator);
+        } else {
+            return Objects.hash(this.realPartMult, this.imagPartMult, this.imagQuadRing.negRad, this.denominator);
+        }
+    }
+    
+    /**
+     * Compares whether an object is arithmetically equal to this imaginary 
+     * quadratic integer.
+     * @param obj The object to compare this to.
+     * @return True if the object is a LongImaginaryQuadraticInteger 
+     * arithmetically equal to this one, false otherwise. As with {@link 
+     * ImaginaryQuadraticInteger#equals(Object)}, purely real integers are 
+     * equal regardless of the ring.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final LongImaginaryQuadraticInteger other = (LongImaginaryQuadraticInteger) obj;
+        if (this.realPartMult != other.realPartMult) {
+            return false;
+        }
+        if (this.imagPartMult != other.imagPartMult) {
+            return false;
+        }
+        if (this.denominator != other.denominator) {
+            return false;
+        }
+        if (this.imagPartMult == 0) {
+            return true;
+        }
+        return (this.imagQuadRing.negRad == other.imagQuadRing.negRad);
+    }
+    
+    /**
+     * Figures out which ring the result of an operation on two numbers goes 
+     * in. Same rules as for the arithmetic of {@link 
+     * ImaginaryQuadraticInteger}: a purely real number can be combined with a 
+     * number from any ring.
+     * @param other The other operand.
+     * @return The ring of whichever operand has a nonzero imaginary part, or 
+     * of this number if neither does.
+     * @throws AlgebraicDegreeOverflowException If both operands have nonzero 
+     * imaginary parts and come from different rings.
+     */
+    private ImaginaryQuadraticRing ringFor(LongImaginaryQuadraticInteger other) {
+        if (this.imagPartMult == 0 && other.imagPartMult != 0) {
+            return other.imagQuadRing;
+        }
+        if (other.imagPartMult != 0 && this.imagQuadRing.negRad != other.imagQuadRing.negRad) {
+            throw new AlgebraicDegreeOverflowException("This operation would result in an algebraic integer of degree 4.", 2, this, other);
+        }
+        return this.imagQuadRing;
+    }
+    
+    /**
+     * Addition operation. Overflow is checked.
+     * @param summand The imaginary quadratic integer to be added to this one.
+     * @return A new LongImaginaryQuadraticInteger object with the result of 
+     * the operation.
+     * @throws AlgebraicDegreeOverflowException If the algebraic integers come 
+     * from different quadratic rings and both have nonzero imaginary parts.
+     * @throws ArithmeticException If either part of the sum doesn't fit in a 
+     * long.
+     */
+    public LongImaginaryQuadraticInteger plus(LongImaginaryQuadraticInteger summand) {
+        ImaginaryQuadraticRing ring = this.ringFor(summand);
+        if (this.denominator == 1 && summand.denominator == 1) {
+            return new LongImaginaryQuadraticInteger(Math.addExact(this.realPartMult, summand.realPartMult), Math.addExact(this.imagPartMult, summand.imagPartMult), ring);
+        }
+        if (this.denominator == 2 && summand.denominator == 2) {
+            // Halve the odd parts before adding so the sum can't overflow early
+            long re = Math.addExact((this.realPartMult >> 1) + (summand.realPartMult >> 1), 1);
+            long im = Math.addExact((this.imagPartMult >> 1) + (summand.imagPartMult >> 1), 1);
+            return new LongImaginaryQuadraticInteger(re, im, ring);
+        }
+        long thisTwiceRe = this.realPartMult;
+        long thisTwiceIm = this.imagPartMult;
+        long summandTwiceRe = summand.realPartMult;
+        long summandTwiceIm = summand.imagPartMult;
+        if (this.denominator == 1) {
+            thisTwiceRe = Math.multiplyExact(2, thisTwiceRe);
+            thisTwiceIm = Math.multiplyExact(2, thisTwiceIm);
+        } else {
+            summandTwiceRe = Math.multiplyExact(2, summandTwiceRe);
+            summandTwiceIm = Math.multiplyExact(2, summandTwiceIm);
+        }
+        return new LongImaginaryQuadraticInteger(Math.addExact(thisTwiceRe, summandTwiceRe), Math.addExact(thisTwiceIm, summandTwiceIm), ring, 2);
+    }
+    
+    /**
+     * Subtraction operation. Overflow is checked.
+     * @param subtrahend The imaginary quadratic integer to be subtracted from 
+     * this one.
+     * @return A new LongImaginaryQuadraticInteger object with the result of 
+     * the operation.
+     * @throws AlgebraicDegreeOverflowException If the algebraic integers come 
+     * from different quadratic rings and both have nonzero imaginary parts.
+     * @throws ArithmeticException If either part of the subtraction doesn't 
+     * fit in a long.
+     */
+    public LongImaginaryQuadraticInteger minus(LongImaginaryQuadraticInteger subtrahend) {
+        return this.plus(new LongImaginaryQuadraticInteger(Math.negateExact(subtrahend.realPartMult), Math.negateExact(subtrahend.imagPartMult), subtrahend.imagQuadRing, subtrahend.denominator));
+    }
+    
+    /**
+     * Multiplication operation. Overflow is checked.
+     * @param multiplicand The imaginary quadratic integer to be multiplied by 
+     * this one.
+     * @return A new LongImaginaryQuadraticInteger object with the result of 
+     * the operation.
+     * @throws AlgebraicDegreeOverflowException If the algebraic integers come 
+     * from different quadratic rings and both have nonzero imaginary parts.
+     * @throws ArithmeticException If either part of the product, or an 
+     * intermediate product, doesn't fit in a long.
+     */
+    public LongImaginaryQuadraticInteger times(LongImaginaryQuadraticInteger multiplicand) {
+        ImaginaryQuadraticRing ring = this.ringFor(multiplicand);
+        long realPart = Math.subtractExact(Math.multiplyExact(this.realPartMult, multiplicand.realPartMult), Math.multiplyExact(ring.absNegRad, Math.multiplyExact(this.imagPartMult, multiplicand.imagPartMult)));
+        long imagPart = Math.addExact(Math.multiplyExact(this.realPartMult, multiplicand.imagPartMult), Math.multiplyExact(this.imagPartMult, multiplicand.realPartMult));
+        int denom = this.denominator * multiplicand.denominator;
+        if (denom == 4) {
+            realPart /= 2;
+            imagPart /= 2;
+            denom = 2;
+        }
+        return new LongImaginaryQuadraticInteger(realPart, imagPart, ring, denom);
+    }
+    
+    /**
+     * Raises this number to a power by repeated squaring, which takes about 
+     * log<sub>2</sub> of the exponent multiplications, done on local longs so 
+     * that only the result is a new object.
+     * @param exponent The exponent. For example, 3.
+     * @return This number to the power of exponent. For example, for 1 + 
+     * <i>i</i>, the result would be -2 + 2<i>i</i>. Any number to the power 0, 
+     * even 0, is 1.
+     * @throws IllegalArgumentException If exponent is negative.
+     * @throws ArithmeticException If a part of the power, or of one of the 
+     * intermediate squares, doesn't fit in a long. {@link 
+     * BigImaginaryQuadraticInteger#pow(int)} doesn't have this limitation.
+     */
+    public LongImaginaryQuadraticInteger pow(int exponent) {
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Exponent " + exponent + " should not be negative.");
+        }
+        long absNegRad = this.imagQuadRing.absNegRad;
+        int denom = this.denominator;
+        long powRe = denom;
+        long powIm = 0;
+        long baseRe = this.realPartMult;
+        long baseIm = this.imagPartMult;
+        long temp;
+        while (exponent > 0) {
+            if ((exponent & 1) == 1) {
+                temp = Math.subtractExact(Math.multiplyExact(powRe, baseRe), Math.multiplyExact(absNegRad, Math.multiplyExact(powIm, baseIm))) / denom;
+                powIm = Math.addExact(Math.multiplyExact(powRe, baseIm), Math.multiplyExact(powIm, baseRe)) / denom;
+                powRe = temp;
+            }
+            exponent >>= 1;
+            if (exponent > 0) {
+                temp = Math.subtractExact(Math.multiplyExact(baseRe, baseRe), Math.multiplyExact(absNegRad, Math.multiplyExact(baseIm, baseIm))) / denom;
+                baseIm = Math.multiplyExact(2, Math.multiplyExact(baseRe, baseIm)) / denom;
+                baseRe = temp;
+            }
+        }
+        return new LongImaginaryQuadraticInteger(powRe, powIm, this.imagQuadRing, denom);
+    }
+    
+    /**
+     * Alternative object constructor, may be used when the denominator is known 
+     * to be 1.
+     * @param a The real part of the imaginary quadratic integer. For example, 
+     * for 5 + &radic;-3, this parameter would be 5.
+     * @param b The part to be multiplied by &radic;<i>d</i>. For example, for 5 
+     * + &radic;-3, this parameter would be 1.
+     * @param R The ring to which this algebraic integer belongs to.
+     */
+    public LongImaginaryQuadraticInteger(long a, long b, ImaginaryQuadraticRing R) {
+        this(a, b, R, 1);
+    }
+    
+    /**
+     * Primary object constructor.
+     * @param a The real part of the imaginary quadratic integer, multiplied by 
+     * 2 when applicable. For example, for 5/2 + (&radic;-3)/2, this parameter 
+     * would be 5.
+     * @param b The part to be multiplied by &radic;<i>d</i>, multiplied by 2 
+     * when applicable. For example, for 5/2 + (&radic;-3)/2, this parameter 
+     * would be 1.
+     * @param R The ring to which this algebraic integer belongs to.
+     * @param denom 1 or 2. If 2 and both a and b are even, they are quietly 
+     * halved and the denominator changed to 1.
+     * @throws IllegalArgumentException If denom is anything other than 1 or 2, 
+     * or if denom is 2 but a and b don't match parity, or if a and b are both 
+     * odd but R doesn't have "half-integers."
+     */
+    public LongImaginaryQuadraticInteger(long a, long b, ImaginaryQuadraticRing R, int denom) {
+        if (denom < 1 || denom > 2) {
+            throw new IllegalArgumentException("Parameter denom must be 1 or 2.");
+        }
+        if (denom == 2) {
+            if ((a & 1) != (b & 1)) {
+                throw new IllegalArgumentException("Parity of parameter a must match parity of parameter b.");
+            }
+            if ((a & 1) == 0) {
+                a /= 2;
+                b /= 2;
+                denom = 1;
+            } else if (!R.d1mod4) {
+                throw new IllegalArgumentException("Either parameter a and parameter b need to both be even, or parameter denom needs to be 1.");
+            }
+        }
+        this.realPartMult = a;
+        this.imagPartMult = b;
+        this.imagQuadRing = R;
+        this.denominator = denom;
+    }
+    
+}
@@ -0,0 +1,510 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+/**
+ * An imaginary quadratic integer that can be changed in place, for long chains 
+ * of arithmetic that would otherwise create a new {@link 
+ * ImaginaryQuadraticInteger} at every step. The parts are held in 32-bit 
+ * fields, like in ImaginaryQuadraticInteger, and the same overflow checks 
+ * apply: if a result doesn't fit, ArithmeticException is thrown and this 
+ * object is left as it was. Once the chain is done, {@link #freeze()} gives 
+ * the result as an ImaginaryQuadraticInteger. 
+ * <p>Like StringBuilder, this class is not thread safe, and the in-place 
+ * functions return this object so that calls can be chained, e.g., 
+ * <code>acc.multiplyInPlace(base).addInPlace(digit)</code>.</p>
+ * @author Alonso del Arte
+ */
+public final class MutableImaginaryQuadraticInteger implements AlgebraicInteger {
+    
+    private int realPartMult;
+    
+    private int imagPartMult;
+    
+    private int denominator;
+    
+    private ImaginaryQuadraticRing imagQuadRing;
+    
+    /**
+     * Gives the algebraic degree of the number as it is now.
+     * @return 0 if the number is 0, 1 if it's purely real, 2 otherwise.
+     */
+    @Override
+    public int algebraicDegree() {
+        if (this.imagPartMult == 0) {
+            if (this.realPartMult == 0) {
+                return 0;
+            } else {
+                return 1;
+            }
+        } else {
+            return 2;
+        }
+    }
+    
+    /**
+     * Gives the trace of the number as it is now (twice the real part).
+     * @return Twice the real part. For example, given 5/2 + sqrt(-7)/2, the 
+     * trace is 5.
+     */
+    @Override
+    public long trace() {
+        return this.getTwiceRealPartMult();
+    }
+    
+    /**
+     * Gives the norm of the number as it is now, computed the same way as 
+     * {@link ImaginaryQuadraticInteger#norm()}.
+     * @return The norm. For example, given 5/2 + sqrt(-7)/2, the norm is 8.
+     */
+    @Override
+    public long norm() {
+        long N = (long) this.realPartMult * this.realPartMult + (long) this.imagQuadRing.absNegRad * this.imagPartMult * this.imagPartMult;
+        if (this.denominator == 2) {
+            N /= 4;
+        }
+        return N;
+    }
+    
+    /**
+     * Gives the coefficients for the minimal polynomial of the number as it is 
+     * now, as described for {@link ImaginaryQuadraticInteger#minPolynomial()}.
+     * @return An array of three integers. For example, for 5/2 + sqrt(-7)/2, 
+     * the result would be {8, -5, 1}.
+     */
+    @Override
+    public long[] minPolynomial() {
+        long[] coeffs = {0, 1, 0};
+        switch (this.algebraicDegree()) {
+            case 1:
+                coeffs[0] = -1 * this.realPartMult;
+                break;
+            case 2:
+                coeffs[0] = this.norm();
+                coeffs[1] = -this.trace();
+                coeffs[2] = 1;
+                break;
+            default:
+                break;
+        }
+        return coeffs;
+    }
+    
+    /**
+     * Gives the minimal polynomial of the number as it is now, formatted as 
+     * by {@link ImaginaryQuadraticInteger#minPolynomialString()}.
+     * @return A String. For example, for 5/2 + sqrt(-7)/2, "x^2 - 5x + 8".
+     */
+    @Override
+    public String minPolynomialString() {
+        return this.freeze().minPolynomialString();
+    }
+    
+    /**
+     * Gives the number as it is now, formatted as by {@link 
+     * ImaginaryQuadraticInteger#toString()}.
+     * @return A String. For example, "5/2 + 7\u221A(-3)/2".
+     */
+    @Override
+    public String toString() {
+        return this.freeze().toString();
+    }
+    
+    /**
+     * Gives the number as it is now, formatted as by {@link 
+     * ImaginaryQuadraticInteger#toASCIIString()}.
+     * @return A String. For example, "5/2 + 7sqrt(-3)/2".
+     */
+    @Override
+    public String toASCIIString() {
+        return this.freeze().toASCIIString();
+    }
+    
+    /**
+     * Gives the number as it is now, formatted as by {@link 
+     * ImaginaryQuadraticInteger#toTeXString()}.
+     * @return A String. For example, "\frac{5}{2} + \frac{7\sqrt{-3}}{2}".
+     */
+    @Override
+    public String toTeXString() {
+        return this.freeze().toTeXString();
+    }
+    
+    /**
+     * Gives the number as it is now, formatted as by {@link 
+     * ImaginaryQuadraticInteger#toHTMLString()}.
+     * @return A String. For example, "5/2 + 7&amp;radic;(-3)/2".
+     */
+    @Override
+    public String toHTMLString() {
+        return this.freeze().toHTMLString();
+    }
+    
+    /**
+     * Gives the real part, multiplied by the denominator.
+     * @return The real part. For example, for 5/2 + 7&radic;-3/2, 5.
+     */
+    public int getRealPartMult() {
+        return this.realPartMult;
+    }
+    
+    /**
+     * Gives the imaginary part divided by &radic;<i>d</i>, multiplied by the 
+     * denominator.
+     * @return The imaginary part. For example, for 5/2 + 7&radic;-3/2, 7.
+     */
+    public int getImagPartMult() {
+        return this.imagPartMult;
+    }
+    
+    /**
+     * Gives the denominator.
+     * @return 1 or 2. For example, for 5/2 + 7&radic;-3/2, 2.
+     */
+    public int getDenominator() {
+        return this.denominator;
+    }
+    
+    /**
+     * Gives the ring the number is in now. This can change if the number is 
+     * purely real and then has a number from another ring added to it or 
+     * multiplied into it.
+     * @return The ring. For example, for 5/2 + 7&radic;-3/2, 
+     * <b>Z</b>[&omega;].
+     */
+    public ImaginaryQuadraticRing getRing() {
+        return this.imagQuadRing;
+    }
+    
+    /**
+     * Gives twice the real part.
+     * @return Twice the real part. For example, for 5 + 7&radic;-2, 10.
+     */
+    public long getTwiceRealPartMult() {
+        return (this.denominator == 2) ? this.realPartMult : 2L * this.realPartMult;
+    }
+    
+    /**
+     * Gives twice the imaginary part, divided by &radic;<i>d</i>.
+     * @return Twice the imaginary part. For example, for 5 + 7&radic;-2, 14.
+     */
+    public long getTwiceImagPartMult() {
+        return (this.denominator == 2) ? this.imagPartMult : 2L * this.imagPartMult;
+    }
+    
+    /**
+     * Tells whether the number as it is now is a particular purely real 
+     * integer.
+     * @param num The integer to compare to. For example, 0.
+     * @return True if the imaginary part is 0 and the real part is num.
+     */
+    public boolean equalsInt(int num) {
+        return this.imagPartMult == 0 && this.denominator == 1 && this.realPartMult == num;
+    }
+    
+    /**
+     * Changes this number to another.
+     * @param num The number to change to. For example, 1 + <i>i</i>.
+     * @return This object, now holding num.
+     */
+    public MutableImaginaryQuadraticInteger set(ImaginaryQuadraticInteger num) {
+        this.realPartMult = num.realPartMult;
+        this.imagPartMult = num.imagPartMult;
+        this.denominator = num.denominator;
+        this.imagQuadRing = num.imagQuadRing;
+        return this;
+    }
+    
+    /**
+     * Gives the number as it is now as an immutable ImaginaryQuadraticInteger. 
+     * This object can go on being changed without affecting the result.
+     * @return A new ImaginaryQuadraticInteger. For example, 5/2 + 
+     * 7&radic;-3/2.
+     */
+    public ImaginaryQuadraticInteger freeze() {
+        return new ImaginaryQuadraticInteger(this.realPartMult, this.imagPartMult, this.imagQuadRing, this.denominator);
+    }
+    
+    /**
+     * Stores a result given as doubled parts, but only once it's known that the 
+     * parts fit in 32 bits, so that an overflow leaves this object unchanged.
+     * @param operation A word for the exception message, e.g., "sum".
+     */
+    private void assign(long twiceRe, long twiceIm, ImaginaryQuadraticRing ring, String operation) {
+        long re = twiceRe;
+        long im = twiceIm;
+        int denom = 2;
+        if ((twiceRe & 1) == 0 && (twiceIm & 1) == 0) {
+            re /= 2;
+            im /= 2;
+            denom = 1;
+        }
+        if (re < Integer.MIN_VALUE || re > Integer.MAX_VALUE) {
+            throw new ArithmeticException("Real part of " + operation + " exceeds int data type:" + re + " + " + im + "sqrt(" + ring.negRad + ")");
+        }
+        if (im < Integer.MIN_VALUE || im > Integer.MAX_VALUE) {
+            throw new ArithmeticException("Imaginary part of " + operation + " exceeds int data type:" + re + " + " + im + "sqrt(" + ring.negRad + ")");
+        }
+        this.realPartMult = (int) re;
+        this.imagPartMult = (int) im;
+        this.denominator = denom;
+        this.imagQuadRing = ring;
+    }
+    
+    /**
+     * Adds a number to this one.
+     * @param summand The number to add. For example, 1/2 + &radic;-3/2.
+     * @return This object, now holding the sum.
+     * @throws AlgebraicDegreeOverflowException If both numbers have nonzero 
+     * imaginary parts but come from different rings.
+     * @throws ArithmeticException If a part of the sum exceeds the range of the 
+     * int data type.
+     */
+    public MutableImaginaryQuadraticInteger addInPlace(ImaginaryQuadraticInteger summand) {
+        this.add(summand.getTwiceRealPartMult(), summand.getTwiceImagPartMult(), summand.imagQuadRing, summand);
+        return this;
+    }
+    
+    /**
+     * Adds a number to this one.
+     * @param summand The number to add. It may be this very object, in which 
+     * case this number is doubled.
+     * @return This object, now holding the sum.
+     * @throws AlgebraicDegreeOverflowException If both numbers have nonzero 
+     * imaginary parts but come from different rings.
+     * @throws ArithmeticException If a part of the sum exceeds the range of the 
+     * int data type.
+     */
+    public MutableImaginaryQuadraticInteger addInPlace(MutableImaginaryQuadraticInteger summand) {
+        this.add(summand.getTwiceRealPartMult(), summand.getTwiceImagPartMult(), summand.imagQuadRing, summand);
+        return this;
+    }
+    
+    /**
+     * Adds a purely real integer to this number.
+     * @param summand The integer to add. For example, 3.
+     * @return This object, now holding the sum.
+     * @throws ArithmeticException If the real part of the sum exceeds the range 
+     * of the int data type.
+     */
+    public MutableImaginaryQuadraticInteger addInPlace(int summand) {
+        this.assign(this.getTwiceRealPartMult() + 2L * summand, this.getTwiceImagPartMult(), this.imagQuadRing, "sum");
+        return this;
+    }
+    
+    private void add(long twiceRe, long twiceIm, ImaginaryQuadraticRing ring, AlgebraicInteger summand) {
+        ImaginaryQuadraticRing sumRing = this.imagQuadRing;
+        if (this.imagPartMult == 0) {
+            sumRing = ring;
+        } else if (twiceIm != 0 && this.imagQuadRing.negRad != ring.negRad) {
+            throw new AlgebraicDegreeOverflowException("This operation would result in an algebraic integer of degree 4.", 2, this.freeze(), summand);
+        }
+        this.assign(this.getTwiceRealPartMult() + twiceRe, this.getTwiceImagPartMult() + twiceIm, sumRing, "sum");
+    }
+    
+    /**
+     * Multiplies this number by another.
+     * @param multiplicand The number to multiply by. For example, 1/2 + 
+     * &radic;-3/2.
+     * @return This object, now holding the product.
+     * @throws AlgebraicDegreeOverflowException If both numbers have nonzero 
+     * imaginary parts but come from different rings.
+     * @throws UnsupportedNumberDomainException If both numbers are purely 
+     * imaginary but come from different rings, as the product would be a real 
+     * quadratic integer.
+     * @throws ArithmeticException If a part of the product exceeds the range 
+     * of the int data type.
+     */
+    public MutableImaginaryQuadraticInteger multiplyInPlace(ImaginaryQuadraticInteger multiplicand) {
+        this.multiply(multiplicand.getTwiceRealPartMult(), multiplicand.getTwiceImagPartMult(), multiplicand.imagQuadRing, multiplicand);
+        return this;
+    }
+    
+    /**
+     * Multiplies this number by another.
+     * @param multiplicand The number to multiply by. It may be this very 
+     * object, in which case this number is squared.
+     * @return This object, now holding the product.
+     * @throws AlgebraicDegreeOverflowException If both numbers have nonzero 
+     * imaginary parts but come from different rings.
+     * @throws UnsupportedNumberDomainException If both numbers are purely 
+     * imaginary but come from different rings.
+     * @throws ArithmeticException If a part of the product exceeds the range 
+     * of the int data type.
+     */
+    public MutableImaginaryQuadraticInteger multiplyInPlace(MutableImaginaryQuadraticInteger multiplicand) {
+        this.multiply(multiplicand.getTwiceRealPartMult(), multiplicand.getTwiceImagPartMult(), multiplicand.imagQuadRing, multiplicand);
+        return this;
+    }
+    
+    /**
+     * Multiplies this number by a purely real integer.
+     * @param multiplicand The integer to multiply by. For example, -2.
+     * @return This object, now holding the product.
+     * @throws ArithmeticException If a part of the product exceeds the range 
+     * of the int data type.
+     */
+    public MutableImaginaryQuadraticInteger multiplyInPlace(int multiplicand) {
+        this.assign(Math.multiplyExact(this.getTwiceRealPartMult(), multiplicand), Math.multiplyExact(this.getTwiceImagPartMult(), multiplicand), this.imagQuadRing, "product");
+        return this;
+    }
+    
+    private void multiply(long twiceRe, long twiceIm, ImaginaryQuadraticRing ring, AlgebraicInteger multiplicand) {
+        ImaginaryQuadraticRing productRing = this.imagQuadRing;
+        if (this.imagPartMult == 0) {
+            productRing = ring;
+        } else if (twiceIm != 0 && this.imagQuadRing.negRad != ring.negRad) {
+            if (this.realPartMult == 0 && twiceRe == 0) {
+                String exceptionMessage = "This operation would result in " + (-this.getTwiceImagPartMult() * twiceIm / 4) + "sqrt(" + ((long) this.imagQuadRing.negRad * ring.negRad) + "), a real quadratic integer which this package can't properly represent.";
+                throw new UnsupportedNumberDomainException(exceptionMessage, this.freeze(), multiplicand);
+            } else {
+                throw new AlgebraicDegreeOverflowException("This operation would result in an algebraic integer of degree 4.", 2, this.freeze(), multiplicand);
+            }
+        }
+        long thisRe = this.getTwiceRealPartMult();
+        long thisIm = this.getTwiceImagPartMult();
+        long productRe = Math.addExact(Math.multiplyExact(thisRe, twiceRe), Math.multiplyExact(Math.multiplyExact(thisIm, twiceIm), productRing.negRad));
+        long productIm = Math.addExact(Math.multiplyExact(thisRe, twiceIm), Math.multiplyExact(thisIm, twiceRe));
+        this.assign(productRe / 2, productIm / 2, productRing, "product");
+    }
+    
+    /**
+     * Divides this number by another that is known to divide it.
+     * @param divisor The number to divide by. For example, 2 + <i>i</i>.
+     * @return This object, now holding the quotient.
+     * @throws NotDivisibleException If this number is not divisible by the 
+     * divisor. In that case this object is left as it was.
+     * @throws AlgebraicDegreeOverflowException If both numbers have nonzero 
+     * imaginary parts but come from different rings.
+     * @throws IllegalArgumentException If divisor is 0.
+     * @throws ArithmeticException If an intermediate result overflows.
+     */
+    public MutableImaginaryQuadraticInteger divideExactInPlace(ImaginaryQuadraticInteger divisor) throws NotDivisibleException {
+        ImaginaryQuadraticRing quotientRing = this.imagQuadRing;
+        if (this.imagPartMult == 0) {
+            quotientRing = divisor.imagQuadRing;
+        } else if (divisor.imagPartMult != 0 && this.imagQuadRing.negRad != divisor.imagQuadRing.negRad) {
+            if (this.realPartMult == 0 && divisor.realPartMult == 0) {
+                throw new UnsupportedNumberDomainException("This operation could result in an algebraic integer in a real quadratic integer ring, which is not currently supported by this package.", this.freeze(), divisor);
+            } else {
+                throw new AlgebraicDegreeOverflowException("This operation could result in an algebraic integer of degree 4.", 2, this.freeze(), divisor);
+            }
+        }
+        long thisRe = this.getTwiceRealPartMult();
+        long thisIm = this.getTwiceImagPartMult();
+        long divRe = divisor.getTwiceRealPartMult();
+        long divIm = divisor.getTwiceImagPartMult();
+        long twiceNorm = 2 * divisor.norm();
+        if (twiceNorm == 0) {
+            throw new IllegalArgumentException("Division by 0 is not allowed.");
+        }
+        // Four times this number times the conjugate of the divisor
+        long numerRe = Math.subtractExact(Math.multiplyExact(thisRe, divRe), Math.multiplyExact(Math.multiplyExact(thisIm, divIm), quotientRing.negRad));
+        long numerIm = Math.subtractExact(Math.multiplyExact(thisIm, divRe), Math.multiplyExact(thisRe, divIm));
+        boolean divisibleFlag = (numerRe % twiceNorm == 0) && (numerIm % twiceNorm == 0);
+        if (divisibleFlag) {
+            divisibleFlag = isAlgebraicInteger(numerRe / twiceNorm, numerIm / twiceNorm, quotientRing);
+        }
+        if (!divisibleFlag) {
+            long denom = 2 * twiceNorm;
+            long gcd = NumberTheoreticFunctionsCalculator.euclideanGCD(NumberTheoreticFunctionsCalculator.euclideanGCD(numerRe, numerIm), denom);
+            throw new NotDivisibleException(this.freeze(), divisor, numerRe / gcd, numerIm / gcd, denom / gcd, quotientRing.negRad);
+        }
+        this.assign(numerRe / twiceNorm, numerIm / twiceNorm, quotientRing, "division");
+        return this;
+    }
+    
+    /**
+     * Divides this number by a purely real integer that is known to divide it.
+     * @param divisor The integer to divide by. For example, 3.
+     * @return This object, now holding the quotient.
+     * @throws NotDivisibleException If this number is not divisible by the 
+     * divisor. In that case this object is left as it was.
+     * @throws IllegalArgumentException If divisor is 0.
+     */
+    public MutableImaginaryQuadraticInteger divideExactInPlace(int divisor) throws NotDivisibleException {
+        if (divisor == 0) {
+            throw new IllegalArgumentException("Division by 0 is not allowed.");
+        }
+        long thisRe = this.getTwiceRealPartMult();
+        long thisIm = this.getTwiceImagPartMult();
+        boolean divisibleFlag = (thisRe % divisor == 0) && (thisIm % divisor == 0);
+        if (divisibleFlag) {
+            divisibleFlag = isAlgebraicInteger(thisRe / divisor, thisIm / divisor, this.imagQuadRing);
+        }
+        if (!divisibleFlag) {
+            long denom = 2L * divisor;
+            long gcd = NumberTheoreticFunctionsCalculator.euclideanGCD(NumberTheoreticFunctionsCalculator.euclideanGCD(thisRe, thisIm), denom);
+            if (denom < 0) {
+                gcd = -gcd;
+            }
+            ImaginaryQuadraticInteger divisorIQI = new ImaginaryQuadraticInteger(divisor, 0, this.imagQuadRing);
+            throw new NotDivisibleException(this.freeze(), divisorIQI, thisRe / gcd, thisIm / gcd, denom / gcd, this.imagQuadRing.negRad);
+        }
+        this.assign(thisRe / divisor, thisIm / divisor, this.imagQuadRing, "division");
+        return this;
+    }
+    
+    /**
+     * Tells whether doubled parts make an algebraic integer of the ring: both 
+     * even, or, if <i>d</i> = 1 mod 4, both odd.
+     */
+    private static boolean isAlgebraicInteger(long twiceRe, long twiceIm, ImaginaryQuadraticRing ring) {
+        if (ring.d1mod4) {
+            return (twiceRe - twiceIm) % 2 == 0;
+        } else {
+            return twiceRe % 2 == 0 && twiceIm % 2 == 0;
+        }
+    }
+    
+    /**
+     * Changes this number to its conjugate.
+     * @return This object, now holding the conjugate.
+     * @throws ArithmeticException If the imaginary part is {@link 
+     * Integer#MIN_VALUE}, whose negation is out of range.
+     */
+    public MutableImaginaryQuadraticInteger conjugateInPlace() {
+        if (this.imagPartMult == Integer.MIN_VALUE) {
+            throw new ArithmeticException("Imaginary part of conjugate exceeds int data type:" + this.realPartMult + " + " + (-(long) this.imagPartMult) + "sqrt(" + this.imagQuadRing.negRad + ")");
+        }
+        this.imagPartMult = -this.imagPartMult;
+        return this;
+    }
+    
+    /**
+     * Constructor from an existing imaginary quadratic integer.
+     * @param num The number to start with. For example, 1 + <i>i</i>.
+     */
+    public MutableImaginaryQuadraticInteger(ImaginaryQuadraticInteger num) {
+        this.set(num);
+    }
+    
+    /**
+     * Constructor for a number with denominator 1.
+     * @param a The real part. For example, for 5 + &radic;-3, 5.
+     * @param b The imaginary part divided by &radic;<i>d</i>. For example, for 
+     * 5 + &radic;-3, 1.
+     * @param R The ring. For example, <b>Z</b>[&radic;-3].
+     */
+    public MutableImaginaryQuadraticInteger(int a, int b, ImaginaryQuadraticRing R) {
+        this.realPartMult = a;
+        this.imagPartMult = b;
+        this.denominator = 1;
+        this.imagQuadRing = R;
+    }
+    
+}
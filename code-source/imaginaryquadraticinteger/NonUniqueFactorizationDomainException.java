@@ -62,6 +62,7 @@ public class NonUniqueFactorizationDomainException extends Exception {
             return factors;
         }
         boolean keepGoing = true;
+        ImaginaryQuadraticInteger quotient;
         if (NumberTheoreticFunctionsCalculator.isIrreducible(n)) {
             factors.add(unity);
             factors.add(n);
@@ -73,15 +74,16 @@ public class NonUniqueFactorizationDomainException extends Exception {
             ImaginaryQuadraticInteger testDivisor = new ImaginaryQuadraticInteger(2, 0, n.getRing());
             if (NumberTheoreticFunctionsCalculator.isIrreducible(testDivisor)) {
                 while (n.norm() % 4 == 0 && keepGoing) {
-                    try {
-                        n = n.divides(testDivisor);
+                    quotient = n.tryDivides(testDivisor);
+                    if (quotient == null) {
+                        keepGoing = false;
+                    } else {
+                        n = quotient;
                         factors.add(testDivisor);
                         if (!NumberTheoreticFunctionsCalculator.isPrime(testDivisor)) {
                             factors.add(negativeOne);
                             factors.add(negativeOne);
                         }
-                    } catch (NotDivisibleException nde) {
-                        keepGoing = false;
                     }
                 }
             }
@@ -90,15 +92,16 @@ public class NonUniqueFactorizationDomainException extends Exception {
             while ((n.norm() >= testDivisor.norm()) && keepGoing) {
                 if (NumberTheoreticFunctionsCalculator.isIrreducible(testDivisor)) {
                     while (n.norm() % testDivisor.norm() == 0 && keepGoing) {
-                        try {
-                            n = n.divides(testDivisor);
+                        quotient = n.tryDivides(testDivisor);
+                        if (quotient == null) {
+                            keepGoing = false;
+                        } else {
+                            n = quotient;
                             factors.add(testDivisor);
                             if (!NumberTheoreticFunctionsCalculator.isPrime(testDivisor)) {
                                 factors.add(negativeOne);
                                 factors.add(negativeOne);
                             }
-                        } catch (NotDivisibleException nde) {
-                            keepGoing = false;
                         }
                     }
                 }
@@ -111,22 +114,21 @@ public class NonUniqueFactorizationDomainException extends Exception {
                 testDivImagPartMult = 1;
             }
             boolean withinRange;
-            while (n.norm() > 1) {
+            while (n.norm() > 1 && !NumberTheoreticFunctionsCalculator.isIrreducible(n)) {
                 testDivisor = new ImaginaryQuadraticInteger(testDivRealPartMult, testDivImagPartMult, n.getRing(), 2);
                 withinRange = (testDivisor.norm() <= n.norm());
                 if (NumberTheoreticFunctionsCalculator.isIrreducible(testDivisor)) {
                     keepGoing = true;
                     while (n.norm() % testDivisor.norm() == 0 && keepGoing) {
-                        try {
-                            n = n.divides(testDivisor.conjugate());
+                        // Not being divisible by the conjugate is fine here
+                        quotient = n.tryDivides(testDivisor.conjugate());
+                        if (quotient != null) {
+                            n = quotient;
                             factors.add(testDivisor.conjugate());
                             if (!NumberTheoreticFunctionsCalculator.isPrime(testDivisor)) {
                                 factors.add(negativeOne);
                                 factors.add(negativeOne);
                             }
-                        } catch (NotDivisibleException nde) {
-                            /* We just ignore the exception when it pertains to 
-                               the conjugate */
                         }
                         try {
                             n = n.divides(testDivisor);
@@ -157,6 +159,22 @@ public class NonUniqueFactorizationDomainException extends Exception {
                     }
                 }
             }
+            if (n.norm() > 1) {
+                /* What's left is irreducible, but the search above might not 
+                   reach it, so it goes into the list as is, or rather its 
+                   negative if that has positive real part */
+                ImaginaryQuadraticInteger lastFactor = n;
+                n = unity;
+                if (lastFactor.getRealPartMult() < 0 || (lastFactor.getRealPartMult() == 0 && lastFactor.getImagPartMult() < 0)) {
+                    lastFactor = lastFactor.times(-1);
+                    n = negativeOne;
+                }
+                factors.add(lastFactor);
+                if (!NumberTheoreticFunctionsCalculator.isPrime(lastFactor)) {
+                    factors.add(negativeOne);
+                    factors.add(negativeOne);
+                }
+            }
             factors.add(n); // This should be a unit, most likely -1 or 1
         }
         factors = NumberTheoreticFunctionsCalculator.sortListIQIByNorm(factors);
@@ -170,9 +188,10 @@ public class NonUniqueFactorizationDomainException extends Exception {
             }
         }
         for (int i = quadrantAdjustStart; i < factors.size(); i++) {
-            if (factors.get(i).getRealPartMult() < 0 || ((factors.get(i).getRealPartMult()) == 0 && (factors.get(i).getImagPartMult() < 0))) {
-                factors.set(i, factors.get(i).times(-1));
-                factors.set(0, factors.get(0).times(-1));
+            int unitIndex = factors.get(i).canonicalAssociateUnitIndex();
+            if (unitIndex != 0) {
+                factors.set(i, factors.get(i).canonicalAssociate());
+                factors.set(0, factors.get(0).times(NumberTheoreticFunctionsCalculator.unitFromIndex(unitIndex, factors.get(i).getRing())));
             }
         }
         int removalIndex = 0;
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+/**
+ * Compares imaginary quadratic integers by norm. This is meant for use with 
+ * {@link java.util.List#sort(Comparator)} and the like when a caller needs 
+ * imaginary quadratic integers in ascending order by norm. Do note that this 
+ * comparator imposes an ordering that is inconsistent with equals: -i and 1 
+ * compare as equal, for example, since both have norm 1. Also, the norm is 
+ * computed anew for each comparison, so to sort a large list it's better to 
+ * use {@link 
+ * NumberTheoreticFunctionsCalculator#sortListIQIByNormInPlace(java.util.List)}, 
+ * which computes each norm only once.
+ * @author Alonso del Arte
+ */
+public class NormComparator implements Comparator<ImaginaryQuadraticInteger>, Serializable {
+    
+    private static final long serialVersionUID = 1058274412;
+    
+    /**
+     * Compares two imaginary quadratic integers by norm. The numbers need not 
+     * come from the same ring.
+     * @param a The first number to compare. For example, 4 + i.
+     * @param b The second number to compare. For example, -1 + i.
+     * @return A negative integer if the norm of a is less than the norm of b, 0 
+     * if they have the same norm, a positive integer if the norm of a is 
+     * greater than the norm of b. In the example, a positive integer, since 
+     * 4 + i has norm 17 and -1 + i has norm 2.
+     */
+    @Override
+    public int compare(ImaginaryQuadraticInteger a, ImaginaryQuadraticInteger b) {
+        return Long.compare(a.norm(), b.norm());
+    }
+    
+}
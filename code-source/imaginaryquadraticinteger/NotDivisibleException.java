@@ -30,6 +30,13 @@ package imaginaryquadraticinteger;
  * <p>At some point in the future I want to make this exception usable for any 
  * implementation of {@link AlgebraicInteger}, not just {@link 
  * ImaginaryQuadraticInteger}.</p>
+ * <p>Since trial division throws and catches a lot of these, they're made as 
+ * cheap as possible: no stack trace is filled in, the numeric approximations 
+ * are only computed when asked for, and the message can be left to be put 
+ * together from the dividend and divisor the first time it's asked for. If 
+ * all you need to know is whether one number divides another, {@link 
+ * ImaginaryQuadraticInteger#tryDivides(ImaginaryQuadraticInteger)} is 
+ * cheaper still.</p>
  * @author Alonso del Arte
  */
 public class NotDivisibleException extends Exception {
@@ -40,11 +47,23 @@ public class NotDivisibleException extends Exception {
     private final long resultingFractionImagPartNumerator;
     private final long resultingFractionDenominator;
     private final int resultingFractionNegRad;
-    private final ImaginaryQuadraticRing workingRing;
     
-    private final double numericRealPart;
-    private final double numericImagPartMult;
-    private final double numericImagPart;
+    private String message;
+    private final transient AlgebraicInteger dividend;
+    private final transient AlgebraicInteger divisor;
+    
+    /**
+     * Gives the message, putting it together from the dividend and the divisor 
+     * if this exception was constructed with those rather than a message.
+     * @return The message. For example, "7 + sqrt(-5) is not divisible by 3."
+     */
+    @Override
+    public String getMessage() {
+        if (this.message == null && this.dividend != null) {
+            this.message = this.dividend.toASCIIString() + " is not divisible by " + this.divisor.toASCIIString() + ".";
+        }
+        return this.message;
+    }
     
     /**
      * Gives the numerator of the real part of the resulting fraction.
@@ -95,7 +114,7 @@ public class NotDivisibleException extends Exception {
      * 0.75.
      */
     public double getNumericRealPart() {
-        return numericRealPart;
+        return (double) resultingFractionRealPartNumerator / (double) resultingFractionDenominator;
     }
     
     /**
@@ -108,7 +127,7 @@ public class NotDivisibleException extends Exception {
      * 1.75.
      */
     public double getNumericImagPartMult() {
-        return numericImagPartMult;
+        return (double) resultingFractionImagPartNumerator / (double) resultingFractionDenominator;
     }
     
     /**
@@ -120,7 +139,11 @@ public class NotDivisibleException extends Exception {
      * approximately 7sqrt(2)/4.
      */
     public double getNumericImagPart() {
-        return numericImagPart;
+        return this.getNumericImagPartMult() * this.workingRing().getAbsNegRadSqrt();
+    }
+    
+    private ImaginaryQuadraticRing workingRing() {
+        return ImaginaryQuadraticRing.of(resultingFractionNegRad);
     }
     
     /**
@@ -138,6 +161,9 @@ public class NotDivisibleException extends Exception {
      * necessarily in that order.
      */
     public ImaginaryQuadraticInteger[] getBoundingIntegers() {
+        ImaginaryQuadraticRing workingRing = this.workingRing();
+        double numericRealPart = this.getNumericRealPart();
+        double numericImagPartMult = this.getNumericImagPartMult();
         ImaginaryQuadraticInteger zeroIQI = new ImaginaryQuadraticInteger(0, 0, workingRing);
         ImaginaryQuadraticInteger[] algIntArray = {zeroIQI, zeroIQI, zeroIQI, zeroIQI};
         if (workingRing.hasHalfIntegers()) {
@@ -178,6 +204,7 @@ public class NotDivisibleException extends Exception {
      * 1.
      */
     public ImaginaryQuadraticInteger roundTowardsZero() {
+        ImaginaryQuadraticRing workingRing = this.workingRing();
         if (workingRing.hasHalfIntegers()) {
             ImaginaryQuadraticInteger[] bounds = this.getBoundingIntegers();
             double currAbs = bounds[0].abs();
@@ -226,6 +253,7 @@ public class NotDivisibleException extends Exception {
      * 4 * sqrt(-5)/3 this would be 3 + 2 * sqrt(-5).
      */
     public ImaginaryQuadraticInteger roundAwayFromZero() {
+        ImaginaryQuadraticRing workingRing = this.workingRing();
         if (workingRing.hasHalfIntegers()) {
             ImaginaryQuadraticInteger[] bounds = this.getBoundingIntegers();
             double currAbs = bounds[0].abs();
@@ -283,14 +311,38 @@ public class NotDivisibleException extends Exception {
      * sqrt(-5)/3, this parameter would be -5.
      */
     public NotDivisibleException(String message, long resFractReNumer, long resFractImNumer, long resFractDenom, int resFractNegRad) {
-        super(message);
+        this(message, null, null, resFractReNumer, resFractImNumer, resFractDenom, resFractNegRad);
+    }
+    
+    /**
+     * Like the other constructor, except that the message is only put together 
+     * if {@link #getMessage()} is called, as "<i>dividend</i> is not divisible 
+     * by <i>divisor</i>." This saves two toASCIIString() calls when the 
+     * exception is caught and the message is never looked at.
+     * @param dividend The number that was to be divided. For example, 7 + 
+     * 2&radic;-5.
+     * @param divisor The number it was to be divided by. For example, 3.
+     * @param resFractReNumer The numerator of the real part of the resulting 
+     * fraction. For example, 7.
+     * @param resFractImNumer The numerator of the imaginary part of the 
+     * resulting fraction. For example, 2.
+     * @param resFractDenom The denominator of the resulting fraction. For 
+     * example, 3.
+     * @param resFractNegRad The negative integer in the radical in the 
+     * numerator of the resulting fraction. For example, -5.
+     */
+    public NotDivisibleException(AlgebraicInteger dividend, AlgebraicInteger divisor, long resFractReNumer, long resFractImNumer, long resFractDenom, int resFractNegRad) {
+        this(null, dividend, divisor, resFractReNumer, resFractImNumer, resFractDenom, resFractNegRad);
+    }
+    
+    private NotDivisibleException(String message, AlgebraicInteger dividend, AlgebraicInteger divisor, long resFractReNumer, long resFractImNumer, long resFractDenom, int resFractNegRad) {
+        super(null, null, false, false);
+        this.message = message;
+        this.dividend = dividend;
+        this.divisor = divisor;
         resultingFractionRealPartNumerator = resFractReNumer;
         resultingFractionImagPartNumerator = resFractImNumer;
         resultingFractionDenominator = resFractDenom;
         resultingFractionNegRad = resFractNegRad;
-        workingRing = new ImaginaryQuadraticRing(resFractNegRad);
-        numericRealPart = (double) resultingFractionRealPartNumerator / (double) resultingFractionDenominator;
-        numericImagPartMult = (double) resultingFractionImagPartNumerator / (double) resultingFractionDenominator;
-        numericImagPart = numericImagPartMult * workingRing.getAbsNegRadSqrt();
     }
 }
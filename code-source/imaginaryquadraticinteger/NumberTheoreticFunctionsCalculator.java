@@ -17,8 +17,21 @@
 package imaginaryquadraticinteger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Random;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * A collection of number theoretic functions, including basic primality testing 
@@ -53,16 +66,485 @@ public class NumberTheoreticFunctionsCalculator {
      */
     public static final int[] HEEGNER_NUMBERS = {-163, -67, -43, -19, -11, -7, -3, -2, -1};
     
-    public static final ImaginaryQuadraticRing RING_GAUSSIAN = new ImaginaryQuadraticRing(-1);
+    /**
+     * The default upper bound for the smallest prime factor sieve used by 
+     * {@link #smallestPrimeFactor(int)}, {@link #isSquareFree(int)}, {@link 
+     * #moebiusMu(int)} and the factorization functions. The sieve takes up one 
+     * byte per number covered, so this default comes to 4 megabytes.
+     */
+    public static final int DEFAULT_SPF_SIEVE_BOUND = 1 << 22;
+    
+    private static final int INITIAL_SPF_SIEVE_REACH = 1 << 16;
+    
+    private static final Object SPF_SIEVE_LOCK = new Object();
+    
+    /**
+     * How far the smallest prime factor sieve may grow. Changed with {@link 
+     * #setSPFSieveBound(int)}.
+     */
+    private static volatile int spfSieveBound = DEFAULT_SPF_SIEVE_BOUND;
+    
+    /**
+     * The smallest prime factor sieve. Entry <i>k</i> holds the smallest prime 
+     * factor of 2<i>k</i> + 1 if that number is composite, 0 if it's prime or 
+     * 1. Even numbers are not stored. Since the smallest prime factor of a 
+     * composite int is never more than 46340, a char is enough for each entry. 
+     * Like {@link #primeTable}, a new array is published whenever the sieve 
+     * grows. It is null until first needed.
+     */
+    private static volatile char[] spfSieve = null;
+    
+    public static final ImaginaryQuadraticRing RING_GAUSSIAN = ImaginaryQuadraticRing.of(-1);
     public static final ImaginaryQuadraticInteger IMAG_UNIT_I = new ImaginaryQuadraticInteger(0, 1, RING_GAUSSIAN);
     public static final ImaginaryQuadraticInteger IMAG_UNIT_NEG_I = IMAG_UNIT_I.times(-1);
     
-    public static final ImaginaryQuadraticRing RING_EISENSTEIN = new ImaginaryQuadraticRing(-3);
+    public static final ImaginaryQuadraticRing RING_EISENSTEIN = ImaginaryQuadraticRing.of(-3);
     public static final ImaginaryQuadraticInteger COMPLEX_CUBIC_ROOT_OF_UNITY = new ImaginaryQuadraticInteger(-1, 1, RING_EISENSTEIN, 2);
 
     /**
-     * Determines the prime factors of a given number. Uses simple trial 
-     * division with only basic optimization.
+     * About how many results {@link #isPrime(ImaginaryQuadraticInteger)} and 
+     * {@link #primeFactors(ImaginaryQuadraticInteger)} each remember.
+     */
+    public static final int ELEMENT_CACHE_CAPACITY = 1 << 16;
+    
+    private static final ElementCache<Boolean> PRIMALITY_CACHE = new ElementCache<>(ELEMENT_CACHE_CAPACITY);
+    
+    private static final ElementCache<ImaginaryQuadraticInteger[]> FACTORIZATION_CACHE = new ElementCache<>(ELEMENT_CACHE_CAPACITY);
+    
+    /**
+     * The default upper bound for the shared table of primes used by {@link 
+     * #isPrime(int)} and {@link #isPrime(long)}. With only odd numbers stored, 
+     * one bit each, a table reaching this bound takes up 1 megabyte.
+     */
+    public static final int DEFAULT_PRIME_TABLE_BOUND = 1 << 24;
+
+    /**
+     * How far the shared table of primes reaches when the class is first 
+     * loaded. The table grows from here on demand, never past {@link 
+     * #primeTableBound}.
+     */
+    private static final int INITIAL_PRIME_TABLE_REACH = 1 << 16;
+
+    /**
+     * The smallest bound that may be passed to {@link 
+     * #setPrimeTableBound(int)}. Each word of the table covers 128 numbers.
+     */
+    private static final int MINIMUM_PRIME_TABLE_BOUND = 128;
+
+    /**
+     * How many indices {@link #indicesSortedByNorm(ImaginaryQuadraticInteger[])} 
+     * puts in order by insertion sort before it starts merging.
+     */
+    private static final int SORT_INSERTION_RUN = 32;
+
+    private static final Object PRIME_TABLE_LOCK = new Object();
+
+    /**
+     * How far the shared table of primes may grow. Changed with {@link 
+     * #setPrimeTableBound(int)}.
+     */
+    private static volatile int primeTableBound = DEFAULT_PRIME_TABLE_BOUND;
+
+    /**
+     * The shared table of primes, a bitset in which bit <i>k</i> is set if and 
+     * only if 2<i>k</i> + 1 is not prime. Even numbers are not stored. Each 
+     * word covers 128 consecutive integers, so the table covers every number 
+     * less than 128 times its length. A new array is published whenever the 
+     * table grows, so a reader that has fetched the reference once can keep 
+     * using it without locking.
+     */
+    private static volatile long[] primeTable = sieveOddComposites(INITIAL_PRIME_TABLE_REACH);
+
+    /**
+     * Runs the sieve of Eratosthenes on the odd numbers below a given reach.
+     * @param reach How far the sieve should go. It is rounded up to the next 
+     * multiple of 128.
+     * @return A bitset in the format described for {@link #primeTable}.
+     */
+    private static long[] sieveOddComposites(int reach) {
+        int words = (int) (((long) reach + 127) >>> 7);
+        long[] composites = new long[words];
+        long limit = (long) words << 7;
+        composites[0] |= 1L; // 1 is not prime
+        for (long p = 3; p * p < limit; p += 2) {
+            int pIndex = (int) (p >>> 1);
+            if ((composites[pIndex >>> 6] & (1L << pIndex)) == 0) {
+                for (long multiple = p * p; multiple < limit; multiple += 2 * p) {
+                    int mIndex = (int) (multiple >>> 1);
+                    composites[mIndex >>> 6] |= (1L << mIndex);
+                }
+            }
+        }
+        return composites;
+    }
+
+    /**
+     * Gets the shared table of primes, growing it first if necessary and 
+     * possible so that it covers a given number.
+     * @param num The number the caller wants covered. Should be positive.
+     * @return The table, which may or may not cover num, depending on {@link 
+     * #primeTableBound}.
+     */
+    private static long[] primeTableCovering(long num) {
+        long[] table = primeTable;
+        if (num < ((long) table.length << 7) || num >= primeTableBound) {
+            return table;
+        }
+        synchronized (PRIME_TABLE_LOCK) {
+            table = primeTable;
+            long reach = (long) table.length << 7;
+            if (num >= reach && num < primeTableBound) {
+                long newReach = Math.max(2 * reach, num + 1);
+                newReach = Math.min(newReach, primeTableBound);
+                table = sieveOddComposites((int) newReach);
+                primeTable = table;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Looks up an odd number in a table of primes.
+     * @param table A table in the format described for {@link #primeTable}.
+     * @param oddNum A positive odd number less than 128 times the length of 
+     * the table.
+     * @return true if the table has the number as prime, false otherwise.
+     */
+    private static boolean primeTableLookup(long[] table, long oddNum) {
+        int index = (int) (oddNum >>> 1);
+        return (table[index >>> 6] & (1L << index)) == 0;
+    }
+
+    /**
+     * The bases used by {@link #isPrimeMillerRabin(long)} for numbers less 
+     * than {@link #MILLER_RABIN_SMALL_BASES_BOUND}. Jaeschke showed that no 
+     * composite number below that bound is a strong pseudoprime to all three 
+     * of these bases.
+     */
+    private static final long[] MILLER_RABIN_SMALL_BASES = {2, 7, 61};
+    
+    private static final long MILLER_RABIN_SMALL_BASES_BOUND = 4759123141L;
+    
+    /**
+     * The bases used by {@link #isPrimeMillerRabin(long)} for all other 
+     * positive numbers. Sinclair found that no composite number below 
+     * 2<sup>64</sup> is a strong pseudoprime to all seven of these bases. 
+     * Bases that are multiples of the number being tested are skipped.
+     */
+    private static final long[] MILLER_RABIN_LARGE_BASES = {2, 325, 9375, 28178, 450775, 9780504, 1795265022};
+    
+    /**
+     * The odd primes tried as divisors by {@link #isPrimeMillerRabin(long)} 
+     * before bothering with any of the bases. This weeds out most composite 
+     * numbers cheaply.
+     */
+    private static final int[] MILLER_RABIN_TRIAL_DIVISORS = {3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47};
+    
+    /**
+     * How far {@link #primeFactorsAsArray(long)} goes with trial division 
+     * before switching over to Pollard's rho method.
+     */
+    public static final int TRIAL_DIVISION_LIMIT = 1 << 12;
+    
+    /**
+     * The odd primes below {@link #TRIAL_DIVISION_LIMIT}, in ascending order. 
+     * These are kept apart from the shared table of primes so that they're 
+     * available no matter what {@link #setPrimeTableBound(int)} is set to.
+     */
+    private static final int[] TRIAL_DIVISION_PRIMES = oddPrimesBelow(TRIAL_DIVISION_LIMIT);
+    
+    /**
+     * Lists the odd primes below a given bound.
+     * @param bound The bound. Should be a multiple of 128.
+     * @return An array of the odd primes less than the bound, in ascending 
+     * order. For example, for 128, this would start with 3, 5, 7 and end with 
+     * 113, 127.
+     */
+    private static int[] oddPrimesBelow(int bound) {
+        long[] table = sieveOddComposites(bound);
+        int[] primes = new int[bound / 2];
+        int count = 0;
+        for (int n = 3; n < bound; n += 2) {
+            if (primeTableLookup(table, n)) {
+                primes[count++] = n;
+            }
+        }
+        return Arrays.copyOf(primes, count);
+    }
+    
+    /**
+     * How many numbers {@link #moebiusRange(int, int)} sieves at a time. This 
+     * keeps the scratch arrays small enough to stay in cache.
+     */
+    private static final int MOEBIUS_SEGMENT_LENGTH = 1 << 15;
+    
+    /**
+     * How many odd numbers {@link #primesInRange(long, long)} sieves at a time. 
+     * One bit each, that's 4 kilobytes, small enough to stay in the level 1 
+     * cache.
+     */
+    private static final int PRIME_SEGMENT_ODDS = 1 << 15;
+    
+    /**
+     * How far the sieving primes for {@link #primesInRange(long, long)} go. If 
+     * the square root of the end of the range is past this, numbers that 
+     * survive the sieve are checked with {@link #isPrime(long)}, so that the 
+     * memory taken up stays bounded no matter how far out the range is.
+     */
+    private static final int PRIME_SIEVE_BASE_LIMIT = 1 << 22;
+    
+    /**
+     * Builds a smallest prime factor sieve covering the odd numbers below a 
+     * given reach.
+     * @param reach How far the sieve should go. It is rounded up to the next 
+     * even number.
+     * @return An array in the format described for {@link #spfSieve}.
+     */
+    private static char[] buildSPFSieve(int reach) {
+        int length = (int) (((long) reach + 1) >>> 1);
+        char[] sieve = new char[length];
+        long limit = 2L * length;
+        for (long p = 3; p * p < limit; p += 2) {
+            if (sieve[(int) (p >>> 1)] == 0) {
+                for (long multiple = p * p; multiple < limit; multiple += 2 * p) {
+                    int index = (int) (multiple >>> 1);
+                    if (sieve[index] == 0) {
+                        sieve[index] = (char) p;
+                    }
+                }
+            }
+        }
+        return sieve;
+    }
+    
+    /**
+     * Gets the smallest prime factor sieve, growing it first if necessary so 
+     * that it covers a given number.
+     * @param num The number the caller wants covered. Should be positive.
+     * @return The sieve, or null if num is at or beyond {@link 
+     * #spfSieveBound}.
+     */
+    private static char[] spfSieveCovering(long num) {
+        if (num >= spfSieveBound) {
+            return null;
+        }
+        char[] sieve = spfSieve;
+        if (sieve != null && num < 2L * sieve.length) {
+            return sieve;
+        }
+        synchronized (SPF_SIEVE_LOCK) {
+            sieve = spfSieve;
+            int bound = spfSieveBound;
+            if (num >= bound) {
+                return null;
+            }
+            long reach = (sieve == null) ? INITIAL_SPF_SIEVE_REACH : 2L * sieve.length;
+            if (sieve == null || num >= reach) {
+                long newReach = Math.max(2 * reach, num + 1);
+                newReach = Math.min(newReach, bound);
+                sieve = buildSPFSieve((int) newReach);
+                spfSieve = sieve;
+            }
+        }
+        return sieve;
+    }
+    
+    /**
+     * Looks up the smallest prime factor of an odd number in the sieve.
+     * @param sieve A sieve in the format described for {@link #spfSieve}.
+     * @param oddNum An odd number greater than 1 that the sieve covers.
+     * @return The smallest prime factor. For example, 3 for 45, 47 for 47.
+     */
+    private static int spfLookup(char[] sieve, long oddNum) {
+        int p = sieve[(int) (oddNum >>> 1)];
+        if (p == 0) {
+            return (int) oddNum;
+        }
+        return p;
+    }
+    
+    /**
+     * Computes the high 64 bits of the unsigned 128-bit product of two 64-bit 
+     * numbers. This is done with 32-bit halves so as to not depend on 
+     * <code>Math.multiplyHigh()</code>, which is not available in Java 8.
+     * @param x One of the two numbers, treated as unsigned.
+     * @param y One of the two numbers, treated as unsigned.
+     * @return The high 64 bits of the product. The low 64 bits are simply x * 
+     * y.
+     */
+    static long unsignedMultiplyHigh(long x, long y) {
+        long xLow = x & 0xFFFFFFFFL;
+        long xHigh = x >>> 32;
+        long yLow = y & 0xFFFFFFFFL;
+        long yHigh = y >>> 32;
+        long lowLow = xLow * yLow;
+        long lowHigh = xLow * yHigh;
+        long highLow = xHigh * yLow;
+        long middle = (lowLow >>> 32) + (lowHigh & 0xFFFFFFFFL) + (highLow & 0xFFFFFFFFL);
+        return xHigh * yHigh + (lowHigh >>> 32) + (highLow >>> 32) + (middle >>> 32);
+    }
+    
+    /**
+     * Computes the inverse of an odd number modulo 2<sup>64</sup>, as needed 
+     * for Montgomery multiplication. Each Newton step doubles the number of 
+     * correct bits, and an odd number is already its own inverse modulo 8.
+     * @param oddModulus An odd number.
+     * @return The number x such that oddModulus * x = 1 modulo 2<sup>64</sup>.
+     */
+    static long montgomeryInverse(long oddModulus) {
+        long inverse = oddModulus;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2 - oddModulus * inverse;
+        }
+        return inverse;
+    }
+    
+    /**
+     * Montgomery multiplication. Given a and b in Montgomery form with respect 
+     * to R = 2<sup>64</sup>, this computes abR<sup>-1</sup> modulo the odd 
+     * modulus without ever overflowing, and without any division.
+     * @param a A number from 0 to oddModulus - 1.
+     * @param b A number from 0 to oddModulus - 1.
+     * @param oddModulus An odd positive number.
+     * @param inverse The result of {@link #montgomeryInverse(long)} for 
+     * oddModulus.
+     * @return abR<sup>-1</sup> modulo oddModulus, from 0 to oddModulus - 1.
+     */
+    static long montgomeryMultiply(long a, long b, long oddModulus, long inverse) {
+        long productHigh = unsignedMultiplyHigh(a, b);
+        long m = a * b * inverse;
+        long result = productHigh - unsignedMultiplyHigh(m, oddModulus);
+        if (result < 0) {
+            result += oddModulus;
+        }
+        return result;
+    }
+    
+    /**
+     * Computes 2<sup>128</sup> modulo an odd number, which is needed to put 
+     * numbers into Montgomery form.
+     * @param oddModulus An odd positive number.
+     * @return R<sup>2</sup> modulo oddModulus, where R = 2<sup>64</sup>.
+     */
+    static long montgomeryRSquared(long oddModulus) {
+        long x = Long.remainderUnsigned(-oddModulus, oddModulus);
+        for (int i = 0; i < 64; i++) {
+            x <<= 1;
+            if (x < 0 || x >= oddModulus) {
+                x -= oddModulus;
+            }
+        }
+        return x;
+    }
+    
+    /**
+     * Determines whether a given purely real number is prime or not by the 
+     * Miller-Rabin test with bases that have been proven to be enough for any 
+     * 64-bit integer, so the answer is never merely probable. Modular 
+     * multiplication is done with Montgomery multiplication, which avoids 
+     * overflow without resorting to BigInteger.
+     * @param num The number to be tested for primality. May be negative.
+     * @return true if the number is prime (even if negative), false otherwise. 
+     * For example, 2<sup>61</sup> - 1 should return true, 3825123056546413051, 
+     * which is a strong pseudoprime to every prime base up to 23, should return 
+     * false.
+     */
+    public static boolean isPrimeMillerRabin(long num) {
+        if (num == Long.MIN_VALUE) {
+            return false;
+        }
+        long n = Math.abs(num);
+        if (n < 2) {
+            return false;
+        }
+        if (n % 2 == 0) {
+            return (n == 2);
+        }
+        for (int divisor : MILLER_RABIN_TRIAL_DIVISORS) {
+            if (n % divisor == 0) {
+                return (n == divisor);
+            }
+        }
+        if (n < 53 * 53) {
+            return true; // Only composites with a factor above 47 get this far
+        }
+        long oddPart = n - 1;
+        int twos = Long.numberOfTrailingZeros(oddPart);
+        oddPart >>= twos;
+        long inverse = montgomeryInverse(n);
+        long rSquared = montgomeryRSquared(n);
+        long one = Long.remainderUnsigned(-n, n); // R modulo n, that is, 1 in Montgomery form
+        long minusOne = n - one;
+        long[] bases;
+        if (n < MILLER_RABIN_SMALL_BASES_BOUND) {
+            bases = MILLER_RABIN_SMALL_BASES;
+        } else {
+            bases = MILLER_RABIN_LARGE_BASES;
+        }
+        for (long base : bases) {
+            long reducedBase = base % n;
+            if (reducedBase == 0) {
+                continue;
+            }
+            long x = montgomeryMultiply(reducedBase, rSquared, n, inverse);
+            long power = one;
+            for (long e = oddPart; e > 0; e >>= 1) {
+                if ((e & 1) == 1) {
+                    power = montgomeryMultiply(power, x, n, inverse);
+                }
+                x = montgomeryMultiply(x, x, n, inverse);
+            }
+            if (power == one || power == minusOne) {
+                continue;
+            }
+            boolean witnessFound = true;
+            for (int i = 1; i < twos && witnessFound; i++) {
+                power = montgomeryMultiply(power, power, n, inverse);
+                witnessFound = (power != minusOne);
+            }
+            if (witnessFound) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells how far the shared table of primes used by {@link #isPrime(int)} 
+     * and {@link #isPrime(long)} is allowed to grow.
+     * @return The bound. Unless it has been changed with {@link 
+     * #setPrimeTableBound(int)}, this is {@link #DEFAULT_PRIME_TABLE_BOUND}.
+     */
+    public static int getPrimeTableBound() {
+        return primeTableBound;
+    }
+
+    /**
+     * Sets how far the shared table of primes used by {@link #isPrime(int)} 
+     * and {@link #isPrime(long)} is allowed to grow, and thus how much memory 
+     * it may take up: roughly one byte for every 16 numbers. The table is not 
+     * grown right away, only as larger numbers are asked about. If the table 
+     * already reaches past the new bound, it is cut down. Numbers beyond the 
+     * table are still tested correctly, just not as quickly.
+     * @param bound The new bound. For example, 1048576 for a table of about 64 
+     * kilobytes.
+     * @throws IllegalArgumentException If bound is less than 128.
+     */
+    public static void setPrimeTableBound(int bound) {
+        if (bound < MINIMUM_PRIME_TABLE_BOUND) {
+            throw new IllegalArgumentException("Prime table bound " + bound + " is less than the minimum, " + MINIMUM_PRIME_TABLE_BOUND + ".");
+        }
+        synchronized (PRIME_TABLE_LOCK) {
+            primeTableBound = bound;
+            if (((long) primeTable.length << 7) > bound) {
+                primeTable = sieveOddComposites(bound);
+            }
+        }
+    }
+
+    /**
+     * Determines the prime factors of a given number. This is a boxed view of 
+     * {@link #primeFactorsAsArray(int)}, which see for how it's done.
      * @param num The integer for which to determine prime factors of.
      * @return A list of the prime factors, with some factors repeated as 
      * needed. For example, given num = 44100, the resulting list should be 2, 
@@ -72,68 +554,210 @@ public class NumberTheoreticFunctionsCalculator {
      * -44100, the resulting list should be -1, 2, 2, 3, 3, 5, 5, 7, 7.
      */
     public static List<Integer> primeFactors(int num) {
-        int n = num;
-        List<Integer> factors = new ArrayList<>();
-        if (n == 0) {
-            factors.add(0);
-        } else {
-            if (n < 0) {
-                n *= (-1);
-                factors.add(-1);
+        int[] factorsArray = primeFactorsAsArray(num);
+        List<Integer> factors = new ArrayList<>(factorsArray.length);
+        for (int factor : factorsArray) {
+            factors.add(factor);
+        }
+        return factors;
+    }
+    
+    /**
+     * Determines the prime factors of a given 64-bit number, such as the norm 
+     * of an {@link ImaginaryQuadraticInteger}. This is a boxed view of {@link 
+     * #primeFactorsAsArray(long)}, which see for how it's done.
+     * @param num The integer for which to determine prime factors of.
+     * @return A list of the prime factors, in the same format as {@link 
+     * #primeFactors(int)}. For example, given num = -1000000016000000063, the 
+     * resulting list should be -1, 1000000007, 1000000009.
+     */
+    public static List<Long> primeFactors(long num) {
+        long[] factorsArray = primeFactorsAsArray(num);
+        List<Long> factors = new ArrayList<>(factorsArray.length);
+        for (long factor : factorsArray) {
+            factors.add(factor);
+        }
+        return factors;
+    }
+    
+    /**
+     * Determines the prime factors of a given number without boxing them into 
+     * a List. See {@link #primeFactorsAsArray(long)} for how it's done.
+     * @param num The integer for which to determine prime factors of.
+     * @return An array of the prime factors in ascending order, in the same 
+     * format as {@link #primeFactors(int)}. For example, given num = -44100, 
+     * the resulting array should be {-1, 2, 2, 3, 3, 5, 5, 7, 7}.
+     */
+    public static int[] primeFactorsAsArray(int num) {
+        long[] longFactors = primeFactorsAsArray((long) num);
+        int[] factors = new int[longFactors.length];
+        for (int i = 0; i < longFactors.length; i++) {
+            factors[i] = (int) longFactors[i];
+        }
+        return factors;
+    }
+    
+    /**
+     * Determines the prime factors of a given 64-bit number without boxing 
+     * them into a List. Powers of 2 are taken out first. If what's left is 
+     * covered by the smallest prime factor sieve (see {@link 
+     * #setSPFSieveBound(int)}), the factors are read off from the sieve. 
+     * Otherwise the odd primes 
+     * below {@link #TRIAL_DIVISION_LIMIT} are tried as divisors, stopping as 
+     * soon as the square of the divisor exceeds what is left of the number. 
+     * Whatever is left after that, if it's not found to be prime by {@link 
+     * #isPrimeMillerRabin(long)}, is split by Brent's variant of Pollard's rho 
+     * method.
+     * @param num The integer for which to determine prime factors of.
+     * @return An array of the prime factors in ascending order, in the same 
+     * format as {@link #primeFactors(int)}. For example, given num = 
+     * 1000000016000000063, the resulting array should be {1000000007, 
+     * 1000000009}.
+     */
+    public static long[] primeFactorsAsArray(long num) {
+        if (num == 0) {
+            return new long[]{0};
+        }
+        long[] factors = new long[64]; // No long has more prime factors than that, counting -1
+        int count = 0;
+        long n = num;
+        if (n < 0) {
+            factors[count++] = -1;
+            if (n == Long.MIN_VALUE) {
+                while (count < 64) {
+                    factors[count++] = 2;
+                }
+                return factors;
             }
-            while (n % 2 == 0) {
-                factors.add(2); // Treating 2 as a special case
-                n /= 2;
+            n = -n;
+        }
+        int twos = Long.numberOfTrailingZeros(n);
+        for (int i = 0; i < twos; i++) {
+            factors[count++] = 2; // Treating 2 as a special case
+        }
+        n >>= twos;
+        char[] sieve = spfSieveCovering(n);
+        if (sieve != null) {
+            while (n > 1) {
+                int p = spfLookup(sieve, n);
+                factors[count++] = p;
+                n /= p;
             }
-            for (int i = 3; i <= n; i += 2) {
-                while (n % i == 0) {
-                    factors.add(i);
-                    n /= i;
+            return Arrays.copyOf(factors, count);
+        }
+        for (int p : TRIAL_DIVISION_PRIMES) {
+            if ((long) p * p > n) {
+                break;
+            }
+            while (n % p == 0) {
+                factors[count++] = p;
+                n /= p;
+            }
+        }
+        if (n > 1) {
+            count = addLargePrimeFactors(n, factors, count);
+        }
+        Arrays.sort(factors, 0, count);
+        return Arrays.copyOf(factors, count);
+    }
+    
+    /**
+     * Adds the prime factors of an odd number with no small prime factors to 
+     * an array, splitting the number with {@link #pollardRhoBrent(long)} as 
+     * many times as necessary.
+     * @param n An odd number greater than 1.
+     * @param factors The array to add the factors to. It must have enough room 
+     * left for all of them.
+     * @param count How many factors the array already holds.
+     * @return How many factors the array holds after adding those of n.
+     */
+    private static int addLargePrimeFactors(long n, long[] factors, int count) {
+        if (isPrimeMillerRabin(n)) {
+            factors[count] = n;
+            return count + 1;
+        }
+        long divisor = pollardRhoBrent(n);
+        int newCount = addLargePrimeFactors(divisor, factors, count);
+        return addLargePrimeFactors(n / divisor, factors, newCount);
+    }
+    
+    /**
+     * Finds a nontrivial divisor of an odd composite number by Brent's variant 
+     * of Pollard's rho method. The pseudorandom sequence is x<sup>2</sup> + c 
+     * computed with {@link #montgomeryMultiply(long, long, long, long)}, and 
+     * the differences are multiplied together in batches so as to only need 
+     * one GCD per batch. If a choice of c fails, the next one is tried.
+     * @param n An odd composite number.
+     * @return A divisor of n greater than 1 and less than n, not necessarily 
+     * prime.
+     */
+    private static long pollardRhoBrent(long n) {
+        long inverse = montgomeryInverse(n);
+        final int batchSize = 128;
+        for (long c = 1; c < n; c++) {
+            long y = 2;
+            long x = y;
+            long ys = y;
+            long product = 1;
+            long divisor = 1;
+            for (long r = 1; divisor == 1; r <<= 1) {
+                x = y;
+                for (long i = 0; i < r; i++) {
+                    y = pollardRhoStep(y, c, n, inverse);
+                }
+                for (long k = 0; k < r && divisor == 1; k += batchSize) {
+                    ys = y;
+                    long stop = Math.min(batchSize, r - k);
+                    for (long i = 0; i < stop; i++) {
+                        y = pollardRhoStep(y, c, n, inverse);
+                        product = montgomeryMultiply(product, Math.abs(x - y), n, inverse);
+                    }
+                    divisor = euclideanGCD(product, n);
                 }
             }
+            if (divisor == n) {
+                do {
+                    ys = pollardRhoStep(ys, c, n, inverse);
+                    divisor = euclideanGCD(Math.abs(x - ys), n);
+                } while (divisor == 1);
+            }
+            if (divisor != n) {
+                return divisor;
+            }
         }
-        return factors;
+        throw new ArithmeticException("Pollard's rho method failed to find a divisor of " + n + ", which may be prime after all.");
+    }
+    
+    private static long pollardRhoStep(long y, long c, long n, long inverse) {
+        long next = montgomeryMultiply(y, y, n, inverse) + c;
+        if (next < 0 || next >= n) {
+            next -= n;
+        }
+        return next;
     }
     
     /**
      * Determines whether a given purely real number is prime or not. The 
      * numbers 0, -1, 1, -2, 2 are treated as special cases. For all others, the 
-     * function searches only for the least prime factor. If the least prime 
-     * factor is found to be unequal to the absolute value of the number, the 
-     * function reports the number as composite and returns to the caller. 
-     * Still, the function is open to optimization.
+     * answer is looked up in a shared table of primes, which is grown on demand 
+     * up to {@link #getPrimeTableBound()}. Since the default bound is less than 
+     * {@link Integer#MAX_VALUE}, some numbers will still have to be tested by 
+     * {@link #isPrimeMillerRabin(long)}.
      * @param num The number to be tested for primality.
      * @return true if the number is prime (even if negative), false otherwise.
      * For example, -2 and 47 should each return true, -25, 0 and 91 should each 
      * return false.
      */
     public static boolean isPrime(int num) {
-        switch (num) {
-            case -1:
-            case 0:
-            case 1:
-                return false;
-            case -2:
-            case 2:
-                return true;
-            default:
-                if (num % 2 == 0) {
-                    return false;
-                } else {
-                    boolean primeFlag = true;
-                    int potentialFactor = 3;
-                    double numSqrt = Math.sqrt(Math.abs(num));
-                    while (primeFlag && potentialFactor <= numSqrt) {
-                        primeFlag = (num % potentialFactor != 0);
-                        potentialFactor += 2;
-                    }
-                    return primeFlag;
-                }
-        }
+        return isPrime((long) num);
     }
     
     /**
-     * Determines whether a given purely real number is prime or not.
+     * Determines whether a given purely real number is prime or not. Numbers 
+     * within the shared table of primes are looked up, the table being grown 
+     * first if necessary and allowed by {@link #getPrimeTableBound()}. Numbers 
+     * beyond the table are handed over to {@link #isPrimeMillerRabin(long)}, 
+     * which is deterministic for every long.
      * @param num The number to be tested for primality.
      * @return True if the number is prime, false otherwise.
      */
@@ -146,23 +770,58 @@ public class NumberTheoreticFunctionsCalculator {
         }
         if (num % 2 == 0) {
             return false;
-        } else {
-            boolean primeFlag = true;
-            long potentialFactor = 3;
-            double numSqrt = Math.sqrt(Math.abs(num));
-            while (primeFlag && potentialFactor <= numSqrt) {
-                primeFlag = (num % potentialFactor != 0);
-                potentialFactor += 2;
-            }
-            return primeFlag;
         }
+        long absNum = Math.abs(num);
+        long[] table = primeTableCovering(absNum);
+        if (absNum < ((long) table.length << 7)) {
+            return primeTableLookup(table, absNum);
+        }
+        return isPrimeMillerRabin(absNum);
     }
         
+    /**
+     * Computes the Jacobi symbol (a/m) for a positive odd m by the binary 
+     * reciprocity algorithm: factors of 2 are pulled out of the numerator and 
+     * accounted for with the second supplementary law, then numerator and 
+     * denominator are swapped by quadratic reciprocity and the numerator is 
+     * reduced modulo the denominator. No factorization is needed, and the 
+     * number of steps is logarithmic in m, as with the Euclidean algorithm.
+     * @param a The numerator. May be negative or larger than m.
+     * @param m The denominator. Must be positive and odd, this is not checked.
+     * @return -1, 0 or 1.
+     */
+    private static byte jacobiReciprocity(long a, long m) {
+        long num = Math.floorMod(a, m);
+        long den = m;
+        byte symbol = 1;
+        int twos;
+        long swap;
+        while (num != 0) {
+            twos = Long.numberOfTrailingZeros(num);
+            num >>= twos;
+            if ((twos & 1) == 1 && ((den & 7) == 3 || (den & 7) == 5)) {
+                symbol = (byte) -symbol;
+            }
+            if ((num & den & 2) != 0) {
+                symbol = (byte) -symbol;
+            }
+            swap = num;
+            num = den % num;
+            den = swap;
+        }
+        if (den == 1) {
+            return symbol;
+        } else {
+            return 0;
+        }
+    }
+    
     /**
      * The Legendre symbol, a number theoretic function which tells if a given 
-     * number is a quadratic residue modulo an odd prime. There is no overflow 
-     * checking, but hopefully that's only a problem for numbers that are very 
-     * close to {@link Integer#MIN_VALUE} or {@link Integer#MAX_VALUE}.
+     * number is a quadratic residue modulo an odd prime. Since p is prime, this 
+     * is the same as the Jacobi symbol, and it's computed by quadratic 
+     * reciprocity in time logarithmic in p, without the risk of overflow that 
+     * came with raising a to the power (p - 1)/2.
      * @param a The number to test for being a quadratic residue modulo an odd 
      * prime. For example, 10.
      * @param p The odd prime to test a for being a quadratic residue modulo of. 
@@ -178,44 +837,33 @@ public class NumberTheoreticFunctionsCalculator {
      * is a runtime exception.
      */
     public static byte symbolLegendre(int a, int p) {
+        return symbolLegendre((long) a, (long) p);
+    }
+    
+    /**
+     * The Legendre symbol for 64-bit integers. See {@link 
+     * #symbolLegendre(int, int)} for details.
+     * @param a The number to test for being a quadratic residue modulo an odd 
+     * prime. For example, 10.
+     * @param p The odd prime to test a for being a quadratic residue modulo of. 
+     * For example, 7. May be negative, as with the 32-bit version.
+     * @return -1, 0 or 1. For example, Legendre(10, 7) = -1.
+     * @throws IllegalArgumentException If p is not an odd prime. Note that this 
+     * is a runtime exception.
+     */
+    public static byte symbolLegendre(long a, long p) {
         if (!isPrime(p)) {
             throw new IllegalArgumentException(p + " is not a prime number. Consider using the Jacobi symbol instead.");
         }
         if (p == -2 || p == 2) {
             throw new IllegalArgumentException(p + " is not an odd prime. Consider using the Kronecker symbol instead.");
         }
-        if (euclideanGCD(a, p) > 1) {
-            return 0;
-        }
-        int oddPrime = Math.abs(p); // Making sure p is positive
-        int exponent = (oddPrime - 1)/2;
-        int modStop = oddPrime - 2;
-        int adjA = a;
-        if (adjA > (oddPrime - 1)) {
-            adjA %= oddPrime;
-        }
-        if (adjA == (oddPrime - 1)) {
-            adjA = -1;
-        }
-        while (adjA < -1) {
-            adjA += oddPrime;
-        }
-        int power = adjA;
-        for (int i = 1; i < exponent; i++) {
-            power *= adjA;
-            while (power > modStop) {
-                power -= oddPrime;
-            }
-            while (power < -1) {
-                power += oddPrime;
-            }
-        }
-        return (byte) power;
+        return jacobiReciprocity(a, Math.abs(p));
     }
     
     /**
-     * The Jacobi symbol, a number theoretic function. This implementation is 
-     * almost entirely dependent on the Legendre symbol.
+     * The Jacobi symbol, a number theoretic function. This implementation uses 
+     * quadratic reciprocity directly, so m does not need to be factored.
      * @param n Parameter n, for example, 8.
      * @param m Parameter m, for example, 15.
      * @return The result, for example, 1.
@@ -223,66 +871,49 @@ public class NumberTheoreticFunctionsCalculator {
      * that this is a runtime exception.
      */
     public static byte symbolJacobi(int n, int m) {
-        if (m % 2 == 0) {
-            throw new IllegalArgumentException(m + " is not an odd number. Consider using the Kronecker symbol instead.");        }
-        if (m < 0) {
-            throw new IllegalArgumentException(m + " is not a positive number. Consider using the Kronecker symbol instead.");
-        }
-        if (m == 1) {
-            return 1;
-        }
-        if (euclideanGCD(n, m) > 1) {
-            return 0;
-        }
-        List<Integer> mFactors = primeFactors(m);
-        byte symbol = 1;
-        for (Integer mFactor : mFactors) {
-            symbol *= symbolLegendre(n, mFactor);
-        }
-        return symbol;
+        return symbolJacobi((long) n, (long) m);
     }
     
-    private static byte symbolKroneckerNegOne(int n) {
-        if (n < 0) {
-            return -1;
-        } else {
-            return 1;
+    /**
+     * The Jacobi symbol for 64-bit integers. See {@link #symbolJacobi(int, 
+     * int)} for details.
+     * @param n Parameter n, for example, 8.
+     * @param m Parameter m, for example, 15.
+     * @return The result, for example, 1.
+     * @throws IllegalArgumentException If m is even or negative (or both). Note 
+     * that this is a runtime exception.
+     */
+    public static byte symbolJacobi(long n, long m) {
+        if (m % 2 == 0) {
+            throw new IllegalArgumentException(m + " is not an odd number. Consider using the Kronecker symbol instead.");
         }
-    }
-    
-    private static byte symbolKroneckerTwo(int n) {
-        int nMod8 = n % 8;
-        switch (nMod8) {
-            case -7:
-            case -1:
-            case 1:
-            case 7:
-                return 1;
-            case -5:
-            case -3:
-            case 3:
-            case 5:
-                return -1;
-            default:
-                return 0;
+        if (m < 0) {
+            throw new IllegalArgumentException(m + " is not a positive number. Consider using the Kronecker symbol instead.");
         }
+        return jacobiReciprocity(n, m);
     }
     
     /**
-     * The Kronecker symbol, a number theoretic function. This implementation 
-     * relies in great part on the Legendre symbol, but not at all on the Jacobi 
-     * symbol.
+     * The Kronecker symbol, a number theoretic function. The sign of m and its 
+     * powers of 2 are handled with the supplementary laws, and what's left of 
+     * m, which is odd and positive, goes to the same reciprocity algorithm as 
+     * the Jacobi symbol.
      * @param n Parameter n, for example, 3.
      * @param m Parameter m, for example, 2.
      * @return The result, for example, -1.
      */
     public static byte symbolKronecker(int n, int m) {
-        if (euclideanGCD(n, m) > 1) {
-            return 0;
-        }
-        if (m == 1) {
-            return 1;
-        }
+        return symbolKronecker((long) n, (long) m);
+    }
+    
+    /**
+     * The Kronecker symbol for 64-bit integers. See {@link 
+     * #symbolKronecker(int, int)} for details.
+     * @param n Parameter n, for example, 3.
+     * @param m Parameter m, for example, 2. May be {@link Long#MIN_VALUE}.
+     * @return The result, for example, -1.
+     */
+    public static byte symbolKronecker(long n, long m) {
         if (m == 0) {
             if (n == -1 || n == 1) {
                 return 1;
@@ -290,37 +921,35 @@ public class NumberTheoreticFunctionsCalculator {
                 return 0;
             }
         }
-        List<Integer> mFactors = primeFactors(m);
-        int currMFactorIndex = 0;
-        int kindaOmega = mFactors.size();
         byte symbol = 1;
-        if (mFactors.get(currMFactorIndex) == -1) {
-            symbol *= symbolKroneckerNegOne(n);
-            currMFactorIndex++;
+        if (m < 0 && n < 0) {
+            symbol = -1;
         }
-        int currFactor;
-        boolean keepGoing = true; // Keep going with Kronecker(n, 2)?
-        while (currMFactorIndex < kindaOmega && keepGoing) {
-            currFactor = mFactors.get(currMFactorIndex);
-            keepGoing = (currFactor == 2);
-            if (keepGoing) {
-                symbol *= symbolKroneckerTwo(n);
-                currMFactorIndex++;
+        int twos = Long.numberOfTrailingZeros(m);
+        if (twos > 0) {
+            if ((n & 1) == 0) {
+                return 0;
+            }
+            if ((twos & 1) == 1 && ((n & 7) == 3 || (n & 7) == 5)) {
+                symbol = (byte) -symbol;
             }
         }
-        while (currMFactorIndex < kindaOmega) {
-            currFactor = mFactors.get(currMFactorIndex);
-            symbol *= symbolLegendre(n, currFactor);
-            currMFactorIndex++;
+        long oddPart = m >> twos;
+        if (oddPart < 0) {
+            oddPart = -oddPart;
         }
-        return symbol;
+        return (byte) (symbol * jacobiReciprocity(n, oddPart));
     }
     
     /**
      * Determines whether a given number, not necessarily purely real, is prime 
      * or not. Note that an early version of this function would throw 
      * {@link NonUniqueFactorizationDomainException} if called upon a purely 
-     * real integer in a non-UFD. That is no longer the case.
+     * real integer in a non-UFD. That is no longer the case. Purely real 
+     * integers are classified by the ring's splitting table, see {@link 
+     * ImaginaryQuadraticRing#splittingType(int)}. The answer is remembered in a 
+     * cache of {@link #ELEMENT_CACHE_CAPACITY} entries, see {@link 
+     * #getPrimalityCache()}.
      * @param num The number for which to make the determination.
      * @return true if the number is prime, false otherwise. For example, 1 + i,
      * which has a norm of 2, is prime.
@@ -328,6 +957,16 @@ public class NumberTheoreticFunctionsCalculator {
      * runtime exception).
      */
     public static boolean isPrime(ImaginaryQuadraticInteger num) {
+        Boolean cached = PRIMALITY_CACHE.get(num);
+        if (cached != null) {
+            return cached;
+        }
+        boolean prime = isPrimeUncached(num);
+        PRIMALITY_CACHE.put(num, prime);
+        return prime;
+    }
+    
+    private static boolean isPrimeUncached(ImaginaryQuadraticInteger num) {
         if (num.norm() < 0) {
             String exceptionMessage = "Overflow has occurred for the computation of the norm of " + num.toASCIIString();
             throw new ArithmeticException(exceptionMessage);
@@ -337,22 +976,17 @@ public class NumberTheoreticFunctionsCalculator {
         } else {
             if (num.imagQuadRing.negRad == -1 && num.realPartMult == 0) {
                 if (isPrime(num.imagPartMult)) {
-                    return ((Math.abs(num.imagPartMult)) % 4 == 3);
+                    return (RING_GAUSSIAN.splittingType(num.imagPartMult) == ImaginaryQuadraticRing.PRIME_INERT);
                 } else {
                     return false;
                 }
             }
             if (num.imagQuadRing.negRad == -3 && num.imagPartMult != 0) {
-                ImaginaryQuadraticInteger pureReal = num.times(COMPLEX_CUBIC_ROOT_OF_UNITY);
-                if (pureReal.imagPartMult != 0) {
-                    pureReal = pureReal.times(COMPLEX_CUBIC_ROOT_OF_UNITY);
-                }
-                if (pureReal.imagPartMult == 0) {
-                    if (pureReal.realPartMult < 0) {
-                        pureReal = pureReal.times(-1);
-                    }
-                    if (isPrime(pureReal.realPartMult)) {
-                        return (pureReal.realPartMult % 3 == 2);
+                // The associates of a purely real n, other than n and -n, are +/-n/2 +/- n sqrt(-3)/2
+                long twiceRe = Math.abs(num.getTwiceRealPartMult());
+                if (twiceRe == Math.abs(num.getTwiceImagPartMult()) && twiceRe <= Integer.MAX_VALUE) {
+                    if (isPrime(twiceRe)) {
+                        return (num.imagQuadRing.splittingType((int) twiceRe) == ImaginaryQuadraticRing.PRIME_INERT);
                     } else {
                         return false;
                     }
@@ -361,26 +995,10 @@ public class NumberTheoreticFunctionsCalculator {
             if (num.imagPartMult == 0) {
                 int absRealPartMult = Math.abs(num.realPartMult);
                 if (absRealPartMult == 2) {
-                    return (symbolKronecker(num.imagQuadRing.negRad, 2) == -1);
+                    return (num.imagQuadRing.splittingType(2) == ImaginaryQuadraticRing.PRIME_INERT);
                 }
                 if (isPrime(absRealPartMult)) {
-                    switch (num.imagQuadRing.negRad) {
-                        case -1:
-                            return (absRealPartMult % 4 == 3);
-                        case -2:
-                            return (absRealPartMult % 8 == 5 || absRealPartMult % 8 == 7);
-                        case -3:
-                            return (absRealPartMult % 3 == 2);
-//                        case -7:
-//                        case -11:
-//                        case -19:
-//                        case -43:
-//                        case -67:
-//                        case -163:
-//                            return (symbolLegendre(num.imagQuadRing.negRad, absRealPartMult) == -1);
-                        default:
-                            return (symbolLegendre(num.imagQuadRing.negRad, absRealPartMult) == -1);
-                    }
+                    return (num.imagQuadRing.splittingType(absRealPartMult) == ImaginaryQuadraticRing.PRIME_INERT);
                 } else {
                     return false;
                 }
@@ -392,64 +1010,327 @@ public class NumberTheoreticFunctionsCalculator {
     
     /**
      * Sorts a list of imaginary quadratic integers in ascending order by norm. 
-     * Do note that integers of the same might come back in the same order 
-     * relative to each other that they were originally in. The sorting is done 
-     * with a rudimentary bubble sort algorithm, so do not use this if speed or 
-     * efficiency are required.
+     * Integers of the same norm come back in the same order relative to each 
+     * other that they were originally in. Each norm is computed only once, and 
+     * the sorting is done by a merge sort on an array of indices, so this is 
+     * suitable even for long lists.
      * @param listIQI A list of imaginary quadratic integers, which may be in 
      * any order whatsoever. For example: -1 + i, 4 + i, -i, 1 - i.
-     * @return A list of the imaginary quadratic integers sorted by norm. For 
-     * example: -i, -1 + i, 1 - i, 4 + i. Note that there is no checking of norm 
-     * overflows, so imaginary quadratic integer objects with erroneously 
-     * negative norms would be erroneously sorted before units.
+     * @return A new list of the imaginary quadratic integers sorted by norm. 
+     * For example: -i, -1 + i, 1 - i, 4 + i. The list passed in is not 
+     * modified. Note that there is no checking of norm overflows, so imaginary 
+     * quadratic integer objects with erroneously negative norms would be 
+     * erroneously sorted before units.
      */
     static List<ImaginaryQuadraticInteger> sortListIQIByNorm(List<ImaginaryQuadraticInteger> listIQI) {
-        boolean swapFlag;
-        ImaginaryQuadraticInteger a, b;
-        List<ImaginaryQuadraticInteger> nums = new ArrayList<>();
-        for (ImaginaryQuadraticInteger iqi : listIQI) {
-            nums.add(iqi);
-        }
-        int opLen = listIQI.size() - 1;
-        if (opLen > 0) {
-            do {
-                swapFlag = false;
-                for (int counter = 0; counter < opLen; counter++) {
-                    a = nums.get(counter);
-                    b = nums.get(counter + 1);
-                    if (a.norm() > b.norm()) {
-                        nums.set(counter, b);
-                        nums.set(counter + 1, a);
-                        swapFlag = true;
+        ImaginaryQuadraticInteger[] nums = listIQI.toArray(new ImaginaryQuadraticInteger[listIQI.size()]);
+        int[] order = indicesSortedByNorm(nums);
+        List<ImaginaryQuadraticInteger> sorted = new ArrayList<>(nums.length);
+        for (int index : order) {
+            sorted.add(nums[index]);
+        }
+        return sorted;
+    }
+    
+    /**
+     * Sorts a list of imaginary quadratic integers in ascending order by norm, 
+     * in place. This is just like {@link #sortListIQIByNorm(List)}, except that 
+     * the list passed in is itself rearranged rather than copied. The ordering 
+     * is the same as that of {@link NormComparator}, and integers of the same 
+     * norm keep their relative order.
+     * @param listIQI A list of imaginary quadratic integers, which may be in 
+     * any order whatsoever. For example: -1 + i, 4 + i, -i, 1 - i. The list 
+     * must support {@link java.util.ListIterator#set(Object)}. After this 
+     * function returns, the example list will be -i, -1 + i, 1 - i, 4 + i.
+     * @throws UnsupportedOperationException If the list does not support 
+     * setting elements (this is a runtime exception).
+     */
+    public static void sortListIQIByNormInPlace(List<ImaginaryQuadraticInteger> listIQI) {
+        ImaginaryQuadraticInteger[] nums = listIQI.toArray(new ImaginaryQuadraticInteger[listIQI.size()]);
+        int[] order = indicesSortedByNorm(nums);
+        ListIterator<ImaginaryQuadraticInteger> iterator = listIQI.listIterator();
+        for (int index : order) {
+            iterator.next();
+            iterator.set(nums[index]);
+        }
+    }
+    
+    /**
+     * Gives the indices of an array of imaginary quadratic integers in the 
+     * order that would sort the array by norm. Runs of up to {@link 
+     * #SORT_INSERTION_RUN} indices are put in order by insertion sort, and then 
+     * the runs are merged bottom up. Ties always go to the lower index, so the 
+     * sort is stable.
+     * @param nums The imaginary quadratic integers. Not modified.
+     * @return An array of the indices 0 to nums.length - 1, in order by the 
+     * norms of the corresponding elements of nums.
+     */
+    private static int[] indicesSortedByNorm(ImaginaryQuadraticInteger[] nums) {
+        int len = nums.length;
+        long[] norms = new long[len];
+        int[] order = new int[len];
+        for (int i = 0; i < len; i++) {
+            norms[i] = nums[i].norm();
+            order[i] = i;
+        }
+        for (int runStart = 0; runStart < len; runStart += SORT_INSERTION_RUN) {
+            int runEnd = Math.min(runStart + SORT_INSERTION_RUN, len);
+            for (int i = runStart + 1; i < runEnd; i++) {
+                int index = order[i];
+                long norm = norms[index];
+                int j = i - 1;
+                while (j >= runStart && norms[order[j]] > norm) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = index;
+            }
+        }
+        int[] buffer = new int[len];
+        for (int width = SORT_INSERTION_RUN; width < len; width *= 2) {
+            for (int lo = 0; lo < len - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(mid + width, len);
+                if (norms[order[mid - 1]] <= norms[order[mid]]) {
+                    continue;
+                }
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    if (norms[order[j]] < norms[order[i]]) {
+                        buffer[k++] = order[j++];
+                    } else {
+                        buffer[k++] = order[i++];
                     }
                 }
-                a = nums.get(opLen);
-                b = nums.get(0);
-                if (a.norm() < b.norm()) {
-                    nums.set(opLen, b);
-                    nums.set(0, a);
-                    swapFlag = true;
+                while (i < mid) {
+                    buffer[k++] = order[i++];
+                }
+                while (j < hi) {
+                    buffer[k++] = order[j++];
                 }
-            } while (swapFlag);
+                System.arraycopy(buffer, lo, order, lo, hi - lo);
+            }
         }
-        return nums;
+        return order;
     }
     
     /**
-     * Computes the prime factors, and unit factors when applicable, of an 
-     * imaginary quadratic integer from a unique factorization domain (UFD).
-     * @param num The imaginary quadratic integer to find the factors of. For 
-     * example, -4 + 3sqrt(-19).
-     * @return A list of imaginary quadratic integers, with the first possibly 
-     * being a unit, the rest should be primes. For example, -1, 5/2 - 
-     * sqrt(-19)/2, 7/2 - sqrt(-19)/2, which multiply to -4 + 3sqrt(-19).
-     * @throws NonUniqueFactorizationDomainException If called upon to compute 
-     * the prime factors of a number from a non-UFD, even if a complete 
-     * factorization into primes is possible in the given domain, e.g., 5 and 41 
-     * in Z[sqrt(-5)].
+     * Computes a square root of a number modulo an odd prime by the 
+     * Tonelli&ndash;Shanks algorithm, with the arithmetic done by {@link 
+     * #montgomeryMultiply(long, long, long, long)} so that primes all the way up 
+     * to {@link Long#MAX_VALUE} can be handled.
+     * @param a The number to take the square root of. It must be a quadratic 
+     * residue modulo p or a multiple of p, this is not checked. It may be 
+     * negative. For example, -1.
+     * @param p An odd prime. For example, 13.
+     * @return A number r from 0 to p &minus; 1 such that r<sup>2</sup> = a mod 
+     * p. For example, 5 or 8. Which of the two square roots is given is not 
+     * specified.
      */
-    public static List<ImaginaryQuadraticInteger> primeFactors(ImaginaryQuadraticInteger num) throws NonUniqueFactorizationDomainException {
-        int d = num.getRing().getNegRad();
+    static long sqrtModPrime(long a, long p) {
+        long residue = Math.floorMod(a, p);
+        if (residue == 0) {
+            return 0;
+        }
+        long oddPart = p - 1;
+        int twos = Long.numberOfTrailingZeros(oddPart);
+        oddPart >>= twos;
+        long nonResidue = 2;
+        while (symbolJacobi(nonResidue, p) != -1) {
+            nonResidue++;
+        }
+        long inverse = montgomeryInverse(p);
+        long rSquared = montgomeryRSquared(p);
+        long one = Long.remainderUnsigned(-p, p);
+        long residueMont = montgomeryMultiply(residue, rSquared, p, inverse);
+        long c = montgomeryPower(montgomeryMultiply(nonResidue, rSquared, p, inverse), oddPart, one, p, inverse);
+        long t = montgomeryPower(residueMont, oddPart, one, p, inverse);
+        long root = montgomeryPower(residueMont, (oddPart + 1) >> 1, one, p, inverse);
+        int m = twos;
+        long tSquares, b;
+        int i;
+        while (t != one) {
+            i = 0;
+            tSquares = t;
+            while (tSquares != one) {
+                tSquares = montgomeryMultiply(tSquares, tSquares, p, inverse);
+                i++;
+            }
+            b = c;
+            for (int j = 0; j < m - i - 1; j++) {
+                b = montgomeryMultiply(b, b, p, inverse);
+            }
+            m = i;
+            c = montgomeryMultiply(b, b, p, inverse);
+            t = montgomeryMultiply(t, c, p, inverse);
+            root = montgomeryMultiply(root, b, p, inverse);
+        }
+        return montgomeryMultiply(root, 1, p, inverse);
+    }
+    
+    private static long montgomeryPower(long base, long exponent, long one, long oddModulus, long inverse) {
+        long power = one;
+        long x = base;
+        for (long e = exponent; e > 0; e >>= 1) {
+            if ((e & 1) == 1) {
+                power = montgomeryMultiply(power, x, oddModulus, inverse);
+            }
+            x = montgomeryMultiply(x, x, oddModulus, inverse);
+        }
+        return power;
+    }
+    
+    static long floorSqrt(long num) {
+        long root = (long) Math.sqrt((double) num);
+        while (root > 0 && root > num / root) {
+            root--;
+        }
+        while (root + 1 <= num / (root + 1)) {
+            root++;
+        }
+        return root;
+    }
+    
+    /**
+     * Finds an element of norm p in an imaginary quadratic ring by Cornacchia's 
+     * algorithm, solving x<sup>2</sup> + |<i>d</i>|y<sup>2</sup> = p, or = 4p 
+     * if the ring has "half-integers," in which case this is the variant given 
+     * by Henri Cohen in <i>A Course in Computational Algebraic Number 
+     * Theory</i>, Algorithm 1.5.3. Primes dividing the discriminant are found 
+     * by a short search instead, since there are so few of them.
+     * @param p A rational prime that splits or ramifies in the ring. If it's 
+     * inert, there is no solution.
+     * @param ring The ring. For example, <b>Z</b>[<i>i</i>].
+     * @return An array with the real and imaginary parts of the element of norm 
+     * p, both multiplied by 2 so as to be integers even for "half-integers." 
+     * The real part is nonnegative and the imaginary part is positive. For 
+     * example, for p = 13 in <b>Z</b>[<i>i</i>], {6, 4}, that is, 3 + 2<i>i</i>. 
+     * Null if there is no element of norm p, as happens when p is inert or when 
+     * the ring is not a principal ideal domain.
+     */
+    private static long[] cornacchia(long p, ImaginaryQuadraticRing ring) {
+        long absD = ring.absNegRad;
+        long m = p;
+        int scale = 2;
+        if (ring.d1mod4) {
+            m = Math.multiplyExact(4, p);
+            scale = 1;
+        }
+        long x, rem;
+        if (p == 2 || absD % p == 0) {
+            for (long y = 1; absD * y * y <= m; y++) {
+                rem = m - absD * y * y;
+                x = floorSqrt(rem);
+                if (x * x == rem) {
+                    return new long[]{scale * x, scale * y};
+                }
+            }
+            return null;
+        }
+        long a, b, swap;
+        if (ring.d1mod4) {
+            b = sqrtModPrime(ring.negRad, p);
+            if (((b - ring.negRad) & 1) != 0) {
+                b = p - b;
+            }
+            a = 2 * p;
+        } else {
+            b = sqrtModPrime(ring.negRad, p);
+            a = p;
+        }
+        long limit = floorSqrt(m);
+        while (b > limit) {
+            swap = b;
+            b = a % b;
+            a = swap;
+        }
+        rem = m - b * b;
+        if (rem % absD != 0) {
+            return null;
+        }
+        rem /= absD;
+        long y = floorSqrt(rem);
+        if (y * y != rem) {
+            return null;
+        }
+        return new long[]{scale * b, scale * y};
+    }
+    
+    /**
+     * Divides an imaginary quadratic integer by an element of known norm, if 
+     * the division is exact. Numbers are given as real and imaginary parts 
+     * multiplied by 2, as in {@link #cornacchia(long, ImaginaryQuadraticRing)}. 
+     * The quotient is the dividend times the conjugate of the divisor, divided 
+     * by p, so checking divisibility is just checking that both parts are 
+     * multiples of p and that the result is actually in the ring.
+     * @param dividend The real and imaginary parts, multiplied by 2, of the 
+     * dividend. If the division is exact, this array is overwritten with the 
+     * quotient.
+     * @param divisor The real and imaginary parts, multiplied by 2, of the 
+     * divisor.
+     * @param p The norm of the divisor. Usually a prime, but it need not be.
+     * @param ring The ring both numbers are from.
+     * @return True if the division was exact, false if not, in which case the 
+     * dividend is left as it was.
+     * @throws ArithmeticException If the intermediate products overflow 64 
+     * bits.
+     */
+    private static boolean divideExactByElement(long[] dividend, long[] divisor, long p, ImaginaryQuadraticRing ring) {
+        long re = Math.subtractExact(Math.multiplyExact(dividend[0], divisor[0]), Math.multiplyExact(ring.negRad, Math.multiplyExact(dividend[1], divisor[1]))) / 2;
+        long im = Math.subtractExact(Math.multiplyExact(dividend[1], divisor[0]), Math.multiplyExact(dividend[0], divisor[1])) / 2;
+        if (re % p != 0 || im % p != 0) {
+            return false;
+        }
+        re /= p;
+        im /= p;
+        if (ring.d1mod4) {
+            if (((re ^ im) & 1) != 0) {
+                return false;
+            }
+        } else {
+            if (((re | im) & 1) != 0) {
+                return false;
+            }
+        }
+        dividend[0] = re;
+        dividend[1] = im;
+        return true;
+    }
+    
+    /**
+     * Adds a factor to a list kept in order by norm, after any factors already 
+     * there of the same norm. The norms are kept in a parallel list rather than 
+     * recomputed, as they may be too large for {@link 
+     * ImaginaryQuadraticInteger#norm()}.
+     */
+    private static void addFactorByNorm(List<ImaginaryQuadraticInteger> factors, List<Long> factorNorms, ImaginaryQuadraticInteger factor, long norm) {
+        int position = factorNorms.size();
+        while (position > 0 && factorNorms.get(position - 1) > norm) {
+            position--;
+        }
+        factors.add(position, factor);
+        factorNorms.add(position, norm);
+    }
+    
+    static ImaginaryQuadraticInteger fromDoubledParts(long re, long im, ImaginaryQuadraticRing ring) {
+        if ((re & 1) == 0) {
+            return new ImaginaryQuadraticInteger(Math.toIntExact(re / 2), Math.toIntExact(im / 2), ring);
+        } else {
+            return new ImaginaryQuadraticInteger(Math.toIntExact(re), Math.toIntExact(im), ring, 2);
+        }
+    }
+    
+    /**
+     * Checks that a number comes from one of the nine imaginary quadratic rings 
+     * that are unique factorization domains.
+     * @param num The number. For example, 2 in <b>Z</b>[&radic;-5].
+     * @throws NonUniqueFactorizationDomainException If the ring of the number 
+     * is not a UFD, as in the example.
+     */
+    private static void requireUniqueFactorization(ImaginaryQuadraticInteger num) throws NonUniqueFactorizationDomainException {
+        int d = num.imagQuadRing.negRad;
         boolean notUFDFlag = true;
         if (d > -164) {
             for (int heegNum : HEEGNER_NUMBERS) {
@@ -462,105 +1343,483 @@ public class NumberTheoreticFunctionsCalculator {
             String exceptionMessage = num.getRing().toASCIIString() + " is not a unique factorization domain.";
             throw new NonUniqueFactorizationDomainException(exceptionMessage, num);
         }
-        if (num.norm() < 0) {
-            String exceptionMessage = "A norm computation error occurred for " + num.toASCIIString() + ", which should not have norm " + num.norm();
+    }
+    
+    /**
+     * Gives the cache in which {@link #isPrime(ImaginaryQuadraticInteger)} 
+     * remembers its answers, so that its hit and miss counts can be checked or 
+     * so that it can be cleared.
+     * @return The primality cache.
+     */
+    public static ElementCache<Boolean> getPrimalityCache() {
+        return PRIMALITY_CACHE;
+    }
+    
+    /**
+     * Gives the cache in which {@link #primeFactors(ImaginaryQuadraticInteger)} 
+     * remembers its answers, so that its hit and miss counts can be checked or 
+     * so that it can be cleared.
+     * @return The factorization cache.
+     */
+    public static ElementCache<ImaginaryQuadraticInteger[]> getFactorizationCache() {
+        return FACTORIZATION_CACHE;
+    }
+    
+    /**
+     * Computes the prime factors, and unit factors when applicable, of an 
+     * imaginary quadratic integer from a unique factorization domain (UFD). 
+     * Rather than searching for divisors, this factors the norm as a rational 
+     * integer with {@link #primeFactorsAsArray(long)} and looks at how each 
+     * rational prime p behaves in the ring. An inert p divides the number as 
+     * is. Otherwise Cornacchia's algorithm gives an element of norm p, and 
+     * trial division by it and its conjugate settles which of the two divide 
+     * the number, and how many times. The factorization is remembered in a 
+     * cache of {@link #ELEMENT_CACHE_CAPACITY} entries, see {@link 
+     * #getFactorizationCache()}, so asking for the prime factors of the same 
+     * number again doesn't redo any of this.
+     * @param num The imaginary quadratic integer to find the factors of. For 
+     * example, -4 + 3sqrt(-19).
+     * @return A list of imaginary quadratic integers, with the first possibly 
+     * being a unit, the rest should be primes. For example, -1, 5/2 - 
+     * sqrt(-19)/2, 7/2 - sqrt(-19)/2, which multiply to -4 + 3sqrt(-19). The 
+     * primes are in order by norm, and each has nonnegative real part. Of two 
+     * conjugate primes, the one with negative imaginary part comes first.
+     * @throws NonUniqueFactorizationDomainException If called upon to compute 
+     * the prime factors of a number from a non-UFD, even if a complete 
+     * factorization into primes is possible in the given domain, e.g., 5 and 41 
+     * in Z[sqrt(-5)].
+     * @throws ArithmeticException If a norm computation error occurs (this is a 
+     * runtime exception).
+     */
+    public static List<ImaginaryQuadraticInteger> primeFactors(ImaginaryQuadraticInteger num) throws NonUniqueFactorizationDomainException {
+        requireUniqueFactorization(num);
+        ImaginaryQuadraticInteger[] cached = FACTORIZATION_CACHE.get(num);
+        if (cached == null) {
+            cached = primeFactorsUncached(num).toArray(new ImaginaryQuadraticInteger[0]);
+            FACTORIZATION_CACHE.put(num, cached);
+        }
+        return new ArrayList<>(Arrays.asList(cached));
+    }
+    
+    private static List<ImaginaryQuadraticInteger> primeFactorsUncached(ImaginaryQuadraticInteger num) {
+        int d = num.imagQuadRing.negRad;
+        ImaginaryQuadraticRing ring = num.getRing();
+        long[] n;
+        if (num.denominator == 2) {
+            n = new long[]{num.realPartMult, num.imagPartMult};
+        } else {
+            n = new long[]{2L * num.realPartMult, 2L * num.imagPartMult};
+        }
+        long norm;
+        try {
+            norm = Math.addExact(n[0] * n[0], Math.multiplyExact(ring.absNegRad, n[1] * n[1])) / 4;
+        } catch (ArithmeticException ae) {
+            String exceptionMessage = "A norm computation error occurred for " + num.toASCIIString() + ", whose norm is too large for 64 bits.";
             throw new ArithmeticException(exceptionMessage);
         }
-        ImaginaryQuadraticInteger n = num;
         List<ImaginaryQuadraticInteger> factors = new ArrayList<>();
-        if (n.norm() < 2) {
-            factors.add(n);
+        if (norm < 2) {
+            factors.add(num);
             return factors;
         }
-        if (isPrime(n)) {
-            factors.add(new ImaginaryQuadraticInteger(1, 0, num.getRing()));
-            factors.add(n);
-        } else {
-            ImaginaryQuadraticInteger testDivisor = new ImaginaryQuadraticInteger(2, 0, n.getRing());
-            boolean keepGoing = true;
-            if (isPrime(testDivisor)) {
-                while (n.norm() % 4 == 0) {
-                    try {
-                        n = n.divides(testDivisor);
-                        factors.add(testDivisor);
-                    } catch (NotDivisibleException nde) {
-                        keepGoing = ((Math.abs(nde.getNumericRealPart()) > 1) || (Math.abs(nde.getNumericImagPart()) > 1));
-                    }
+        List<Long> factorNorms = new ArrayList<>();
+        long[] normFactors = primeFactorsAsArray(norm);
+        long p;
+        int exponent, towardsConjugate;
+        byte splitting;
+        long[] prime, conjugate;
+        int i = 0;
+        while (i < normFactors.length) {
+            p = normFactors[i];
+            exponent = 0;
+            while (i < normFactors.length && normFactors[i] == p) {
+                exponent++;
+                i++;
+            }
+            if (p <= Integer.MAX_VALUE) {
+                splitting = ring.splittingType((int) p);
+            } else {
+                splitting = symbolLegendre(d, p);
+            }
+            if (splitting == ImaginaryQuadraticRing.PRIME_INERT) {
+                ImaginaryQuadraticInteger inertPrime = new ImaginaryQuadraticInteger(Math.toIntExact(p), 0, ring);
+                for (int j = 0; j < exponent; j += 2) {
+                    n[0] /= p;
+                    n[1] /= p;
+                    addFactorByNorm(factors, factorNorms, inertPrime, p * p);
                 }
+                continue;
             }
-            testDivisor = testDivisor.plus(1);
-            while ((n.norm() > testDivisor.norm()) && keepGoing) {
-                if (isPrime(testDivisor)) {
-                    while (n.norm() % testDivisor.norm() == 0) {
-                        try {
-                            n = n.divides(testDivisor);
-                            factors.add(testDivisor);
-                        } catch (NotDivisibleException nde) {
-                            keepGoing = ((Math.abs(nde.getNumericRealPart()) > 1) || (Math.abs(nde.getNumericImagPart()) > 1));
-                        }
-                    }
+            prime = cornacchia(p, ring);
+            if (prime == null) {
+                throw new ArithmeticException("Unable to find an element of norm " + p + " in " + ring.toASCIIString());
+            }
+            ImaginaryQuadraticInteger splitPrime = fromDoubledParts(prime[0], prime[1], ring);
+            towardsConjugate = 0;
+            if (splitting == ImaginaryQuadraticRing.PRIME_SPLIT) {
+                towardsConjugate = exponent;
+                while (towardsConjugate > 0 && divideExactByElement(n, prime, p, ring)) {
+                    towardsConjugate--;
                 }
-                testDivisor = testDivisor.plus(2);
-            }
-            int testDivRealPartMult = 0;
-            int testDivImagPartMult = 2;
-            if (n.getRing().hasHalfIntegers()) {
-                testDivRealPartMult = 1;
-                testDivImagPartMult = 1;
-            }
-            boolean withinRange;
-            while (n.norm() > 1) {
-                testDivisor = new ImaginaryQuadraticInteger(testDivRealPartMult, testDivImagPartMult, n.getRing(), 2);
-                withinRange = (testDivisor.norm() < n.norm());
-                if (isPrime(testDivisor)) {
-                    while (n.norm() % testDivisor.norm() == 0) {
-                        try {
-                            n = n.divides(testDivisor.conjugate());
-                            factors.add(testDivisor.conjugate());
-                        } catch (NotDivisibleException nde) {
-                            // withinRange = withinRange && ((Math.abs(nde.getNumericRealPart()) > 1) || (Math.abs(nde.getNumericImagPart()) > 1));
-                        }
-                        try {
-                            n = n.divides(testDivisor);
-                            factors.add(testDivisor);
-                        } catch (NotDivisibleException nde) {
-                            // withinRange = withinRange && ((Math.abs(nde.getNumericRealPart()) > 1) || (Math.abs(nde.getNumericImagPart()) > 1));
-                        }
+                conjugate = new long[]{prime[0], -prime[1]};
+                ImaginaryQuadraticInteger conjugatePrime = fromDoubledParts(conjugate[0], conjugate[1], ring);
+                for (int j = 0; j < towardsConjugate; j++) {
+                    if (!divideExactByElement(n, conjugate, p, ring)) {
+                        throw new ArithmeticException("Factorization of " + num.toASCIIString() + " failed at the prime " + p);
                     }
+                    addFactorByNorm(factors, factorNorms, conjugatePrime, p);
                 }
-                if (withinRange) {
-                    testDivRealPartMult += 2;
-                } else {
-                    if (!num.getRing().hasHalfIntegers()) {
-                        testDivRealPartMult = 0;
-                        testDivImagPartMult += 2;
-                    } else {
-                        if (testDivImagPartMult % 2 == 0) {
-                            testDivRealPartMult = 1;
-                        } else {
-                            testDivRealPartMult = 0;
-                        }
-                        testDivImagPartMult++;
+            } else {
+                for (int j = 0; j < exponent; j++) {
+                    if (!divideExactByElement(n, prime, p, ring)) {
+                        throw new ArithmeticException("Factorization of " + num.toASCIIString() + " failed at the prime " + p);
                     }
                 }
             }
-            factors.add(n); // This should be a unit, most likely -1 or 1
+            for (int j = towardsConjugate; j < exponent; j++) {
+                addFactorByNorm(factors, factorNorms, splitPrime, p);
+            }
+        }
+        ImaginaryQuadraticInteger unit = fromDoubledParts(n[0], n[1], ring);
+        if (!unit.equalsInt(1)) {
+            factors.add(0, unit);
+        }
+        return factors;
+    }
+    
+    /**
+     * The units of <b>Z</b>[<i>i</i>], as doubled parts, in order as powers of 
+     * <i>i</i>.
+     */
+    private static final long[][] GAUSSIAN_UNITS = {{2, 0}, {0, 2}, {-2, 0}, {0, -2}};
+    
+    /**
+     * The units of <b>Z</b>[&omega;], as doubled parts, in order as powers of 
+     * 1/2 + &radic;-3/2, which is -&omega;<sup>2</sup>.
+     */
+    private static final long[][] EISENSTEIN_UNITS = {{2, 0}, {1, 1}, {-1, 1}, {-2, 0}, {-1, -1}, {1, -1}};
+    
+    /**
+     * The units of every other imaginary quadratic ring, as doubled parts.
+     */
+    private static final long[][] OTHER_UNITS = {{2, 0}, {-2, 0}};
+    
+    static long[][] unitsOfRing(int d) {
+        switch (d) {
+            case -1:
+                return GAUSSIAN_UNITS;
+            case -3:
+                return EISENSTEIN_UNITS;
+            default:
+                return OTHER_UNITS;
+        }
+    }
+    
+    /**
+     * Tells which unit a number is, as a power of a generator of the units of 
+     * its ring: <i>i</i> in <b>Z</b>[<i>i</i>], 1/2 + &radic;-3/2 in 
+     * <b>Z</b>[&omega;], -1 in any other ring.
+     * @param twiceRe The real part of the number, multiplied by 2.
+     * @param twiceIm The imaginary part of the number, multiplied by 2 and 
+     * divided by &radic;<i>d</i>.
+     * @param d The <i>d</i> of the ring.
+     * @return The exponent of the generator, or -1 if the number is not a 
+     * unit. For example, 3 for -<i>i</i>, that is, 0 and -2 in 
+     * <b>Z</b>[<i>i</i>].
+     */
+    static byte unitIndex(long twiceRe, long twiceIm, int d) {
+        long[][] units = unitsOfRing(d);
+        for (byte k = 0; k < units.length; k++) {
+            if (units[k][0] == twiceRe && units[k][1] == twiceIm) {
+                return k;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Gives the unit with a given index, as described for {@link 
+     * #unitIndex(long, long, int)}.
+     * @param index The index. For example, 3.
+     * @param ring The ring. For example, <b>Z</b>[<i>i</i>].
+     * @return The unit. For example, -<i>i</i>.
+     */
+    static ImaginaryQuadraticInteger unitFromIndex(int index, ImaginaryQuadraticRing ring) {
+        return ring.units()[index];
+    }
+    
+    /**
+     * Finds the canonical associate of an imaginary quadratic integer, working 
+     * only on its doubled parts, so that nothing is allocated if out is null or 
+     * reused. The canonical associate is the one with positive real part and 
+     * nonnegative imaginary part in <b>Z</b>[<i>i</i>]; the one with argument 
+     * from 0 up to but not including &pi;/3 in <b>Z</b>[&omega;]; and in any 
+     * other ring the one with positive real part, or with zero real part and 
+     * positive imaginary part. Two numbers are associates if and only if they 
+     * have the same canonical associate.
+     * @param twiceRe The real part of the number, multiplied by 2.
+     * @param twiceIm The imaginary part of the number, multiplied by 2 and 
+     * divided by &radic;<i>d</i>.
+     * @param d The <i>d</i> of the ring.
+     * @param out An array of at least two elements to receive the doubled 
+     * parts of the canonical associate, or null if only the unit index is 
+     * wanted.
+     * @return The index of the unit which times the canonical associate gives 
+     * the number, as described for {@link #unitIndex(long, long, int)}. For 
+     * example, for -2 + <i>i</i>, that is, -4 and 2 in <b>Z</b>[<i>i</i>], 
+     * this would be 1, since the canonical associate is 1 + 2<i>i</i> and 
+     * -2 + <i>i</i> = <i>i</i>(1 + 2<i>i</i>). For 0, this is 0, and 0 is 
+     * its own canonical associate.
+     */
+    public static int canonicalAssociate(long twiceRe, long twiceIm, int d, long[] out) {
+        long re = twiceRe;
+        long im = twiceIm;
+        long temp;
+        int index = 0;
+        if (re != 0 || im != 0) {
+            switch (d) {
+                case -1:
+                    // Multiply by -i until in the first quadrant
+                    while (re <= 0 || im < 0) {
+                        temp = re;
+                        re = im;
+                        im = -temp;
+                        index++;
+                    }
+                    break;
+                case -3:
+                    // Multiply by 1/2 - sqrt(-3)/2 until in the first sextant
+                    while (im < 0 || re <= im) {
+                        temp = (re + 3 * im) / 2;
+                        im = (im - re) / 2;
+                        re = temp;
+                        index++;
+                    }
+                    break;
+                default:
+                    if (re < 0 || (re == 0 && im < 0)) {
+                        re = -re;
+                        im = -im;
+                        index = 1;
+                    }
+            }
+        }
+        if (out != null) {
+            out[0] = re;
+            out[1] = im;
+        }
+        return index;
+    }
+    
+    /**
+     * How many numbers {@link #primeFactors(ImaginaryQuadraticRing, long[], 
+     * long[])} gives to each task before it stops splitting the work.
+     */
+    private static final int BATCH_FACTORIZATION_BLOCK = 1 << 10;
+    
+    /**
+     * Computes the prime factorizations of many numbers from the same unique 
+     * factorization domain at once, in parallel on the common ForkJoin pool. 
+     * Each number is factored as by {@link 
+     * #primeFactors(ImaginaryQuadraticInteger)}, but the results are neither 
+     * looked up in nor put in the factorization cache, and they're given in 
+     * primitive arrays rather than lists. All the tasks use the one ring 
+     * object passed in, so they share its splitting table.
+     * @param ring The ring. For example, <b>Z</b>[<i>i</i>].
+     * @param twiceRealParts The real parts of the numbers, multiplied by 2. For 
+     * example, {6, 0, -2}.
+     * @param twiceImagParts The imaginary parts of the numbers, multiplied by 2 
+     * and divided by &radic;<i>d</i>. For example, {4, 0, -2}.
+     * @return The factorizations. For example, for 3 + 2<i>i</i>, 0 and -1 - 
+     * <i>i</i>, the first has the prime 3 + 2<i>i</i> and unit index 0, the 
+     * second no primes and unit index -1, and the third the prime 1 + 
+     * <i>i</i> and unit index 2, for -1.
+     * @throws NonUniqueFactorizationDomainException If the ring is not a UFD.
+     * @throws IllegalArgumentException If the arrays are not of the same 
+     * length, or if some pair of parts is not a number of the ring (this is a 
+     * runtime exception).
+     */
+    public static FactorizationBatch primeFactors(ImaginaryQuadraticRing ring, long[] twiceRealParts, long[] twiceImagParts) throws NonUniqueFactorizationDomainException {
+        int n = twiceRealParts.length;
+        if (twiceImagParts.length != n) {
+            throw new IllegalArgumentException("Arrays of " + n + " and " + twiceImagParts.length + " numbers can't be paired up.");
         }
-        factors = sortListIQIByNorm(factors);
-        for (int i = 1; i < factors.size(); i++) {
-            if (factors.get(i).getRealPartMult() < 0 || (factors.get(i).getRealPartMult() == 0 && factors.get(i).getImagPartMult() < 0)) {
-                factors.set(i, factors.get(i).times(-1));
-                factors.set(0, factors.get(0).times(-1));
+        requireUniqueFactorization(new ImaginaryQuadraticInteger(0, 0, ring));
+        for (int i = 0; i < n; i++) {
+            boolean oddRe = (twiceRealParts[i] & 1) != 0;
+            if (oddRe != ((twiceImagParts[i] & 1) != 0) || (oddRe && !ring.d1mod4)) {
+                throw new IllegalArgumentException(twiceRealParts[i] + "/2 + " + twiceImagParts[i] + "sqrt(" + ring.negRad + ")/2 is not a number of " + ring.toASCIIString() + ".");
             }
         }
-        if (factors.get(0).equalsInt(1)) {
-            factors.remove(0);
+        int[] counts = new int[n];
+        byte[] unitIndices = new byte[n];
+        long[][][] blockFactors = new long[(n + BATCH_FACTORIZATION_BLOCK - 1) / BATCH_FACTORIZATION_BLOCK][][];
+        ForkJoinPool.commonPool().invoke(new BatchFactorizationTask(ring, twiceRealParts, twiceImagParts, counts, unitIndices, blockFactors, 0, n));
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = Math.addExact(offsets[i], counts[i]);
+        }
+        int total = offsets[n];
+        long[] factorRe = new long[total];
+        long[] factorIm = new long[total];
+        int[] exponents = new int[total];
+        for (int block = 0; block < blockFactors.length; block++) {
+            long[][] factors = blockFactors[block];
+            int start = offsets[block * BATCH_FACTORIZATION_BLOCK];
+            int length = factors[0].length;
+            System.arraycopy(factors[0], 0, factorRe, start, length);
+            System.arraycopy(factors[1], 0, factorIm, start, length);
+            for (int j = 0; j < length; j++) {
+                exponents[start + j] = (int) factors[2][j];
+            }
+        }
+        return new FactorizationBatch(ring, twiceRealParts, twiceImagParts, offsets, factorRe, factorIm, exponents, unitIndices);
+    }
+    
+    /**
+     * Computes the prime factorizations of all the numbers of a unique 
+     * factorization domain whose real part and imaginary part (divided by 
+     * &radic;<i>d</i>) are both between -bound and bound. In the rings with 
+     * "half-integers," those are included too. See {@link 
+     * #primeFactors(ImaginaryQuadraticRing, long[], long[])}.
+     * @param ring The ring. For example, <b>Z</b>[&omega;].
+     * @param bound The bound. For example, 1, which in <b>Z</b>[&omega;] gives 
+     * the nine numbers with integer coordinates from -1 - &radic;-3 to 1 + 
+     * &radic;-3 and the four numbers &plusmn;1/2 &plusmn; &radic;-3/2.
+     * @return The factorizations, with the numbers in order by real part, then 
+     * by imaginary part.
+     * @throws NonUniqueFactorizationDomainException If the ring is not a UFD.
+     * @throws IllegalArgumentException If bound is negative, or so large there 
+     * would be more numbers than fit in an array (this is a runtime 
+     * exception).
+     */
+    public static FactorizationBatch primeFactorsInBox(ImaginaryQuadraticRing ring, int bound) throws NonUniqueFactorizationDomainException {
+        // No box with bound past 23169 fits in an array in any ring, and 
+        // checking that first keeps the size computation from overflowing
+        if (bound < 0 || bound > 23169) {
+            throw new IllegalArgumentException("Can't factor all numbers in a box of bound " + bound + ".");
+        }
+        long side = 4L * bound + 1;
+        long size = (side * side + (ring.d1mod4 ? 1 : 0)) / 2;
+        if (!ring.d1mod4) {
+            size = (2L * bound + 1) * (2L * bound + 1);
+        }
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Can't factor all numbers in a box of bound " + bound + ".");
+        }
+        long[] twiceRealParts = new long[(int) size];
+        long[] twiceImagParts = new long[(int) size];
+        int step = ring.d1mod4 ? 1 : 2;
+        int i = 0;
+        for (long re = -2L * bound; re <= 2L * bound; re += step) {
+            for (long im = -2L * bound + ((re - 2L * bound) & 1); im <= 2L * bound; im += 2) {
+                twiceRealParts[i] = re;
+                twiceImagParts[i] = im;
+                i++;
+            }
+        }
+        return primeFactors(ring, twiceRealParts, twiceImagParts);
+    }
+    
+    /**
+     * Factors a range of the numbers given to {@link 
+     * #primeFactors(ImaginaryQuadraticRing, long[], long[])}, splitting the 
+     * range in half along blocks of {@link #BATCH_FACTORIZATION_BLOCK} until 
+     * it's only one block. Each block puts its prime factors in its own 
+     * arrays, and the number of prime factors and the unit index of each 
+     * number in the shared arrays at the positions of that block's numbers.
+     */
+    private static class BatchFactorizationTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1058274390;
+        
+        private final ImaginaryQuadraticRing ring;
+        private final long[] twiceRealParts, twiceImagParts;
+        private final int[] counts;
+        private final byte[] unitIndices;
+        private final long[][][] blockFactors;
+        private final int from, to;
+        
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= BATCH_FACTORIZATION_BLOCK) {
+                this.factorBlock();
+            } else {
+                int blocks = (this.to - this.from + BATCH_FACTORIZATION_BLOCK - 1) / BATCH_FACTORIZATION_BLOCK;
+                int middle = this.from + (blocks / 2) * BATCH_FACTORIZATION_BLOCK;
+                invokeAll(new BatchFactorizationTask(this.ring, this.twiceRealParts, this.twiceImagParts, this.counts, this.unitIndices, this.blockFactors, this.from, middle), new BatchFactorizationTask(this.ring, this.twiceRealParts, this.twiceImagParts, this.counts, this.unitIndices, this.blockFactors, middle, this.to));
+            }
+        }
+        
+        private void factorBlock() {
+            int capacity = 4 * (this.to - this.from);
+            long[] factorRe = new long[capacity];
+            long[] factorIm = new long[capacity];
+            long[] exponents = new long[capacity];
+            int total = 0;
+            for (int i = this.from; i < this.to; i++) {
+                if (this.twiceRealParts[i] == 0 && this.twiceImagParts[i] == 0) {
+                    this.unitIndices[i] = -1;
+                    continue;
+                }
+                ImaginaryQuadraticInteger num = fromDoubledParts(this.twiceRealParts[i], this.twiceImagParts[i], this.ring);
+                List<ImaginaryQuadraticInteger> factors = primeFactorsUncached(num);
+                ImaginaryQuadraticInteger first = factors.get(0);
+                byte unitIndex = unitIndex(first.getTwiceRealPartMult(), first.getTwiceImagPartMult(), this.ring.negRad);
+                int start = 0;
+                if (unitIndex >= 0) {
+                    start = 1;
+                } else {
+                    unitIndex = 0;
+                }
+                this.unitIndices[i] = unitIndex;
+                int distinct = 0;
+                for (int j = start; j < factors.size(); j++) {
+                    long re = factors.get(j).getTwiceRealPartMult();
+                    long im = factors.get(j).getTwiceImagPartMult();
+                    if (distinct > 0 && factorRe[total - 1] == re && factorIm[total - 1] == im) {
+                        exponents[total - 1]++;
+                        continue;
+                    }
+                    if (total == capacity) {
+                        capacity *= 2;
+                        factorRe = Arrays.copyOf(factorRe, capacity);
+                        factorIm = Arrays.copyOf(factorIm, capacity);
+                        exponents = Arrays.copyOf(exponents, capacity);
+                    }
+                    factorRe[total] = re;
+                    factorIm[total] = im;
+                    exponents[total] = 1;
+                    total++;
+                    distinct++;
+                }
+                this.counts[i] = distinct;
+            }
+            this.blockFactors[this.from / BATCH_FACTORIZATION_BLOCK] = new long[][]{Arrays.copyOf(factorRe, total), Arrays.copyOf(factorIm, total), Arrays.copyOf(exponents, total)};
+        }
+        
+        BatchFactorizationTask(ImaginaryQuadraticRing ring, long[] twiceRealParts, long[] twiceImagParts, int[] counts, byte[] unitIndices, long[][][] blockFactors, int from, int to) {
+            this.ring = ring;
+            this.twiceRealParts = twiceRealParts;
+            this.twiceImagParts = twiceImagParts;
+            this.counts = counts;
+            this.unitIndices = unitIndices;
+            this.blockFactors = blockFactors;
+            this.from = from;
+            this.to = to;
         }
-        return factors;
+        
     }
     
     /**
-     * Determines whether a given number is irreducible, not necessarily prime.
+     * Determines whether a given number is irreducible, not necessarily prime. 
+     * In a unique factorization domain this is the same as being prime. In any 
+     * other ring, a number &alpha; is reducible if and only if it's divisible 
+     * by some number whose norm <i>m</i> is a divisor of N(&alpha;) with 1 
+     * &lt; <i>m</i> &le; &radic;N(&alpha;). So this goes through the divisors 
+     * of the norm, skips those that are not norms of numbers in the ring (as 
+     * told by {@link ImaginaryQuadraticRing#isNorm(long)}, which remembers 
+     * the answer), and tries dividing by the few numbers of each norm that is.
      * @param num The number for which to make the determination.
      * @return true if num is irreducible, false if not. For example, 1 + 
      * sqrt(-5) is famously irreducible but not prime. Also, units are 
@@ -569,81 +1828,139 @@ public class NumberTheoreticFunctionsCalculator {
      * runtime exception).
      */
     public static boolean isIrreducible(ImaginaryQuadraticInteger num) {
-        if (num.norm() < 0) {
+        ImaginaryQuadraticRing ring = num.imagQuadRing;
+        long[] n = {num.getTwiceRealPartMult(), num.getTwiceImagPartMult()};
+        long norm;
+        try {
+            norm = Math.addExact(Math.multiplyExact(n[0], n[0]), Math.multiplyExact(ring.absNegRad, Math.multiplyExact(n[1], n[1]))) / 4;
+        } catch (ArithmeticException ae) {
             String exceptionMessage = "Overflow has occurred for the computation of the norm of " + num.toASCIIString();
             throw new ArithmeticException(exceptionMessage);
         }
-        if (isPrime(num.norm())) {
+        if (norm < 2 || isPrime(norm)) {
             return true;
-        } else {
-            if (num.norm() < 2) {
-                return true;
-            } else {
-                switch (num.imagQuadRing.negRad) {
-                    case -1:
-                    case -2:
-                    case -3:
-                    case -7:
-                    case -11:
-                    case -19:
-                    case -43:
-                    case -67:
-                    case -163:
-                        return isPrime(num);
-                    default:
-                        boolean withinRange = true;
-                        boolean presumedIrreducible = true;
-                        ImaginaryQuadraticInteger testDivisor, currDivision;
-                        int testDivRealPartMult = 4;
-                        int testDivImagPartMult = 0;
-                        boolean testDivisorChanged;
-                        while (withinRange && presumedIrreducible) {
-                            testDivisor = new ImaginaryQuadraticInteger(testDivRealPartMult, testDivImagPartMult, num.imagQuadRing, 2);
-                            testDivisorChanged = false;
-                            withinRange = (testDivisor.norm() < num.norm());
-                            while (withinRange && presumedIrreducible) {
-                                try {
-                                    currDivision = num.divides(testDivisor);
-                                    if (currDivision.norm() > 1) {
-                                        presumedIrreducible = false;
-                                    } else {
-                                        withinRange = false;
-                                    }
-                                } catch (NotDivisibleException nde) {
-                                    withinRange = (Math.abs(nde.getNumericRealPart()) > 1) || (Math.abs(nde.getNumericImagPart()) > 1);
-                                    testDivRealPartMult += 2;
-                                    testDivisor = new ImaginaryQuadraticInteger(testDivRealPartMult, testDivImagPartMult, num.imagQuadRing, 2);
-                                    testDivisorChanged = true;
-                                }
-                            }
-                            if (!num.imagQuadRing.d1mod4) {
-                                testDivRealPartMult = 0;
-                                testDivImagPartMult += 2;
-                            } else {
-                                if (testDivImagPartMult % 2 == 0) {
-                                    testDivRealPartMult = 1;
-                                } else {
-                                    testDivRealPartMult = 0;
-                                }
-                                testDivImagPartMult++;
-                            }
-                            if (testDivisorChanged) {
-                                withinRange = true;
+        }
+        switch (ring.negRad) {
+            case -1:
+            case -2:
+            case -3:
+            case -7:
+            case -11:
+            case -19:
+            case -43:
+            case -67:
+            case -163:
+                return isPrime(num);
+            default:
+                long[] normFactors = primeFactorsAsArray(norm);
+                long[] divisors = {1};
+                int i = 0;
+                long p;
+                int exponent, count;
+                while (i < normFactors.length) {
+                    p = normFactors[i];
+                    exponent = 0;
+                    while (i < normFactors.length && normFactors[i] == p) {
+                        exponent++;
+                        i++;
+                    }
+                    count = divisors.length;
+                    divisors = Arrays.copyOf(divisors, count * (exponent + 1));
+                    for (int j = count; j < divisors.length; j++) {
+                        divisors[j] = divisors[j - count] * p;
+                    }
+                }
+                long[] quotient = new long[2];
+                long[] divisor = new long[2];
+                long[] elements;
+                for (long m : divisors) {
+                    if (m > 1 && m <= norm / m && ring.isNorm(m)) {
+                        elements = ring.elementsOfNorm(m);
+                        for (int k = 0; k < elements.length; k += 2) {
+                            quotient[0] = n[0];
+                            quotient[1] = n[1];
+                            divisor[0] = elements[k];
+                            divisor[1] = elements[k + 1];
+                            if (divideExactByElement(quotient, divisor, m, ring)) {
+                                return false;
                             }
                         }
-                        return presumedIrreducible;
+                    }
                 }
+                return true;
+        }
+    }
+    
+    /**
+     * Tells how far the smallest prime factor sieve is allowed to grow.
+     * @return The bound. Unless it has been changed with {@link 
+     * #setSPFSieveBound(int)}, this is {@link #DEFAULT_SPF_SIEVE_BOUND}.
+     */
+    public static int getSPFSieveBound() {
+        return spfSieveBound;
+    }
+    
+    /**
+     * Sets how far the smallest prime factor sieve is allowed to grow, and 
+     * thus how much memory it may take up: one byte per number covered. For 
+     * example, to step through all the discriminants the Ring Viewer program 
+     * can handle, the bound could be set to 67108864, which would take up 64 
+     * megabytes. The sieve is not grown right away, only as larger numbers are 
+     * asked about. If the sieve already reaches past the new bound, it is cut 
+     * down. Numbers beyond the sieve are still handled correctly, just not as 
+     * quickly.
+     * @param bound The new bound. May be 0 to do without the sieve entirely.
+     * @throws IllegalArgumentException If bound is negative.
+     */
+    public static void setSPFSieveBound(int bound) {
+        if (bound < 0) {
+            throw new IllegalArgumentException("Smallest prime factor sieve bound " + bound + " is negative.");
+        }
+        synchronized (SPF_SIEVE_LOCK) {
+            spfSieveBound = bound;
+            if (spfSieve != null && 2L * spfSieve.length > bound) {
+                spfSieve = (bound < INITIAL_SPF_SIEVE_REACH) ? null : buildSPFSieve(bound);
             }
         }
     }
     
+    /**
+     * Determines the smallest prime factor of a given number. This is looked 
+     * up in the smallest prime factor sieve if the number is covered by it, 
+     * otherwise it's the first factor given by {@link 
+     * #primeFactorsAsArray(long)}.
+     * @param num The number to find the smallest prime factor of. May be 
+     * negative.
+     * @return The smallest prime factor of the absolute value of num. For 
+     * example, 3 for -45, 47 for 47.
+     * @throws IllegalArgumentException If num is -1, 0 or 1, which have no 
+     * prime factors to speak of.
+     */
+    public static int smallestPrimeFactor(int num) {
+        if (num == -1 || num == 0 || num == 1) {
+            throw new IllegalArgumentException(num + " does not have a smallest prime factor.");
+        }
+        if (num % 2 == 0) {
+            return 2;
+        }
+        long absNum = Math.abs((long) num);
+        char[] sieve = spfSieveCovering(absNum);
+        if (sieve != null) {
+            return spfLookup(sieve, absNum);
+        }
+        long[] factors = primeFactorsAsArray(absNum);
+        return (int) factors[0];
+    }
+    
     /**
      * Determines whether a given number is squarefree or not. The original 
      * implementation depended on {@link #primeFactors(int)}. For version 0.95, 
      * this was optimized to try the number modulo 4, and if it's not divisible 
      * by 4, to try dividing it by odd squares. Although this includes odd 
      * squares like 9 and 81, it still makes for a performance improvement over 
-     * relying on primeFactors(int).
+     * relying on primeFactors(int). Now numbers covered by the smallest prime 
+     * factor sieve (see {@link #setSPFSieveBound(int)}) are checked by walking 
+     * down their factors in the sieve, which takes O(log n) steps.
      * @param num The number to be tested for being squarefree.
      * @return true if the number is squarefree, false otherwise.
      * For example, -3 and 7 should each return true, -4, 0 and 25 should each 
@@ -660,6 +1977,22 @@ public class NumberTheoreticFunctionsCalculator {
                 return false;
             default:
                 boolean noDupFactorFound = (num % 4 != 0);
+                long oddPart = Math.abs((long) num);
+                if (oddPart % 2 == 0) {
+                    oddPart /= 2;
+                }
+                char[] sieve = noDupFactorFound ? spfSieveCovering(oddPart) : null;
+                if (sieve != null) {
+                    int prevFactor = 0;
+                    int currFactor;
+                    while (noDupFactorFound && oddPart > 1) {
+                        currFactor = spfLookup(sieve, oddPart);
+                        noDupFactorFound = (currFactor != prevFactor);
+                        prevFactor = currFactor;
+                        oddPart /= currFactor;
+                    }
+                    return noDupFactorFound;
+                }
                 if (noDupFactorFound) {
                     double threshold = Math.sqrt(Math.abs(num));
                     int currRoot = 3;
@@ -675,7 +2008,11 @@ public class NumberTheoreticFunctionsCalculator {
     }
     
     /**
-     * Computes the M\u00F6bius function \u03BC for a given integer.
+     * Computes the M\u00F6bius function \u03BC for a given integer. This no 
+     * longer relies on {@link #isSquareFree(int)}, the prime factors given by 
+     * {@link #primeFactorsAsArray(int)} are enough to tell if the number is 
+     * squarefree, and those come from the smallest prime factor sieve if the 
+     * number is covered by it.
      * @param num The integer for which to compute the M\u00F6bius function.
      * @return 1 if num is squarefree with an even number of prime factors, -1 
      * if num is squarefree with an odd number of prime factors, 0 if num is not 
@@ -687,26 +2024,516 @@ public class NumberTheoreticFunctionsCalculator {
             case -1:
             case 1:
                 return 1;
+            case 0:
+                return 0;
             default:
-                if (isSquareFree(num)) {
-                    List<Integer> prFacts = primeFactors(num);
-                    if (prFacts.get(0) == -1) {
-                        prFacts.remove(0);
+                int[] prFacts = primeFactorsAsArray(num);
+                int start = (prFacts[0] == -1) ? 1 : 0;
+                for (int i = start + 1; i < prFacts.length; i++) {
+                    if (prFacts[i] == prFacts[i - 1]) {
+                        return 0;
+                    }
+                }
+                if ((prFacts.length - start) % 2 == 0) {
+                    return 1;
+                } else {
+                    return -1;
+                }
+        }
+    }
+    
+    /**
+     * Computes the M\u00F6bius function \u03BC for every integer in a given 
+     * range. This uses a segmented sieve with the primes up to the square root 
+     * of the largest absolute value in the range, so it's much faster than 
+     * calling {@link #moebiusMu(int)} on each number in turn.
+     * @param lo The first integer in the range. For example, -3.
+     * @param hi The integer just past the end of the range. For example, 4.
+     * @return An array with \u03BC(lo) at position 0, \u03BC(lo + 1) at 
+     * position 1, and so on and so forth up to \u03BC(hi - 1). For example, 
+     * for -3 and 4, {-1, -1, 1, 0, 1, -1, -1}. As with moebiusMu(int), 
+     * \u03BC(0) is given as 0.
+     * @throws IllegalArgumentException If hi is less than lo, or if the range 
+     * is too long to fit in an array.
+     */
+    public static byte[] moebiusRange(int lo, int hi) {
+        long length = (long) hi - (long) lo;
+        if (length < 0 || length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Can't compute Moebius function for range from " + lo + " to " + hi + ".");
+        }
+        byte[] mus = new byte[(int) length];
+        if (length == 0) {
+            return mus;
+        }
+        long absFrom, absTo;
+        if (lo >= 0) {
+            absFrom = lo;
+            absTo = hi;
+        } else {
+            absFrom = (hi > 0) ? 0 : 1 - (long) hi;
+            absTo = Math.max(1 - (long) lo, hi);
+        }
+        long root = (long) Math.sqrt(absTo);
+        int[] oddPrimes = oddPrimesBelow((int) ((root + 128) & ~127L));
+        for (long segmentFrom = absFrom; segmentFrom < absTo; segmentFrom += MOEBIUS_SEGMENT_LENGTH) {
+            long segmentTo = Math.min(segmentFrom + MOEBIUS_SEGMENT_LENGTH, absTo);
+            byte[] segment = moebiusSegment(segmentFrom, segmentTo, oddPrimes);
+            if (lo >= 0) {
+                System.arraycopy(segment, 0, mus, (int) (segmentFrom - lo), segment.length);
+            } else {
+                for (int j = 0; j < segment.length; j++) {
+                    long n = segmentFrom + j;
+                    long negIndex = -n - lo;
+                    if (negIndex >= 0 && negIndex < length) {
+                        mus[(int) negIndex] = segment[j];
+                    }
+                    long posIndex = n - lo;
+                    if (posIndex < length) {
+                        mus[(int) posIndex] = segment[j];
+                    }
+                }
+            }
+        }
+        return mus;
+    }
+    
+    /**
+     * Sieves the M\u00F6bius function over a range of nonnegative integers.
+     * @param from The first integer in the range. Must not be negative.
+     * @param to The integer just past the end of the range. Must not be more 
+     * than 2<sup>31</sup>.
+     * @param oddPrimes The odd primes up to at least the square root of to, 
+     * in ascending order.
+     * @return An array with \u03BC(from) at position 0, \u03BC(from + 1) at 
+     * position 1, etc.
+     */
+    private static byte[] moebiusSegment(long from, long to, int[] oddPrimes) {
+        int length = (int) (to - from);
+        byte[] mus = new byte[length];
+        long[] products = new long[length];
+        Arrays.fill(mus, (byte) 1);
+        Arrays.fill(products, 1L);
+        sieveMoebiusSegment(mus, products, from, 2);
+        for (int p : oddPrimes) {
+            if ((long) p * p >= to) {
+                break;
+            }
+            sieveMoebiusSegment(mus, products, from, p);
+        }
+        for (int i = 0; i < length; i++) {
+            if (mus[i] != 0 && products[i] != from + i) {
+                mus[i] = (byte) -mus[i]; // There's one prime factor greater than the square root
+            }
+        }
+        if (from == 0) {
+            mus[0] = 0;
+        }
+        return mus;
+    }
+    
+    private static void sieveMoebiusSegment(byte[] mus, long[] products, long from, long p) {
+        long to = from + mus.length;
+        long firstMultiple = ((from + p - 1) / p) * p;
+        for (long multiple = firstMultiple; multiple < to; multiple += p) {
+            int index = (int) (multiple - from);
+            mus[index] = (byte) -mus[index];
+            products[index] *= p;
+        }
+        long square = p * p;
+        long firstSquareMultiple = ((from + square - 1) / square) * square;
+        for (long multiple = firstSquareMultiple; multiple < to; multiple += square) {
+            mus[(int) (multiple - from)] = 0;
+        }
+    }
+    
+    /**
+     * Gives the primes in a given range, in ascending order, by a segmented 
+     * sieve of Eratosthenes. Only one segment of {@link #PRIME_SEGMENT_ODDS} 
+     * odd numbers is held at a time, so the memory taken up doesn't depend on 
+     * how wide the range is. The stream is sequential, but it can be made 
+     * parallel with {@link LongStream#parallel()}, in which case the range is 
+     * split up among the threads. For a range containing only a few numbers, 
+     * it's probably better to just call {@link #isPrime(long)} on each one.
+     * @param lo The first number in the range. May be negative or 0, but since 
+     * negative numbers are not given as primes by this function, that's no 
+     * different from 0. For example, 90.
+     * @param hi The number just past the end of the range. For example, 110.
+     * @return A stream of the primes p with lo &le; p &lt; hi. For example, 
+     * for 90 to 110: 97, 101, 103, 107, 109.
+     * @throws IllegalArgumentException If hi is less than lo.
+     */
+    public static LongStream primesInRange(long lo, long hi) {
+        if (hi < lo) {
+            throw new IllegalArgumentException("Can't list primes in range from " + lo + " to " + hi + ".");
+        }
+        long from = Math.max(lo, 0);
+        long root = (hi > 1) ? floorSqrt(hi - 1) : 0;
+        int baseBound = (int) Math.min(root + 128, PRIME_SIEVE_BASE_LIMIT) & ~127;
+        int[] basePrimes = oddPrimesBelow(baseBound);
+        boolean confirm = root >= baseBound;
+        PrimeRangeSpliterator primes = new PrimeRangeSpliterator(basePrimes, confirm, from, Math.max(from, hi));
+        return StreamSupport.longStream(primes, false);
+    }
+    
+    /**
+     * Walks through the primes in a range one sieved segment at a time. See 
+     * {@link #primesInRange(long, long)}.
+     */
+    private static class PrimeRangeSpliterator implements Spliterator.OfLong {
+        
+        /**
+         * Below this many numbers left in the range, {@link #trySplit()} 
+         * declines to split.
+         */
+        private static final long MINIMUM_SPLIT_LENGTH = 4L * PRIME_SEGMENT_ODDS;
+        
+        private final int[] basePrimes;
+        
+        private final boolean confirmSurvivors;
+        
+        private final long end;
+        
+        /**
+         * Whether 2 is still to be given. Once this is false, position is odd.
+         */
+        private boolean pendingTwo;
+        
+        /**
+         * The next odd number to be considered.
+         */
+        private long position;
+        
+        /**
+         * The current segment as a bitset in which bit <i>k</i> is set if and 
+         * only if segmentStart + 2<i>k</i> has been crossed off as composite.
+         */
+        private final long[] composites = new long[PRIME_SEGMENT_ODDS >>> 6];
+        
+        private long segmentStart = 0;
+        
+        private int segmentOdds = 0;
+        
+        PrimeRangeSpliterator(int[] basePrimes, boolean confirmSurvivors, long start, long end) {
+            this.basePrimes = basePrimes;
+            this.confirmSurvivors = confirmSurvivors;
+            this.end = end;
+            this.pendingTwo = start <= 2 && end > 2;
+            this.position = Math.max(start, 3) | 1;
+        }
+        
+        /**
+         * Sieves the segment of odd numbers beginning at the current position.
+         */
+        private void sieveSegment() {
+            this.segmentStart = this.position;
+            long span = this.end - this.segmentStart;
+            this.segmentOdds = (int) Math.min((span + 1) >>> 1, PRIME_SEGMENT_ODDS);
+            Arrays.fill(this.composites, 0L);
+            long segmentLast = this.segmentStart + 2L * (this.segmentOdds - 1);
+            for (int p : this.basePrimes) {
+                long square = (long) p * p;
+                if (square > segmentLast) {
+                    break;
+                }
+                long offset;
+                if (square >= this.segmentStart) {
+                    offset = square - this.segmentStart;
+                } else {
+                    long remainder = this.segmentStart % p;
+                    offset = (remainder == 0) ? 0 : p - remainder;
+                    if ((offset & 1) == 1) {
+                        offset += p; // Even multiples are not in the segment
                     }
-                    if (prFacts.size() % 2 == 0) {
-                        return 1;
+                }
+                for (long index = offset >>> 1; index < this.segmentOdds; index += p) {
+                    this.composites[(int) (index >>> 6)] |= 1L << index;
+                }
+            }
+        }
+        
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (this.pendingTwo) {
+                this.pendingTwo = false;
+                action.accept(2);
+                return true;
+            }
+            while (this.position < this.end) {
+                long index = (this.position - this.segmentStart) >>> 1;
+                if (this.position < this.segmentStart || index >= this.segmentOdds) {
+                    this.sieveSegment();
+                    index = 0;
+                }
+                int word = (int) (index >>> 6);
+                long survivors = ~this.composites[word] & (-1L << index);
+                while (survivors == 0 && ++word < this.composites.length) {
+                    survivors = ~this.composites[word];
+                }
+                long found = (survivors == 0) ? this.segmentOdds : ((long) word << 6) + Long.numberOfTrailingZeros(survivors);
+                if (found >= this.segmentOdds) {
+                    if (this.end - this.segmentStart <= 2L * this.segmentOdds) {
+                        this.position = this.end;
                     } else {
-                        return -1;
+                        this.position = this.segmentStart + 2L * this.segmentOdds;
                     }
                 } else {
-                    return 0;
+                    long candidate = this.segmentStart + 2 * found;
+                    this.position = candidate + 2;
+                    if (!this.confirmSurvivors || isPrime(candidate)) {
+                        action.accept(candidate);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        
+        /**
+         * Splits off the first half of what's left of the range, as long as 
+         * that's at least a few segments' worth.
+         * @return A spliterator for the first half, or null if what's left is 
+         * too short to be worth splitting.
+         */
+        @Override
+        public Spliterator.OfLong trySplit() {
+            long remaining = this.end - this.position;
+            if (remaining < MINIMUM_SPLIT_LENGTH) {
+                return null;
+            }
+            long middle = (this.position + remaining / 2) | 1;
+            PrimeRangeSpliterator prefix = new PrimeRangeSpliterator(this.basePrimes, this.confirmSurvivors, this.position, middle);
+            prefix.pendingTwo = this.pendingTwo;
+            this.pendingTwo = false;
+            this.position = middle;
+            return prefix;
+        }
+        
+        /**
+         * Estimates how many primes are left in the range by the prime number 
+         * theorem.
+         * @return The length of what's left of the range divided by its natural 
+         * logarithm.
+         */
+        @Override
+        public long estimateSize() {
+            long remaining = this.end - this.position;
+            if (remaining <= 0) {
+                return this.pendingTwo ? 1 : 0;
+            }
+            return (long) (remaining / Math.log(Math.max(this.end, 3))) + 1;
+        }
+        
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        }
+        
+        /**
+         * The primes are given in their natural order.
+         * @return Always null.
+         */
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return null;
+        }
+        
+    }
+    
+    /**
+     * Counts the primes of an imaginary quadratic ring with norm up to a given 
+     * bound, associates included. Rather than going through the numbers of the 
+     * ring one by one, this goes through the rational primes with {@link 
+     * #primesInRange(long, long)} and classifies them by the Kronecker symbol. 
+     * A split prime <i>p</i> contributes two primes of norm <i>p</i> and their 
+     * associates, a ramified prime contributes one prime of norm <i>p</i> and 
+     * its associates, and an inert prime contributes itself and its associates 
+     * if <i>p</i><sup>2</sup> is within the bound. In a ring that is not a 
+     * unique factorization domain, split and ramified primes that are not the 
+     * norm of any number in the ring contribute nothing, as there are no 
+     * numbers of norm <i>p</i> for {@link 
+     * #isPrime(ImaginaryQuadraticInteger)} to count.
+     * @param ring The ring. For example, <b>Z</b>[<i>i</i>].
+     * @param normBound The largest norm to count. For example, 10.
+     * @return The number of numbers in the ring with norm at most normBound 
+     * which {@link #isPrime(ImaginaryQuadraticInteger)} holds to be prime. 
+     * For example, 16 for <b>Z</b>[<i>i</i>] and 10: the four associates of 1 
+     * + <i>i</i>, the eight associates of 2 &plusmn; <i>i</i>, and the four 
+     * associates of 3, which has norm 9. To count primes up to associates, 
+     * divide by the number of units.
+     */
+    public static long countPrimesUpToNorm(ImaginaryQuadraticRing ring, long normBound) {
+        if (normBound < 2) {
+            return 0;
+        }
+        long hi = (normBound == Long.MAX_VALUE) ? normBound : normBound + 1;
+        long count = primesInRange(2, hi).parallel().map(new PrimeNormWeigher(ring)).sum();
+        int units = unitCount(ring);
+        PrimitiveIterator.OfLong smallPrimes = primesInRange(2, floorSqrt(normBound) + 1).iterator();
+        while (smallPrimes.hasNext()) {
+            if (primeSplittingType(ring, smallPrimes.nextLong()) == ImaginaryQuadraticRing.PRIME_INERT) {
+                count += units;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Lists the norms of the primes of an imaginary quadratic ring up to a 
+     * given bound. These are the split and ramified rational primes that are 
+     * norms of numbers in the ring, and the squares of the inert rational 
+     * primes. Like {@link #countPrimesUpToNorm(ImaginaryQuadraticRing, long)}, 
+     * this works from a segmented sieve of the rational primes.
+     * @param ring The ring. For example, <b>Z</b>[<i>i</i>].
+     * @param normBound The largest norm to list. For example, 50.
+     * @return A stream of the distinct norms in ascending order. For example, 
+     * 2, 5, 9, 13, 17, 29, 37, 41, 49.
+     */
+    public static LongStream primeNormsUpTo(ImaginaryQuadraticRing ring, long normBound) {
+        if (normBound < 2) {
+            return LongStream.empty();
+        }
+        PrimitiveIterator.OfLong norms = new PrimeNormIterator(ring, normBound);
+        return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(norms, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+    
+    private static int unitCount(ImaginaryQuadraticRing ring) {
+        switch (ring.negRad) {
+            case -1:
+                return 4;
+            case -3:
+                return 6;
+            default:
+                return 2;
+        }
+    }
+    
+    /**
+     * Tells how a rational prime decomposes in a ring, like {@link 
+     * ImaginaryQuadraticRing#splittingType(int)}, but without checking that 
+     * the number is prime, and for primes past the range of int as well.
+     * @param ring The ring.
+     * @param p A rational prime, not checked.
+     * @return {@link ImaginaryQuadraticRing#PRIME_INERT}, {@link 
+     * ImaginaryQuadraticRing#PRIME_RAMIFIED} or {@link 
+     * ImaginaryQuadraticRing#PRIME_SPLIT}.
+     */
+    private static byte primeSplittingType(ImaginaryQuadraticRing ring, long p) {
+        if (p == 2) {
+            return ring.splittingType(2);
+        }
+        return jacobiReciprocity(ring.negRad, p);
+    }
+    
+    /**
+     * Tells how many numbers of a ring have a given prime norm. That's 0 if the 
+     * prime is inert or is not the norm of any number in the ring; otherwise 
+     * it's the number of units, twice over if the prime splits.
+     */
+    private static class PrimeNormWeigher implements LongUnaryOperator {
+        
+        private final ImaginaryQuadraticRing ring;
+        
+        private final int units;
+        
+        private final boolean principal;
+        
+        PrimeNormWeigher(ImaginaryQuadraticRing ring) {
+            this.ring = ring;
+            this.units = unitCount(ring);
+            this.principal = ring.classNumber() == 1;
+        }
+        
+        @Override
+        public long applyAsLong(long p) {
+            byte type = primeSplittingType(this.ring, p);
+            if (type == ImaginaryQuadraticRing.PRIME_INERT) {
+                return 0;
+            }
+            if (!this.principal && cornacchia(p, this.ring) == null) {
+                return 0;
+            }
+            return (type == ImaginaryQuadraticRing.PRIME_SPLIT) ? 2 * this.units : this.units;
+        }
+        
+    }
+    
+    /**
+     * Merges the prime norms of the form <i>p</i> with those of the form 
+     * <i>p</i><sup>2</sup> in ascending order. See {@link 
+     * #primeNormsUpTo(ImaginaryQuadraticRing, long)}.
+     */
+    private static class PrimeNormIterator implements PrimitiveIterator.OfLong {
+        
+        private final ImaginaryQuadraticRing ring;
+        
+        private final PrimeNormWeigher weigher;
+        
+        private final PrimitiveIterator.OfLong primes, smallPrimes;
+        
+        /**
+         * The next norm of each form, or 0 if there are no more of that form.
+         */
+        private long nextPrimeNorm, nextSquareNorm;
+        
+        PrimeNormIterator(ImaginaryQuadraticRing ring, long normBound) {
+            this.ring = ring;
+            this.weigher = new PrimeNormWeigher(ring);
+            long hi = (normBound == Long.MAX_VALUE) ? normBound : normBound + 1;
+            this.primes = primesInRange(2, hi).iterator();
+            this.smallPrimes = primesInRange(2, floorSqrt(normBound) + 1).iterator();
+            this.advancePrimeNorm();
+            this.advanceSquareNorm();
+        }
+        
+        private void advancePrimeNorm() {
+            this.nextPrimeNorm = 0;
+            while (this.nextPrimeNorm == 0 && this.primes.hasNext()) {
+                long p = this.primes.nextLong();
+                if (this.weigher.applyAsLong(p) > 0) {
+                    this.nextPrimeNorm = p;
                 }
+            }
+        }
+        
+        private void advanceSquareNorm() {
+            this.nextSquareNorm = 0;
+            while (this.nextSquareNorm == 0 && this.smallPrimes.hasNext()) {
+                long p = this.smallPrimes.nextLong();
+                if (primeSplittingType(this.ring, p) == ImaginaryQuadraticRing.PRIME_INERT) {
+                    this.nextSquareNorm = p * p;
+                }
+            }
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return this.nextPrimeNorm != 0 || this.nextSquareNorm != 0;
+        }
+        
+        @Override
+        public long nextLong() {
+            long norm;
+            if (this.nextSquareNorm != 0 && (this.nextPrimeNorm == 0 || this.nextSquareNorm < this.nextPrimeNorm)) {
+                norm = this.nextSquareNorm;
+                this.advanceSquareNorm();
+            } else if (this.nextPrimeNorm != 0) {
+                norm = this.nextPrimeNorm;
+                this.advancePrimeNorm();
+            } else {
+                throw new NoSuchElementException("No more prime norms up to the bound.");
+            }
+            return norm;
         }
+        
     }
     
     /**
-     * Computes the greatest common divisor (GCD) of two purely real integers by 
-     * using the Euclidean algorithm.
+     * Computes the greatest common divisor (GCD) of two purely real integers. 
+     * Despite the name, this uses the binary GCD algorithm (Stein's algorithm) 
+     * rather than the Euclidean algorithm: powers of 2 are stripped with {@link 
+     * Integer#numberOfTrailingZeros(int)} and the smaller of two odd numbers is 
+     * repeatedly subtracted from the larger, with no divisions and no 
+     * data-dependent branches in the loop other than the exit condition.
      * @param a One of the two integers. May be negative, need not be greater 
      * than the other.
      * @param b One of the two integers. May be negative, need not be smaller 
@@ -715,31 +2542,37 @@ public class NumberTheoreticFunctionsCalculator {
      * If one of a or b is 0 and the other is nonzero, the result will be the 
      * nonzero number.
      * If both a and b are 0, then the result will be 0, which is perhaps 
-     * technically wrong, but I think it's good enough for the purpose here.
+     * technically wrong, but I think it's good enough for the purpose here. 
+     * If the GCD is 2<sup>31</sup>, the result is {@link Integer#MIN_VALUE}.
      */
     public static int euclideanGCD(int a, int b) {
-        int currA, currB, currRemainder;
-        if (a < b) {
-            currA = b;
-            currB = a;
-        } else {
-            currA = a;
-            currB = b;
-        }
-        while (currB != 0) {
-            currRemainder = currA % currB;
-            currA = currB;
-            currB = currRemainder;
+        if (a == 0) {
+            return Math.abs(b);
         }
-        if (currA < 0) {
-            currA *= -1;
+        if (b == 0) {
+            return Math.abs(a);
         }
-        return currA;
+        int x = Math.abs(a);
+        int y = Math.abs(b);
+        int shift = Integer.numberOfTrailingZeros(x | y);
+        x >>>= Integer.numberOfTrailingZeros(x);
+        int difference, mask;
+        do {
+            y >>>= Integer.numberOfTrailingZeros(y);
+            difference = y - x;
+            mask = difference >> 31; // All ones if y < x, all zeroes otherwise
+            x += difference & mask; // The smaller of the two
+            y = (difference ^ mask) - mask; // Absolute value of the difference
+        } while (y != 0);
+        return x << shift;
     }
 
     /**
-     * Computes the greatest common divisor (GCD) of two purely real integers by 
-     * using the Euclidean algorithm.
+     * Computes the greatest common divisor (GCD) of two purely real integers. 
+     * Like {@link #euclideanGCD(int, int)}, this uses the binary GCD algorithm. 
+     * This is called twice by each division of imaginary quadratic integers, 
+     * so it needs to be fast. The Lehmer variant of the Euclidean algorithm was 
+     * also tried, but within 64 bits its divisions make it slower than this.
      * @param a One of the two integers. May be negative, need not be greater 
      * than the other.
      * @param b One of the two integers. May be negative, need not be smaller 
@@ -747,34 +2580,250 @@ public class NumberTheoreticFunctionsCalculator {
      * @return The GCD as an integer. If one of a or b is 0 and the other is 
      * nonzero, the result will be the nonzero number. If both a and b are 0, 
      * then the result will be 0, which is perhaps technically wrong, but I 
-     * think it's good enough for the purpose here.
+     * think it's good enough for the purpose here. If the GCD is 
+     * 2<sup>63</sup>, the result is {@link Long#MIN_VALUE}.
      */
     public static long euclideanGCD(long a, long b) {
-        long currA, currB, currRemainder;
-        if (a < b) {
-            currA = b;
-            currB = a;
-        } else {
-            currA = a;
-            currB = b;
+        if (a == 0) {
+            return Math.abs(b);
+        }
+        if (b == 0) {
+            return Math.abs(a);
         }
-        while (currB != 0) {
-            currRemainder = currA % currB;
-            currA = currB;
-            currB = currRemainder;
+        long x = Math.abs(a);
+        long y = Math.abs(b);
+        int shift = Long.numberOfTrailingZeros(x | y);
+        x >>>= Long.numberOfTrailingZeros(x);
+        long difference, mask;
+        do {
+            y >>>= Long.numberOfTrailingZeros(y);
+            difference = y - x;
+            mask = difference >> 63; // All ones if y < x, all zeroes otherwise
+            x += difference & mask; // The smaller of the two
+            y = (difference ^ mask) - mask; // Absolute value of the difference
+        } while (y != 0);
+        return x << shift;
+    }
+    
+    /**
+     * Computes the greatest common divisors of many pairs of purely real 
+     * integers at once, as by {@link #euclideanGCD(long, long)}.
+     * @param a The first numbers of the pairs. For example, {12, -15, 0}.
+     * @param b The second numbers of the pairs. Must be the same length as a. 
+     * For example, {18, 10, 0}.
+     * @param out The array to put the results in, at the same positions as the 
+     * pairs. Must be at least as long as a. It may be the same array as a or b, 
+     * in which case those numbers are overwritten. For example, after the call 
+     * this would hold {6, 5, 0}.
+     * @throws IllegalArgumentException If a and b are of different lengths, or 
+     * out is too short. Note that this is a runtime exception.
+     */
+    public static void euclideanGCD(long[] a, long[] b, long[] out) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Arrays of " + a.length + " and " + b.length + " numbers can't be paired up.");
         }
-        if (currA < 0) {
-            currA *= -1;
+        if (out.length < a.length) {
+            throw new IllegalArgumentException("Output array of length " + out.length + " can't hold " + a.length + " results.");
+        }
+        for (int i = 0; i < a.length; i++) {
+            out[i] = euclideanGCD(a[i], b[i]);
         }
-        return currA;
     }
 
+    /**
+     * Runs the Euclidean algorithm on two imaginary quadratic integers given by 
+     * their doubled parts, that is, 2a and 2b for a + b&radic;<i>d</i>. Each 
+     * step divides by taking the lattice point nearest the exact quotient, 
+     * found with integer rounding only, so no objects are created and no 
+     * exceptions are thrown along the way. In <b>Z</b>[<i>i</i>] and 
+     * <b>Z</b>[&radic;-2] the two parts of the quotient are rounded 
+     * independently. In the rings with "half-integers," the quotient is rounded 
+     * both to the nearest number with integer parts and to the nearest number 
+     * with half-integer parts, and whichever is closer is used, the former in 
+     * case of a tie. Either way the remainder has norm at most 1/4 + 
+     * |<i>d</i>|/16 times the norm of the divisor, which is less than 1 only 
+     * for <i>d</i> = -1, -2, -3, -7, -11.
+     * @param aRe Twice the real part of one of the imaginary quadratic 
+     * integers.
+     * @param aIm Twice the imaginary part of one of the imaginary quadratic 
+     * integers, divided by &radic;<i>d</i>.
+     * @param bRe Twice the real part of the other imaginary quadratic integer.
+     * @param bIm Twice the imaginary part of the other imaginary quadratic 
+     * integer, divided by &radic;<i>d</i>.
+     * @param d One of -1, -2, -3, -7, -11.
+     * @param out An array of length 2 to receive the doubled parts of the GCD, 
+     * or of length 6 to also receive the doubled parts of the Bezout cofactors 
+     * <i>s</i> and <i>t</i> such that <i>sa</i> + <i>tb</i> is the GCD. The 
+     * GCD is normalized the same way as by {@link 
+     * #euclideanGCD(ImaginaryQuadraticInteger, ImaginaryQuadraticInteger)}.
+     * @throws ArithmeticException If an intermediate result overflows a long.
+     */
+    private static void euclideanGCDDoubled(long aRe, long aIm, long bRe, long bIm, int d, long[] out) {
+        boolean withCofactors = out.length >= 6;
+        long sRe = 2, sIm = 0, tRe = 0, tIm = 0;
+        long uRe = 0, uIm = 0, vRe = 2, vIm = 0;
+        long currRe, currIm, quotRe, quotIm, norm;
+        long[] step = new long[4];
+        norm = Math.subtractExact(Math.multiplyExact(bRe, bRe), Math.multiplyExact(d, Math.multiplyExact(bIm, bIm)));
+        if (Math.subtractExact(Math.multiplyExact(aRe, aRe), Math.multiplyExact(d, Math.multiplyExact(aIm, aIm))) < norm) {
+            currRe = aRe;
+            currIm = aIm;
+            aRe = bRe;
+            aIm = bIm;
+            bRe = currRe;
+            bIm = currIm;
+            sRe = 0;
+            tRe = 2;
+            uRe = 2;
+            vRe = 0;
+        }
+        while (bRe != 0 || bIm != 0) {
+            divideAndRemainderDoubled(aRe, aIm, bRe, bIm, d, step);
+            quotRe = step[0];
+            quotIm = step[1];
+            aRe = bRe;
+            aIm = bIm;
+            bRe = step[2];
+            bIm = step[3];
+            if (withCofactors) {
+                currRe = Math.subtractExact(sRe, doubledProductRe(quotRe, quotIm, uRe, uIm, d));
+                currIm = Math.subtractExact(sIm, doubledProductIm(quotRe, quotIm, uRe, uIm));
+                sRe = uRe;
+                sIm = uIm;
+                uRe = currRe;
+                uIm = currIm;
+                currRe = Math.subtractExact(tRe, doubledProductRe(quotRe, quotIm, vRe, vIm, d));
+                currIm = Math.subtractExact(tIm, doubledProductIm(quotRe, quotIm, vRe, vIm));
+                tRe = vRe;
+                tIm = vIm;
+                vRe = currRe;
+                vIm = currIm;
+            }
+        }
+        if (d == -1 && aRe == 0) {
+            // Multiply by -i
+            aRe = aIm;
+            aIm = 0;
+            currRe = sRe;
+            sRe = sIm;
+            sIm = -currRe;
+            currRe = tRe;
+            tRe = tIm;
+            tIm = -currRe;
+        }
+        if (aRe < 0) {
+            aRe = -aRe;
+            aIm = -aIm;
+            sRe = -sRe;
+            sIm = -sIm;
+            tRe = -tRe;
+            tIm = -tIm;
+        }
+        out[0] = aRe;
+        out[1] = aIm;
+        if (withCofactors) {
+            out[2] = sRe;
+            out[3] = sIm;
+            out[4] = tRe;
+            out[5] = tIm;
+        }
+    }
+    
+    /**
+     * Divides one imaginary quadratic integer by another, both given by their 
+     * doubled parts, taking for the quotient the lattice point nearest the 
+     * exact quotient, as described for {@link #euclideanGCDDoubled(long, long, 
+     * long, long, int, long[])}. This is one step of the Euclidean algorithm. 
+     * The ring is not checked: in a ring that is not norm-Euclidean the 
+     * remainder might not have smaller norm than the divisor.
+     * @param aRe Twice the real part of the dividend.
+     * @param aIm Twice the imaginary part of the dividend, divided by 
+     * &radic;<i>d</i>.
+     * @param bRe Twice the real part of the divisor.
+     * @param bIm Twice the imaginary part of the divisor, divided by 
+     * &radic;<i>d</i>. The divisor must not be 0.
+     * @param d The <i>d</i> of the ring.
+     * @param out An array of at least 4 to receive the doubled parts of the 
+     * quotient, then those of the remainder. The dividend equals the quotient 
+     * times the divisor plus the remainder.
+     * @throws ArithmeticException If an intermediate result overflows a long.
+     */
+    static void divideAndRemainderDoubled(long aRe, long aIm, long bRe, long bIm, int d, long[] out) {
+        long norm = Math.subtractExact(Math.multiplyExact(bRe, bRe), Math.multiplyExact(d, Math.multiplyExact(bIm, bIm)));
+        long numerRe = Math.subtractExact(Math.multiplyExact(aRe, bRe), Math.multiplyExact(d, Math.multiplyExact(aIm, bIm)));
+        long numerIm = Math.subtractExact(Math.multiplyExact(aIm, bRe), Math.multiplyExact(aRe, bIm));
+        numerRe = Math.multiplyExact(numerRe, 2);
+        numerIm = Math.multiplyExact(numerIm, 2);
+        long quotRe = Math.floorDiv(numerRe, norm);
+        long quotIm = Math.floorDiv(numerIm, norm);
+        numerRe -= quotRe * norm;
+        numerIm -= quotIm * norm;
+        // Exact quotient is in [quotRe, quotRe + 1) by [quotIm, quotIm + 1)
+        if ((d % 4 == -3) && roundingError(quotRe & 1, quotIm & 1, numerRe, numerIm, norm, d) > roundingError(1 - (quotRe & 1), 1 - (quotIm & 1), numerRe, numerIm, norm, d)) {
+            quotRe += 1 - (quotRe & 1);
+            quotIm += 1 - (quotIm & 1);
+        } else {
+            quotRe += quotRe & 1;
+            quotIm += quotIm & 1;
+        }
+        out[0] = quotRe;
+        out[1] = quotIm;
+        out[2] = Math.subtractExact(aRe, doubledProductRe(quotRe, quotIm, bRe, bIm, d));
+        out[3] = Math.subtractExact(aIm, doubledProductIm(quotRe, quotIm, bRe, bIm));
+    }
+    
+    private static double roundingError(long stepRe, long stepIm, long excessRe, long excessIm, long norm, int d) {
+        double errorRe = stepRe * norm - excessRe;
+        double errorIm = stepIm * norm - excessIm;
+        return errorRe * errorRe - d * errorIm * errorIm;
+    }
+    
+    private static long doubledProductRe(long xRe, long xIm, long yRe, long yIm, int d) {
+        return Math.addExact(Math.multiplyExact(xRe, yRe), Math.multiplyExact(d, Math.multiplyExact(xIm, yIm))) / 2;
+    }
+    
+    private static long doubledProductIm(long xRe, long xIm, long yRe, long yIm) {
+        return Math.addExact(Math.multiplyExact(xRe, yIm), Math.multiplyExact(xIm, yRe)) / 2;
+    }
+    
+    /**
+     * Checks that the Euclidean GCD can be computed for a pair of imaginary 
+     * quadratic integers, and figures out which ring to compute it in. A purely 
+     * real integer may come from any ring.
+     * @param a One of the two imaginary quadratic integers.
+     * @param b The other imaginary quadratic integer.
+     * @return The ring of whichever of the two has nonzero imaginary part, or 
+     * the ring of a if both are purely real.
+     * @throws AlgebraicDegreeOverflowException If both have nonzero imaginary 
+     * part but come from different rings.
+     * @throws NonEuclideanDomainException If the ring is not one of the five 
+     * norm-Euclidean imaginary quadratic rings.
+     */
+    static ImaginaryQuadraticRing euclideanGCDRing(ImaginaryQuadraticInteger a, ImaginaryQuadraticInteger b) throws NonEuclideanDomainException {
+        ImaginaryQuadraticRing ring = a.getRing();
+        if (a.getImagPartMult() == 0 && b.getImagPartMult() != 0) {
+            ring = b.getRing();
+        }
+        int d = ring.getNegRad();
+        if (((a.getImagPartMult() != 0) && (b.getImagPartMult() != 0)) && (d != b.getRing().getNegRad())) {
+            String exceptionMessage = "This operation would result in an algebraic integer of degree 4.";
+            throw new AlgebraicDegreeOverflowException(exceptionMessage, 2, a, b);
+        }
+        if (d < -11 || d == -10 || d == -6 || d == -5) {
+            String exceptionMessage = a.toASCIIString() + " and " + b.toASCIIString() + " are in non-Euclidean domain " + ring.toASCIIString() + ".";
+            throw new NonEuclideanDomainException(exceptionMessage, a, b);
+        }
+        return ring;
+    }
+    
     /**
      * Computes the greatest common divisor (GCD) of two imaginary quadratic 
-     * integers by using the Euclidean algorithm. WARNING: Although I have 
-     * written some tests for this function, more testing is still needed before 
-     * I can guarantee it gives the correct result in a reasonable majority of 
-     * cases.
+     * integers by using the Euclidean algorithm. Each division step rounds the 
+     * exact quotient to the nearest algebraic integer in the ring with integer 
+     * arithmetic, rather than catching a {@link NotDivisibleException} and 
+     * trying out its bounding integers. WARNING: Although I have written some 
+     * tests for this function, more testing is still needed before I can 
+     * guarantee it gives the correct result in a reasonable majority of cases.
      * @param a One of the two imaginary quadratic integers. Need not have 
      * greater norm than the other.
      * @param b One of the two imaginary quadratic integers. Need not have 
@@ -796,52 +2845,79 @@ public class NumberTheoreticFunctionsCalculator {
      * checked exception. However, for some pairs drawn from a non-Euclidean 
      * domain, the Euclidean GCD algorithm might nevertheless work. For this 
      * reason, the exception has (will have) the method tryEuclideanGCDAnyway().
+     * @throws ArithmeticException If an intermediate result overflows.
      */
     public static ImaginaryQuadraticInteger euclideanGCD(ImaginaryQuadraticInteger a, ImaginaryQuadraticInteger b) throws NonEuclideanDomainException {
-        int d = a.getRing().getNegRad();
-        if (((a.getImagPartMult() != 0) && (b.getImagPartMult() != 0)) && (d != b.getRing().getNegRad())) {
-            String exceptionMessage = "This operation would result in an algebraic integer of degree 4.";
-            throw new AlgebraicDegreeOverflowException(exceptionMessage, 2, a, b);
-        }
-        if (d < -11 || d == -10 || d == -6 || d == -5) {
-            String exceptionMessage = a.toASCIIString() + " and " + b.toASCIIString() + " are in non-Euclidean domain " + a.getRing().toASCIIString() + ".";
-            throw new NonEuclideanDomainException(exceptionMessage, a, b);
+        ImaginaryQuadraticRing ring = euclideanGCDRing(a, b);
+        long[] gcd = new long[2];
+        euclideanGCDDoubled(a.getTwiceRealPartMult(), a.getTwiceImagPartMult(), b.getTwiceRealPartMult(), b.getTwiceImagPartMult(), ring.getNegRad(), gcd);
+        return fromDoubledParts(gcd[0], gcd[1], ring);
+    }
+    
+    /**
+     * Computes the greatest common divisor (GCD) of two imaginary quadratic 
+     * integers together with Bezout cofactors, by the extended Euclidean 
+     * algorithm.
+     * @param a One of the two imaginary quadratic integers. For example, 5 in 
+     * <b>Z</b>[<i>i</i>].
+     * @param b The other imaginary quadratic integer. For example, 3 + 
+     * <i>i</i>.
+     * @return An array of three imaginary quadratic integers: the GCD, the same 
+     * as given by {@link #euclideanGCD(ImaginaryQuadraticInteger, 
+     * ImaginaryQuadraticInteger)}, followed by cofactors <i>s</i> and <i>t</i> 
+     * such that <i>sa</i> + <i>tb</i> equals the GCD. For example, for 5 and 3 
+     * + <i>i</i>, the GCD is 1 + 2<i>i</i>, and the cofactors might be -1 
+     * and 2.
+     * @throws AlgebraicDegreeOverflowException If both imaginary quadratic 
+     * integers have nonzero imaginary part but come from different rings.
+     * @throws NonEuclideanDomainException If the imaginary quadratic integers 
+     * come from any imaginary quadratic ring other than <b>Z</b>[<i>i</i>], 
+     * <b>Z</b>[&radic;-2], <b>Z</b>[&omega;], 
+     * <i>O</i><sub><b>Q</b>(&radic;-7)</sub> or 
+     * <i>O</i><sub><b>Q</b>(&radic;-11)</sub>.
+     * @throws ArithmeticException If an intermediate result overflows.
+     */
+    public static ImaginaryQuadraticInteger[] extendedEuclideanGCD(ImaginaryQuadraticInteger a, ImaginaryQuadraticInteger b) throws NonEuclideanDomainException {
+        ImaginaryQuadraticRing ring = euclideanGCDRing(a, b);
+        long[] parts = new long[6];
+        euclideanGCDDoubled(a.getTwiceRealPartMult(), a.getTwiceImagPartMult(), b.getTwiceRealPartMult(), b.getTwiceImagPartMult(), ring.getNegRad(), parts);
+        ImaginaryQuadraticInteger[] gcdAndCofactors = new ImaginaryQuadraticInteger[3];
+        for (int i = 0; i < 3; i++) {
+            gcdAndCofactors[i] = fromDoubledParts(parts[2 * i], parts[2 * i + 1], ring);
         }
-        ImaginaryQuadraticInteger currA, currB, tempMultiple, currRemainder;
-        ImaginaryQuadraticInteger[] bounds;
-        if (a.norm() < b.norm()) {
-            currA = b;
-            currB = a;
-        } else {
-            currA = a;
-            currB = b;
-        }
-        while (!currB.equalsInt(0)) {
-            try {
-                tempMultiple = currA.divides(currB);
-                tempMultiple = tempMultiple.times(currB);
-                currRemainder = currA.minus(tempMultiple);
-            } catch (NotDivisibleException nde) {
-                bounds = nde.getBoundingIntegers();
-                boolean notFound;
-                int counter = 0;
-                do {
-                    tempMultiple = bounds[counter].times(currB);
-                    currRemainder = currA.minus(tempMultiple);
-                    notFound = currRemainder.norm() >= currB.norm();
-                    counter++;
-                } while (notFound);
-            }
-            currA = currB;
-            currB = currRemainder;
+        return gcdAndCofactors;
+    }
+    
+    /**
+     * Computes the greatest common divisors of many pairs of imaginary 
+     * quadratic integers at once, as by {@link 
+     * #euclideanGCD(ImaginaryQuadraticInteger, ImaginaryQuadraticInteger)}. 
+     * The ring checks are done for every pair before any GCD is computed.
+     * @param a The first element of each pair.
+     * @param b The second element of each pair. Must be the same length as a.
+     * @return An array with gcd(a[i], b[i]) at position i.
+     * @throws IllegalArgumentException If the arrays differ in length.
+     * @throws AlgebraicDegreeOverflowException If for some pair both elements 
+     * have nonzero imaginary part but come from different rings.
+     * @throws NonEuclideanDomainException If some pair comes from a ring that 
+     * is not norm-Euclidean.
+     * @throws ArithmeticException If an intermediate result overflows.
+     */
+    public static ImaginaryQuadraticInteger[] euclideanGCD(ImaginaryQuadraticInteger[] a, ImaginaryQuadraticInteger[] b) throws NonEuclideanDomainException {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Arrays of lengths " + a.length + " and " + b.length + " can't be paired up.");
         }
-        if (d == -1 && currA.getRealPartMult() == 0) {
-            currA = currA.times(IMAG_UNIT_NEG_I);
+        ImaginaryQuadraticRing[] rings = new ImaginaryQuadraticRing[a.length];
+        for (int i = 0; i < a.length; i++) {
+            rings[i] = euclideanGCDRing(a[i], b[i]);
         }
-        if (currA.getRealPartMult() < 0) {
-            currA = currA.times(-1);
+        ImaginaryQuadraticInteger[] gcds = new ImaginaryQuadraticInteger[a.length];
+        long[] gcd = new long[2];
+        for (int i = 0; i < a.length; i++) {
+            euclideanGCDDoubled(a[i].getTwiceRealPartMult(), a[i].getTwiceImagPartMult(), b[i].getTwiceRealPartMult(), b[i].getTwiceImagPartMult(), rings[i].getNegRad(), gcd);
+            gcds[i] = fromDoubledParts(gcd[0], gcd[1], rings[i]);
         }
-        return currA;
+        return gcds;
     }
 
     /**
@@ -889,22 +2965,30 @@ public class NumberTheoreticFunctionsCalculator {
     }
     
     /**
-     * Provides a pseudorandom negative squarefree integer.
+     * Provides a pseudorandom negative squarefree integer. Each squarefree 
+     * number in the range is equally likely: numbers are drawn until a 
+     * squarefree one comes up, rather than stepping up from a number that is 
+     * not squarefree, which would favor the numbers right after a run of 
+     * numbers that are not. To draw a great many from the same range, it's 
+     * faster to set up a {@link SquarefreeEnumerator} and use its {@link 
+     * SquarefreeEnumerator#randomSquarefree(java.util.SplittableRandom)}.
      * @param bound The lowest number desired (but may use a positive integer). 
      * For example, for a pseudorandom squarefree number between -97 and -1, you 
      * can pass -100 or 100.
      * @return A pseudorandom negative squarefree integer.
+     * @throws IllegalArgumentException If bound is -1, 0 or 1, as then there 
+     * are no numbers to choose from.
      */
     public static int randomNegativeSquarefreeNumber(int bound) {
-        if (bound < 0) {
-            bound *= -1;
-        }
-        Random ranNumGen = new Random();
-        int randomNumber = ranNumGen.nextInt(bound);
-        randomNumber *= -1;
-        while (!isSquareFree(randomNumber)) {
-            randomNumber++;
+        long range = Math.abs((long) bound) - 1;
+        if (range < 1) {
+            throw new IllegalArgumentException("There are no negative squarefree numbers greater than " + (-Math.abs(bound)) + ".");
         }
+        ThreadLocalRandom ranNumGen = ThreadLocalRandom.current();
+        int randomNumber;
+        do {
+            randomNumber = -1 - ranNumGen.nextInt((int) range);
+        } while (!isSquareFree(randomNumber));
         return randomNumber;
     }
     
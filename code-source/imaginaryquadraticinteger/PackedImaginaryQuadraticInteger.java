@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+/**
+ * Static arithmetic on imaginary quadratic integers packed into single longs, 
+ * for loops that would otherwise create an {@link ImaginaryQuadraticInteger} 
+ * object for every number they look at. The real part goes in the high 32 
+ * bits, the imaginary part (divided by &radic;<i>d</i>) in the next 31 bits, 
+ * and the lowest bit is set if the denominator is 2. So the imaginary part of 
+ * a packed number is limited to the range from -2<sup>30</sup> to 
+ * 2<sup>30</sup> - 1, but otherwise any ImaginaryQuadraticInteger can be 
+ * packed, and 0 packs to 0. 
+ * <p>The packed long doesn't say what ring the number comes from. Functions 
+ * that need to know take <i>d</i> as an int, and it's up to the caller to not 
+ * mix numbers from different rings. Overflows cause ArithmeticException, 
+ * never a wrong result.</p>
+ * @author Alonso del Arte
+ */
+public final class PackedImaginaryQuadraticInteger {
+    
+    /**
+     * The smallest imaginary part that can be packed, -2<sup>30</sup>.
+     */
+    public static final int MIN_IMAG_PART_MULT = -(1 << 30);
+    
+    /**
+     * The largest imaginary part that can be packed, 2<sup>30</sup> - 1.
+     */
+    public static final int MAX_IMAG_PART_MULT = (1 << 30) - 1;
+    
+    /**
+     * The number 0, packed.
+     */
+    public static final long ZERO = 0L;
+    
+    /**
+     * The number 1, packed.
+     */
+    public static final long ONE = 1L << 32;
+    
+    /**
+     * Packs the parts of an imaginary quadratic integer into a long.
+     * @param realPartMult The real part, multiplied by the denominator.
+     * @param imagPartMult The imaginary part divided by &radic;<i>d</i> and 
+     * multiplied by the denominator. For example, 7 for 5/2 + 7&radic;-3/2.
+     * @param denominator Either 1 or 2.
+     * @return The packed number. For example, for 5/2 + 7&radic;-3/2, 
+     * 0x000000050000000FL.
+     * @throws IllegalArgumentException If denominator is neither 1 nor 2, or if 
+     * it's 2 but the parts are not both odd.
+     * @throws ArithmeticException If imagPartMult is outside the range from 
+     * {@link #MIN_IMAG_PART_MULT} to {@link #MAX_IMAG_PART_MULT}.
+     */
+    public static long pack(int realPartMult, int imagPartMult, int denominator) {
+        if (denominator != 1 && denominator != 2) {
+            throw new IllegalArgumentException("Denominator " + denominator + " is not valid, it must be 1 or 2.");
+        }
+        if (denominator == 2 && ((realPartMult & imagPartMult & 1) == 0)) {
+            throw new IllegalArgumentException("With denominator 2, both parts must be odd, not " + realPartMult + " and " + imagPartMult + ".");
+        }
+        return packUnchecked(realPartMult, imagPartMult, denominator - 1);
+    }
+    
+    private static long packUnchecked(int realPartMult, int imagPartMult, int halfFlag) {
+        if (imagPartMult < MIN_IMAG_PART_MULT || imagPartMult > MAX_IMAG_PART_MULT) {
+            throw new ArithmeticException("Imaginary part " + imagPartMult + " is too large to pack.");
+        }
+        return ((long) realPartMult << 32) | ((imagPartMult << 1) & 0xFFFFFFFFL) | halfFlag;
+    }
+    
+    /**
+     * Packs numbers given as twice their real part and twice their imaginary 
+     * part divided by &radic;<i>d</i>, choosing the denominator by parity.
+     * @throws IllegalArgumentException If one part is odd and the other even, 
+     * which never happens for algebraic integers.
+     */
+    private static long packDoubled(long twiceRe, long twiceIm) {
+        if (((twiceRe ^ twiceIm) & 1) != 0) {
+            throw new IllegalArgumentException("Parts " + twiceRe + "/2 and " + twiceIm + "/2 do not make an algebraic integer.");
+        }
+        if ((twiceRe & 1) == 0) {
+            return packUnchecked(Math.toIntExact(twiceRe >> 1), Math.toIntExact(twiceIm >> 1), 0);
+        } else {
+            return packUnchecked(Math.toIntExact(twiceRe), Math.toIntExact(twiceIm), 1);
+        }
+    }
+    
+    /**
+     * Packs an ImaginaryQuadraticInteger. The ring is not recorded.
+     * @param num The number to pack. For example, 5/2 + 7&radic;-3/2.
+     * @return The packed number. For example, 0x000000050000000FL.
+     * @throws ArithmeticException If the imaginary part of num is outside the 
+     * range from {@link #MIN_IMAG_PART_MULT} to {@link #MAX_IMAG_PART_MULT}.
+     */
+    public static long valueOf(ImaginaryQuadraticInteger num) {
+        return packUnchecked(num.realPartMult, num.imagPartMult, num.denominator - 1);
+    }
+    
+    /**
+     * Unpacks a packed number into an ImaginaryQuadraticInteger object.
+     * @param packed The packed number. For example, 0x000000050000000FL.
+     * @param ring The ring the number comes from. For example, 
+     * <b>Z</b>[&omega;].
+     * @return A new ImaginaryQuadraticInteger. For example, 5/2 + 
+     * 7&radic;-3/2.
+     * @throws IllegalArgumentException If the packed number has denominator 2 
+     * but ring.d1mod4 is false.
+     */
+    public static ImaginaryQuadraticInteger toImaginaryQuadraticInteger(long packed, ImaginaryQuadraticRing ring) {
+        return new ImaginaryQuadraticInteger(getRealPartMult(packed), getImagPartMult(packed), ring, getDenominator(packed));
+    }
+    
+    /**
+     * Gives the real part of a packed number, multiplied by the denominator.
+     * @param packed The packed number. For example, 5/2 + 7&radic;-3/2.
+     * @return The real part. For example, 5.
+     */
+    public static int getRealPartMult(long packed) {
+        return (int) (packed >> 32);
+    }
+    
+    /**
+     * Gives the imaginary part of a packed number, divided by &radic;<i>d</i> 
+     * and multiplied by the denominator.
+     * @param packed The packed number. For example, 5/2 + 7&radic;-3/2.
+     * @return The imaginary part. For example, 7.
+     */
+    public static int getImagPartMult(long packed) {
+        return ((int) packed) >> 1;
+    }
+    
+    /**
+     * Gives the denominator of a packed number.
+     * @param packed The packed number. For example, 5/2 + 7&radic;-3/2.
+     * @return 1 or 2. For example, 2.
+     */
+    public static int getDenominator(long packed) {
+        return 1 + (int) (packed & 1);
+    }
+    
+    /**
+     * Gives twice the real part of a packed number.
+     * @param packed The packed number. For example, 5 + 7&radic;-2.
+     * @return Twice the real part. For example, 10.
+     */
+    public static long getTwiceRealPartMult(long packed) {
+        long re = packed >> 32;
+        return ((packed & 1) == 0) ? re << 1 : re;
+    }
+    
+    /**
+     * Gives twice the imaginary part of a packed number, divided by 
+     * &radic;<i>d</i>.
+     * @param packed The packed number. For example, 5 + 7&radic;-2.
+     * @return Twice the imaginary part. For example, 14.
+     */
+    public static long getTwiceImagPartMult(long packed) {
+        long im = ((int) packed) >> 1;
+        return ((packed & 1) == 0) ? im << 1 : im;
+    }
+    
+    /**
+     * Adds two packed numbers from the same ring.
+     * @param x The first summand. For example, 1/2 + &radic;-3/2.
+     * @param y The second summand. For example, 3/2 + &radic;-3/2.
+     * @return The sum, packed. For example, 2 + &radic;-3.
+     * @throws ArithmeticException If a part of the sum is out of range.
+     */
+    public static long plus(long x, long y) {
+        return packDoubled(getTwiceRealPartMult(x) + getTwiceRealPartMult(y), getTwiceImagPartMult(x) + getTwiceImagPartMult(y));
+    }
+    
+    /**
+     * Adds a purely real integer to a packed number.
+     * @param x The packed number. For example, 1/2 + &radic;-3/2.
+     * @param n The integer. For example, 3.
+     * @return The sum, packed. For example, 7/2 + &radic;-3/2.
+     * @throws ArithmeticException If the real part of the sum exceeds the range 
+     * of the int data type.
+     */
+    public static long plus(long x, int n) {
+        return packDoubled(getTwiceRealPartMult(x) + 2L * n, getTwiceImagPartMult(x));
+    }
+    
+    /**
+     * Multiplies two packed numbers from the same ring.
+     * @param x The multiplicand. For example, 1/2 + &radic;-3/2.
+     * @param y The multiplier. For example, 1/2 + &radic;-3/2.
+     * @param d The negative squarefree integer of the ring. For example, -3.
+     * @return The product, packed. For example, -1/2 + &radic;-3/2.
+     * @throws ArithmeticException If a part of the product is out of range.
+     */
+    public static long times(long x, long y, int d) {
+        long xRe = getTwiceRealPartMult(x);
+        long xIm = getTwiceImagPartMult(x);
+        long yRe = getTwiceRealPartMult(y);
+        long yIm = getTwiceImagPartMult(y);
+        long re = Math.addExact(Math.multiplyExact(xRe, yRe), Math.multiplyExact(Math.multiplyExact(xIm, yIm), d));
+        long im = Math.addExact(Math.multiplyExact(xRe, yIm), Math.multiplyExact(xIm, yRe));
+        return packDoubled(re / 2, im / 2);
+    }
+    
+    /**
+     * Multiplies a packed number by a purely real integer.
+     * @param x The packed number. For example, 1/2 + &radic;-3/2.
+     * @param n The integer. For example, 4.
+     * @return The product, packed. For example, 2 + 2&radic;-3.
+     * @throws ArithmeticException If a part of the product is out of range.
+     */
+    public static long times(long x, int n) {
+        return packDoubled(Math.multiplyExact(getTwiceRealPartMult(x), n), Math.multiplyExact(getTwiceImagPartMult(x), n));
+    }
+    
+    /**
+     * Gives the conjugate of a packed number.
+     * @param x The packed number. For example, 1/2 + &radic;-3/2.
+     * @return The conjugate, packed. For example, 1/2 - &radic;-3/2.
+     * @throws ArithmeticException If the imaginary part of x is {@link 
+     * #MIN_IMAG_PART_MULT}, since its negation can't be packed.
+     */
+    public static long conjugate(long x) {
+        return packUnchecked(getRealPartMult(x), -getImagPartMult(x), (int) (x & 1));
+    }
+    
+    /**
+     * Gives the trace of a packed number.
+     * @param x The packed number. For example, 5/2 + &radic;-7/2.
+     * @return The trace. For example, 5.
+     */
+    public static long trace(long x) {
+        return getTwiceRealPartMult(x);
+    }
+    
+    /**
+     * Gives the norm of a packed number.
+     * @param x The packed number. For example, 5/2 + &radic;-7/2.
+     * @param d The negative squarefree integer of the ring. For example, -7.
+     * @return The norm. For example, 8.
+     * @throws ArithmeticException If the norm exceeds the range of the long 
+     * data type.
+     */
+    public static long norm(long x, int d) {
+        long re = getRealPartMult(x);
+        long im = getImagPartMult(x);
+        long norm = Math.subtractExact(Math.multiplyExact(re, re), Math.multiplyExact(Math.multiplyExact(im, im), d));
+        return ((x & 1) == 0) ? norm : norm / 4;
+    }
+    
+    /**
+     * Tells whether one packed number is divisible by another from the same 
+     * ring.
+     * @param dividend The number to divide. For example, 5.
+     * @param divisor The number to divide by. For example, 2 + <i>i</i>.
+     * @param d The negative squarefree integer of the ring. For example, -1.
+     * @return True if the quotient is an algebraic integer. For example, true, 
+     * since 5 divided by 2 + <i>i</i> is 2 - <i>i</i>.
+     * @throws IllegalArgumentException If divisor is 0.
+     * @throws ArithmeticException If the intermediate products exceed the 
+     * range of the long data type.
+     */
+    public static boolean isDivisibleBy(long dividend, long divisor, int d) {
+        long twiceNorm = 2 * norm(divisor, d);
+        if (twiceNorm == 0) {
+            throw new IllegalArgumentException("Division by 0 is not allowed.");
+        }
+        long re = quotientRealNumerator(dividend, divisor, d);
+        long im = quotientImagNumerator(dividend, divisor);
+        if (re % twiceNorm != 0 || im % twiceNorm != 0) {
+            return false;
+        }
+        re /= twiceNorm;
+        im /= twiceNorm;
+        if ((d & 3) == 1) {
+            return ((re ^ im) & 1) == 0;
+        } else {
+            return ((re | im) & 1) == 0;
+        }
+    }
+    
+    /**
+     * Divides one packed number by another from the same ring.
+     * @param dividend The number to divide. For example, 5.
+     * @param divisor The number to divide by. For example, 2 + <i>i</i>.
+     * @param d The negative squarefree integer of the ring. For example, -1.
+     * @return The quotient, packed. For example, 2 - <i>i</i>.
+     * @throws NotDivisibleException If dividend is not divisible by divisor. 
+     * Use {@link #isDivisibleBy(long, long, int)} first to avoid this.
+     * @throws IllegalArgumentException If divisor is 0.
+     * @throws ArithmeticException If the intermediate products or a part of 
+     * the quotient are out of range.
+     */
+    public static long divides(long dividend, long divisor, int d) throws NotDivisibleException {
+        if (!isDivisibleBy(dividend, divisor, d)) {
+            long re = quotientRealNumerator(dividend, divisor, d);
+            long im = quotientImagNumerator(dividend, divisor);
+            long denom = 4 * norm(divisor, d);
+            long gcd = NumberTheoreticFunctionsCalculator.euclideanGCD(NumberTheoreticFunctionsCalculator.euclideanGCD(re, im), denom);
+            ImaginaryQuadraticRing ring = ImaginaryQuadraticRing.of(d);
+            throw new NotDivisibleException(toImaginaryQuadraticInteger(dividend, ring), toImaginaryQuadraticInteger(divisor, ring), re / gcd, im / gcd, denom / gcd, d);
+        }
+        long twiceNorm = 2 * norm(divisor, d);
+        return packDoubled(quotientRealNumerator(dividend, divisor, d) / twiceNorm, quotientImagNumerator(dividend, divisor) / twiceNorm);
+    }
+    
+    /**
+     * Four times the real part of the dividend times the conjugate of the 
+     * divisor. Divided by twice the norm of the divisor, this gives twice the 
+     * real part of the quotient. Likewise for the imaginary part.
+     */
+    private static long quotientRealNumerator(long dividend, long divisor, int d) {
+        long xRe = getTwiceRealPartMult(dividend);
+        long xIm = getTwiceImagPartMult(dividend);
+        long yRe = getTwiceRealPartMult(divisor);
+        long yIm = getTwiceImagPartMult(divisor);
+        return Math.subtractExact(Math.multiplyExact(xRe, yRe), Math.multiplyExact(Math.multiplyExact(xIm, yIm), d));
+    }
+    
+    private static long quotientImagNumerator(long dividend, long divisor) {
+        long xRe = getTwiceRealPartMult(dividend);
+        long xIm = getTwiceImagPartMult(dividend);
+        long yRe = getTwiceRealPartMult(divisor);
+        long yIm = getTwiceImagPartMult(divisor);
+        return Math.subtractExact(Math.multiplyExact(xIm, yRe), Math.multiplyExact(xRe, yIm));
+    }
+    
+    private PackedImaginaryQuadraticInteger() {
+        // Only static functions here
+    }
+    
+}
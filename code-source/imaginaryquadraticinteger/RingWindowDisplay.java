@@ -33,6 +33,7 @@ import javax.imageio.ImageIO;
 import javax.swing.filechooser.FileFilter;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.PrimitiveIterator;
 
 /**
  * A Swing component in which to display diagrams of prime numbers in various 
@@ -310,9 +311,12 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
     private String prevSavePathname;
 
     /**
-     * The history list, with which to enable to user to view previous diagrams.
+     * The history list, with which to enable to user to view previous diagrams. 
+     * It holds the rings themselves rather than just their discriminants, so 
+     * that going back to a previous diagram reuses whatever the ring has 
+     * already computed, such as its splitting table.
      */
-    private final List<Integer> discrHistory;
+    private final List<ImaginaryQuadraticRing> discrHistory;
     
     /**
      * Where we are at in the history list.
@@ -418,7 +422,7 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
         int maxY;
         int verticalGridDistance = this.pixelsPerBasicImaginaryInterval;
         
-        ImaginaryQuadraticInteger currIQI;
+        long currPacked, currNorm;
         
         if (this.diagramRing.d1mod4) {
             maxY = (int) Math.floor((this.ringCanvasVerticMax - this.zeroCoordY)/(2 * this.pixelsPerBasicImaginaryInterval));
@@ -443,13 +447,7 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
         // The even primes, -2 and 2
         currNegPointX -= this.pixelsPerUnitInterval;
         currPointX += this.pixelsPerUnitInterval;
-        byte symbol = NumberTheoreticFunctionsCalculator.symbolKronecker(this.diagramRing.negRad, 2);
-        if (this.diagramRing.negRad % 4 == -1) {
-            symbol = 0;
-        }
-        if (this.diagramRing.negRad == -3) {
-            symbol = -1;
-        }
+        byte symbol = this.diagramRing.splittingType(2);
         if (this.diagramRing.negRad == -1) {
             symbol = 1;
         }
@@ -470,38 +468,34 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
                 graphicsForPoints.drawOval(currNegPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
                 break;
             default:
-                throw new RuntimeException("Unexpected problem computing symbolKronecker(" + diagramRing.negRad + ", " + 2 + ") = " + symbol);
+                throw new RuntimeException("Unexpected splitting type " + symbol + " for 2 in " + diagramRing.toASCIIString());
         }
         
-        // Place "nibs" back at -1 and 1
-        currNegPointX += this.pixelsPerUnitInterval;
-        currPointX -= this.pixelsPerUnitInterval;
-
         // The other purely real integer points
-        for (int x = 3; x <= maxX; x += 2) {
-            currPointX += (2 * this.pixelsPerUnitInterval);
-            currNegPointX -= (2 * this.pixelsPerUnitInterval);
-            if (NumberTheoreticFunctionsCalculator.isPrime(x)) {
-                symbol = NumberTheoreticFunctionsCalculator.symbolLegendre(diagramRing.negRad, x);
-                switch (symbol) {
-                    case -1:
-                        graphicsForPoints.setColor(this.inertPrimeColor);
-                        graphicsForPoints.fillOval(currPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
-                        graphicsForPoints.fillOval(currNegPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
-                        break;
-                    case 0:
-                        graphicsForPoints.setColor(this.ramifiedPrimeColor);
-                        graphicsForPoints.drawOval(currPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
-                        graphicsForPoints.drawOval(currNegPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
-                        break;
-                    case 1:
-                        graphicsForPoints.setColor(this.splitPrimeColor);
-                        graphicsForPoints.drawOval(currPointX - this.dotRadius + 1, currPointY - this.dotRadius + 1, dotDiameter, dotDiameter);
-                        graphicsForPoints.drawOval(currNegPointX - this.dotRadius + 1, currPointY - this.dotRadius + 1, dotDiameter, dotDiameter);
-                        break;
-                    default:
-                        throw new RuntimeException("Unexpected problem computing symbolLegendre(" + diagramRing.negRad + ", " + x + ") = " + symbol);
-                }
+        PrimitiveIterator.OfLong realPrimes = NumberTheoreticFunctionsCalculator.primesInRange(3, Math.max(3L, (long) maxX + 1)).iterator();
+        while (realPrimes.hasNext()) {
+            int x = (int) realPrimes.nextLong();
+            currPointX = this.zeroCoordX + x * this.pixelsPerUnitInterval;
+            currNegPointX = this.zeroCoordX - x * this.pixelsPerUnitInterval;
+            symbol = this.diagramRing.splittingType(x);
+            switch (symbol) {
+                case -1:
+                    graphicsForPoints.setColor(this.inertPrimeColor);
+                    graphicsForPoints.fillOval(currPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
+                    graphicsForPoints.fillOval(currNegPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
+                    break;
+                case 0:
+                    graphicsForPoints.setColor(this.ramifiedPrimeColor);
+                    graphicsForPoints.drawOval(currPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
+                    graphicsForPoints.drawOval(currNegPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
+                    break;
+                case 1:
+                    graphicsForPoints.setColor(this.splitPrimeColor);
+                    graphicsForPoints.drawOval(currPointX - this.dotRadius + 1, currPointY - this.dotRadius + 1, dotDiameter, dotDiameter);
+                    graphicsForPoints.drawOval(currNegPointX - this.dotRadius + 1, currPointY - this.dotRadius + 1, dotDiameter, dotDiameter);
+                    break;
+                default:
+                    throw new RuntimeException("Unexpected splitting type " + symbol + " for " + x + " in " + diagramRing.toASCIIString());
             }
         }
         
@@ -531,11 +525,12 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
             for (int y = 1; y <= maxY; y++) {
                 currPointY += verticalGridDistance;
                 currNegPointY -= verticalGridDistance;
-                currIQI = new ImaginaryQuadraticInteger(0, y, this.diagramRing);
-                if (NumberTheoreticFunctionsCalculator.isPrime(currIQI.norm())) {
-                    if (NumberTheoreticFunctionsCalculator.euclideanGCD(currIQI.norm(), this.diagramRing.negRad) > 1) {
-                        int ramifyPoint = this.zeroCoordX + (int) currIQI.norm() * this.pixelsPerUnitInterval;
-                        int negRamifyPoint = this.zeroCoordX - (int) currIQI.norm() * this.pixelsPerUnitInterval;
+                currPacked = PackedImaginaryQuadraticInteger.pack(0, y, 1);
+                currNorm = PackedImaginaryQuadraticInteger.norm(currPacked, this.diagramRing.negRad);
+                if (NumberTheoreticFunctionsCalculator.isPrime(currNorm)) {
+                    if (NumberTheoreticFunctionsCalculator.euclideanGCD(currNorm, this.diagramRing.negRad) > 1) {
+                        int ramifyPoint = this.zeroCoordX + (int) currNorm * this.pixelsPerUnitInterval;
+                        int negRamifyPoint = this.zeroCoordX - (int) currNorm * this.pixelsPerUnitInterval;
                         graphicsForPoints.setColor(this.ramifiedPrimeColor);
                         graphicsForPoints.fillOval(ramifyPoint - this.dotRadius, this.zeroCoordY - this.dotRadius, dotDiameter, dotDiameter);
                         graphicsForPoints.fillOval(negRamifyPoint - this.dotRadius, this.zeroCoordY - this.dotRadius, dotDiameter, dotDiameter);
@@ -557,14 +552,15 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
             for (int y = 1; y <= maxY; y++) {
                 currPointY = this.zeroCoordY + (y * verticalGridDistance);
                 currNegPointY = this.zeroCoordY - (y * verticalGridDistance);
-                currIQI = new ImaginaryQuadraticInteger(x, y, this.diagramRing, 1);
-                if (NumberTheoreticFunctionsCalculator.isPrime(currIQI.norm())) {
+                currPacked = PackedImaginaryQuadraticInteger.pack(x, y, 1);
+                currNorm = PackedImaginaryQuadraticInteger.norm(currPacked, this.diagramRing.negRad);
+                if (NumberTheoreticFunctionsCalculator.isPrime(currNorm)) {
                     graphicsForPoints.setColor(this.inertPrimeColor);
                     graphicsForPoints.fillOval(currPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
                     graphicsForPoints.fillOval(currPointX - this.dotRadius, currNegPointY - this.dotRadius, dotDiameter, dotDiameter);
                     graphicsForPoints.fillOval(currNegPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
                     graphicsForPoints.fillOval(currNegPointX - this.dotRadius, currNegPointY - this.dotRadius, dotDiameter, dotDiameter);
-                    currSplitPrime = currIQI.norm();
+                    currSplitPrime = currNorm;
                     if (currSplitPrime <= maxX) {
                         currSplitPrimePointX = this.zeroCoordX + ((int) currSplitPrime * this.pixelsPerUnitInterval);
                         currNegSplitPrimePointX = this.zeroCoordX - ((int) currSplitPrime * this.pixelsPerUnitInterval);
@@ -637,14 +633,15 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
                 for (int y = 1; y <= halfMaxY; y += 2) {
                     currPointY = this.zeroCoordY + (y * this.pixelsPerBasicImaginaryInterval);
                     currNegPointY = this.zeroCoordY - (y * this.pixelsPerBasicImaginaryInterval);
-                    currIQI = new ImaginaryQuadraticInteger(x, y, this.diagramRing, 2);
-                    if (NumberTheoreticFunctionsCalculator.isPrime(currIQI.norm())) {
+                    currPacked = PackedImaginaryQuadraticInteger.pack(x, y, 2);
+                    currNorm = PackedImaginaryQuadraticInteger.norm(currPacked, this.diagramRing.negRad);
+                    if (NumberTheoreticFunctionsCalculator.isPrime(currNorm)) {
                         graphicsForPoints.setColor(this.inertPrimeColor);
                         graphicsForPoints.fillOval(currPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
                         graphicsForPoints.fillOval(currPointX - this.dotRadius, currNegPointY - this.dotRadius, dotDiameter, dotDiameter);
                         graphicsForPoints.fillOval(currNegPointX - this.dotRadius, currPointY - this.dotRadius, dotDiameter, dotDiameter);
                         graphicsForPoints.fillOval(currNegPointX - this.dotRadius, currNegPointY - this.dotRadius, dotDiameter, dotDiameter);
-                        currSplitPrime = currIQI.norm();
+                        currSplitPrime = currNorm;
                         if (currSplitPrime <= maxX) {
                             currSplitPrimePointX = this.zeroCoordX + ((int) currSplitPrime * this.pixelsPerUnitInterval);
                             currNegSplitPrimePointX = this.zeroCoordX - ((int) currSplitPrime * this.pixelsPerUnitInterval);
@@ -924,8 +921,22 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
         }
     }
     
+    /**
+     * Gives the ring for a given discriminant. Rings are interned, so if that 
+     * discriminant has been viewed before, this is the same ring object as in 
+     * the history list.
+     * @param d The discriminant, assumed to be negative and squarefree.
+     * @return The ring, for example, Z[sqrt(-5)] for d = -5.
+     */
+    private ImaginaryQuadraticRing ringForDiscriminant(int d) {
+        return ImaginaryQuadraticRing.of(d);
+    }
+    
     private void switchToRing(int d) {
-        ImaginaryQuadraticRing imagRing = new ImaginaryQuadraticRing(d);
+        switchToRing(ringForDiscriminant(d));
+    }
+    
+    private void switchToRing(ImaginaryQuadraticRing imagRing) {
         ringFrame.setTitle("Ring Diagram for " + imagRing.toString());
         setRing(imagRing);
         repaint();
@@ -933,18 +944,18 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
     
     /**
      * Function to update the history of previously viewed diagrams.
-     * @param d The discriminant to add to the history list.
+     * @param imagRing The ring just switched to, to add to the history list.
      */
-    private void updateDiscriminantHistory(int d) {
+    private void updateDiscriminantHistory(ImaginaryQuadraticRing imagRing) {
         if (currHistoryIndex == discrHistory.size() - 1) {
-            discrHistory.add(d);
+            discrHistory.add(imagRing);
             currHistoryIndex++;
             if (!prevDMenuItem.isEnabled()) {
                 prevDMenuItem.setEnabled(true);
             }
         } else {
             currHistoryIndex++;
-            discrHistory.add(currHistoryIndex, d);
+            discrHistory.add(currHistoryIndex, imagRing);
             while (currHistoryIndex < discrHistory.size() - 1) {
                 discrHistory.remove(currHistoryIndex + 1); // Remove the "forward arrow" history
             }
@@ -978,8 +989,8 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
         if (discr < MINIMUM_RING_D) {
             discr = MINIMUM_RING_D;
         }
-        while (!NumberTheoreticFunctionsCalculator.isSquareFree(discr) && discr > MINIMUM_RING_D) {
-            discr--;
+        if (!NumberTheoreticFunctionsCalculator.isSquareFree(discr)) {
+            discr = Math.max(SquarefreeEnumerator.previousNegativeSquarefree(discr), MINIMUM_RING_D);
         }
         repaintNeeded = (discr != this.diagramRing.negRad);
         if (repaintNeeded) {
@@ -996,7 +1007,7 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
                 this.increaseDMenuItem.setEnabled(true);
             }
             switchToRing(discr);
-            updateDiscriminantHistory(discr);
+            updateDiscriminantHistory(this.diagramRing);
         }
 
     }
@@ -1007,10 +1018,7 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
      * menu item is disabled.
      */
     public void incrementDiscriminant() {
-        int discr = this.diagramRing.negRad + 1;
-        while (!NumberTheoreticFunctionsCalculator.isSquareFree(discr) && discr < -1) {
-            discr++;
-        }
+        int discr = SquarefreeEnumerator.nextNegativeSquarefree(this.diagramRing.negRad);
         if (discr == -1) {
             increaseDMenuItem.setEnabled(false);
         }
@@ -1018,7 +1026,7 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
             decreaseDMenuItem.setEnabled(true);
         }
         switchToRing(discr);
-        updateDiscriminantHistory(discr);
+        updateDiscriminantHistory(this.diagramRing);
     }
 
     /**
@@ -1027,10 +1035,7 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
      * discriminant" menu item is disabled.
      */
     public void decrementDiscriminant() {
-        int discr = this.diagramRing.negRad - 1;
-        while (!NumberTheoreticFunctionsCalculator.isSquareFree(discr) && discr > (Integer.MIN_VALUE + 1)) {
-            discr--;
-        }
+        int discr = SquarefreeEnumerator.previousNegativeSquarefree(this.diagramRing.negRad);
         if (discr == MINIMUM_RING_D) {
             this.decreaseDMenuItem.setEnabled(false);
         }
@@ -1038,7 +1043,7 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
             this.increaseDMenuItem.setEnabled(true);
         }
         switchToRing(discr);
-        updateDiscriminantHistory(discr);
+        updateDiscriminantHistory(this.diagramRing);
     }
     
     /**
@@ -1708,11 +1713,11 @@ public final class RingWindowDisplay extends JPanel implements ActionListener, M
             ringChoice *= -1;
         }
         if (NumberTheoreticFunctionsCalculator.isSquareFree(ringChoice)) {
-            imR = new ImaginaryQuadraticRing(ringChoice);
-            discrHistory.add(ringChoice);
+            imR = ImaginaryQuadraticRing.of(ringChoice);
+            discrHistory.add(imR);
         } else {
-            imR = new ImaginaryQuadraticRing(DEFAULT_RING_D);
-            discrHistory.add(DEFAULT_RING_D);
+            imR = ImaginaryQuadraticRing.of(DEFAULT_RING_D);
+            discrHistory.add(imR);
         }
         this.currHistoryIndex = 0;
         this.setRing(imR);
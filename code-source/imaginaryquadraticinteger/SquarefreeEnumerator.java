@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Enumerates the squarefree numbers in a range of negative integers, which are 
+ * the values of <i>d</i> for which there is an imaginary quadratic ring. The 
+ * whole range is sieved once, by crossing off the multiples of the squares of 
+ * primes, so finding the next or previous squarefree number, going through all 
+ * of them, or picking one at random doesn't take any factoring at all. 
+ * <p>For stepping from one <i>d</i> to the next without having set up a range 
+ * beforehand, there are also the static functions {@link 
+ * #nextNegativeSquarefree(int)} and {@link #previousNegativeSquarefree(int)}, 
+ * which sieve a short window at a time.</p>
+ * @author Alonso del Arte
+ */
+public class SquarefreeEnumerator {
+    
+    /**
+     * How many numbers {@link #nextNegativeSquarefree(int)} and {@link 
+     * #previousNegativeSquarefree(int)} sieve at a time. Since about 61% of 
+     * integers are squarefree, one window is almost always enough.
+     */
+    private static final int SEARCH_WINDOW = 64;
+    
+    private final int lo, hi;
+    
+    /**
+     * A bitset in which bit <i>k</i> is set if and only if lo + <i>k</i> is 
+     * squarefree.
+     */
+    private final long[] squarefree;
+    
+    private final int count;
+    
+    /**
+     * Gives the lowest number of the range.
+     * @return The lowest number of the range, as passed to the constructor. 
+     * For example, -100.
+     */
+    public int getLowerBound() {
+        return this.lo;
+    }
+    
+    /**
+     * Gives the number just past the end of the range.
+     * @return The number just past the end of the range, as passed to the 
+     * constructor. For example, 0.
+     */
+    public int getUpperBound() {
+        return this.hi;
+    }
+    
+    /**
+     * Tells how many squarefree numbers there are in the range.
+     * @return The number of squarefree numbers in the range. For example, 61 
+     * for the range from -100 to 0.
+     */
+    public int count() {
+        return this.count;
+    }
+    
+    /**
+     * Tells whether a number in the range is squarefree.
+     * @param d The number. For example, -98.
+     * @return True if the number is squarefree, false otherwise. For example, 
+     * false for -98, which is divisible by 7<sup>2</sup>.
+     * @throws IllegalArgumentException If d is not in the range.
+     */
+    public boolean isSquarefree(int d) {
+        if (d < this.lo || d >= this.hi) {
+            throw new IllegalArgumentException(d + " is outside the range from " + this.lo + " to " + this.hi + ".");
+        }
+        return this.isSetAt(d - this.lo);
+    }
+    
+    private boolean isSetAt(int index) {
+        return (this.squarefree[index >>> 6] & (1L << index)) != 0;
+    }
+    
+    /**
+     * Finds the index of the first squarefree number at or after a given 
+     * index.
+     * @param index The index to start from. Must not be negative.
+     * @return The index of the squarefree number, or -1 if there is none.
+     */
+    private int indexAtOrAfter(int index) {
+        int length = this.hi - this.lo;
+        if (index >= length) {
+            return -1;
+        }
+        int word = index >>> 6;
+        long bits = this.squarefree[word] & (-1L << index);
+        while (bits == 0) {
+            if (++word == this.squarefree.length) {
+                return -1;
+            }
+            bits = this.squarefree[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+    
+    /**
+     * Finds the index of the last squarefree number at or before a given 
+     * index.
+     * @param index The index to start from. Must be less than the length of 
+     * the range.
+     * @return The index of the squarefree number, or -1 if there is none.
+     */
+    private int indexAtOrBefore(int index) {
+        if (index < 0) {
+            return -1;
+        }
+        int word = index >>> 6;
+        long bits = this.squarefree[word] & (-1L >>> (63 - (index & 63)));
+        while (bits == 0) {
+            if (--word < 0) {
+                return -1;
+            }
+            bits = this.squarefree[word];
+        }
+        return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+    }
+    
+    /**
+     * Finds the least squarefree number in the range that is greater than a 
+     * given number.
+     * @param d The number to start from. Need not be in the range, nor 
+     * squarefree. For example, -100.
+     * @return The next squarefree number. For example, -97.
+     * @throws NoSuchElementException If there is no squarefree number in the 
+     * range greater than d.
+     */
+    public int nextSquarefree(int d) {
+        long start = Math.max((long) d + 1 - this.lo, 0);
+        int index = (start >= (long) this.hi - this.lo) ? -1 : this.indexAtOrAfter((int) start);
+        if (index < 0) {
+            throw new NoSuchElementException("There is no squarefree number greater than " + d + " in the range from " + this.lo + " to " + this.hi + ".");
+        }
+        return this.lo + index;
+    }
+    
+    /**
+     * Finds the greatest squarefree number in the range that is less than a 
+     * given number.
+     * @param d The number to start from. Need not be in the range, nor 
+     * squarefree. For example, -94.
+     * @return The previous squarefree number. For example, -95.
+     * @throws NoSuchElementException If there is no squarefree number in the 
+     * range less than d.
+     */
+    public int previousSquarefree(int d) {
+        long start = Math.min((long) d - 1 - this.lo, (long) this.hi - this.lo - 1);
+        int index = (start < 0) ? -1 : this.indexAtOrBefore((int) start);
+        if (index < 0) {
+            throw new NoSuchElementException("There is no squarefree number less than " + d + " in the range from " + this.lo + " to " + this.hi + ".");
+        }
+        return this.lo + index;
+    }
+    
+    /**
+     * Goes through the squarefree numbers in the range in ascending order.
+     * @return An iterator of the squarefree numbers. For example, for the range 
+     * from -10 to 0: -10, -7, -6, -5, -3, -2, -1.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            
+            private int nextIndex = indexAtOrAfter(0);
+            
+            @Override
+            public boolean hasNext() {
+                return this.nextIndex >= 0;
+            }
+            
+            @Override
+            public int nextInt() {
+                if (this.nextIndex < 0) {
+                    throw new NoSuchElementException("No more squarefree numbers in the range.");
+                }
+                int d = lo + this.nextIndex;
+                this.nextIndex = indexAtOrAfter(this.nextIndex + 1);
+                return d;
+            }
+            
+        };
+    }
+    
+    /**
+     * Gives the squarefree numbers in the range as a stream. This is just 
+     * {@link #iterator()} wrapped as a stream of known size.
+     * @return A stream of the squarefree numbers in ascending order.
+     */
+    public IntStream stream() {
+        Spliterator.OfInt numbers = Spliterators.spliterator(this.iterator(), this.count, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        return StreamSupport.intStream(numbers, false);
+    }
+    
+    /**
+     * Gives the squarefree numbers in the range as an array.
+     * @return An array of the squarefree numbers in ascending order. For 
+     * example, for the range from -10 to 0, {-10, -7, -6, -5, -3, -2, -1}.
+     */
+    public int[] toArray() {
+        int[] numbers = new int[this.count];
+        int index = this.indexAtOrAfter(0);
+        for (int i = 0; i < this.count; i++) {
+            numbers[i] = this.lo + index;
+            index = this.indexAtOrAfter(index + 1);
+        }
+        return numbers;
+    }
+    
+    /**
+     * Picks a squarefree number from the range at random, each one with the 
+     * same probability. Numbers are drawn uniformly from the whole range until 
+     * a squarefree one comes up, which takes fewer than two draws on average. 
+     * To draw from several threads, give each thread its own {@link 
+     * SplittableRandom#split()}.
+     * @param random The source of randomness.
+     * @return A pseudorandom squarefree number from the range.
+     * @throws NoSuchElementException If there are no squarefree numbers in the 
+     * range.
+     */
+    public int randomSquarefree(SplittableRandom random) {
+        if (this.count == 0) {
+            throw new NoSuchElementException("There are no squarefree numbers in the range from " + this.lo + " to " + this.hi + ".");
+        }
+        int index;
+        do {
+            index = random.nextInt(this.hi - this.lo);
+        } while (!this.isSetAt(index));
+        return this.lo + index;
+    }
+    
+    /**
+     * Finds the least negative squarefree number greater than a given number.
+     * @param d The number to start from. For example, -50.
+     * @return The next negative squarefree number. For example, -47, since -49 
+     * and -48 are divisible by 7<sup>2</sup> and 2<sup>2</sup>, respectively.
+     * @throws NoSuchElementException If d is -1 or greater, as there is then 
+     * no greater negative squarefree number.
+     */
+    public static int nextNegativeSquarefree(int d) {
+        if (d >= -1) {
+            throw new NoSuchElementException("There is no negative squarefree number greater than " + d + ".");
+        }
+        int from = d + 1;
+        while (true) {
+            int to = (int) Math.min((long) from + SEARCH_WINDOW, 0);
+            SquarefreeEnumerator window = new SquarefreeEnumerator(from, to);
+            if (window.count > 0) {
+                return window.nextSquarefree(d);
+            }
+            from = to;
+        }
+    }
+    
+    /**
+     * Finds the greatest squarefree number less than a given number.
+     * @param d The number to start from. May be 0 or positive, in which case 
+     * the result is -1. For example, -46.
+     * @return The previous squarefree number. For example, -47.
+     * @throws NoSuchElementException If there is no squarefree number less 
+     * than d in the range of int.
+     */
+    public static int previousNegativeSquarefree(int d) {
+        int to = Math.min(d, 0);
+        while (to > Integer.MIN_VALUE) {
+            int from = (int) Math.max((long) to - SEARCH_WINDOW, Integer.MIN_VALUE);
+            SquarefreeEnumerator window = new SquarefreeEnumerator(from, to);
+            if (window.count > 0) {
+                return window.previousSquarefree(to);
+            }
+            to = from;
+        }
+        throw new NoSuchElementException("There is no squarefree number less than " + d + " in the range of int.");
+    }
+    
+    /**
+     * Sieves a range of negative integers for squarefree numbers.
+     * @param lo The lowest number of the range. For example, -100.
+     * @param hi The number just past the end of the range. May be 0 but not 
+     * positive. For example, 0.
+     * @throws IllegalArgumentException If hi is positive or less than lo, or if 
+     * the range is longer than {@link Integer#MAX_VALUE}.
+     */
+    public SquarefreeEnumerator(int lo, int hi) {
+        if (hi > 0 || hi < lo || (long) hi - lo > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Can't enumerate negative squarefree numbers from " + lo + " to " + hi + ".");
+        }
+        this.lo = lo;
+        this.hi = hi;
+        int length = hi - lo;
+        this.squarefree = new long[(length + 63) >>> 6];
+        if (length == 0) {
+            this.count = 0;
+            return;
+        }
+        Arrays.fill(this.squarefree, -1L);
+        if ((length & 63) != 0) {
+            this.squarefree[this.squarefree.length - 1] = -1L >>> (64 - (length & 63));
+        }
+        long absLo = -(long) lo;
+        PrimitiveIterator.OfLong primes = NumberTheoreticFunctionsCalculator.primesInRange(2, NumberTheoreticFunctionsCalculator.floorSqrt(absLo) + 1).iterator();
+        while (primes.hasNext()) {
+            long p = primes.nextLong();
+            long square = p * p;
+            for (long index = Math.floorMod(-(long) lo, square); index < length; index += square) {
+                this.squarefree[(int) (index >>> 6)] &= ~(1L << index);
+            }
+        }
+        int bits = 0;
+        for (long word : this.squarefree) {
+            bits += Long.bitCount(word);
+        }
+        this.count = bits;
+    }
+    
+}
@@ -30,6 +30,27 @@
  * <li>{@link imaginaryquadraticinteger.NumberTheoreticFunctionsCalculator} is a 
  * collection of number theoretic functions, including basic primality testing 
  * and the Euclidean GCD algorithm.</li>
+ * <li>{@link imaginaryquadraticinteger.NormComparator} compares imaginary 
+ * quadratic integers by norm.</li> 
+ * <li>{@link imaginaryquadraticinteger.ElementCache} is a bounded cache of 
+ * primality and factorization results keyed by the coordinates of imaginary 
+ * quadratic integers.</li> 
+ * <li>{@link imaginaryquadraticinteger.SquarefreeEnumerator} sieves ranges of 
+ * negative integers for the squarefree numbers that are the values of <i>d</i> 
+ * for imaginary quadratic rings.</li> 
+ * <li>{@link imaginaryquadraticinteger.FactorizationBatch} holds the prime 
+ * factorizations of many numbers of one ring in primitive arrays.</li> 
+ * <li>{@link imaginaryquadraticinteger.LongImaginaryQuadraticInteger} holds 
+ * imaginary quadratic integers in 64-bit fields, with checked arithmetic.</li> 
+ * <li>{@link imaginaryquadraticinteger.BigImaginaryQuadraticInteger} holds 
+ * imaginary quadratic integers of any size, switching from 64-bit to 
+ * BigInteger arithmetic only when an operation overflows.</li> 
+ * <li>{@link imaginaryquadraticinteger.PackedImaginaryQuadraticInteger} 
+ * packs imaginary quadratic integers into single longs, with static 
+ * arithmetic on those longs for loops that shouldn't create objects.</li> 
+ * <li>{@link imaginaryquadraticinteger.MutableImaginaryQuadraticInteger} 
+ * is an imaginary quadratic integer that can be changed in place, for long 
+ * chains of arithmetic.</li> 
  * <li>{@link imaginaryquadraticinteger.RingWindowDisplay} is a Swing component 
  * in which to display diagrams of prime numbers in various quadratic integer 
  * rings.</li>
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import java.math.BigInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the BigImaginaryQuadraticInteger class.
+ * @author Alonso del Arte
+ */
+public class BigImaginaryQuadraticIntegerTest {
+    
+    /**
+     * Test of times method, of class BigImaginaryQuadraticInteger. A product 
+     * that overflows 64 bits should be computed with BigInteger, and a later 
+     * result that fits in 64 bits again should go back to being held in 
+     * longs.
+     */
+    @Test
+    public void testTimesPromotesAndDemotes() {
+        System.out.println("times");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-1);
+        BigImaginaryQuadraticInteger num = BigImaginaryQuadraticInteger.valueOf(new LongImaginaryQuadraticInteger(1L << 40, 1L << 40, ring));
+        assertTrue(num.fitsInLong());
+        BigImaginaryQuadraticInteger square = num.times(num);
+        assertFalse(square.fitsInLong());
+        BigImaginaryQuadraticInteger expResult = new BigImaginaryQuadraticInteger(BigInteger.ZERO, BigInteger.ONE.shiftLeft(81), ring);
+        assertEquals(expResult, square);
+        assertEquals(expResult.hashCode(), square.hashCode());
+        assertEquals(BigInteger.ONE.shiftLeft(162), square.bigNorm());
+        BigImaginaryQuadraticInteger difference = square.minus(expResult.minus(num));
+        assertTrue(difference.fitsInLong());
+        assertEquals(num, difference);
+        try {
+            long result = square.norm();
+            fail("Norm of " + square.toASCIIString() + " should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("Norm of " + square.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of plus, minus and conjugate methods, of class 
+     * BigImaginaryQuadraticInteger. Going one past the range of long in 
+     * either direction should be computed with BigInteger, and coming back 
+     * should give a number held in longs again, equal to the original.
+     */
+    @Test
+    public void testPlusMinusPromoteAndDemote() {
+        System.out.println("plus, minus, conjugate");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-7);
+        BigInteger twoTo63 = BigInteger.ONE.shiftLeft(63);
+        BigImaginaryQuadraticInteger one = BigImaginaryQuadraticInteger.valueOf(new LongImaginaryQuadraticInteger(1, 0, ring));
+        BigImaginaryQuadraticInteger maxRe = BigImaginaryQuadraticInteger.valueOf(new LongImaginaryQuadraticInteger(Long.MAX_VALUE, 0, ring));
+        BigImaginaryQuadraticInteger sum = maxRe.plus(one);
+        assertFalse(sum.fitsInLong());
+        assertEquals(twoTo63, sum.getRealPartMult());
+        BigImaginaryQuadraticInteger difference = sum.minus(one);
+        assertTrue(difference.fitsInLong());
+        assertEquals(maxRe, difference);
+        assertEquals(maxRe.hashCode(), difference.hashCode());
+        BigImaginaryQuadraticInteger minRe = BigImaginaryQuadraticInteger.valueOf(new LongImaginaryQuadraticInteger(Long.MIN_VALUE, 0, ring));
+        assertTrue(minRe.fitsInLong());
+        difference = minRe.minus(one);
+        assertFalse(difference.fitsInLong());
+        assertEquals(twoTo63.negate().subtract(BigInteger.ONE), difference.getRealPartMult());
+        assertEquals(minRe, difference.plus(one));
+        assertTrue(difference.plus(one).fitsInLong());
+        BigImaginaryQuadraticInteger minIm = BigImaginaryQuadraticInteger.valueOf(new LongImaginaryQuadraticInteger(0, Long.MIN_VALUE, ring));
+        BigImaginaryQuadraticInteger conjugate = minIm.conjugate();
+        assertFalse(conjugate.fitsInLong());
+        assertEquals(twoTo63, conjugate.getImagPartMult());
+        assertTrue(conjugate.conjugate().fitsInLong());
+        assertEquals(minIm, conjugate.conjugate());
+        BigImaginaryQuadraticInteger half = BigImaginaryQuadraticInteger.valueOf(new LongImaginaryQuadraticInteger(Long.MAX_VALUE, 1, ring, 2));
+        sum = half.plus(one);
+        assertFalse(sum.fitsInLong());
+        assertEquals(2, sum.getDenominator());
+        assertEquals(twoTo63.add(BigInteger.ONE), sum.getRealPartMult());
+        assertEquals(half, sum.minus(one));
+        assertTrue(sum.minus(one).fitsInLong());
+        try {
+            LongImaginaryQuadraticInteger result = sum.toLongImaginaryQuadraticInteger();
+            fail("Converting " + sum.toASCIIString() + " should have caused an exception, not given " + result.toASCIIString());
+        } catch (ArithmeticException ae) {
+            System.out.println("Converting " + sum.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of norm method, of class BigImaginaryQuadraticInteger. The norm of 
+     * a "half-integer" can fit in a long even when four times the norm 
+     * doesn't, in which case LongImaginaryQuadraticInteger overflows but this 
+     * class should still give the norm as a long.
+     */
+    @Test
+    public void testNormBeyondFourTimesLong() {
+        System.out.println("norm");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-7);
+        LongImaginaryQuadraticInteger longNum = new LongImaginaryQuadraticInteger(4000000001L, 1, ring, 2);
+        try {
+            long result = longNum.norm();
+            fail("Norm of " + longNum.toASCIIString() + " in longs should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("Norm of " + longNum.toASCIIString() + " in longs correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        BigImaginaryQuadraticInteger num = BigImaginaryQuadraticInteger.valueOf(longNum);
+        assertTrue(num.fitsInLong());
+        assertEquals(4000000002000000002L, num.norm());
+        assertEquals(BigInteger.valueOf(4000000002000000002L), num.bigNorm());
+    }
+    
+    /**
+     * Test of times method, of class BigImaginaryQuadraticInteger, with 
+     * "half-integers." The product of a number and its conjugate should be 
+     * its norm.
+     */
+    @Test
+    public void testTimesHalfIntegers() {
+        System.out.println("times with half-integers");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-7);
+        BigInteger a = BigInteger.ONE.shiftLeft(70).add(BigInteger.ONE);
+        BigInteger b = BigInteger.ONE.shiftLeft(69).subtract(BigInteger.ONE);
+        BigImaginaryQuadraticInteger num = new BigImaginaryQuadraticInteger(a, b, ring, 2);
+        assertEquals(2, num.getDenominator());
+        BigInteger expNorm = a.multiply(a).add(BigInteger.valueOf(7).multiply(b).multiply(b)).shiftRight(2);
+        assertEquals(expNorm, num.bigNorm());
+        BigImaginaryQuadraticInteger product = num.times(num.conjugate());
+        assertEquals(new BigImaginaryQuadraticInteger(expNorm, BigInteger.ZERO, ring), product);
+        assertEquals(1, product.algebraicDegree());
+        BigImaginaryQuadraticInteger sum = num.plus(num);
+        assertEquals(1, sum.getDenominator());
+        assertEquals(a, sum.getRealPartMult());
+        assertEquals(a, sum.bigTrace().shiftRight(1));
+    }
+    
+    /**
+     * Test of pow method, of class BigImaginaryQuadraticInteger. Powers that 
+     * fit in 64 bits should match LongImaginaryQuadraticInteger, and powers 
+     * that don't should match repeated multiplication.
+     */
+    @Test
+    public void testPow() {
+        System.out.println("pow");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-7);
+        LongImaginaryQuadraticInteger longNum = new LongImaginaryQuadraticInteger(3, 5, ring, 2);
+        BigImaginaryQuadraticInteger num = BigImaginaryQuadraticInteger.valueOf(longNum);
+        BigImaginaryQuadraticInteger expResult = BigImaginaryQuadraticInteger.valueOf(new LongImaginaryQuadraticInteger(1, 0, ring));
+        for (int exponent = 0; exponent < 60; exponent++) {
+            BigImaginaryQuadraticInteger result = num.pow(exponent);
+            assertEquals("Power " + exponent + " of " + num.toASCIIString(), expResult, result);
+            if (result.fitsInLong()) {
+                assertEquals(result.toLongImaginaryQuadraticInteger(), longNum.pow(exponent));
+            }
+            expResult = expResult.times(num);
+        }
+        assertFalse(expResult.fitsInLong());
+        assertEquals(num.bigNorm().pow(60), expResult.bigNorm());
+    }
+    
+    /**
+     * Test of toString, toTeXString, toHTMLString and minPolynomialString 
+     * methods, of class BigImaginaryQuadraticInteger. For numbers held in 
+     * longs, the first and last should match ImaginaryQuadraticInteger.
+     */
+    @Test
+    public void testStrings() {
+        System.out.println("toString, toTeXString, toHTMLString, minPolynomialString");
+        int[] ds = {-1, -2, -3, -7};
+        for (int d : ds) {
+            ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(d);
+            for (int a = -3; a <= 3; a++) {
+                for (int b = -3; b <= 3; b++) {
+                    ImaginaryQuadraticInteger num = new ImaginaryQuadraticInteger(a, b, ring);
+                    BigImaginaryQuadraticInteger bigNum = BigImaginaryQuadraticInteger.valueOf(num);
+                    assertEquals(num.toString(), bigNum.toString());
+                    assertEquals(num.toASCIIString(), bigNum.toASCIIString());
+                    assertEquals(num.toHTMLString(), bigNum.toHTMLString());
+                    assertEquals(num.minPolynomialString(), bigNum.minPolynomialString());
+                    assertArrayEquals(num.minPolynomial(), bigNum.minPolynomial());
+                }
+            }
+        }
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-7);
+        BigInteger a = new BigInteger("100000000000000000001");
+        BigImaginaryQuadraticInteger num = new BigImaginaryQuadraticInteger(a, BigInteger.ONE.negate(), ring, 2);
+        assertEquals("100000000000000000001/2 - sqrt(-7)/2", num.toASCIIString());
+        assertEquals("\\frac{100000000000000000001}{2} - \\frac{\\sqrt{-7}}{2}", num.toTeXString());
+        assertEquals("x^2 - 100000000000000000001x + " + num.bigNorm(), num.minPolynomialString());
+    }
+    
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the ElementCache class.
+ * @author Alonso del Arte
+ */
+public class ElementCacheTest {
+    
+    /**
+     * Test of get and put methods, of class ElementCache. Numbers that are 
+     * equal should share an entry even if they're different objects holding 
+     * different ring objects, while the same coordinates in a different ring 
+     * should not.
+     */
+    @Test
+    public void testGetAndPut() {
+        System.out.println("get, put");
+        ElementCache<String> instance = new ElementCache<>(1024);
+        ImaginaryQuadraticInteger num = new ImaginaryQuadraticInteger(3, 2, new ImaginaryQuadraticRing(-1));
+        ImaginaryQuadraticInteger sameNum = new ImaginaryQuadraticInteger(3, 2, new ImaginaryQuadraticRing(-1));
+        ImaginaryQuadraticInteger otherRingNum = new ImaginaryQuadraticInteger(3, 2, new ImaginaryQuadraticRing(-2));
+        ImaginaryQuadraticInteger halfNum = new ImaginaryQuadraticInteger(3, 1, new ImaginaryQuadraticRing(-7), 2);
+        assertNull(instance.get(num));
+        instance.put(num, "3 + 2i");
+        instance.put(halfNum, "3/2 + sqrt(-7)/2");
+        assertEquals("3 + 2i", instance.get(sameNum));
+        assertNull(instance.get(otherRingNum));
+        assertEquals("3/2 + sqrt(-7)/2", instance.get(halfNum));
+        assertNull(instance.get(new ImaginaryQuadraticInteger(3, 1, new ImaginaryQuadraticRing(-7))));
+        instance.put(num, "Three plus two i");
+        assertEquals("Three plus two i", instance.get(num));
+        assertEquals(3, instance.getHits());
+        assertEquals(3, instance.getMisses());
+        instance.clear();
+        assertNull(instance.get(num));
+        assertEquals(0, instance.getHits());
+        assertEquals(1, instance.getMisses());
+    }
+    
+    /**
+     * Test of eviction, of class ElementCache. Putting in many more entries 
+     * than the capacity should not make the cache grow, and entries that keep 
+     * getting read should survive longer than those that aren't.
+     */
+    @Test
+    public void testEviction() {
+        System.out.println("eviction");
+        ElementCache<Integer> instance = new ElementCache<>(128);
+        assertEquals(128, instance.getCapacity());
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-2);
+        ImaginaryQuadraticInteger favorite = new ImaginaryQuadraticInteger(1, 1, ring);
+        instance.put(favorite, 0);
+        int held = 0;
+        for (int a = 2; a < 2000; a++) {
+            instance.put(new ImaginaryQuadraticInteger(a, 1, ring), a);
+            assertEquals(Integer.valueOf(0), instance.get(favorite));
+        }
+        for (int a = 2; a < 2000; a++) {
+            Integer value = instance.get(new ImaginaryQuadraticInteger(a, 1, ring));
+            if (value != null) {
+                assertEquals(a, value.intValue());
+                held++;
+            }
+        }
+        assertTrue("Cache of capacity 128 should not hold " + held + " entries", held < 128);
+    }
+    
+    /**
+     * Test of the caches used by {@link 
+     * NumberTheoreticFunctionsCalculator#isPrime(ImaginaryQuadraticInteger)} 
+     * and {@link 
+     * NumberTheoreticFunctionsCalculator#primeFactors(ImaginaryQuadraticInteger)}. 
+     * Asking again about the same number should be a hit, and a list gotten 
+     * from the factorization cache can be changed by the caller without 
+     * changing what the cache holds.
+     */
+    @Test
+    public void testCalculatorCaches() {
+        System.out.println("getPrimalityCache, getFactorizationCache");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-3);
+        ImaginaryQuadraticInteger num = new ImaginaryQuadraticInteger(-5, 5, ring, 2);
+        ElementCache<Boolean> primalityCache = NumberTheoreticFunctionsCalculator.getPrimalityCache();
+        boolean expResult = NumberTheoreticFunctionsCalculator.isPrime(num);
+        assertTrue("5 omega should be prime in Z[omega]", expResult);
+        long hits = primalityCache.getHits();
+        assertEquals(expResult, NumberTheoreticFunctionsCalculator.isPrime(new ImaginaryQuadraticInteger(-5, 5, ring, 2)));
+        assertTrue("Asking again should have been a hit", primalityCache.getHits() > hits);
+        num = new ImaginaryQuadraticInteger(28, 13, ring);
+        ElementCache<ImaginaryQuadraticInteger[]> factorizationCache = NumberTheoreticFunctionsCalculator.getFactorizationCache();
+        try {
+            List<ImaginaryQuadraticInteger> expFactors = NumberTheoreticFunctionsCalculator.primeFactors(num);
+            expFactors.clear();
+            hits = factorizationCache.getHits();
+            List<ImaginaryQuadraticInteger> factors = NumberTheoreticFunctionsCalculator.primeFactors(num);
+            assertTrue("Asking again should have been a hit", factorizationCache.getHits() > hits);
+            assertFalse("Clearing a returned list should not clear the cached factorization", factors.isEmpty());
+            ImaginaryQuadraticInteger product = new ImaginaryQuadraticInteger(1, 0, ring);
+            for (ImaginaryQuadraticInteger factor : factors) {
+                product = product.times(factor);
+            }
+            assertEquals(num, product);
+        } catch (NonUniqueFactorizationDomainException nufde) {
+            fail("Z[omega] is a unique factorization domain, should not have caused " + nufde.getMessage());
+        }
+    }
+    
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the FactorizationBatch class and the methods of 
+ * NumberTheoreticFunctionsCalculator that produce it.
+ * @author Alonso del Arte
+ */
+public class FactorizationBatchTest {
+    
+    /**
+     * Test of primeFactorsInBox method, of class 
+     * NumberTheoreticFunctionsCalculator. The factorization of each number in 
+     * the batch should be the same as what primeFactors gives for that number 
+     * by itself, and multiplying the factors back together should give the 
+     * number.
+     */
+    @Test
+    public void testPrimeFactorsInBox() {
+        System.out.println("primeFactorsInBox");
+        int bound = 12;
+        for (int d : NumberTheoreticFunctionsCalculator.HEEGNER_NUMBERS) {
+            ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(d);
+            FactorizationBatch batch;
+            try {
+                batch = NumberTheoreticFunctionsCalculator.primeFactorsInBox(ring, bound);
+            } catch (NonUniqueFactorizationDomainException nufde) {
+                fail("NonUniqueFactorizationDomainException should not have occurred for " + ring.toASCIIString() + ": " + nufde.getMessage());
+                return;
+            }
+            int expSize = (2 * bound + 1) * (2 * bound + 1);
+            if (ring.hasHalfIntegers()) {
+                expSize += 4 * bound * bound;
+            }
+            assertEquals("Box in " + ring.toASCIIString() + " should have " + expSize + " numbers", expSize, batch.size());
+            assertEquals(batch.size() + 1, batch.getFactorOffsets().length);
+            for (int k = 0; k < batch.size(); k++) {
+                ImaginaryQuadraticInteger num = NumberTheoreticFunctionsCalculator.fromDoubledParts(batch.getTwiceRealParts()[k], batch.getTwiceImagParts()[k], ring);
+                List<ImaginaryQuadraticInteger> factors = batch.factorsOf(k);
+                if (num.equalsInt(0)) {
+                    assertEquals(-1, batch.getUnitIndices()[k]);
+                    continue;
+                }
+                try {
+                    assertEquals("Factorization of " + num.toASCIIString() + " should match", NumberTheoreticFunctionsCalculator.primeFactors(num), factors);
+                } catch (NonUniqueFactorizationDomainException nufde) {
+                    fail("NonUniqueFactorizationDomainException should not have occurred for " + num.toASCIIString() + ": " + nufde.getMessage());
+                }
+                ImaginaryQuadraticInteger product = new ImaginaryQuadraticInteger(1, 0, ring);
+                for (ImaginaryQuadraticInteger factor : factors) {
+                    product = product.times(factor);
+                }
+                assertEquals(num, product);
+            }
+        }
+    }
+    
+    /**
+     * Test of primeFactors method, of class NumberTheoreticFunctionsCalculator, 
+     * the one that takes arrays of coordinates. Checks the primitive arrays 
+     * directly for a few Gaussian integers.
+     */
+    @Test
+    public void testPrimeFactorsArrays() {
+        System.out.println("primeFactors(ring, long[], long[])");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-1);
+        long[] twiceRealParts = {-8, 0, 6, -2, 0};
+        long[] twiceImagParts = {4, 0, 4, 0, -2};
+        FactorizationBatch batch;
+        try {
+            batch = NumberTheoreticFunctionsCalculator.primeFactors(ring, twiceRealParts, twiceImagParts);
+        } catch (NonUniqueFactorizationDomainException nufde) {
+            fail("NonUniqueFactorizationDomainException should not have occurred: " + nufde.getMessage());
+            return;
+        }
+        assertEquals(5, batch.size());
+        int[] expOffsets = {0, 2, 2, 3, 3, 3};
+        assertArrayEquals(expOffsets, batch.getFactorOffsets());
+        byte[] expUnits = {1, -1, 0, 2, 3};
+        assertArrayEquals(expUnits, batch.getUnitIndices());
+        // -4 + 2i = i(1 + i)^2(2 - i)
+        long[] expFactorRe = {2, 4, 6};
+        long[] expFactorIm = {2, -2, 4};
+        int[] expExponents = {2, 1, 1};
+        assertArrayEquals(expFactorRe, batch.getFactorTwiceRealParts());
+        assertArrayEquals(expFactorIm, batch.getFactorTwiceImagParts());
+        assertArrayEquals(expExponents, batch.getExponents());
+    }
+    
+    /**
+     * Test of primeFactors method, of class NumberTheoreticFunctionsCalculator, 
+     * the one that takes arrays of coordinates, with bad arguments.
+     */
+    @Test
+    public void testPrimeFactorsArraysExceptions() {
+        System.out.println("primeFactors(ring, long[], long[]) exceptions");
+        try {
+            FactorizationBatch batch = NumberTheoreticFunctionsCalculator.primeFactors(new ImaginaryQuadraticRing(-5), new long[]{4}, new long[]{2});
+            fail("Factoring in Z[sqrt(-5)] should have caused an exception, not given " + batch.factorsOf(0));
+        } catch (NonUniqueFactorizationDomainException nufde) {
+            System.out.println("Trying to factor in Z[sqrt(-5)] correctly caused NonUniqueFactorizationDomainException \"" + nufde.getMessage() + "\"");
+        }
+        long[][][] badArguments = {{{2, 4}, {0}}, {{3}, {1}}, {{2}, {1}}};
+        int[] badArgumentRings = {-1, -1, -7};
+        for (int i = 0; i < badArguments.length; i++) {
+            ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(badArgumentRings[i]);
+            try {
+                FactorizationBatch batch = NumberTheoreticFunctionsCalculator.primeFactors(ring, badArguments[i][0], badArguments[i][1]);
+                fail("Bad arguments in " + ring.toASCIIString() + " should have caused an exception, not given batch of " + batch.size());
+            } catch (IllegalArgumentException iae) {
+                System.out.println("Bad arguments in " + ring.toASCIIString() + " correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+            } catch (NonUniqueFactorizationDomainException nufde) {
+                fail("NonUniqueFactorizationDomainException should not have occurred: " + nufde.getMessage());
+            }
+        }
+        try {
+            FactorizationBatch batch = NumberTheoreticFunctionsCalculator.primeFactorsInBox(new ImaginaryQuadraticRing(-2), -1);
+            fail("Negative bound should have caused an exception, not given batch of " + batch.size());
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Negative bound correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        } catch (NonUniqueFactorizationDomainException nufde) {
+            fail("NonUniqueFactorizationDomainException should not have occurred: " + nufde.getMessage());
+        }
+        int[] tooLargeBounds = {16384, 23170, 1000000000, Integer.MAX_VALUE};
+        for (int d : new int[]{-1, -3}) {
+            ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(d);
+            for (int bound : tooLargeBounds) {
+                if (bound == 16384 && !ring.hasHalfIntegers()) {
+                    continue; // That box does fit in an array in Z[i]
+                }
+                try {
+                    FactorizationBatch batch = NumberTheoreticFunctionsCalculator.primeFactorsInBox(ring, bound);
+                    fail("Bound " + bound + " in " + ring.toASCIIString() + " should have caused an exception, not given batch of " + batch.size());
+                } catch (IllegalArgumentException iae) {
+                    System.out.println("Bound " + bound + " in " + ring.toASCIIString() + " correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+                } catch (NonUniqueFactorizationDomainException nufde) {
+                    fail("NonUniqueFactorizationDomainException should not have occurred: " + nufde.getMessage());
+                }
+            }
+        }
+    }
+    
+}
@@ -17,6 +17,7 @@
 package imaginaryquadraticinteger;
 
 import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Random;
@@ -2151,6 +2152,337 @@ public class ImaginaryQuadraticIntegerTest {
         }
     }
 
+    /**
+     * Test of tryDivides method, of class ImaginaryQuadraticInteger. It should 
+     * give null exactly where divides would throw NotDivisibleException, but 
+     * just like divides it should throw IllegalArgumentException for division 
+     * by 0 and AlgebraicDegreeOverflowException for divisors from another ring 
+     * that would require a degree 4 result. A purely real divisor from another 
+     * ring should be no problem, and neither should a purely real dividend 
+     * from another ring, with the quotient in the divisor's ring. In rings 
+     * with "half-integers," quotients may be "half-integers."
+     */
+    @Test
+    public void testTryDivides() {
+        System.out.println("tryDivides");
+        ImaginaryQuadraticRing ringZi = ImaginaryQuadraticRing.of(-1);
+        ImaginaryQuadraticRing ringZ2 = ImaginaryQuadraticRing.of(-2);
+        ImaginaryQuadraticRing ringZw = ImaginaryQuadraticRing.of(-3);
+        ImaginaryQuadraticRing ringO7 = ImaginaryQuadraticRing.of(-7);
+        ImaginaryQuadraticInteger[][] dividendsAndDivisors = {{new ImaginaryQuadraticInteger(5, 0, ringZi), new ImaginaryQuadraticInteger(2, 1, ringZi)}, 
+            {new ImaginaryQuadraticInteger(7, 0, ringZi), new ImaginaryQuadraticInteger(2, 1, ringZi)}, 
+            {new ImaginaryQuadraticInteger(3, 4, ringZi), new ImaginaryQuadraticInteger(1, 1, ringZi)}, 
+            {new ImaginaryQuadraticInteger(6, 0, ringZ2), new ImaginaryQuadraticInteger(2, 1, ringZ2)}, 
+            {new ImaginaryQuadraticInteger(5, 0, ringZ2), new ImaginaryQuadraticInteger(2, 1, ringZ2)}, 
+            {new ImaginaryQuadraticInteger(3, 0, ringZw), new ImaginaryQuadraticInteger(3, 1, ringZw, 2)}, 
+            {new ImaginaryQuadraticInteger(2, 0, ringO7), new ImaginaryQuadraticInteger(1, 1, ringO7, 2)}, 
+            {new ImaginaryQuadraticInteger(3, 0, ringO7), new ImaginaryQuadraticInteger(1, 1, ringO7, 2)}};
+        ImaginaryQuadraticInteger[] expectedQuotients = {new ImaginaryQuadraticInteger(2, -1, ringZi), 
+            null, 
+            null, 
+            new ImaginaryQuadraticInteger(2, -1, ringZ2), 
+            null, 
+            new ImaginaryQuadraticInteger(3, -1, ringZw, 2), 
+            new ImaginaryQuadraticInteger(1, -1, ringO7, 2), 
+            null};
+        ImaginaryQuadraticInteger dividend, divisor, result;
+        for (int i = 0; i < dividendsAndDivisors.length; i++) {
+            dividend = dividendsAndDivisors[i][0];
+            divisor = dividendsAndDivisors[i][1];
+            result = dividend.tryDivides(divisor);
+            assertEquals("Dividing " + dividend.toASCIIString() + " by " + divisor.toASCIIString(), expectedQuotients[i], result);
+            try {
+                ImaginaryQuadraticInteger quotient = dividend.divides(divisor);
+                assertNotNull("tryDivides gave null for " + dividend.toASCIIString() + " by " + divisor.toASCIIString() + " but divides gave " + quotient.toASCIIString(), result);
+            } catch (NotDivisibleException nde) {
+                assertNull("divides threw for " + dividend.toASCIIString() + " by " + divisor.toASCIIString() + " but tryDivides gave " + result, result);
+            }
+        }
+        int[] intDivisors = {3, 3, 2, 2, -2};
+        ImaginaryQuadraticInteger[] intDividends = {new ImaginaryQuadraticInteger(6, 3, ringZi), 
+            new ImaginaryQuadraticInteger(6, 2, ringZi), 
+            new ImaginaryQuadraticInteger(1, 1, ringZ2), 
+            new ImaginaryQuadraticInteger(1, 1, ringO7), 
+            new ImaginaryQuadraticInteger(1, 1, ringO7)};
+        expectedQuotients = new ImaginaryQuadraticInteger[]{new ImaginaryQuadraticInteger(2, 1, ringZi), 
+            null, 
+            null, 
+            new ImaginaryQuadraticInteger(1, 1, ringO7, 2), 
+            new ImaginaryQuadraticInteger(-1, -1, ringO7, 2)};
+        for (int i = 0; i < intDivisors.length; i++) {
+            dividend = intDividends[i];
+            result = dividend.tryDivides(intDivisors[i]);
+            assertEquals("Dividing " + dividend.toASCIIString() + " by " + intDivisors[i], expectedQuotients[i], result);
+            try {
+                ImaginaryQuadraticInteger quotient = dividend.divides(intDivisors[i]);
+                assertNotNull("tryDivides gave null for " + dividend.toASCIIString() + " by " + intDivisors[i] + " but divides gave " + quotient.toASCIIString(), result);
+            } catch (NotDivisibleException nde) {
+                assertNull("divides threw for " + dividend.toASCIIString() + " by " + intDivisors[i] + " but tryDivides gave " + result, result);
+            }
+        }
+        dividend = new ImaginaryQuadraticInteger(6, 3, ringZi);
+        result = dividend.tryDivides(new ImaginaryQuadraticInteger(3, 0, ringZ2));
+        assertEquals(new ImaginaryQuadraticInteger(2, 1, ringZi), result);
+        dividend = new ImaginaryQuadraticInteger(5, 0, ringZ2);
+        result = dividend.tryDivides(new ImaginaryQuadraticInteger(2, 1, ringZi));
+        assertEquals(new ImaginaryQuadraticInteger(2, -1, ringZi), result);
+        assertEquals(ringZi, result.getRing());
+        assertNull(new ImaginaryQuadraticInteger(7, 0, ringZ2).tryDivides(new ImaginaryQuadraticInteger(2, 1, ringZi)));
+        try {
+            result = new ImaginaryQuadraticInteger(1, 1, ringZi).tryDivides(new ImaginaryQuadraticInteger(1, 1, ringZ2));
+            fail("Dividing 1 + i by 1 + sqrt(-2) should have caused an exception, not given " + result);
+        } catch (AlgebraicDegreeOverflowException adoe) {
+            System.out.println("Dividing 1 + i by 1 + sqrt(-2) correctly caused AlgebraicDegreeOverflowException \"" + adoe.getMessage() + "\"");
+        }
+        ImaginaryQuadraticInteger zero = new ImaginaryQuadraticInteger(0, 0, ringZi);
+        try {
+            result = dividend.tryDivides(zero);
+            fail("Dividing by 0 should have caused an exception, not given " + result);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Dividing by 0 correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+        try {
+            result = dividend.tryDivides(0);
+            fail("Dividing by int 0 should have caused an exception, not given " + result);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Dividing by int 0 correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+        try {
+            result = dividend.divides(zero);
+            fail("Dividing by 0 should have caused an exception, not given " + result);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("divides by 0 likewise caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        } catch (NotDivisibleException nde) {
+            fail("Dividing by 0 should have caused IllegalArgumentException, not NotDivisibleException");
+        }
+    }
+    
+    /**
+     * Test of divideAndRemainder method, of class ImaginaryQuadraticInteger. 
+     * In each of the five norm-Euclidean rings, the quotient times the divisor 
+     * plus the remainder should give back the dividend, and the remainder 
+     * should have smaller norm than the divisor. Some of the exact quotients 
+     * here, such as 1/(1 + <i>i</i>) = 1/2 - <i>i</i>/2 in <b>Z</b>[<i>i</i>], 
+     * are as far as can be from any algebraic integer of the ring. The 
+     * primitive variant should agree with the object variant. 
+     * In <b>Z</b>[&radic;-5], <b>Z</b>[&radic;-10] and 
+     * <i>O</i><sub><b>Q</b>(&radic;-163)</sub>, which are not norm-Euclidean, 
+     * both variants should throw NonEuclideanDomainException.
+     */
+    @Test
+    public void testDivideAndRemainder() {
+        System.out.println("divideAndRemainder");
+        int[][] dividendParts = {{7, 0, 1}, {1, 0, 1}, {100, 37, 1}, {-41, 3, 1}, {3, 0, 1}, {21, -13, 1}};
+        int[][] divisorParts = {{2, 1, 1}, {2, 0, 1}, {-5, 2, 1}, {3, 1, 1}, {1, 1, 1}, {0, 4, 1}};
+        int[][] halfIntegerDivisorParts = {{1, 1, 2}, {3, -1, 2}, {-5, 3, 2}};
+        ImaginaryQuadraticInteger dividend, divisor, quotient, remainder;
+        ImaginaryQuadraticInteger[] quotientAndRemainder;
+        long[] parts = new long[4];
+        for (int d : NumberTheoreticFunctionsCalculator.NORM_EUCLIDEAN_QUADRATIC_IMAGINARY_RINGS_D) {
+            ImaginaryQuadraticRing ring = ImaginaryQuadraticRing.of(d);
+            List<ImaginaryQuadraticInteger> divisors = new ArrayList<>();
+            for (int[] divisorPart : divisorParts) {
+                divisors.add(new ImaginaryQuadraticInteger(divisorPart[0], divisorPart[1], ring, divisorPart[2]));
+            }
+            if (ring.hasHalfIntegers()) {
+                for (int[] divisorPart : halfIntegerDivisorParts) {
+                    divisors.add(new ImaginaryQuadraticInteger(divisorPart[0], divisorPart[1], ring, divisorPart[2]));
+                }
+            }
+            for (int[] dividendPart : dividendParts) {
+                dividend = new ImaginaryQuadraticInteger(dividendPart[0], dividendPart[1], ring, dividendPart[2]);
+                for (ImaginaryQuadraticInteger currDivisor : divisors) {
+                    String msg = "Dividing " + dividend.toASCIIString() + " by " + currDivisor.toASCIIString();
+                    try {
+                        quotientAndRemainder = dividend.divideAndRemainder(currDivisor);
+                        quotient = quotientAndRemainder[0];
+                        remainder = quotientAndRemainder[1];
+                        assertEquals(msg, dividend, quotient.times(currDivisor).plus(remainder));
+                        assertTrue(msg + " gave remainder " + remainder.toASCIIString() + ", which should have smaller norm than the divisor", remainder.norm() < currDivisor.norm());
+                        dividend.divideAndRemainder(currDivisor, parts);
+                        assertEquals(msg, quotient.getTwiceRealPartMult(), parts[0]);
+                        assertEquals(msg, quotient.getTwiceImagPartMult(), parts[1]);
+                        assertEquals(msg, remainder.getTwiceRealPartMult(), parts[2]);
+                        assertEquals(msg, remainder.getTwiceImagPartMult(), parts[3]);
+                    } catch (NonEuclideanDomainException nede) {
+                        fail("NonEuclideanDomainException should not have happened for " + ring.toASCIIString() + ": " + nede.getMessage());
+                    }
+                }
+            }
+        }
+        ImaginaryQuadraticRing ringZi = ImaginaryQuadraticRing.of(-1);
+        dividend = new ImaginaryQuadraticInteger(7, 0, ringZi);
+        divisor = new ImaginaryQuadraticInteger(2, 1, ringZi);
+        try {
+            quotientAndRemainder = dividend.divideAndRemainder(divisor);
+            assertEquals(new ImaginaryQuadraticInteger(3, -1, ringZi), quotientAndRemainder[0]);
+            assertEquals(new ImaginaryQuadraticInteger(0, -1, ringZi), quotientAndRemainder[1]);
+            quotientAndRemainder = dividend.times(divisor).divideAndRemainder(divisor);
+            assertEquals(dividend, quotientAndRemainder[0]);
+            assertEquals(new ImaginaryQuadraticInteger(0, 0, ringZi), quotientAndRemainder[1]);
+            quotientAndRemainder = dividend.divideAndRemainder(new ImaginaryQuadraticInteger(0, 0, ringZi));
+            fail("Dividing by 0 should have caused an exception, not given " + quotientAndRemainder[0] + " remainder " + quotientAndRemainder[1]);
+        } catch (NonEuclideanDomainException nede) {
+            fail("NonEuclideanDomainException should not have happened for Gaussian integers: " + nede.getMessage());
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Dividing by 0 correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+        try {
+            dividend.divideAndRemainder(divisor, new long[3]);
+            fail("Output array of 3 should have caused an exception");
+        } catch (NonEuclideanDomainException nede) {
+            fail("NonEuclideanDomainException should not have happened for Gaussian integers: " + nede.getMessage());
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Output array of 3 correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+        for (int d : new int[]{-5, -10, -163}) {
+            ImaginaryQuadraticRing ring = ImaginaryQuadraticRing.of(d);
+            dividend = new ImaginaryQuadraticInteger(29, 0, ring);
+            divisor = new ImaginaryQuadraticInteger(12, 8, ring);
+            try {
+                quotientAndRemainder = dividend.divideAndRemainder(divisor);
+                fail("Dividing in " + ring.toASCIIString() + " should have caused NonEuclideanDomainException, not given " + quotientAndRemainder[0] + " remainder " + quotientAndRemainder[1]);
+            } catch (NonEuclideanDomainException nede) {
+                System.out.println("Dividing " + dividend.toASCIIString() + " by " + divisor.toASCIIString() + " correctly caused NonEuclideanDomainException \"" + nede.getMessage() + "\"");
+            }
+            try {
+                dividend.divideAndRemainder(divisor, parts);
+                fail("Dividing in " + ring.toASCIIString() + " should have caused NonEuclideanDomainException, not given " + Arrays.toString(parts));
+            } catch (NonEuclideanDomainException nede) {
+                System.out.println("Primitive variant in " + ring.toASCIIString() + " also caused NonEuclideanDomainException");
+            }
+        }
+    }
+    
+    /**
+     * Test of pow method, of class ImaginaryQuadraticInteger. Any number to 
+     * the power 0, even 0, should be 1. A negative exponent should cause 
+     * IllegalArgumentException. A power that needs more than 32 bits, even in 
+     * just the imaginary part, should cause ArithmeticException rather than 
+     * wrapping around the way times does, whether the power fits in 64 bits or 
+     * not.
+     */
+    @Test
+    public void testPow() {
+        System.out.println("pow");
+        ImaginaryQuadraticRing ringZi = new ImaginaryQuadraticRing(-1);
+        ImaginaryQuadraticRing ringZw = new ImaginaryQuadraticRing(-3);
+        ImaginaryQuadraticRing ringO7 = new ImaginaryQuadraticRing(-7);
+        ImaginaryQuadraticInteger[] nums = {new ImaginaryQuadraticInteger(0, 0, ringZi), 
+            new ImaginaryQuadraticInteger(1, 1, ringZi), 
+            new ImaginaryQuadraticInteger(-1, 1, ringZw, 2), 
+            new ImaginaryQuadraticInteger(1, 1, ringO7, 2), 
+            new ImaginaryQuadraticInteger(Integer.MAX_VALUE, Integer.MIN_VALUE, ringZi)};
+        for (ImaginaryQuadraticInteger num : nums) {
+            assertEquals("Power 0 of " + num.toASCIIString(), new ImaginaryQuadraticInteger(1, 0, num.getRing()), num.pow(0));
+            assertEquals("Power 1 of " + num.toASCIIString(), num, num.pow(1));
+        }
+        ImaginaryQuadraticInteger num = new ImaginaryQuadraticInteger(1, 1, ringZi);
+        assertEquals(new ImaginaryQuadraticInteger(-2, 2, ringZi), num.pow(3));
+        assertEquals(new ImaginaryQuadraticInteger(1 << 16, 0, ringZi), num.pow(32));
+        assertEquals(new ImaginaryQuadraticInteger(-(1 << 30), 0, ringZi), num.pow(60));
+        assertEquals(new ImaginaryQuadraticInteger(0, Integer.MIN_VALUE, ringZi), num.pow(62));
+        ImaginaryQuadraticInteger omega = new ImaginaryQuadraticInteger(-1, 1, ringZw, 2);
+        assertEquals(new ImaginaryQuadraticInteger(1, 0, ringZw), omega.pow(3));
+        assertEquals(omega, omega.pow(1000000000));
+        assertEquals(new ImaginaryQuadraticInteger(-3, 1, ringO7, 2), new ImaginaryQuadraticInteger(1, 1, ringO7, 2).pow(2));
+        ImaginaryQuadraticInteger[] overflowNums = {num, new ImaginaryQuadraticInteger(1000, 1000, ringZi), new ImaginaryQuadraticInteger(1 << 20, 0, ringZi)};
+        int[] overflowExponents = {64, 4, 5};
+        for (int i = 0; i < overflowNums.length; i++) {
+            try {
+                ImaginaryQuadraticInteger result = overflowNums[i].pow(overflowExponents[i]);
+                fail("Power " + overflowExponents[i] + " of " + overflowNums[i].toASCIIString() + " should have caused an exception, not given " + result.toASCIIString());
+            } catch (ArithmeticException ae) {
+                System.out.println("Power " + overflowExponents[i] + " of " + overflowNums[i].toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+            }
+        }
+        try {
+            ImaginaryQuadraticInteger result = num.pow(-1);
+            fail("Negative power of " + num.toASCIIString() + " should have caused an exception, not given " + result.toASCIIString());
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Negative power of " + num.toASCIIString() + " correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of modPow method, of class ImaginaryQuadraticInteger. With a modulus 
+     * that is not purely real, the residue should differ from the power 
+     * worked out by repeated multiplication by a multiple of the modulus, and 
+     * it should already be reduced. Some residues are worked out by hand: 
+     * since <i>i</i> &equiv; 5 modulo 3 + 2<i>i</i>, 1 + <i>i</i> &equiv; 6, 
+     * and since &radic;-2 &equiv; -1 modulo 1 + &radic;-2, 1 + 2&radic;-2 
+     * &equiv; -1 &equiv; 2. Also checks the analogue of Fermat's little theorem 
+     * for an inert prime and a split prime.
+     */
+    @Test
+    public void testModPow() {
+        System.out.println("modPow");
+        ImaginaryQuadraticRing ringZi = new ImaginaryQuadraticRing(-1);
+        ImaginaryQuadraticRing ringZ2 = new ImaginaryQuadraticRing(-2);
+        ImaginaryQuadraticRing ringZw = new ImaginaryQuadraticRing(-3);
+        ImaginaryQuadraticRing ringZ5 = new ImaginaryQuadraticRing(-5);
+        ImaginaryQuadraticRing ringO7 = new ImaginaryQuadraticRing(-7);
+        ImaginaryQuadraticInteger[][] numsAndModuli = {{new ImaginaryQuadraticInteger(1, 1, ringZi), new ImaginaryQuadraticInteger(3, 2, ringZi)}, 
+            {new ImaginaryQuadraticInteger(4, -7, ringZi), new ImaginaryQuadraticInteger(5, 5, ringZi)}, 
+            {new ImaginaryQuadraticInteger(1, 2, ringZ2), new ImaginaryQuadraticInteger(1, 1, ringZ2)}, 
+            {new ImaginaryQuadraticInteger(-1, 1, ringZw, 2), new ImaginaryQuadraticInteger(5, 3, ringZw, 2)}, 
+            {new ImaginaryQuadraticInteger(3, 2, ringZ5), new ImaginaryQuadraticInteger(1, 3, ringZ5)}, 
+            {new ImaginaryQuadraticInteger(1, 1, ringO7, 2), new ImaginaryQuadraticInteger(3, -1, ringO7, 2)}, 
+            {new ImaginaryQuadraticInteger(7, 0, ringZi), new ImaginaryQuadraticInteger(0, 4, ringZi)}};
+        ImaginaryQuadraticInteger num, modulus, power, residue;
+        for (ImaginaryQuadraticInteger[] numAndModulus : numsAndModuli) {
+            num = numAndModulus[0];
+            modulus = numAndModulus[1];
+            power = new ImaginaryQuadraticInteger(1, 0, num.getRing());
+            for (int exponent = 0; exponent < 8; exponent++) {
+                residue = num.modPow(exponent, modulus);
+                String msg = "Power " + exponent + " of " + num.toASCIIString() + " modulo " + modulus.toASCIIString();
+                try {
+                    power.minus(residue).divides(modulus);
+                } catch (NotDivisibleException nde) {
+                    fail(msg + " gave " + residue.toASCIIString() + ", which is not congruent to " + power.toASCIIString());
+                }
+                assertEquals(msg, residue, residue.modPow(1, modulus));
+                power = power.times(num);
+            }
+        }
+        num = new ImaginaryQuadraticInteger(1, 1, ringZi);
+        modulus = new ImaginaryQuadraticInteger(3, 2, ringZi);
+        assertEquals(new ImaginaryQuadraticInteger(2, 0, ringZi), num.modPow(5, modulus));
+        assertEquals(new ImaginaryQuadraticInteger(9, 0, ringZi), num.modPow(100, modulus));
+        num = new ImaginaryQuadraticInteger(1, 2, ringZ2);
+        modulus = new ImaginaryQuadraticInteger(1, 1, ringZ2);
+        assertEquals(new ImaginaryQuadraticInteger(2, 0, ringZ2), num.modPow(3, modulus));
+        ImaginaryQuadraticInteger one = new ImaginaryQuadraticInteger(1, 0, ringZi);
+        num = new ImaginaryQuadraticInteger(1, 1, ringZi);
+        assertEquals(one, num.modPow(8, 3));
+        modulus = new ImaginaryQuadraticInteger(2, 1, ringZi);
+        assertEquals(one, num.modPow(4, modulus));
+        for (int a = 0; a < 7; a++) {
+            for (int b = 0; b < 7; b++) {
+                num = new ImaginaryQuadraticInteger(a, b, ringZi);
+                if (a != 0 || b != 0) {
+                    assertEquals("Fermat for " + num.toASCIIString() + " modulo 7", one, num.modPow(48, 7));
+                }
+                if ((2 * a + b) % 5 != 0 || (2 * b - a) % 5 != 0) {
+                    assertEquals("Fermat for " + num.toASCIIString() + " modulo 2 + i", one, num.modPow(4000000000L, modulus));
+                }
+            }
+        }
+        try {
+            residue = one.modPow(2, 0);
+            fail("Modulus 0 should have caused an exception, not given " + residue.toASCIIString());
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Modulus 0 correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+        try {
+            residue = one.modPow(-1, modulus);
+            fail("Negative exponent should have caused an exception, not given " + residue.toASCIIString());
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Negative exponent correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+    }
+    
     /**
      * Test of ImaginaryQuadraticInteger class constructor. The main thing we're 
      * testing here is that an invalid argument triggers an 
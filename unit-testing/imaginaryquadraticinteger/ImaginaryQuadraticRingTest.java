@@ -133,6 +133,156 @@ public class ImaginaryQuadraticRingTest {
         assertEquals(assertionMessage, ringRandomd1mod4, ringRandom.hasHalfIntegers());
     }
 
+    /**
+     * Test of splittingType method, of class ImaginaryQuadraticRing. In 
+     * <b>Z</b>[<i>i</i>], 2 ramifies, primes congruent to 1 modulo 4 split and 
+     * primes congruent to 3 modulo 4 are inert. In <b>Z</b>[&radic;-2], primes 
+     * congruent to 1 or 3 modulo 8 split and 5 or 7 modulo 8 are inert. For 
+     * the random ring, the result should match the Kronecker symbol of the 
+     * discriminant, including for primes beyond the table.
+     */
+    @Test
+    public void testSplittingType() {
+        System.out.println("splittingType");
+        assertEquals(ImaginaryQuadraticRing.PRIME_RAMIFIED, ringGaussian.splittingType(2));
+        assertEquals(ImaginaryQuadraticRing.PRIME_RAMIFIED, ringZi2.splittingType(2));
+        assertEquals(ImaginaryQuadraticRing.PRIME_INERT, ringEisenstein.splittingType(2));
+        assertEquals(ImaginaryQuadraticRing.PRIME_SPLIT, ringOQi7.splittingType(2));
+        assertEquals(ImaginaryQuadraticRing.PRIME_RAMIFIED, ringOQi7.splittingType(-7));
+        byte expected;
+        String assertionMessage;
+        for (int p = 3; p < 1000; p += 2) {
+            if (NumberTheoreticFunctionsCalculator.isPrime(p)) {
+                expected = (p % 4 == 1) ? ImaginaryQuadraticRing.PRIME_SPLIT : ImaginaryQuadraticRing.PRIME_INERT;
+                assertionMessage = p + " should be " + ((expected == 1) ? "split" : "inert") + " in " + ringGaussian.toASCIIString();
+                assertEquals(assertionMessage, expected, ringGaussian.splittingType(p));
+                expected = (p % 8 == 1 || p % 8 == 3) ? ImaginaryQuadraticRing.PRIME_SPLIT : ImaginaryQuadraticRing.PRIME_INERT;
+                assertionMessage = p + " should be " + ((expected == 1) ? "split" : "inert") + " in " + ringZi2.toASCIIString();
+                assertEquals(assertionMessage, expected, ringZi2.splittingType(p));
+            }
+        }
+        int discr = ringRandomd1mod4 ? randomDiscr : 4 * randomDiscr;
+        int[] primes = {3, 5, 7, 11, 8191, 131071, 1048573, 2147483647};
+        for (int p : primes) {
+            expected = NumberTheoreticFunctionsCalculator.symbolKronecker(discr, p);
+            assertionMessage = "Splitting type of " + p + " in " + ringRandom.toASCIIString() + " should match Kronecker(" + discr + ", " + p + ")";
+            assertEquals(assertionMessage, expected, ringRandom.splittingType(p));
+        }
+        try {
+            byte result = ringGaussian.splittingType(15);
+            fail("splittingType(15) should have caused IllegalArgumentException, not given " + result + ".");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("splittingType(15) correctly triggered IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of isNorm method, of class ImaginaryQuadraticRing. In 
+     * <b>Z</b>[<i>i</i>], the norms are the sums of two squares. In 
+     * <b>Z</b>[&radic;-5], 6 and 9 are norms but 2 and 3 are not. Asking a 
+     * second time should give the same answer.
+     */
+    @Test
+    public void testIsNorm() {
+        System.out.println("isNorm");
+        String assertionMessage;
+        boolean expected;
+        for (long n = 0; n < 200; n++) {
+            expected = false;
+            for (long x = 0; x * x <= n; x++) {
+                long rem = n - x * x;
+                long y = (long) Math.sqrt(rem);
+                expected = expected || (y * y == rem);
+            }
+            assertionMessage = n + " should " + (expected ? "" : "not ") + "be a norm in " + ringGaussian.toASCIIString();
+            assertEquals(assertionMessage, expected, ringGaussian.isNorm(n));
+            assertEquals(assertionMessage, expected, ringGaussian.isNorm(n));
+        }
+        ImaginaryQuadraticRing ringZi5 = new ImaginaryQuadraticRing(-5);
+        assertTrue(ringZi5.isNorm(6));
+        assertTrue(ringZi5.isNorm(9));
+        assertFalse(ringZi5.isNorm(2));
+        assertFalse(ringZi5.isNorm(3));
+        assertFalse(ringZi5.isNorm(-6));
+        assertTrue(ringEisenstein.isNorm(7));
+        assertFalse(ringEisenstein.isNorm(2));
+        assertTrue(ringOQi7.isNorm(2));
+        assertFalse(ringOQi7.isNorm(3));
+    }
+    
+    /**
+     * Test of classNumber method, of class ImaginaryQuadraticRing. The rings 
+     * with class number 1 should be exactly those for the Heegner numbers. A 
+     * few other class numbers are checked against published tables.
+     */
+    @Test
+    public void testClassNumber() {
+        System.out.println("classNumber");
+        assertEquals(1, ringGaussian.classNumber());
+        assertEquals(1, ringZi2.classNumber());
+        assertEquals(1, ringEisenstein.classNumber());
+        assertEquals(1, ringOQi7.classNumber());
+        int[] ds = {-5, -6, -10, -14, -15, -17, -21, -23, -26, -47, -71, -199, -907};
+        int[] expResults = {2, 2, 2, 4, 2, 4, 4, 3, 6, 5, 7, 9, 3};
+        String assertionMessage;
+        ImaginaryQuadraticRing ring;
+        for (int i = 0; i < ds.length; i++) {
+            ring = new ImaginaryQuadraticRing(ds[i]);
+            assertionMessage = "Class number of " + ring.toASCIIString() + " should be " + expResults[i];
+            assertEquals(assertionMessage, expResults[i], ring.classNumber());
+            assertEquals(assertionMessage, expResults[i], ring.classNumber());
+        }
+        int heegnerIndex = NumberTheoreticFunctionsCalculator.HEEGNER_NUMBERS.length - 1;
+        for (int d = -1; d > -1000; d--) {
+            if (NumberTheoreticFunctionsCalculator.isSquareFree(d)) {
+                ring = new ImaginaryQuadraticRing(d);
+                if (heegnerIndex >= 0 && d == NumberTheoreticFunctionsCalculator.HEEGNER_NUMBERS[heegnerIndex]) {
+                    assertionMessage = ring.toASCIIString() + " should have class number 1";
+                    assertEquals(assertionMessage, 1, ring.classNumber());
+                    heegnerIndex--;
+                } else {
+                    assertionMessage = ring.toASCIIString() + " should have class number greater than 1";
+                    assertTrue(assertionMessage, ring.classNumber() > 1);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Test of classNumberSurvey method, of class ImaginaryQuadraticRing. Each 
+     * class number in the survey should match what classNumber gives for the 
+     * same ring, and positions for numbers that are not squarefree should be 
+     * 0. Bounds outside the allowed range should cause an exception.
+     */
+    @Test
+    public void testClassNumberSurvey() {
+        System.out.println("classNumberSurvey");
+        int[] expResult = {0, 1, 1, 1, 0, 2, 2, 1, 0, 0, 2};
+        assertArrayEquals(expResult, ImaginaryQuadraticRing.classNumberSurvey(-10));
+        int bound = -5000;
+        int[] result = ImaginaryQuadraticRing.classNumberSurvey(bound);
+        assertEquals(1 - bound, result.length);
+        String assertionMessage;
+        for (int d = -1; d >= bound; d--) {
+            if (NumberTheoreticFunctionsCalculator.isSquareFree(d)) {
+                assertionMessage = "Survey should match classNumber() for d = " + d;
+                assertEquals(assertionMessage, new ImaginaryQuadraticRing(d).classNumber(), result[-d]);
+            } else {
+                assertionMessage = "Survey should have 0 for d = " + d + " since it's not squarefree";
+                assertEquals(assertionMessage, 0, result[-d]);
+            }
+        }
+        int[] badBounds = {0, 7, ImaginaryQuadraticRing.CLASS_NUMBER_SURVEY_BOUND - 1};
+        for (int badBound : badBounds) {
+            try {
+                result = ImaginaryQuadraticRing.classNumberSurvey(badBound);
+                fail("Bound " + badBound + " should have caused IllegalArgumentException, not given an array of length " + result.length);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("Bound " + badBound + " correctly triggered IllegalArgumentException \"" + iae.getMessage() + "\"");
+            }
+        }
+    }
+    
     /**
      * Test of preferBlackboardBold method, of class ImaginaryQuadraticRing.
      * Without arguments, preferBlackboardBold is the getter method. With 
@@ -411,4 +561,31 @@ public class ImaginaryQuadraticRingTest {
         }
     }
     
+/**
+     * Test of of method, of class ImaginaryQuadraticRing. The same <i>d</i> 
+     * should give the same ring object, equal to a ring from the constructor, 
+     * and an invalid <i>d</i> should still cause IllegalArgumentException.
+     */
+    @Test
+    public void testOf() {
+        System.out.println("of");
+        for (int d : new int[]{-1, -2, -3, -5, -7, -10, -163}) {
+            ImaginaryQuadraticRing ring = ImaginaryQuadraticRing.of(d);
+            assertSame(ring, ImaginaryQuadraticRing.of(d));
+            assertEquals(new ImaginaryQuadraticRing(d), ring);
+            assertEquals(d, ring.getNegRad());
+            assertSame(ring.units(), ImaginaryQuadraticRing.of(d).units());
+        }
+        assertSame(NumberTheoreticFunctionsCalculator.RING_GAUSSIAN, ImaginaryQuadraticRing.of(-1));
+        assertEquals(4, ImaginaryQuadraticRing.of(-1).units().length);
+        assertEquals(6, ImaginaryQuadraticRing.of(-3).units().length);
+        assertEquals(2, ImaginaryQuadraticRing.of(-5).units().length);
+        try {
+            ImaginaryQuadraticRing ring = ImaginaryQuadraticRing.of(-12);
+            fail("Attempt to use -12 should have caused an IllegalArgumentException, not given " + ring.toASCIIString());
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Attempt to use -12 correctly triggered IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+    }
+    
 }
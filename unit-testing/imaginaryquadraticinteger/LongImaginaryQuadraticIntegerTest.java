@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the LongImaginaryQuadraticInteger class.
+ * @author Alonso del Arte
+ */
+public class LongImaginaryQuadraticIntegerTest {
+    
+    /**
+     * Test of norm method, of class LongImaginaryQuadraticInteger. Norms past 
+     * the range of int should be right, and norms past the range of long 
+     * should cause ArithmeticException rather than a wrong answer.
+     */
+    @Test
+    public void testNorm() {
+        System.out.println("norm");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-1);
+        LongImaginaryQuadraticInteger num = new LongImaginaryQuadraticInteger(100000, 100000, ring);
+        assertEquals(20000000000L, num.norm());
+        num = new LongImaginaryQuadraticInteger(1L << 31, 1, new ImaginaryQuadraticRing(-7));
+        assertEquals((1L << 62) + 7, num.norm());
+        num = new LongImaginaryQuadraticInteger(3037000499L, 1, new ImaginaryQuadraticRing(-7), 2);
+        assertEquals((3037000499L * 3037000499L + 7) / 4, num.norm());
+        num = new LongImaginaryQuadraticInteger(1L << 32, 1L << 31, ring);
+        try {
+            long result = num.norm();
+            fail("Norm of " + num.toASCIIString() + " should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("Norm of " + num.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of plus and minus methods, of class LongImaginaryQuadraticInteger, 
+     * with sums and differences that don't fit in an int.
+     */
+    @Test
+    public void testPlusMinusBeyondInt() {
+        System.out.println("plus, minus beyond int");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-2);
+        LongImaginaryQuadraticInteger num = new LongImaginaryQuadraticInteger(Integer.MAX_VALUE, Integer.MAX_VALUE, ring);
+        LongImaginaryQuadraticInteger one = new LongImaginaryQuadraticInteger(1, 0, ring);
+        LongImaginaryQuadraticInteger sum = num.plus(new LongImaginaryQuadraticInteger(1, 1, ring));
+        assertEquals(new LongImaginaryQuadraticInteger(1L << 31, 1L << 31, ring), sum);
+        assertFalse(sum.fitsInInt());
+        assertEquals(num, sum.minus(new LongImaginaryQuadraticInteger(1, 1, ring)));
+        assertTrue(sum.minus(new LongImaginaryQuadraticInteger(1, 1, ring)).fitsInInt());
+        LongImaginaryQuadraticInteger difference = new LongImaginaryQuadraticInteger(Integer.MIN_VALUE, 0, ring).minus(one);
+        assertEquals(Integer.MIN_VALUE - 1L, difference.getRealPartMult());
+        assertFalse(difference.fitsInInt());
+        ring = new ImaginaryQuadraticRing(-7);
+        LongImaginaryQuadraticInteger x = new LongImaginaryQuadraticInteger((1L << 32) + 1, 3, ring, 2);
+        LongImaginaryQuadraticInteger y = new LongImaginaryQuadraticInteger((1L << 32) - 1, 1, ring, 2);
+        assertEquals(new LongImaginaryQuadraticInteger(1L << 32, 2, ring), x.plus(y));
+        assertEquals(new LongImaginaryQuadraticInteger(1, 1, ring), x.minus(y));
+        assertEquals(new LongImaginaryQuadraticInteger((1L << 32) + 3, 3, ring, 2), x.plus(one));
+    }
+    
+    /**
+     * Test of plus, minus, conjugate and trace methods, of class 
+     * LongImaginaryQuadraticInteger, near the limits of long. Results that fit 
+     * should be exact even if a sum of twice the parts would not fit, and 
+     * results that don't fit should cause ArithmeticException.
+     */
+    @Test
+    public void testPlusMinusNearLongLimits() {
+        System.out.println("plus, minus, conjugate, trace near long limits");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-7);
+        LongImaginaryQuadraticInteger one = new LongImaginaryQuadraticInteger(1, 0, ring);
+        LongImaginaryQuadraticInteger maxRe = new LongImaginaryQuadraticInteger(Long.MAX_VALUE, 0, ring);
+        LongImaginaryQuadraticInteger minRe = new LongImaginaryQuadraticInteger(Long.MIN_VALUE, 0, ring);
+        assertEquals(maxRe, new LongImaginaryQuadraticInteger(Long.MAX_VALUE - 1, 0, ring).plus(one));
+        assertEquals(minRe, new LongImaginaryQuadraticInteger(Long.MIN_VALUE + 1, 0, ring).minus(one));
+        assertEquals(new LongImaginaryQuadraticInteger(-1, 0, ring), maxRe.plus(minRe));
+        LongImaginaryQuadraticInteger half = new LongImaginaryQuadraticInteger(Long.MAX_VALUE, 1, ring, 2);
+        assertEquals(new LongImaginaryQuadraticInteger(Long.MAX_VALUE, 1, ring), half.plus(half));
+        assertEquals(maxRe, half.plus(half.conjugate()));
+        assertEquals(Long.MAX_VALUE, half.trace());
+        LongImaginaryQuadraticInteger negHalf = new LongImaginaryQuadraticInteger(-Long.MAX_VALUE, -1, ring, 2);
+        assertEquals(new LongImaginaryQuadraticInteger(Long.MIN_VALUE + 1, -1, ring), negHalf.plus(negHalf));
+        assertEquals(new LongImaginaryQuadraticInteger(0, 1, ring), half.plus(negHalf.conjugate()));
+        LongImaginaryQuadraticInteger minIm = new LongImaginaryQuadraticInteger(0, Long.MIN_VALUE, ring);
+        try {
+            LongImaginaryQuadraticInteger result = maxRe.plus(one);
+            fail("Adding 1 to " + maxRe.toASCIIString() + " should have caused an exception, not given " + result.toASCIIString());
+        } catch (ArithmeticException ae) {
+            System.out.println("Adding 1 to " + maxRe.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            LongImaginaryQuadraticInteger result = minRe.minus(one);
+            fail("Subtracting 1 from " + minRe.toASCIIString() + " should have caused an exception, not given " + result.toASCIIString());
+        } catch (ArithmeticException ae) {
+            System.out.println("Subtracting 1 from " + minRe.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            LongImaginaryQuadraticInteger result = half.plus(one);
+            fail("Adding 1 to " + half.toASCIIString() + " should have caused an exception, not given " + result.toASCIIString());
+        } catch (ArithmeticException ae) {
+            System.out.println("Adding 1 to " + half.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            LongImaginaryQuadraticInteger result = minIm.conjugate();
+            fail("Conjugating " + minIm.toASCIIString() + " should have caused an exception, not given " + result.toASCIIString());
+        } catch (ArithmeticException ae) {
+            System.out.println("Conjugating " + minIm.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            long result = maxRe.trace();
+            fail("Trace of " + maxRe.toASCIIString() + " should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("Trace of " + maxRe.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of times method, of class LongImaginaryQuadraticInteger, with 
+     * products that don't fit in an int but do fit in a long, and products 
+     * that don't fit in a long.
+     */
+    @Test
+    public void testTimesBeyondInt() {
+        System.out.println("times beyond int");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-2);
+        LongImaginaryQuadraticInteger num = new LongImaginaryQuadraticInteger(65536, 65536, ring);
+        LongImaginaryQuadraticInteger expResult = new LongImaginaryQuadraticInteger(-(1L << 32), 1L << 33, ring);
+        LongImaginaryQuadraticInteger result = num.times(num);
+        assertEquals(expResult, result);
+        assertFalse(result.fitsInInt());
+        try {
+            ImaginaryQuadraticInteger tooBig = result.toImaginaryQuadraticInteger();
+            fail("Converting " + result.toASCIIString() + " should have caused an exception, not given " + tooBig.toASCIIString());
+        } catch (ArithmeticException ae) {
+            System.out.println("Converting " + result.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            LongImaginaryQuadraticInteger tooBig = result.times(result);
+            fail("Squaring " + result.toASCIIString() + " should have caused an exception, not given " + tooBig.toASCIIString());
+        } catch (ArithmeticException ae) {
+            System.out.println("Squaring " + result.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        LongImaginaryQuadraticInteger other = new LongImaginaryQuadraticInteger(1, 1, new ImaginaryQuadraticRing(-3));
+        try {
+            LongImaginaryQuadraticInteger mixed = num.times(other);
+            fail("Multiplying numbers from different rings should have caused an exception, not given " + mixed.toASCIIString());
+        } catch (AlgebraicDegreeOverflowException adoe) {
+            System.out.println("Multiplying numbers from different rings correctly caused AlgebraicDegreeOverflowException \"" + adoe.getMessage() + "\"");
+        }
+        num = new LongImaginaryQuadraticInteger(46341, 0, ring);
+        assertEquals(new LongImaginaryQuadraticInteger(2147488281L, 0, ring), num.times(num));
+        num = new LongImaginaryQuadraticInteger(3037000499L, 0, ring);
+        assertEquals(new LongImaginaryQuadraticInteger(9223372030926249001L, 0, ring), num.times(num));
+        num = new LongImaginaryQuadraticInteger(1L << 32, 0, ring);
+        LongImaginaryQuadraticInteger factor = new LongImaginaryQuadraticInteger(0, Integer.MAX_VALUE, ring);
+        assertEquals(new LongImaginaryQuadraticInteger(0, 9223372032559808512L, ring), num.times(factor));
+        factor = new LongImaginaryQuadraticInteger(0, 1L << 31, ring);
+        try {
+            LongImaginaryQuadraticInteger tooBig = num.times(factor);
+            fail("Multiplying " + num.toASCIIString() + " by " + factor.toASCIIString() + " should have caused an exception, not given " + tooBig.toASCIIString());
+        } catch (ArithmeticException ae) {
+            System.out.println("Multiplying " + num.toASCIIString() + " by " + factor.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+    }
+    
+/**
+     * Test of pow method, of class LongImaginaryQuadraticInteger. Powers of 1 + 
+     * i go past int at (1 + i)^64 = 2^32, reach -2^63i exactly at 
+     * (1 + i)^126, and should cause ArithmeticException after that.
+     */
+    @Test
+    public void testPowBeyondInt() {
+        System.out.println("pow beyond int");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-1);
+        LongImaginaryQuadraticInteger num = new LongImaginaryQuadraticInteger(1, 1, ring);
+        assertEquals(new LongImaginaryQuadraticInteger(1L << 32, 0, ring), num.pow(64));
+        assertEquals(new LongImaginaryQuadraticInteger(-(1L << 62), 0, ring), num.pow(124));
+        assertEquals(new LongImaginaryQuadraticInteger(0, Long.MIN_VALUE, ring), num.pow(126));
+        int[] exponents = {127, 128};
+        for (int exponent : exponents) {
+            try {
+                LongImaginaryQuadraticInteger result = num.pow(exponent);
+                fail("Raising " + num.toASCIIString() + " to the " + exponent + " should have caused an exception, not given " + result.toASCIIString());
+            } catch (ArithmeticException ae) {
+                System.out.println("Raising " + num.toASCIIString() + " to the " + exponent + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the MutableImaginaryQuadraticInteger class.
+ * @author Alonso del Arte
+ */
+public class MutableImaginaryQuadraticIntegerTest {
+    
+    /**
+     * Test of multiplyInPlace, addInPlace and divideExactInPlace methods, of 
+     * class MutableImaginaryQuadraticInteger. A number passed as its own 
+     * operand should be read in full before it's overwritten.
+     */
+    @Test
+    public void testAliasing() {
+        System.out.println("multiplyInPlace, addInPlace, divideExactInPlace (aliasing)");
+        ImaginaryQuadraticRing gaussian = new ImaginaryQuadraticRing(-1);
+        ImaginaryQuadraticRing eisenstein = new ImaginaryQuadraticRing(-3);
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-7);
+        MutableImaginaryQuadraticInteger x = new MutableImaginaryQuadraticInteger(2, 3, gaussian);
+        x.multiplyInPlace(x);
+        assertEquals(new ImaginaryQuadraticInteger(-5, 12, gaussian), x.freeze());
+        x.addInPlace(x);
+        assertEquals(new ImaginaryQuadraticInteger(-10, 24, gaussian), x.freeze());
+        x = new MutableImaginaryQuadraticInteger(new ImaginaryQuadraticInteger(1, 1, eisenstein, 2));
+        x.multiplyInPlace(x);
+        assertEquals(new ImaginaryQuadraticInteger(-1, 1, eisenstein, 2), x.freeze());
+        x.addInPlace(x);
+        assertEquals(new ImaginaryQuadraticInteger(-1, 1, eisenstein), x.freeze());
+        assertEquals(1, x.getDenominator());
+        x = new MutableImaginaryQuadraticInteger(new ImaginaryQuadraticInteger(1, 1, ring, 2));
+        MutableImaginaryQuadraticInteger y = new MutableImaginaryQuadraticInteger(x.freeze());
+        x.multiplyInPlace(y);
+        assertEquals(new ImaginaryQuadraticInteger(-3, 1, ring, 2), x.freeze());
+        assertEquals(new ImaginaryQuadraticInteger(1, 1, ring, 2), y.freeze());
+        try {
+            x.divideExactInPlace(x.freeze());
+            assertTrue(x.equalsInt(1));
+        } catch (NotDivisibleException nde) {
+            fail("Dividing a number by itself should not have caused NotDivisibleException \"" + nde.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of addInPlace, multiplyInPlace, divideExactInPlace and 
+     * conjugateInPlace methods, of class MutableImaginaryQuadraticInteger. A 
+     * result that doesn't fit in int should cause ArithmeticException and 
+     * leave the number unchanged.
+     */
+    @Test
+    public void testOverflowLeavesNumberUnchanged() {
+        System.out.println("addInPlace, multiplyInPlace, divideExactInPlace, conjugateInPlace (overflow)");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-2);
+        ImaginaryQuadraticInteger maxRe = new ImaginaryQuadraticInteger(Integer.MAX_VALUE, 1, ring);
+        ImaginaryQuadraticInteger minRe = new ImaginaryQuadraticInteger(Integer.MIN_VALUE, 0, ring);
+        ImaginaryQuadraticInteger maxIm = new ImaginaryQuadraticInteger(1, Integer.MAX_VALUE, ring);
+        ImaginaryQuadraticInteger minIm = new ImaginaryQuadraticInteger(1, Integer.MIN_VALUE, ring);
+        ImaginaryQuadraticInteger big = new ImaginaryQuadraticInteger(65536, 1, ring);
+        ImaginaryQuadraticInteger minusOne = new ImaginaryQuadraticInteger(-1, 0, ring);
+        MutableImaginaryQuadraticInteger acc = new MutableImaginaryQuadraticInteger(maxRe);
+        try {
+            acc.addInPlace(1);
+            fail("Adding 1 to " + maxRe.toASCIIString() + " should have caused an exception, not given " + acc.toASCIIString());
+        } catch (ArithmeticException ae) {
+            assertEquals(maxRe, acc.freeze());
+            System.out.println("Adding 1 to " + maxRe.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        acc.set(maxIm);
+        try {
+            acc.addInPlace(new ImaginaryQuadraticInteger(0, 1, ring));
+            fail("Adding sqrt(-2) to " + maxIm.toASCIIString() + " should have caused an exception, not given " + acc.toASCIIString());
+        } catch (ArithmeticException ae) {
+            assertEquals(maxIm, acc.freeze());
+            System.out.println("Adding sqrt(-2) to " + maxIm.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        acc.set(maxRe);
+        try {
+            acc.multiplyInPlace(2);
+            fail("Doubling " + maxRe.toASCIIString() + " should have caused an exception, not given " + acc.toASCIIString());
+        } catch (ArithmeticException ae) {
+            assertEquals(maxRe, acc.freeze());
+            System.out.println("Doubling " + maxRe.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        acc.set(minRe);
+        try {
+            acc.multiplyInPlace(minRe);
+            fail("Squaring " + minRe.toASCIIString() + " should have caused an exception, not given " + acc.toASCIIString());
+        } catch (ArithmeticException ae) {
+            assertEquals(minRe, acc.freeze());
+            System.out.println("Squaring " + minRe.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        acc.set(big);
+        try {
+            acc.multiplyInPlace(acc);
+            fail("Squaring " + big.toASCIIString() + " in place should have caused an exception, not given " + acc.toASCIIString());
+        } catch (ArithmeticException ae) {
+            assertEquals(big, acc.freeze());
+            System.out.println("Squaring " + big.toASCIIString() + " in place correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        acc.set(minRe);
+        try {
+            acc.divideExactInPlace(-1);
+            fail("Dividing " + minRe.toASCIIString() + " by -1 should have caused an exception, not given " + acc.toASCIIString());
+        } catch (ArithmeticException ae) {
+            assertEquals(minRe, acc.freeze());
+            System.out.println("Dividing " + minRe.toASCIIString() + " by -1 correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        } catch (NotDivisibleException nde) {
+            fail("Dividing " + minRe.toASCIIString() + " by -1 should have caused ArithmeticException, not NotDivisibleException.");
+        }
+        try {
+            acc.divideExactInPlace(minusOne);
+            fail("Dividing " + minRe.toASCIIString() + " by " + minusOne.toASCIIString() + " should have caused an exception, not given " + acc.toASCIIString());
+        } catch (ArithmeticException ae) {
+            assertEquals(minRe, acc.freeze());
+            System.out.println("Dividing " + minRe.toASCIIString() + " by " + minusOne.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        } catch (NotDivisibleException nde) {
+            fail("Dividing " + minRe.toASCIIString() + " by " + minusOne.toASCIIString() + " should have caused ArithmeticException, not NotDivisibleException.");
+        }
+        acc.set(minIm);
+        try {
+            acc.conjugateInPlace();
+            fail("Conjugating " + minIm.toASCIIString() + " should have caused an exception, not given " + acc.toASCIIString());
+        } catch (ArithmeticException ae) {
+            assertEquals(minIm, acc.freeze());
+            System.out.println("Conjugating " + minIm.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of divideExactInPlace method, of class 
+     * MutableImaginaryQuadraticInteger. An exact division should overwrite 
+     * the number with the quotient, but a failed division should throw 
+     * NotDivisibleException with the fraction in lowest terms and leave the 
+     * number unchanged.
+     */
+    @Test
+    public void testDivideExactInPlace() {
+        System.out.println("divideExactInPlace");
+        ImaginaryQuadraticRing gaussian = new ImaginaryQuadraticRing(-1);
+        ImaginaryQuadraticRing eisenstein = new ImaginaryQuadraticRing(-3);
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-7);
+        MutableImaginaryQuadraticInteger acc = new MutableImaginaryQuadraticInteger(10, 0, gaussian);
+        try {
+            acc.divideExactInPlace(new ImaginaryQuadraticInteger(3, 1, gaussian));
+            assertEquals(new ImaginaryQuadraticInteger(3, -1, gaussian), acc.freeze());
+            acc.set(new ImaginaryQuadraticInteger(-1, 1, eisenstein, 2)).divideExactInPlace(new ImaginaryQuadraticInteger(1, 1, eisenstein, 2));
+            assertEquals(new ImaginaryQuadraticInteger(1, 1, eisenstein, 2), acc.freeze());
+            acc.set(new ImaginaryQuadraticInteger(2, 0, ring)).divideExactInPlace(new ImaginaryQuadraticInteger(1, 1, ring, 2));
+            assertEquals(new ImaginaryQuadraticInteger(1, -1, ring, 2), acc.freeze());
+            acc.set(new ImaginaryQuadraticInteger(3, 3, eisenstein, 2)).divideExactInPlace(3);
+            assertEquals(new ImaginaryQuadraticInteger(1, 1, eisenstein, 2), acc.freeze());
+            acc.set(new ImaginaryQuadraticInteger(1, 1, eisenstein)).divideExactInPlace(2);
+            assertEquals(new ImaginaryQuadraticInteger(1, 1, eisenstein, 2), acc.freeze());
+            acc.set(new ImaginaryQuadraticInteger(2, 2, gaussian)).divideExactInPlace(-2);
+            assertEquals(new ImaginaryQuadraticInteger(-1, -1, gaussian), acc.freeze());
+        } catch (NotDivisibleException nde) {
+            fail("NotDivisibleException should not have occurred. " + nde.getMessage());
+        }
+        ImaginaryQuadraticInteger five = new ImaginaryQuadraticInteger(5, 0, gaussian);
+        acc.set(five);
+        try {
+            acc.divideExactInPlace(new ImaginaryQuadraticInteger(3, 1, gaussian));
+            fail("Dividing 5 by 3 + i should have caused NotDivisibleException, not given " + acc.toASCIIString());
+        } catch (NotDivisibleException nde) {
+            assertEquals(3, nde.getResReFractNumer());
+            assertEquals(-1, nde.getResImFractNumer());
+            assertEquals(2, nde.getResFractDenom());
+            assertEquals(five, acc.freeze());
+            System.out.println("Dividing 5 by 3 + i correctly caused NotDivisibleException \"" + nde.getMessage() + "\"");
+        }
+        ImaginaryQuadraticInteger onePlusI = new ImaginaryQuadraticInteger(1, 1, gaussian);
+        acc.set(onePlusI);
+        try {
+            acc.divideExactInPlace(2);
+            fail("Dividing 1 + i by 2 should have caused NotDivisibleException, not given " + acc.toASCIIString());
+        } catch (NotDivisibleException nde) {
+            assertEquals(1, nde.getResReFractNumer());
+            assertEquals(1, nde.getResImFractNumer());
+            assertEquals(2, nde.getResFractDenom());
+            assertEquals(onePlusI, acc.freeze());
+            System.out.println("Dividing 1 + i by 2 correctly caused NotDivisibleException \"" + nde.getMessage() + "\"");
+        }
+        ImaginaryQuadraticInteger omega = new ImaginaryQuadraticInteger(1, 1, eisenstein, 2);
+        acc.set(omega);
+        try {
+            acc.divideExactInPlace(2);
+            fail("Dividing " + omega.toASCIIString() + " by 2 should have caused NotDivisibleException, not given " + acc.toASCIIString());
+        } catch (NotDivisibleException nde) {
+            assertEquals(omega, acc.freeze());
+            assertEquals(2, acc.getDenominator());
+            System.out.println("Dividing " + omega.toASCIIString() + " by 2 correctly caused NotDivisibleException \"" + nde.getMessage() + "\"");
+        }
+        try {
+            acc.divideExactInPlace(0);
+            fail("Dividing by 0 should have caused an exception, not given " + acc.toASCIIString());
+        } catch (IllegalArgumentException iae) {
+            assertEquals(omega, acc.freeze());
+            System.out.println("Dividing by 0 correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        } catch (NotDivisibleException nde) {
+            fail("Dividing by 0 should have caused IllegalArgumentException, not NotDivisibleException.");
+        }
+        try {
+            acc.divideExactInPlace(new ImaginaryQuadraticInteger(0, 0, eisenstein));
+            fail("Dividing by 0 should have caused an exception, not given " + acc.toASCIIString());
+        } catch (IllegalArgumentException iae) {
+            assertEquals(omega, acc.freeze());
+            System.out.println("Dividing by 0 correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        } catch (NotDivisibleException nde) {
+            fail("Dividing by 0 should have caused IllegalArgumentException, not NotDivisibleException.");
+        }
+    }
+    
+    /**
+     * Test of conjugateInPlace method, of class 
+     * MutableImaginaryQuadraticInteger. Conjugating a half-integer should 
+     * keep it in lowest terms with denominator 2, and results that come out 
+     * whole afterwards should go back to denominator 1.
+     */
+    @Test
+    public void testConjugateInPlace() {
+        System.out.println("conjugateInPlace");
+        ImaginaryQuadraticRing eisenstein = new ImaginaryQuadraticRing(-3);
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-7);
+        ImaginaryQuadraticInteger omega = new ImaginaryQuadraticInteger(1, 1, eisenstein, 2);
+        MutableImaginaryQuadraticInteger acc = new MutableImaginaryQuadraticInteger(omega);
+        acc.conjugateInPlace();
+        assertEquals(1, acc.getRealPartMult());
+        assertEquals(-1, acc.getImagPartMult());
+        assertEquals(2, acc.getDenominator());
+        assertEquals(omega.conjugate(), acc.freeze());
+        assertEquals(1L, acc.norm());
+        assertEquals(1L, acc.trace());
+        acc.conjugateInPlace();
+        assertEquals(omega, acc.freeze());
+        acc.conjugateInPlace().multiplyInPlace(omega);
+        assertTrue(acc.equalsInt(1));
+        assertEquals(1, acc.getDenominator());
+        ImaginaryQuadraticInteger num = new ImaginaryQuadraticInteger(3, 5, ring, 2);
+        acc.set(num).conjugateInPlace();
+        assertEquals(new ImaginaryQuadraticInteger(3, -5, ring, 2), acc.freeze());
+        acc.addInPlace(num);
+        assertTrue(acc.equalsInt(3));
+        assertEquals(1, acc.getDenominator());
+        num = new ImaginaryQuadraticInteger(Integer.MAX_VALUE, Integer.MIN_VALUE + 1, eisenstein, 2);
+        acc.set(num).conjugateInPlace();
+        assertEquals(Integer.MAX_VALUE, acc.getRealPartMult());
+        assertEquals(Integer.MAX_VALUE, acc.getImagPartMult());
+        assertEquals(2, acc.getDenominator());
+        assertEquals(num.conjugate(), acc.freeze());
+        acc.set(new ImaginaryQuadraticInteger(1, 1, eisenstein)).conjugateInPlace();
+        assertEquals(new ImaginaryQuadraticInteger(1, -1, eisenstein), acc.freeze());
+        assertEquals(1, acc.getDenominator());
+    }
+    
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the NormComparator class.
+ * @author Alonso del Arte
+ */
+public class NormComparatorTest {
+    
+    /**
+     * Test of compare method, of class NormComparator. Numbers from different 
+     * rings should be compared just as readily as numbers from the same ring.
+     */
+    @Test
+    public void testCompare() {
+        System.out.println("compare");
+        NormComparator instance = new NormComparator();
+        ImaginaryQuadraticRing ringGaussian = new ImaginaryQuadraticRing(-1);
+        ImaginaryQuadraticRing ringOQi7 = new ImaginaryQuadraticRing(-7);
+        ImaginaryQuadraticInteger numA = new ImaginaryQuadraticInteger(4, 1, ringGaussian);
+        ImaginaryQuadraticInteger numB = new ImaginaryQuadraticInteger(-1, 1, ringGaussian);
+        ImaginaryQuadraticInteger numC = new ImaginaryQuadraticInteger(1, 1, ringOQi7, 2);
+        assertTrue("N(4 + i) = 17 should compare greater than N(-1 + i) = 2", instance.compare(numA, numB) > 0);
+        assertTrue("N(-1 + i) = 2 should compare less than N(4 + i) = 17", instance.compare(numB, numA) < 0);
+        assertEquals("N(-1 + i) = 2 = N(1/2 + sqrt(-7)/2)", 0, instance.compare(numB, numC));
+        List<ImaginaryQuadraticInteger> nums = new ArrayList<>();
+        nums.add(numA);
+        nums.add(numB);
+        nums.add(numC);
+        nums.sort(instance);
+        assertEquals(numB, nums.get(0));
+        assertEquals(numC, nums.get(1));
+        assertEquals(numA, nums.get(2));
+    }
+    
+}
@@ -265,4 +265,27 @@ public class NotDivisibleExceptionTest {
         assertEquals(expResult, result);
     }
     
+    /**
+     * Test of getMessage method, of class NotDivisibleException. The message 
+     * put together from the dividend and divisor should read the same as the 
+     * messages that used to be passed in, and no stack trace should be filled 
+     * in.
+     */
+    @Test
+    public void testGetMessage() {
+        System.out.println("getMessage");
+        assertEquals("5 + i is not divisible by 3 + i.", notDivGaussian.getMessage());
+        assertEquals(0, notDivGaussian.getStackTrace().length);
+        ImaginaryQuadraticInteger dividend = new ImaginaryQuadraticInteger(7, 2, new ImaginaryQuadraticRing(-5));
+        try {
+            ImaginaryQuadraticInteger division = dividend.divides(3);
+            fail(dividend.toASCIIString() + " divided by 3 should have caused NotDivisibleException, not given " + division.toASCIIString());
+        } catch (NotDivisibleException nde) {
+            assertEquals("7 + 2sqrt(-5) is not divisible by 3.", nde.getMessage());
+            assertEquals(0, nde.getStackTrace().length);
+        }
+        NotDivisibleException withMessage = new NotDivisibleException("Given message", 7, 2, 3, -5);
+        assertEquals("Given message", withMessage.getMessage());
+    }
+    
 }
@@ -18,6 +18,8 @@ package imaginaryquadraticinteger;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -325,6 +327,96 @@ public class NumberTheoreticFunctionsCalculatorTest {
         }
     }
 
+    /**
+     * Test of primeFactors method, of class NumberTheoreticFunctionsCalculator, 
+     * specifically primeFactors(long) and primeFactorsAsArray(long). Products 
+     * of two primes greater than 2^29 are too big for trial division to finish 
+     * in reasonable time, but they should be no trouble for Pollard's rho 
+     * method. Also, Long.MIN_VALUE should come back as -1 followed by 63 twos.
+     */
+    @Test
+    public void testPrimeFactorsLong() {
+        System.out.println("primeFactors(long)");
+        long[][] expFactors = {{1000000007L, 1000000009L}, {999999937L, 999999937L}, {4093L, 4093L, 4099L}, {3037000453L, 3037000493L}, {2L, 3L, 5L, 7L, 11L, 13L, 17L, 19L, 23L, 29L, 31L, 37L, 41L, 43L, 47L}};
+        long num;
+        List<Long> expResult, result;
+        for (long[] expFactorArray : expFactors) {
+            num = 1;
+            expResult = new ArrayList<>();
+            for (long factor : expFactorArray) {
+                num *= factor;
+                expResult.add(factor);
+            }
+            result = NumberTheoreticFunctionsCalculator.primeFactors(num);
+            assertEquals(expResult, result);
+            assertArrayEquals(expFactorArray, NumberTheoreticFunctionsCalculator.primeFactorsAsArray(num));
+            expResult.add(0, -1L);
+            result = NumberTheoreticFunctionsCalculator.primeFactors(-num);
+            assertEquals(expResult, result);
+        }
+        result = NumberTheoreticFunctionsCalculator.primeFactors(Long.MIN_VALUE);
+        assertEquals(64, result.size());
+        assertEquals(Long.valueOf(-1L), result.get(0));
+        assertEquals(Long.valueOf(2L), result.get(63));
+        int[] expIntFactors = {-1, 2, 2, 3, 3, 5, 5, 7, 7};
+        assertArrayEquals(expIntFactors, NumberTheoreticFunctionsCalculator.primeFactorsAsArray(-44100));
+        int[] expMaxIntFactors = {Integer.MAX_VALUE};
+        assertArrayEquals(expMaxIntFactors, NumberTheoreticFunctionsCalculator.primeFactorsAsArray(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Test of primeFactors method, of class NumberTheoreticFunctionsCalculator, 
+     * specifically primeFactors(ImaginaryQuadraticInteger) for numbers with 
+     * norms in the trillions, which would take far too long to factor by 
+     * searching for divisors. In each of the rings of the Heegner numbers, the 
+     * factors should multiply back to the original number, the factors other 
+     * than the leading unit should be in order by norm, and each should have 
+     * either a prime norm or the square of a prime inert in the ring as its 
+     * norm.
+     */
+    @Test
+    public void testPrimeFactorsLargeNorm() {
+        System.out.println("primeFactors(ImaginaryQuadraticInteger) for large norms");
+        ImaginaryQuadraticRing r;
+        ImaginaryQuadraticInteger z, product;
+        List<ImaginaryQuadraticInteger> factorsList = new ArrayList<>();
+        long factorNorm, prevNorm, p;
+        String assertionMessage;
+        int[][] parts = {{999983, 1}, {-1000000, 99991}, {65536, -65536}, {123457, -7}};
+        for (Integer d : NumberTheoreticFunctionsCalculator.HEEGNER_NUMBERS) {
+            r = new ImaginaryQuadraticRing(d);
+            for (int[] ab : parts) {
+                z = new ImaginaryQuadraticInteger(ab[0], ab[1] / (int) Math.ceil(r.getAbsNegRadSqrt()), r);
+                try {
+                    factorsList = NumberTheoreticFunctionsCalculator.primeFactors(z);
+                } catch (NonUniqueFactorizationDomainException nufde) {
+                    fail("NonUniqueFactorizationDomainException should not have happened in this context: " + nufde.getMessage());
+                }
+                product = new ImaginaryQuadraticInteger(1, 0, r);
+                prevNorm = 1;
+                for (ImaginaryQuadraticInteger factor : factorsList) {
+                    product = product.times(factor);
+                    factorNorm = factor.norm();
+                    if (factorNorm > 1) {
+                        assertionMessage = "Factors of " + z.toASCIIString() + " should be in order by norm, but " + factor.toASCIIString() + " came after one of norm " + prevNorm;
+                        assertTrue(assertionMessage, factorNorm >= prevNorm);
+                        prevNorm = factorNorm;
+                        if (factor.getImagPartMult() == 0) {
+                            p = factor.getRealPartMult();
+                            assertionMessage = factor.toASCIIString() + " in factorization of " + z.toASCIIString() + " should be a rational prime inert in " + r.toASCIIString();
+                            assertTrue(assertionMessage, NumberTheoreticFunctionsCalculator.isPrime(p) && r.splittingType((int) p) == ImaginaryQuadraticRing.PRIME_INERT);
+                        } else {
+                            assertionMessage = factor.toASCIIString() + " in factorization of " + z.toASCIIString() + " should have prime norm";
+                            assertTrue(assertionMessage, NumberTheoreticFunctionsCalculator.isPrime(factorNorm));
+                        }
+                    }
+                }
+                assertionMessage = "Product of factors of " + z.toASCIIString() + " should match";
+                assertEquals(assertionMessage, z, product);
+            }
+        }
+    }
+    
     /**
      * Test of isPrime method, of class NumberTheoreticFunctionsCalculator. The 
      * numbers listed in Sloane's A000040, as well as those same numbers 
@@ -501,6 +593,84 @@ public class NumberTheoreticFunctionsCalculatorTest {
         }
     }
     
+    /**
+     * Test of setPrimeTableBound method, of class 
+     * NumberTheoreticFunctionsCalculator. With the shared table of primes 
+     * bounded at just a few hundred, isPrime(int) and isPrime(long) should 
+     * still give the same results as before for numbers well beyond the table. 
+     * The bound is set back to the default afterwards.
+     */
+    @Test
+    public void testSetPrimeTableBound() {
+        System.out.println("setPrimeTableBound");
+        NumberTheoreticFunctionsCalculator.setPrimeTableBound(256);
+        try {
+            assertEquals(256, NumberTheoreticFunctionsCalculator.getPrimeTableBound());
+            for (int i = 0; i < primesListLength; i++) {
+                assertTrue(NumberTheoreticFunctionsCalculator.isPrime(primesList.get(i)));
+                assertTrue(NumberTheoreticFunctionsCalculator.isPrime((long) -primesList.get(i)));
+            }
+            for (Integer compositeNum : compositesList) {
+                assertFalse(NumberTheoreticFunctionsCalculator.isPrime(compositeNum));
+                assertFalse(NumberTheoreticFunctionsCalculator.isPrime((long) -compositeNum));
+            }
+            String assertionMessage = "2^31 - 1 should be found to be prime even with a small table.";
+            assertTrue(assertionMessage, NumberTheoreticFunctionsCalculator.isPrime(Integer.MAX_VALUE));
+            assertionMessage = "65537^2 should not be found to be prime even with a small table.";
+            assertFalse(assertionMessage, NumberTheoreticFunctionsCalculator.isPrime(65537L * 65537L));
+        } finally {
+            NumberTheoreticFunctionsCalculator.setPrimeTableBound(NumberTheoreticFunctionsCalculator.DEFAULT_PRIME_TABLE_BOUND);
+        }
+        try {
+            NumberTheoreticFunctionsCalculator.setPrimeTableBound(10);
+            fail("Setting the prime table bound to 10 should have caused IllegalArgumentException.");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Trying to set prime table bound to 10 correctly triggered IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of isPrimeMillerRabin method, of class 
+     * NumberTheoreticFunctionsCalculator. It should agree with isPrime(int) on 
+     * the primes and composites from setUpClass(), and it should not be fooled 
+     * by strong pseudoprimes to several prime bases, such as 3215031751, which 
+     * is a strong pseudoprime to the bases 2, 3, 5 and 7, or 
+     * 3825123056546413051, a strong pseudoprime to every prime base up to 23.
+     */
+    @Test
+    public void testIsPrimeMillerRabin() {
+        System.out.println("isPrimeMillerRabin");
+        for (int i = 0; i < primesListLength; i++) {
+            assertTrue(NumberTheoreticFunctionsCalculator.isPrimeMillerRabin(primesList.get(i)));
+            assertTrue(NumberTheoreticFunctionsCalculator.isPrimeMillerRabin(-primesList.get(i)));
+        }
+        assertFalse(NumberTheoreticFunctionsCalculator.isPrimeMillerRabin(0));
+        assertFalse(NumberTheoreticFunctionsCalculator.isPrimeMillerRabin(1));
+        assertFalse(NumberTheoreticFunctionsCalculator.isPrimeMillerRabin(-1));
+        for (Integer compositeNum : compositesList) {
+            assertFalse(NumberTheoreticFunctionsCalculator.isPrimeMillerRabin(compositeNum));
+            assertFalse(NumberTheoreticFunctionsCalculator.isPrimeMillerRabin(-compositeNum));
+        }
+        long[] strongPseudoprimes = {3215031751L, 2152302898747L, 3474749660383L, 341550071728321L, 3825123056546413051L};
+        String assertionMessage;
+        for (long pseudoprime : strongPseudoprimes) {
+            assertionMessage = pseudoprime + " should not be found to be prime.";
+            assertFalse(assertionMessage, NumberTheoreticFunctionsCalculator.isPrimeMillerRabin(pseudoprime));
+            assertFalse(assertionMessage, NumberTheoreticFunctionsCalculator.isPrime(pseudoprime));
+        }
+        long mersennePrime = (1L << 61) - 1;
+        assertionMessage = "2^61 - 1 should be found to be prime.";
+        assertTrue(assertionMessage, NumberTheoreticFunctionsCalculator.isPrime(mersennePrime));
+        long largestLongPrime = Long.MAX_VALUE - 24;
+        assertionMessage = "2^63 - 25 should be found to be prime.";
+        assertTrue(assertionMessage, NumberTheoreticFunctionsCalculator.isPrime(largestLongPrime));
+        assertTrue(assertionMessage, NumberTheoreticFunctionsCalculator.isPrime(-largestLongPrime));
+        assertionMessage = "2^63 - 1 should not be found to be prime.";
+        assertFalse(assertionMessage, NumberTheoreticFunctionsCalculator.isPrime(Long.MAX_VALUE));
+        assertionMessage = "-2^63 should not be found to be prime.";
+        assertFalse(assertionMessage, NumberTheoreticFunctionsCalculator.isPrime(Long.MIN_VALUE));
+    }
+
     /**
      * Test of isIrreducible method, of class 
      * NumberTheoreticFunctionsCalculator.
@@ -553,6 +723,17 @@ public class NumberTheoreticFunctionsCalculatorTest {
                 assertFalse(assertionMessage, NumberTheoreticFunctionsCalculator.isIrreducible(currQuadrInt));
             }
         }
+        /* In O_Q(sqrt(-23)), which has class number 3, 3/2 + sqrt(-23)/2 has 
+           norm 8. Although 2 has norm 4, which divides 8, 2 does not divide 
+           3/2 + sqrt(-23)/2, which is therefore irreducible. But twice that 
+           number is of course reducible. */
+        currRing = new ImaginaryQuadraticRing(-23);
+        currQuadrInt = new ImaginaryQuadraticInteger(3, 1, currRing, 2);
+        assertionMessage = currQuadrInt.toASCIIString() + " should have been found to be irreducible.";
+        assertTrue(assertionMessage, NumberTheoreticFunctionsCalculator.isIrreducible(currQuadrInt));
+        currQuadrInt = currQuadrInt.times(2);
+        assertionMessage = currQuadrInt.toASCIIString() + " should not have been found to be irreducible.";
+        assertFalse(assertionMessage, NumberTheoreticFunctionsCalculator.isIrreducible(currQuadrInt));
     }
     
     /**
@@ -775,6 +956,42 @@ public class NumberTheoreticFunctionsCalculatorTest {
         }
     }
     
+    /**
+     * Test of the 64-bit overloads of symbolLegendre, symbolJacobi and 
+     * symbolKronecker, of class NumberTheoreticFunctionsCalculator. Within the 
+     * range of int, these should agree with the 32-bit versions. Beyond that 
+     * range, a few values are checked against the supplementary laws: 2 is a 
+     * quadratic residue modulo the Mersenne prime 2^61 - 1, since that prime 
+     * is 7 mod 8, and -1 is not, since it is 3 mod 4.
+     */
+    @Test
+    public void testSymbolsLong() {
+        System.out.println("symbolLegendre, symbolJacobi, symbolKronecker (long)");
+        int p, q;
+        for (int i = 1; i < primesListLength; i++) {
+            p = primesList.get(i);
+            for (int n = -PRIME_LIST_THRESHOLD; n < PRIME_LIST_THRESHOLD; n += 7) {
+                assertEquals(NumberTheoreticFunctionsCalculator.symbolLegendre(n, p), NumberTheoreticFunctionsCalculator.symbolLegendre((long) n, (long) p));
+                q = primesList.get(i - 1);
+                assertEquals(NumberTheoreticFunctionsCalculator.symbolKronecker(n, p * q), NumberTheoreticFunctionsCalculator.symbolKronecker((long) n, (long) p * q));
+                assertEquals(NumberTheoreticFunctionsCalculator.symbolKronecker(n, -2 * p), NumberTheoreticFunctionsCalculator.symbolKronecker((long) n, -2L * p));
+            }
+        }
+        long mersennePrime = (1L << 61) - 1;
+        assertEquals(1, NumberTheoreticFunctionsCalculator.symbolLegendre(2L, mersennePrime));
+        assertEquals(-1, NumberTheoreticFunctionsCalculator.symbolLegendre(-1L, mersennePrime));
+        assertEquals(0, NumberTheoreticFunctionsCalculator.symbolLegendre(3 * mersennePrime, mersennePrime));
+        assertEquals(-1, NumberTheoreticFunctionsCalculator.symbolJacobi(-1L, Long.MAX_VALUE));
+        assertEquals(-1, NumberTheoreticFunctionsCalculator.symbolKronecker(3L, Long.MIN_VALUE));
+        assertEquals(0, NumberTheoreticFunctionsCalculator.symbolKronecker(Long.MIN_VALUE, Long.MIN_VALUE));
+        try {
+            byte attempt = NumberTheoreticFunctionsCalculator.symbolJacobi(7L, 1L << 40);
+            fail("Calling Jacobi(7, 2^40) should have triggered an exception, not given result " + attempt + ".");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Calling Jacobi(7, 2^40) correctly triggered IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+    }
+    
     /**
      * Test of isSquareFree method, of class NumberTheoreticFunctionsCalculator.
      */
@@ -831,6 +1048,66 @@ public class NumberTheoreticFunctionsCalculatorTest {
         }
     }
 
+    /**
+     * Test of smallestPrimeFactor method, of class 
+     * NumberTheoreticFunctionsCalculator. For each prime p from setUpClass(), 
+     * p itself, p^2 and p times a larger prime should all give p, whether 
+     * positive or negative. Numbers beyond the smallest prime factor sieve are 
+     * checked too, with the sieve bound temporarily set to 0.
+     */
+    @Test
+    public void testSmallestPrimeFactor() {
+        System.out.println("smallestPrimeFactor");
+        int p;
+        for (int i = 0; i < primesListLength - 1; i++) {
+            p = primesList.get(i);
+            assertEquals(p, NumberTheoreticFunctionsCalculator.smallestPrimeFactor(p));
+            assertEquals(p, NumberTheoreticFunctionsCalculator.smallestPrimeFactor(-p * p));
+            assertEquals(p, NumberTheoreticFunctionsCalculator.smallestPrimeFactor(p * primesList.get(i + 1)));
+        }
+        NumberTheoreticFunctionsCalculator.setSPFSieveBound(0);
+        try {
+            assertEquals(46337, NumberTheoreticFunctionsCalculator.smallestPrimeFactor(46337 * 46337));
+            assertEquals(Integer.MAX_VALUE, NumberTheoreticFunctionsCalculator.smallestPrimeFactor(Integer.MAX_VALUE));
+            assertEquals(2, NumberTheoreticFunctionsCalculator.smallestPrimeFactor(Integer.MIN_VALUE));
+            assertTrue(NumberTheoreticFunctionsCalculator.isSquareFree(-46337 * 46327));
+            assertEquals(1, NumberTheoreticFunctionsCalculator.moebiusMu(-46337 * 46327));
+        } finally {
+            NumberTheoreticFunctionsCalculator.setSPFSieveBound(NumberTheoreticFunctionsCalculator.DEFAULT_SPF_SIEVE_BOUND);
+        }
+        try {
+            int result = NumberTheoreticFunctionsCalculator.smallestPrimeFactor(1);
+            fail("smallestPrimeFactor(1) should have caused IllegalArgumentException, not given " + result + ".");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("smallestPrimeFactor(1) correctly triggered IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of moebiusRange method, of class NumberTheoreticFunctionsCalculator. 
+     * Each entry should match what moebiusMu gives for the corresponding 
+     * number, for a range straddling 0, a range of negative numbers, and a 
+     * range near Integer.MAX_VALUE.
+     */
+    @Test
+    public void testMoebiusRange() {
+        System.out.println("moebiusRange");
+        byte[] expResult = {-1, -1, 1, 0, 1, -1, -1};
+        byte[] result = NumberTheoreticFunctionsCalculator.moebiusRange(-3, 4);
+        assertArrayEquals(expResult, result);
+        int[][] ranges = {{-PRIME_LIST_THRESHOLD, PRIME_LIST_THRESHOLD}, {-100000, -90000}, {Integer.MAX_VALUE - 1000, Integer.MAX_VALUE}};
+        String assertionMessage;
+        for (int[] range : ranges) {
+            result = NumberTheoreticFunctionsCalculator.moebiusRange(range[0], range[1]);
+            assertEquals(range[1] - range[0], result.length);
+            for (int i = 0; i < result.length; i++) {
+                assertionMessage = "moebiusRange(" + range[0] + ", " + range[1] + ") should agree with moebiusMu(" + (range[0] + i) + ")";
+                assertEquals(assertionMessage, NumberTheoreticFunctionsCalculator.moebiusMu(range[0] + i), result[i]);
+            }
+        }
+        assertEquals(0, NumberTheoreticFunctionsCalculator.moebiusRange(5, 5).length);
+    }
+    
     /**
      * Test of euclideanGCD method, of class NumberTheoreticFunctionsCalculator.
      * At this time, I choose not to test the case gcd(0, 0). The value of such 
@@ -994,6 +1271,360 @@ public class NumberTheoreticFunctionsCalculatorTest {
         }
     }
     
+    /**
+     * Test of extendedEuclideanGCD method, of class 
+     * NumberTheoreticFunctionsCalculator. In each of the norm-Euclidean rings, 
+     * the GCD should match what euclideanGCD gives, the cofactors should 
+     * satisfy Bezout's identity, and the GCD should divide both numbers. The 
+     * batch version of euclideanGCD is also checked against the pairwise one.
+     */
+    @Test
+    public void testExtendedEuclideanGCD() {
+        System.out.println("extendedEuclideanGCD");
+        ImaginaryQuadraticRing r = NumberTheoreticFunctionsCalculator.RING_GAUSSIAN;
+        ImaginaryQuadraticInteger iqia = new ImaginaryQuadraticInteger(5, 0, r);
+        ImaginaryQuadraticInteger iqib = new ImaginaryQuadraticInteger(3, 1, r);
+        ImaginaryQuadraticInteger[] result;
+        ImaginaryQuadraticInteger[] listA = new ImaginaryQuadraticInteger[NumberTheoreticFunctionsCalculator.NORM_EUCLIDEAN_QUADRATIC_IMAGINARY_RINGS_D.length * 3];
+        ImaginaryQuadraticInteger[] listB = new ImaginaryQuadraticInteger[listA.length];
+        ImaginaryQuadraticInteger commonFactor;
+        String assertionMessage;
+        int index = 0;
+        try {
+            result = NumberTheoreticFunctionsCalculator.extendedEuclideanGCD(iqia, iqib);
+            assertEquals(new ImaginaryQuadraticInteger(1, 2, r), result[0]);
+            assertEquals(result[0], result[1].times(iqia).plus(result[2].times(iqib)));
+            for (int d : NumberTheoreticFunctionsCalculator.NORM_EUCLIDEAN_QUADRATIC_IMAGINARY_RINGS_D) {
+                r = new ImaginaryQuadraticRing(d);
+                if (r.hasHalfIntegers()) {
+                    commonFactor = new ImaginaryQuadraticInteger(3, 1, r, 2);
+                } else {
+                    commonFactor = new ImaginaryQuadraticInteger(2, 1, r);
+                }
+                for (int k = 1; k <= 3; k++) {
+                    iqia = new ImaginaryQuadraticInteger(17 * k, -5, r).times(commonFactor);
+                    iqib = new ImaginaryQuadraticInteger(-3, 11 * k, r).times(commonFactor);
+                    result = NumberTheoreticFunctionsCalculator.extendedEuclideanGCD(iqia, iqib);
+                    assertionMessage = "gcd(" + iqia.toASCIIString() + ", " + iqib.toASCIIString() + ") should match euclideanGCD";
+                    assertEquals(assertionMessage, NumberTheoreticFunctionsCalculator.euclideanGCD(iqia, iqib), result[0]);
+                    assertionMessage = "Cofactors " + result[1].toASCIIString() + " and " + result[2].toASCIIString() + " should give " + result[0].toASCIIString();
+                    assertEquals(assertionMessage, result[0], result[1].times(iqia).plus(result[2].times(iqib)));
+                    try {
+                        iqia.divides(result[0]);
+                        iqib.divides(result[0]);
+                        iqia.divides(commonFactor);
+                        result[0].divides(commonFactor);
+                    } catch (NotDivisibleException nde) {
+                        fail(result[0].toASCIIString() + " should be a common divisor of " + iqia.toASCIIString() + " and " + iqib.toASCIIString() + " divisible by " + commonFactor.toASCIIString());
+                    }
+                    listA[index] = iqia;
+                    listB[index] = iqib;
+                    index++;
+                }
+            }
+            result = NumberTheoreticFunctionsCalculator.euclideanGCD(listA, listB);
+            for (int i = 0; i < listA.length; i++) {
+                assertEquals(NumberTheoreticFunctionsCalculator.euclideanGCD(listA[i], listB[i]), result[i]);
+            }
+        } catch (NonEuclideanDomainException nede) {
+            fail("NonEuclideanDomainException should not have occurred: " + nede.getMessage());
+        }
+        r = new ImaginaryQuadraticRing(-5);
+        iqia = new ImaginaryQuadraticInteger(2, 0, r);
+        iqib = new ImaginaryQuadraticInteger(1, 1, r);
+        try {
+            result = NumberTheoreticFunctionsCalculator.extendedEuclideanGCD(iqia, iqib);
+            fail("Attempting to calculate gcd(" + iqia.toASCIIString() + ", " + iqib.toASCIIString() + ") should have triggered NonEuclideanDomainException, not given result " + result[0].toASCIIString());
+        } catch (NonEuclideanDomainException nede) {
+            System.out.println("Attempting to calculate gcd(" + iqia.toASCIIString() + ", " + iqib.toASCIIString() + ") correctly triggered NonEuclideanDomainException " + nede.getMessage());
+        }
+    }
+    
+    /**
+     * Test of euclideanGCD method, of class NumberTheoreticFunctionsCalculator, 
+     * specifically the batch version for arrays of long integers. Each result 
+     * should match what euclideanGCD(long, long) gives for the same pair, 
+     * including the special cases with 0, negative numbers and {@link 
+     * Long#MIN_VALUE}. Mismatched array lengths should cause an exception.
+     */
+    @Test
+    public void testEuclideanGCDBatch() {
+        System.out.println("euclideanGCD(long[], long[], long[])");
+        long[] a = {12, -15, 0, 0, 1L << 40, Long.MIN_VALUE, Long.MIN_VALUE, 1234567890123L, -7};
+        long[] b = {18, 10, 0, -9, 3L << 38, 6, 0, 9876543210987L, -7};
+        long[] expResult = {6, 5, 0, 9, 1L << 38, 2, Long.MIN_VALUE, 3, 7};
+        long[] result = new long[a.length];
+        NumberTheoreticFunctionsCalculator.euclideanGCD(a, b, result);
+        assertArrayEquals(expResult, result);
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(NumberTheoreticFunctionsCalculator.euclideanGCD(a[i], b[i]), result[i]);
+        }
+        NumberTheoreticFunctionsCalculator.euclideanGCD(a, b, a);
+        assertArrayEquals(expResult, a);
+        try {
+            NumberTheoreticFunctionsCalculator.euclideanGCD(b, new long[3], result);
+            fail("Mismatched array lengths should have caused IllegalArgumentException.");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Mismatched array lengths correctly triggered IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of primesInRange method, of class 
+     * NumberTheoreticFunctionsCalculator. The primes given are checked against 
+     * {@link NumberTheoreticFunctionsCalculator#isPrime(long)} in a few 
+     * windows, including one past 2<sup>32</sup> and one so far out that the 
+     * sieve has to confirm its survivors.
+     */
+    @Test
+    public void testPrimesInRange() {
+        System.out.println("primesInRange");
+        long[] expResult = {97, 101, 103, 107, 109};
+        long[] result = NumberTheoreticFunctionsCalculator.primesInRange(90, 110).toArray();
+        assertArrayEquals(expResult, result);
+        expResult = new long[primesListLength];
+        for (int i = 0; i < primesListLength; i++) {
+            expResult[i] = primesList.get(i);
+        }
+        result = NumberTheoreticFunctionsCalculator.primesInRange(-100, primesList.get(primesListLength - 1) + 1).toArray();
+        assertArrayEquals(expResult, result);
+        long[][] windows = {{0, 300000}, {4294967296L - 100000, 4294967296L + 100000}, {(1L << 62) - 3000, (1L << 62) + 3000}, {Long.MAX_VALUE - 1000, Long.MAX_VALUE}};
+        for (long[] window : windows) {
+            List<Long> expPrimes = new ArrayList<>();
+            for (long n = window[0]; n < window[1]; n++) {
+                if (NumberTheoreticFunctionsCalculator.isPrime(n)) {
+                    expPrimes.add(n);
+                }
+            }
+            result = NumberTheoreticFunctionsCalculator.primesInRange(window[0], window[1]).toArray();
+            assertEquals("Number of primes from " + window[0] + " to " + window[1], expPrimes.size(), result.length);
+            for (int j = 0; j < result.length; j++) {
+                assertEquals((long) expPrimes.get(j), result[j]);
+            }
+            long[] parallelResult = NumberTheoreticFunctionsCalculator.primesInRange(window[0], window[1]).parallel().toArray();
+            assertArrayEquals("Parallel stream should give the same primes in the same order", result, parallelResult);
+        }
+        assertEquals(78498, NumberTheoreticFunctionsCalculator.primesInRange(0, 1000000).parallel().count());
+        assertEquals(0, NumberTheoreticFunctionsCalculator.primesInRange(-20, 2).count());
+        assertEquals(0, NumberTheoreticFunctionsCalculator.primesInRange(24, 29).count());
+        try {
+            NumberTheoreticFunctionsCalculator.primesInRange(10, 5);
+            fail("Range from 10 to 5 should have caused IllegalArgumentException.");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Range from 10 to 5 correctly triggered IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of countPrimesUpToNorm method, of class 
+     * NumberTheoreticFunctionsCalculator. The counts are checked against going 
+     * through every number in the ring with norm up to the bound and counting 
+     * those for which {@link 
+     * NumberTheoreticFunctionsCalculator#isPrime(ImaginaryQuadraticInteger)} 
+     * holds, in some unique factorization domains and some rings that are not.
+     */
+    @Test
+    public void testCountPrimesUpToNorm() {
+        System.out.println("countPrimesUpToNorm");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-1);
+        assertEquals(16, NumberTheoreticFunctionsCalculator.countPrimesUpToNorm(ring, 10));
+        assertEquals(0, NumberTheoreticFunctionsCalculator.countPrimesUpToNorm(ring, 1));
+        int[] testDs = {-1, -2, -3, -5, -6, -7, -10, -15, -23, -163};
+        int normBound = 1500;
+        for (int d : testDs) {
+            ring = new ImaginaryQuadraticRing(d);
+            long expResult = 0;
+            int bound = (int) Math.sqrt(4 * normBound) + 1;
+            for (int a = -bound; a <= bound; a++) {
+                for (int b = -bound; b <= bound; b++) {
+                    ImaginaryQuadraticInteger num;
+                    if (ring.hasHalfIntegers()) {
+                        if ((a - b) % 2 != 0 || (a * a - d * b * b) / 4 > normBound) {
+                            continue;
+                        }
+                        num = new ImaginaryQuadraticInteger(a, b, ring, 2);
+                    } else {
+                        if (a * a - d * b * b > normBound) {
+                            continue;
+                        }
+                        num = new ImaginaryQuadraticInteger(a, b, ring);
+                    }
+                    if (NumberTheoreticFunctionsCalculator.isPrime(num)) {
+                        expResult++;
+                    }
+                }
+            }
+            long result = NumberTheoreticFunctionsCalculator.countPrimesUpToNorm(ring, normBound);
+            assertEquals("Number of primes in " + ring.toASCIIString() + " with norm up to " + normBound, expResult, result);
+        }
+    }
+    
+    /**
+     * Test of primeNormsUpTo method, of class 
+     * NumberTheoreticFunctionsCalculator.
+     */
+    @Test
+    public void testPrimeNormsUpTo() {
+        System.out.println("primeNormsUpTo");
+        long[] expResult = {2, 5, 9, 13, 17, 29, 37, 41, 49};
+        long[] result = NumberTheoreticFunctionsCalculator.primeNormsUpTo(new ImaginaryQuadraticRing(-1), 50).toArray();
+        assertArrayEquals(expResult, result);
+        // In Z[sqrt(-5)], 2, 3 and 7 are not norms, and 11 is the only inert prime up to 11
+        expResult = new long[]{5, 29, 41, 61, 89, 101, 109, 121};
+        result = NumberTheoreticFunctionsCalculator.primeNormsUpTo(new ImaginaryQuadraticRing(-5), 121).toArray();
+        assertArrayEquals(expResult, result);
+        assertEquals(0, NumberTheoreticFunctionsCalculator.primeNormsUpTo(new ImaginaryQuadraticRing(-5), 4).count());
+    }
+    
+    /**
+     * Test of sortListIQIByNorm method, of class 
+     * NumberTheoreticFunctionsCalculator.
+     */
+    @Test
+    public void testSortListIQIByNorm() {
+        System.out.println("sortListIQIByNorm");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-1);
+        ImaginaryQuadraticInteger numA = new ImaginaryQuadraticInteger(-1, 1, ring);
+        ImaginaryQuadraticInteger numB = new ImaginaryQuadraticInteger(4, 1, ring);
+        ImaginaryQuadraticInteger numC = new ImaginaryQuadraticInteger(0, -1, ring);
+        ImaginaryQuadraticInteger numD = new ImaginaryQuadraticInteger(1, -1, ring);
+        List<ImaginaryQuadraticInteger> unsorted = new ArrayList<>();
+        unsorted.add(numA);
+        unsorted.add(numB);
+        unsorted.add(numC);
+        unsorted.add(numD);
+        List<ImaginaryQuadraticInteger> expResult = new ArrayList<>();
+        expResult.add(numC);
+        expResult.add(numA);
+        expResult.add(numD);
+        expResult.add(numB);
+        List<ImaginaryQuadraticInteger> result = NumberTheoreticFunctionsCalculator.sortListIQIByNorm(unsorted);
+        assertEquals(expResult, result);
+        assertEquals("Original list should not have been modified", numA, unsorted.get(0));
+        // Many numbers of few different norms, to check that ties keep their original order
+        unsorted.clear();
+        for (int i = 0; i < 500; i++) {
+            unsorted.add(new ImaginaryQuadraticInteger((i * 7) % 5, i, ring));
+        }
+        result = NumberTheoreticFunctionsCalculator.sortListIQIByNorm(unsorted);
+        assertEquals(unsorted.size(), result.size());
+        for (int j = 1; j < result.size(); j++) {
+            ImaginaryQuadraticInteger prev = result.get(j - 1);
+            ImaginaryQuadraticInteger curr = result.get(j);
+            assertTrue(prev.toString() + " should not come after " + curr.toString(), prev.norm() <= curr.norm());
+            if (prev.norm() == curr.norm()) {
+                assertTrue(prev.toString() + " should have stayed ahead of " + curr.toString(), unsorted.indexOf(prev) < unsorted.indexOf(curr));
+            }
+        }
+        assertTrue(NumberTheoreticFunctionsCalculator.sortListIQIByNorm(new ArrayList<ImaginaryQuadraticInteger>()).isEmpty());
+    }
+    
+    /**
+     * Test of sortListIQIByNormInPlace method, of class 
+     * NumberTheoreticFunctionsCalculator.
+     */
+    @Test
+    public void testSortListIQIByNormInPlace() {
+        System.out.println("sortListIQIByNormInPlace");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-7);
+        List<ImaginaryQuadraticInteger> nums = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            nums.add(new ImaginaryQuadraticInteger(2 * ((i * 37) % 101) - 101, 2 * ((i * 13) % 29) - 29, ring, 2));
+        }
+        List<ImaginaryQuadraticInteger> expResult = NumberTheoreticFunctionsCalculator.sortListIQIByNorm(nums);
+        NumberTheoreticFunctionsCalculator.sortListIQIByNormInPlace(nums);
+        assertEquals(expResult, nums);
+        List<ImaginaryQuadraticInteger> fixedSize = Arrays.asList(new ImaginaryQuadraticInteger(3, 1, ring), new ImaginaryQuadraticInteger(1, 0, ring));
+        NumberTheoreticFunctionsCalculator.sortListIQIByNormInPlace(fixedSize);
+        assertEquals(new ImaginaryQuadraticInteger(1, 0, ring), fixedSize.get(0));
+        try {
+            NumberTheoreticFunctionsCalculator.sortListIQIByNormInPlace(Collections.unmodifiableList(expResult));
+            fail("Sorting an unmodifiable list in place should have caused UnsupportedOperationException.");
+        } catch (UnsupportedOperationException uoe) {
+            System.out.println("Unmodifiable list correctly triggered UnsupportedOperationException");
+        }
+    }
+    
+    /**
+     * Test of canonicalAssociate method, of class 
+     * NumberTheoreticFunctionsCalculator, and of the canonicalAssociate and 
+     * canonicalAssociateUnitIndex methods of ImaginaryQuadraticInteger. The 
+     * units are written out here rather than taken from the class under test: 
+     * 1, <i>i</i>, -1, -<i>i</i> in <b>Z</b>[<i>i</i>], the six sixth roots 
+     * of unity in <b>Z</b>[&omega;] and just 1 and -1 elsewhere. Multiplying 
+     * a number by each unit should give associates that all map to one 
+     * representative, that representative should be its own canonical 
+     * associate with unit index 0, and the unit index of each associate 
+     * should give back that associate from the representative. Since a 
+     * nonzero number is not fixed by any unit other than 1, the unit indices 
+     * of the associates should all be different.
+     */
+    @Test
+    public void testCanonicalAssociate() {
+        System.out.println("canonicalAssociate");
+        ImaginaryQuadraticRing ringZi = new ImaginaryQuadraticRing(-1);
+        ImaginaryQuadraticRing ringZw = new ImaginaryQuadraticRing(-3);
+        ImaginaryQuadraticRing ringZ2 = new ImaginaryQuadraticRing(-2);
+        ImaginaryQuadraticRing ringO7 = new ImaginaryQuadraticRing(-7);
+        ImaginaryQuadraticRing ringZ5 = new ImaginaryQuadraticRing(-5);
+        ImaginaryQuadraticInteger[] gaussianUnits = {new ImaginaryQuadraticInteger(1, 0, ringZi), 
+            new ImaginaryQuadraticInteger(0, 1, ringZi), 
+            new ImaginaryQuadraticInteger(-1, 0, ringZi), 
+            new ImaginaryQuadraticInteger(0, -1, ringZi)};
+        ImaginaryQuadraticInteger[] eisensteinUnits = {new ImaginaryQuadraticInteger(1, 0, ringZw), 
+            new ImaginaryQuadraticInteger(1, 1, ringZw, 2), 
+            new ImaginaryQuadraticInteger(-1, 1, ringZw, 2), 
+            new ImaginaryQuadraticInteger(-1, 0, ringZw), 
+            new ImaginaryQuadraticInteger(-1, -1, ringZw, 2), 
+            new ImaginaryQuadraticInteger(1, -1, ringZw, 2)};
+        ImaginaryQuadraticInteger[][] numsByRing = {{new ImaginaryQuadraticInteger(3, 4, ringZi), new ImaginaryQuadraticInteger(-2, 1, ringZi), new ImaginaryQuadraticInteger(7, 0, ringZi), new ImaginaryQuadraticInteger(0, 5, ringZi), new ImaginaryQuadraticInteger(2, -2, ringZi), new ImaginaryQuadraticInteger(0, 1, ringZi)}, 
+            {new ImaginaryQuadraticInteger(2, 1, ringZw), new ImaginaryQuadraticInteger(5, 3, ringZw, 2), new ImaginaryQuadraticInteger(3, 0, ringZw), new ImaginaryQuadraticInteger(0, 1, ringZw), new ImaginaryQuadraticInteger(-7, 1, ringZw, 2), new ImaginaryQuadraticInteger(1, 1, ringZw, 2)}, 
+            {new ImaginaryQuadraticInteger(-3, 2, ringZ2), new ImaginaryQuadraticInteger(0, -1, ringZ2), new ImaginaryQuadraticInteger(-5, 0, ringZ2)}, 
+            {new ImaginaryQuadraticInteger(-1, 3, ringO7, 2), new ImaginaryQuadraticInteger(4, -1, ringO7)}, 
+            {new ImaginaryQuadraticInteger(1, -1, ringZ5), new ImaginaryQuadraticInteger(-2, 0, ringZ5)}};
+        long[] canonical = new long[2];
+        for (ImaginaryQuadraticInteger[] nums : numsByRing) {
+            ImaginaryQuadraticRing ring = nums[0].getRing();
+            ImaginaryQuadraticInteger[] units;
+            switch (ring.getNegRad()) {
+                case -1:
+                    units = gaussianUnits;
+                    break;
+                case -3:
+                    units = eisensteinUnits;
+                    break;
+                default:
+                    ImaginaryQuadraticInteger[] plusMinusOne = {new ImaginaryQuadraticInteger(1, 0, ring), new ImaginaryQuadraticInteger(-1, 0, ring)};
+                    units = plusMinusOne;
+            }
+            for (ImaginaryQuadraticInteger num : nums) {
+                ImaginaryQuadraticInteger representative = num.canonicalAssociate();
+                assertEquals("Canonical associate of " + representative.toASCIIString(), representative, representative.canonicalAssociate());
+                assertEquals("Unit index of " + representative.toASCIIString(), 0, representative.canonicalAssociateUnitIndex());
+                boolean[] indexSeen = new boolean[units.length];
+                for (ImaginaryQuadraticInteger unit : units) {
+                    ImaginaryQuadraticInteger associate = num.times(unit);
+                    String msg = "Associate " + associate.toASCIIString() + " of " + num.toASCIIString();
+                    assertEquals(msg, representative, associate.canonicalAssociate());
+                    int index = associate.canonicalAssociateUnitIndex();
+                    assertTrue(msg + " has unit index " + index + " out of range", index >= 0 && index < units.length);
+                    assertFalse(msg + " has the same unit index " + index + " as another associate", indexSeen[index]);
+                    indexSeen[index] = true;
+                    assertEquals(msg, associate, NumberTheoreticFunctionsCalculator.unitFromIndex(index, ring).times(representative));
+                    assertEquals(msg, index, NumberTheoreticFunctionsCalculator.canonicalAssociate(associate.getTwiceRealPartMult(), associate.getTwiceImagPartMult(), ring.getNegRad(), canonical));
+                    assertEquals(msg, representative.getTwiceRealPartMult(), canonical[0]);
+                    assertEquals(msg, representative.getTwiceImagPartMult(), canonical[1]);
+                }
+            }
+        }
+        ImaginaryQuadraticInteger num = new ImaginaryQuadraticInteger(-2, 1, NumberTheoreticFunctionsCalculator.RING_GAUSSIAN);
+        assertEquals(new ImaginaryQuadraticInteger(1, 2, NumberTheoreticFunctionsCalculator.RING_GAUSSIAN), num.canonicalAssociate());
+        assertEquals(1, num.canonicalAssociateUnitIndex());
+        num = new ImaginaryQuadraticInteger(-1, 1, NumberTheoreticFunctionsCalculator.RING_EISENSTEIN, 2);
+        assertEquals(new ImaginaryQuadraticInteger(1, 0, NumberTheoreticFunctionsCalculator.RING_EISENSTEIN), num.canonicalAssociate());
+        assertEquals(2, num.canonicalAssociateUnitIndex());
+    }
+    
     /**
      * Test of randomNegativeSquarefreeNumber method, of class 
      * NumberTheoreticFunctionsCalculator.
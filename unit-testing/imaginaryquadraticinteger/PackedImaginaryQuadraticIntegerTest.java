@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the PackedImaginaryQuadraticInteger class.
+ * @author Alonso del Arte
+ */
+public class PackedImaginaryQuadraticIntegerTest {
+    
+    private static final int MIN_IM = PackedImaginaryQuadraticInteger.MIN_IMAG_PART_MULT;
+    
+    private static final int MAX_IM = PackedImaginaryQuadraticInteger.MAX_IMAG_PART_MULT;
+    
+    /**
+     * Test of pack, valueOf and toImaginaryQuadraticInteger methods, of class 
+     * PackedImaginaryQuadraticInteger. The parts should land in the right 
+     * bits, and packing and unpacking should give back the same number, 
+     * including at the extremes of the ranges.
+     */
+    @Test
+    public void testPack() {
+        System.out.println("pack");
+        ImaginaryQuadraticRing ring = new ImaginaryQuadraticRing(-3);
+        assertEquals(0x000000050000000FL, PackedImaginaryQuadraticInteger.pack(5, 7, 2));
+        assertEquals(0x8000000000000000L, PackedImaginaryQuadraticInteger.pack(Integer.MIN_VALUE, 0, 1));
+        assertEquals(0x7FFFFFFF00000000L, PackedImaginaryQuadraticInteger.pack(Integer.MAX_VALUE, 0, 1));
+        assertEquals(0x0000000080000000L, PackedImaginaryQuadraticInteger.pack(0, MIN_IM, 1));
+        assertEquals(0x000000007FFFFFFEL, PackedImaginaryQuadraticInteger.pack(0, MAX_IM, 1));
+        assertEquals(0x7FFFFFFF7FFFFFFFL, PackedImaginaryQuadraticInteger.pack(Integer.MAX_VALUE, MAX_IM, 2));
+        assertEquals(0xFFFFFFFF80000003L, PackedImaginaryQuadraticInteger.pack(-1, MIN_IM + 1, 2));
+        assertEquals(-1L, PackedImaginaryQuadraticInteger.pack(-1, -1, 2));
+        assertEquals(PackedImaginaryQuadraticInteger.ZERO, PackedImaginaryQuadraticInteger.valueOf(new ImaginaryQuadraticInteger(0, 0, ring)));
+        assertEquals(PackedImaginaryQuadraticInteger.ONE, PackedImaginaryQuadraticInteger.valueOf(new ImaginaryQuadraticInteger(1, 0, ring)));
+        int[] reParts = {Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -1, 0, 1, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+        int[] imParts = {MIN_IM, MIN_IM + 1, -1, 0, 1, MAX_IM - 1, MAX_IM};
+        for (int a : reParts) {
+            for (int b : imParts) {
+                ImaginaryQuadraticInteger num = new ImaginaryQuadraticInteger(a, b, ring);
+                long packed = PackedImaginaryQuadraticInteger.valueOf(num);
+                assertEquals(a, PackedImaginaryQuadraticInteger.getRealPartMult(packed));
+                assertEquals(b, PackedImaginaryQuadraticInteger.getImagPartMult(packed));
+                assertEquals(1, PackedImaginaryQuadraticInteger.getDenominator(packed));
+                assertEquals(num, PackedImaginaryQuadraticInteger.toImaginaryQuadraticInteger(packed, ring));
+                assertEquals(num.getTwiceRealPartMult(), PackedImaginaryQuadraticInteger.getTwiceRealPartMult(packed));
+                assertEquals(num.getTwiceImagPartMult(), PackedImaginaryQuadraticInteger.getTwiceImagPartMult(packed));
+                if ((a & b & 1) == 1) {
+                    num = new ImaginaryQuadraticInteger(a, b, ring, 2);
+                    packed = PackedImaginaryQuadraticInteger.valueOf(num);
+                    assertEquals(a, PackedImaginaryQuadraticInteger.getRealPartMult(packed));
+                    assertEquals(b, PackedImaginaryQuadraticInteger.getImagPartMult(packed));
+                    assertEquals(2, PackedImaginaryQuadraticInteger.getDenominator(packed));
+                    assertEquals(num, PackedImaginaryQuadraticInteger.toImaginaryQuadraticInteger(packed, ring));
+                }
+            }
+        }
+        try {
+            long packed = PackedImaginaryQuadraticInteger.pack(3, 2, 2);
+            fail("Packing 3/2 + 2sqrt(d)/2 should have caused an exception, not given " + packed);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Packing 3/2 + 2sqrt(d)/2 correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+        try {
+            long packed = PackedImaginaryQuadraticInteger.pack(3, 1, 3);
+            fail("Packing with denominator 3 should have caused an exception, not given " + packed);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Packing with denominator 3 correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of pack and valueOf methods, of class 
+     * PackedImaginaryQuadraticInteger. Imaginary parts that don't fit in 31 
+     * bits should be rejected rather than spill into the real part or the 
+     * half flag.
+     */
+    @Test
+    public void testPackRejectsOutOfRangeImagPart() {
+        System.out.println("pack (imaginary part out of range)");
+        int[] imParts = {MAX_IM + 1, MAX_IM + 2, MIN_IM - 1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int b : imParts) {
+            int denom = ((b & 1) == 1) ? 2 : 1;
+            try {
+                long packed = PackedImaginaryQuadraticInteger.pack(1, b, denom);
+                fail("Packing imaginary part " + b + " should have caused an exception, not given " + packed);
+            } catch (ArithmeticException ae) {
+                System.out.println("Packing imaginary part " + b + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+            }
+        }
+        ImaginaryQuadraticInteger num = new ImaginaryQuadraticInteger(0, MAX_IM + 1, new ImaginaryQuadraticRing(-1));
+        try {
+            long packed = PackedImaginaryQuadraticInteger.valueOf(num);
+            fail("Packing " + num.toASCIIString() + " should have caused an exception, not given " + packed);
+        } catch (ArithmeticException ae) {
+            System.out.println("Packing " + num.toASCIIString() + " correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of plus, times, conjugate, trace and norm methods, of class 
+     * PackedImaginaryQuadraticInteger. Results that reach the extremes of the 
+     * real and imaginary ranges should come out exact.
+     */
+    @Test
+    public void testArithmeticAtLimits() {
+        System.out.println("plus, times, conjugate, trace, norm (limits)");
+        long minRe = PackedImaginaryQuadraticInteger.pack(Integer.MIN_VALUE, 0, 1);
+        long maxRe = PackedImaginaryQuadraticInteger.pack(Integer.MAX_VALUE, 0, 1);
+        long minIm = PackedImaginaryQuadraticInteger.pack(0, MIN_IM, 1);
+        long maxIm = PackedImaginaryQuadraticInteger.pack(0, MAX_IM, 1);
+        long corner = PackedImaginaryQuadraticInteger.pack(Integer.MIN_VALUE, MIN_IM, 1);
+        assertEquals(PackedImaginaryQuadraticInteger.pack(-1, 0, 1), PackedImaginaryQuadraticInteger.plus(minRe, maxRe));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(-1, 0, 1), PackedImaginaryQuadraticInteger.plus(minRe, Integer.MAX_VALUE));
+        assertEquals(maxRe, PackedImaginaryQuadraticInteger.plus(PackedImaginaryQuadraticInteger.pack(Integer.MAX_VALUE - 1, 0, 1), 1));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(0, -1, 1), PackedImaginaryQuadraticInteger.plus(minIm, maxIm));
+        assertEquals(corner, PackedImaginaryQuadraticInteger.plus(minRe, minIm));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(Integer.MIN_VALUE + 1, 0, 1), PackedImaginaryQuadraticInteger.times(maxRe, -1));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(0, MIN_IM + 1, 1), PackedImaginaryQuadraticInteger.times(maxIm, -1));
+        assertEquals(corner, PackedImaginaryQuadraticInteger.times(corner, PackedImaginaryQuadraticInteger.ONE, -1));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(Integer.MAX_VALUE, MAX_IM, 1), PackedImaginaryQuadraticInteger.times(PackedImaginaryQuadraticInteger.pack(Integer.MAX_VALUE, MAX_IM, 1), 1));
+        // (2^15 sqrt(-2))^2 = -2^31 and 2^15 * (-2^15 sqrt(d)) = -2^30 sqrt(d)
+        long a = PackedImaginaryQuadraticInteger.pack(1 << 15, 0, 1);
+        long b = PackedImaginaryQuadraticInteger.pack(0, 1 << 15, 1);
+        long c = PackedImaginaryQuadraticInteger.pack(0, -(1 << 15), 1);
+        assertEquals(minRe, PackedImaginaryQuadraticInteger.times(b, b, -2));
+        assertEquals(minIm, PackedImaginaryQuadraticInteger.times(a, c, -2));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(0, MAX_IM, 1), PackedImaginaryQuadraticInteger.conjugate(PackedImaginaryQuadraticInteger.pack(0, -MAX_IM, 1)));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(Integer.MIN_VALUE, MAX_IM, 1), PackedImaginaryQuadraticInteger.conjugate(PackedImaginaryQuadraticInteger.pack(Integer.MIN_VALUE, -MAX_IM, 1)));
+        assertEquals(-4294967296L, PackedImaginaryQuadraticInteger.trace(minRe));
+        assertEquals(4294967294L, PackedImaginaryQuadraticInteger.trace(maxRe));
+        assertEquals(1L << 62, PackedImaginaryQuadraticInteger.norm(minRe, -1));
+        assertEquals(1L << 60, PackedImaginaryQuadraticInteger.norm(minIm, -1));
+        assertEquals(0x5000000000000000L, PackedImaginaryQuadraticInteger.norm(corner, -1));
+    }
+    
+    /**
+     * Test of plus, times, conjugate and norm methods, of class 
+     * PackedImaginaryQuadraticInteger. Results that don't fit should cause 
+     * ArithmeticException, not wrap around into the neighboring field.
+     */
+    @Test
+    public void testArithmeticOverflow() {
+        System.out.println("plus, times, conjugate, norm (overflow)");
+        long minRe = PackedImaginaryQuadraticInteger.pack(Integer.MIN_VALUE, 0, 1);
+        long maxRe = PackedImaginaryQuadraticInteger.pack(Integer.MAX_VALUE, 0, 1);
+        long minIm = PackedImaginaryQuadraticInteger.pack(0, MIN_IM, 1);
+        long maxIm = PackedImaginaryQuadraticInteger.pack(0, MAX_IM, 1);
+        long i = PackedImaginaryQuadraticInteger.pack(0, 1, 1);
+        long a = PackedImaginaryQuadraticInteger.pack(1 << 15, 0, 1);
+        long b = PackedImaginaryQuadraticInteger.pack(0, 1 << 15, 1);
+        try {
+            long result = PackedImaginaryQuadraticInteger.plus(maxRe, PackedImaginaryQuadraticInteger.ONE);
+            fail("MAX_VALUE + 1 should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("MAX_VALUE + 1 correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            long result = PackedImaginaryQuadraticInteger.plus(minRe, minRe);
+            fail("MIN_VALUE + MIN_VALUE should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("MIN_VALUE + MIN_VALUE correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            long result = PackedImaginaryQuadraticInteger.plus(maxIm, i);
+            fail("MAX_IMAG_PART_MULT + 1 should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("MAX_IMAG_PART_MULT + 1 correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            long result = PackedImaginaryQuadraticInteger.conjugate(minIm);
+            fail("Conjugating MIN_IMAG_PART_MULT should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("Conjugating MIN_IMAG_PART_MULT correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            long result = PackedImaginaryQuadraticInteger.times(minRe, -1);
+            fail("MIN_VALUE * -1 should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("MIN_VALUE * -1 correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            long result = PackedImaginaryQuadraticInteger.times(maxIm, 2);
+            fail("MAX_IMAG_PART_MULT * 2 should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("MAX_IMAG_PART_MULT * 2 correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            long result = PackedImaginaryQuadraticInteger.times(a, b, -1);
+            fail("2^15 * 2^15 sqrt(-1) should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("2^15 * 2^15 sqrt(-1) correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            long result = PackedImaginaryQuadraticInteger.times(b, b, -3);
+            fail("(2^15 sqrt(-3))^2 should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("(2^15 sqrt(-3))^2 correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            long result = PackedImaginaryQuadraticInteger.times(minRe, minRe, -1);
+            fail("MIN_VALUE^2 should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("MIN_VALUE^2 correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            long result = PackedImaginaryQuadraticInteger.norm(PackedImaginaryQuadraticInteger.plus(minRe, minIm), -7);
+            fail("N(MIN_VALUE + MIN_IMAG_PART_MULT sqrt(-7)) should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("N(MIN_VALUE + MIN_IMAG_PART_MULT sqrt(-7)) correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+        try {
+            long result = PackedImaginaryQuadraticInteger.norm(maxIm, -163);
+            fail("N(MAX_IMAG_PART_MULT sqrt(-163)) should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("N(MAX_IMAG_PART_MULT sqrt(-163)) correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of times, conjugate and norm methods, of class 
+     * PackedImaginaryQuadraticInteger. The half flag in bit 0 should be set 
+     * exactly when the result has denominator 2.
+     */
+    @Test
+    public void testHalfFlag() {
+        System.out.println("times, conjugate, norm (half flag)");
+        long omega = PackedImaginaryQuadraticInteger.pack(1, 1, 2);
+        long omegaSquared = PackedImaginaryQuadraticInteger.times(omega, omega, -3);
+        assertEquals(1L, omegaSquared & 1);
+        assertEquals(PackedImaginaryQuadraticInteger.pack(-1, 1, 2), omegaSquared);
+        long omegaConj = PackedImaginaryQuadraticInteger.conjugate(omega);
+        assertEquals(1L, omegaConj & 1);
+        assertEquals(PackedImaginaryQuadraticInteger.pack(1, -1, 2), omegaConj);
+        assertEquals(PackedImaginaryQuadraticInteger.ONE, PackedImaginaryQuadraticInteger.times(omega, omegaConj, -3));
+        assertEquals(1L, PackedImaginaryQuadraticInteger.norm(omega, -3));
+        assertEquals(1L, PackedImaginaryQuadraticInteger.norm(omegaSquared, -3));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(3, 3, 2), PackedImaginaryQuadraticInteger.times(omega, 3));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(1, 1, 1), PackedImaginaryQuadraticInteger.times(omega, 2));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(1, 1, 1), PackedImaginaryQuadraticInteger.plus(omega, omega));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(3, 1, 2), PackedImaginaryQuadraticInteger.plus(omega, 1));
+        long theta = PackedImaginaryQuadraticInteger.pack(1, 1, 2);
+        long thetaSquared = PackedImaginaryQuadraticInteger.times(theta, theta, -7);
+        assertEquals(PackedImaginaryQuadraticInteger.pack(-3, 1, 2), thetaSquared);
+        assertEquals(2L, PackedImaginaryQuadraticInteger.norm(theta, -7));
+        assertEquals(4L, PackedImaginaryQuadraticInteger.norm(thetaSquared, -7));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(2, 0, 1), PackedImaginaryQuadraticInteger.times(theta, PackedImaginaryQuadraticInteger.conjugate(theta), -7));
+        long edge = PackedImaginaryQuadraticInteger.pack(Integer.MAX_VALUE, MAX_IM, 2);
+        assertEquals(edge, PackedImaginaryQuadraticInteger.times(edge, PackedImaginaryQuadraticInteger.ONE, -3));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(Integer.MAX_VALUE, -MAX_IM, 2), PackedImaginaryQuadraticInteger.conjugate(edge));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(Integer.MAX_VALUE, 0, 1), PackedImaginaryQuadraticInteger.plus(edge, PackedImaginaryQuadraticInteger.conjugate(edge)));
+        assertEquals(2017612630377627649L, PackedImaginaryQuadraticInteger.norm(edge, -3));
+        long negativeEdge = PackedImaginaryQuadraticInteger.pack(-1, MIN_IM + 1, 2);
+        assertEquals(2, PackedImaginaryQuadraticInteger.getDenominator(negativeEdge));
+        assertEquals(MIN_IM + 1, PackedImaginaryQuadraticInteger.getImagPartMult(negativeEdge));
+        assertEquals(negativeEdge, PackedImaginaryQuadraticInteger.times(negativeEdge, PackedImaginaryQuadraticInteger.ONE, -3));
+        assertEquals(PackedImaginaryQuadraticInteger.pack(1, -MIN_IM - 1, 2), PackedImaginaryQuadraticInteger.times(negativeEdge, -1));
+    }
+    
+    /**
+     * Test of isDivisibleBy and divides methods, of class 
+     * PackedImaginaryQuadraticInteger.
+     */
+    @Test
+    public void testDivides() {
+        System.out.println("isDivisibleBy, divides");
+        long five = PackedImaginaryQuadraticInteger.pack(5, 0, 1);
+        long ten = PackedImaginaryQuadraticInteger.pack(10, 0, 1);
+        long twoPlusI = PackedImaginaryQuadraticInteger.pack(2, 1, 1);
+        long threePlusI = PackedImaginaryQuadraticInteger.pack(3, 1, 1);
+        long minRe = PackedImaginaryQuadraticInteger.pack(Integer.MIN_VALUE, 0, 1);
+        long i = PackedImaginaryQuadraticInteger.pack(0, 1, 1);
+        long omega = PackedImaginaryQuadraticInteger.pack(1, 1, 2);
+        try {
+            assertTrue(PackedImaginaryQuadraticInteger.isDivisibleBy(ten, threePlusI, -1));
+            assertEquals(PackedImaginaryQuadraticInteger.pack(3, -1, 1), PackedImaginaryQuadraticInteger.divides(ten, threePlusI, -1));
+            assertEquals(PackedImaginaryQuadraticInteger.pack(2, -1, 1), PackedImaginaryQuadraticInteger.divides(five, twoPlusI, -1));
+            assertEquals(PackedImaginaryQuadraticInteger.pack(-(1 << 30), 0, 1), PackedImaginaryQuadraticInteger.divides(minRe, PackedImaginaryQuadraticInteger.pack(2, 0, 1), -1));
+            assertEquals(PackedImaginaryQuadraticInteger.pack(1, -1, 2), PackedImaginaryQuadraticInteger.divides(PackedImaginaryQuadraticInteger.ONE, omega, -3));
+            assertEquals(PackedImaginaryQuadraticInteger.pack(-1, 1, 2), PackedImaginaryQuadraticInteger.divides(PackedImaginaryQuadraticInteger.pack(-1, 1, 2), PackedImaginaryQuadraticInteger.ONE, -3));
+        } catch (NotDivisibleException nde) {
+            fail("NotDivisibleException should not have occurred. " + nde.getMessage());
+        }
+        assertFalse(PackedImaginaryQuadraticInteger.isDivisibleBy(five, threePlusI, -1));
+        try {
+            long quotient = PackedImaginaryQuadraticInteger.divides(five, threePlusI, -1);
+            fail("Dividing 5 by 3 + i should have caused an exception, not given " + quotient);
+        } catch (NotDivisibleException nde) {
+            assertEquals(3, nde.getResReFractNumer());
+            assertEquals(-1, nde.getResImFractNumer());
+            assertEquals(2, nde.getResFractDenom());
+            System.out.println("Dividing 5 by 3 + i correctly caused NotDivisibleException \"" + nde.getMessage() + "\"");
+        }
+        assertTrue(PackedImaginaryQuadraticInteger.isDivisibleBy(minRe, i, -1));
+        try {
+            long quotient = PackedImaginaryQuadraticInteger.divides(minRe, i, -1);
+            fail("Dividing -2^31 by i should have caused an exception, not given " + quotient);
+        } catch (ArithmeticException ae) {
+            System.out.println("Dividing -2^31 by i correctly caused ArithmeticException \"" + ae.getMessage() + "\"");
+        } catch (NotDivisibleException nde) {
+            fail("Dividing -2^31 by i should have caused ArithmeticException, not NotDivisibleException \"" + nde.getMessage() + "\"");
+        }
+        try {
+            boolean divisible = PackedImaginaryQuadraticInteger.isDivisibleBy(twoPlusI, PackedImaginaryQuadraticInteger.ZERO, -1);
+            fail("Dividing by 0 should have caused an exception, not given " + divisible);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Dividing by 0 correctly caused IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+    }
+    
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the RingWindowDisplay class. Only the drawing is tested, on an 
+ * off-screen image, so these tests don't need a display.
+ * @author Alonso del Arte
+ */
+public class RingWindowDisplayTest {
+    
+    /**
+     * Test of paintComponent method, of class RingWindowDisplay. When zoomed 
+     * in so far, or with 0 so far to the right, that no odd prime on the real 
+     * axis is in view, the diagram should still be drawn without any 
+     * exception.
+     */
+    @Test
+    public void testPaintComponentNoRealPrimesInView() {
+        System.out.println("paintComponent with no real primes in view");
+        BufferedImage image = new BufferedImage(RingWindowDisplay.RING_CANVAS_DEFAULT_HORIZ_MAX, RingWindowDisplay.RING_CANVAS_DEFAULT_VERTIC_MAX, BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.createGraphics();
+        RingWindowDisplay ringWindow;
+        for (int d : new int[]{-1, -2, -3, -5, -7}) {
+            ringWindow = new RingWindowDisplay(d);
+            ringWindow.setPixelsPerUnitInterval(RingWindowDisplay.MAXIMUM_PIXELS_PER_UNIT_INTERVAL);
+            try {
+                ringWindow.paintComponent(g);
+            } catch (RuntimeException re) {
+                fail("Painting at maximum zoom for d = " + d + " should not have caused " + re.getClass().getName() + " \"" + re.getMessage() + "\"");
+            }
+            ringWindow.setPixelsPerUnitInterval(RingWindowDisplay.DEFAULT_PIXELS_PER_UNIT_INTERVAL);
+            ringWindow.changeZeroCoords(RingWindowDisplay.RING_CANVAS_DEFAULT_HORIZ_MAX + 100, RingWindowDisplay.RING_CANVAS_DEFAULT_VERTIC_MAX / 2);
+            try {
+                ringWindow.paintComponent(g);
+            } catch (RuntimeException re) {
+                fail("Painting with 0 past the right edge for d = " + d + " should not have caused " + re.getClass().getName() + " \"" + re.getMessage() + "\"");
+            }
+        }
+        g.dispose();
+    }
+    
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2018 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under 
+ * the terms of the GNU General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your option) any later 
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with 
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package imaginaryquadraticinteger;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.SplittableRandom;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the SquarefreeEnumerator class. The sieved ranges are checked 
+ * against {@link NumberTheoreticFunctionsCalculator#isSquareFree(int)}.
+ * @author Alonso del Arte
+ */
+public class SquarefreeEnumeratorTest {
+    
+    private static final int TEST_RANGE_LO = -10000;
+    
+    private static SquarefreeEnumerator enumerator;
+    
+    @BeforeClass
+    public static void setUpClass() {
+        enumerator = new SquarefreeEnumerator(TEST_RANGE_LO, 0);
+    }
+    
+    /**
+     * Test of isSquarefree method, of class SquarefreeEnumerator.
+     */
+    @Test
+    public void testIsSquarefree() {
+        System.out.println("isSquarefree");
+        for (int d = TEST_RANGE_LO; d < 0; d++) {
+            assertEquals("Squarefreeness of " + d, NumberTheoreticFunctionsCalculator.isSquareFree(d), enumerator.isSquarefree(d));
+        }
+        SquarefreeEnumerator farOut = new SquarefreeEnumerator(Integer.MIN_VALUE, Integer.MIN_VALUE + 1000);
+        for (int d = Integer.MIN_VALUE + 1; d < Integer.MIN_VALUE + 1000; d++) {
+            assertEquals("Squarefreeness of " + d, NumberTheoreticFunctionsCalculator.isSquareFree(d), farOut.isSquarefree(d));
+        }
+        try {
+            enumerator.isSquarefree(0);
+            fail("0 is outside the range, should have caused IllegalArgumentException.");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("0 outside the range correctly triggered IllegalArgumentException \"" + iae.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of count method, of class SquarefreeEnumerator.
+     */
+    @Test
+    public void testCount() {
+        System.out.println("count");
+        assertEquals(61, new SquarefreeEnumerator(-100, 0).count());
+        assertEquals(6083, enumerator.count());
+        assertEquals(0, new SquarefreeEnumerator(-5, -5).count());
+    }
+    
+    /**
+     * Test of nextSquarefree and previousSquarefree methods, of class 
+     * SquarefreeEnumerator.
+     */
+    @Test
+    public void testNextAndPreviousSquarefree() {
+        System.out.println("nextSquarefree, previousSquarefree");
+        assertEquals(-97, enumerator.nextSquarefree(-100));
+        assertEquals(-95, enumerator.previousSquarefree(-94));
+        assertEquals(-9998, enumerator.nextSquarefree(Integer.MIN_VALUE));
+        assertEquals(-1, enumerator.previousSquarefree(Integer.MAX_VALUE));
+        for (int d = TEST_RANGE_LO + 1; d < -1; d++) {
+            int next = d + 1;
+            while (!NumberTheoreticFunctionsCalculator.isSquareFree(next)) {
+                next++;
+            }
+            assertEquals(next, enumerator.nextSquarefree(d));
+            int previous = d - 1;
+            while (previous > TEST_RANGE_LO && !NumberTheoreticFunctionsCalculator.isSquareFree(previous)) {
+                previous--;
+            }
+            if (NumberTheoreticFunctionsCalculator.isSquareFree(previous)) {
+                assertEquals(previous, enumerator.previousSquarefree(d));
+            }
+        }
+        try {
+            int d = enumerator.nextSquarefree(-1);
+            fail("Nothing after -1 in the range, should not have gotten " + d + ".");
+        } catch (NoSuchElementException nsee) {
+            System.out.println("Nothing after -1 correctly triggered NoSuchElementException \"" + nsee.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of iterator method, of class SquarefreeEnumerator. Also checks 
+     * {@link SquarefreeEnumerator#stream()} and {@link 
+     * SquarefreeEnumerator#toArray()} against it.
+     */
+    @Test
+    public void testIterator() {
+        System.out.println("iterator");
+        int[] expResult = {-10, -7, -6, -5, -3, -2, -1};
+        assertArrayEquals(expResult, new SquarefreeEnumerator(-10, 0).toArray());
+        assertArrayEquals(expResult, new SquarefreeEnumerator(-10, 0).stream().toArray());
+        int[] all = enumerator.toArray();
+        PrimitiveIterator.OfInt iterator = enumerator.iterator();
+        int index = 0;
+        while (iterator.hasNext()) {
+            assertEquals(all[index], iterator.nextInt());
+            index++;
+        }
+        assertEquals(enumerator.count(), index);
+        assertEquals(enumerator.count(), enumerator.stream().count());
+    }
+    
+    /**
+     * Test of randomSquarefree method, of class SquarefreeEnumerator. Over a 
+     * small range, every squarefree number should come up, and no other.
+     */
+    @Test
+    public void testRandomSquarefree() {
+        System.out.println("randomSquarefree");
+        SquarefreeEnumerator small = new SquarefreeEnumerator(-30, 0);
+        SplittableRandom random = new SplittableRandom(1058274363L);
+        int[] tally = new int[30];
+        for (int i = 0; i < 30000; i++) {
+            int d = small.randomSquarefree(random);
+            assertTrue(d + " should be squarefree", NumberTheoreticFunctionsCalculator.isSquareFree(d));
+            tally[d + 30]++;
+        }
+        for (int d = -30; d < 0; d++) {
+            if (small.isSquarefree(d)) {
+                assertTrue(d + " came up " + tally[d + 30] + " times, expected about 1578", tally[d + 30] > 1300 && tally[d + 30] < 1850);
+            }
+        }
+        try {
+            int d = new SquarefreeEnumerator(-4, -4).randomSquarefree(random);
+            fail("Empty range should not have given " + d + ".");
+        } catch (NoSuchElementException nsee) {
+            System.out.println("Empty range correctly triggered NoSuchElementException \"" + nsee.getMessage() + "\"");
+        }
+    }
+    
+    /**
+     * Test of nextNegativeSquarefree and previousNegativeSquarefree methods, 
+     * of class SquarefreeEnumerator.
+     */
+    @Test
+    public void testNextAndPreviousNegativeSquarefree() {
+        System.out.println("nextNegativeSquarefree, previousNegativeSquarefree");
+        assertEquals(-47, SquarefreeEnumerator.nextNegativeSquarefree(-50));
+        assertEquals(-47, SquarefreeEnumerator.previousNegativeSquarefree(-46));
+        assertEquals(-1, SquarefreeEnumerator.nextNegativeSquarefree(-2));
+        assertEquals(-1, SquarefreeEnumerator.previousNegativeSquarefree(0));
+        assertEquals(-1, SquarefreeEnumerator.previousNegativeSquarefree(12));
+        assertEquals(Integer.MIN_VALUE + 1, SquarefreeEnumerator.nextNegativeSquarefree(Integer.MIN_VALUE));
+        for (int d = TEST_RANGE_LO + 1; d < -1; d++) {
+            assertEquals(enumerator.nextSquarefree(d), SquarefreeEnumerator.nextNegativeSquarefree(d));
+            if (d > TEST_RANGE_LO + 20) {
+                assertEquals(enumerator.previousSquarefree(d), SquarefreeEnumerator.previousNegativeSquarefree(d));
+            }
+        }
+        try {
+            int d = SquarefreeEnumerator.nextNegativeSquarefree(-1);
+            fail("There is no negative squarefree number greater than -1, should not have gotten " + d + ".");
+        } catch (NoSuchElementException nsee) {
+            System.out.println("-1 correctly triggered NoSuchElementException \"" + nsee.getMessage() + "\"");
+        }
+    }
+    
+}